@@ -21,6 +21,7 @@ import org.eclipse.swt.graphics.Color;
 
 import com.archimatetool.canvas.model.ICanvasModelBlock;
 import com.archimatetool.editor.diagram.figures.AbstractContainerFigure;
+import com.archimatetool.editor.diagram.figures.CachedTextFlow;
 import com.archimatetool.editor.diagram.figures.ITextFigure;
 import com.archimatetool.editor.diagram.figures.IconicDelegate;
 import com.archimatetool.editor.diagram.figures.TextPositionDelegate;
@@ -64,7 +65,7 @@ public class CanvasBlockFigure extends AbstractContainerFigure implements ITextF
         };
         
         FlowPage flowPage = new FlowPage();
-        fTextFlow = new TextFlow();
+        fTextFlow = new CachedTextFlow();
         fTextFlow.setLayoutManager(new ParagraphTextLayout(fTextFlow, ParagraphTextLayout.WORD_WRAP_HARD));
         flowPage.add(fTextFlow);
         
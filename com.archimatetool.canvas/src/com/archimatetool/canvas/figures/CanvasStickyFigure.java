@@ -20,6 +20,7 @@ import org.eclipse.swt.graphics.Path;
 import com.archimatetool.canvas.model.ICanvasModelSticky;
 import com.archimatetool.editor.ArchiPlugin;
 import com.archimatetool.editor.diagram.figures.AbstractDiagramModelObjectFigure;
+import com.archimatetool.editor.diagram.figures.CachedTextFlow;
 import com.archimatetool.editor.diagram.figures.ITextFigure;
 import com.archimatetool.editor.diagram.figures.IconicDelegate;
 import com.archimatetool.editor.diagram.figures.TextPositionDelegate;
@@ -59,7 +60,7 @@ extends AbstractDiagramModelObjectFigure implements ITextFigure {
         setLayoutManager(new GridLayout());
         
         FlowPage flowPage = new FlowPage();
-        fTextFlow = new TextFlow();
+        fTextFlow = new CachedTextFlow();
         fTextFlow.setLayoutManager(new ParagraphTextLayout(fTextFlow, ParagraphTextLayout.WORD_WRAP_HARD));
         flowPage.add(fTextFlow);
         
@@ -31,7 +31,6 @@ import org.eclipse.gef.SnapToGeometry;
 import org.eclipse.gef.SnapToGrid;
 import org.eclipse.gef.commands.CommandStack;
 import org.eclipse.gef.dnd.TemplateTransferDragSourceListener;
-import org.eclipse.gef.editparts.ScalableFreeformRootEditPart;
 import org.eclipse.gef.editparts.ZoomManager;
 import org.eclipse.gef.internal.InternalGEFPlugin;
 import org.eclipse.gef.palette.PaletteListener;
@@ -126,6 +125,8 @@ import com.archimatetool.editor.diagram.actions.ToggleGridVisibleAction;
 import com.archimatetool.editor.diagram.actions.ToggleSnapToAlignmentGuidesAction;
 import com.archimatetool.editor.diagram.actions.ZoomNormalAction;
 import com.archimatetool.editor.diagram.dnd.PaletteTemplateTransferDropTargetListener;
+import com.archimatetool.editor.diagram.editparts.AbstractDiagramPart;
+import com.archimatetool.editor.diagram.editparts.ExtendedScalableFreeformRootEditPart;
 import com.archimatetool.editor.diagram.figures.ITextFigure;
 import com.archimatetool.editor.diagram.tools.FormatPainterInfo;
 import com.archimatetool.editor.diagram.tools.FormatPainterToolEntry;
@@ -316,7 +317,7 @@ implements IDiagramModelEditor, IContextProvider, ITabbedPropertySheetPageContri
      * Create the Root Edit Part
      */
     protected void createRootEditPart(GraphicalViewer viewer) {
-        viewer.setRootEditPart(new ScalableFreeformRootEditPart(false));
+        viewer.setRootEditPart(new ExtendedScalableFreeformRootEditPart(false));
     }
     
     @Override
@@ -870,6 +871,8 @@ implements IDiagramModelEditor, IContextProvider, ITabbedPropertySheetPageContri
         // Connection Router types
         action = new ConnectionRouterAction.BendPointConnectionRouterAction(this);
         registry.registerAction(action);
+        action = new ConnectionRouterAction.ShortestPathConnectionRouterAction(this);
+        registry.registerAction(action);
         action = new ConnectionRouterAction.ManhattanConnectionRouterAction(this);
         registry.registerAction(action);
         
@@ -973,6 +976,11 @@ implements IDiagramModelEditor, IContextProvider, ITabbedPropertySheetPageContri
             }
         }
         
+        // Make sure that the objects have Edit Parts if the View creates them as they are scrolled into view
+        if(getGraphicalViewer().getContents() instanceof AbstractDiagramPart) {
+            ((AbstractDiagramPart)getGraphicalViewer().getContents()).materialise(selection);
+        }
+        
         List<EditPart> editParts = new ArrayList<EditPart>();
         
         for(Object object : selection) {
@@ -15,6 +15,7 @@ import org.eclipse.gef.palette.ToolEntry;
 import org.eclipse.gef.tools.MarqueeSelectionTool;
 
 import com.archimatetool.editor.diagram.tools.FormatPainterToolEntry;
+import com.archimatetool.editor.diagram.tools.IndexedMarqueeSelectionTool;
 import com.archimatetool.editor.diagram.tools.PanningSelectionExtendedTool;
 
 
@@ -61,31 +62,37 @@ public abstract class AbstractPaletteRoot extends PaletteRoot {
         PaletteStack stack = new PaletteStack(Messages.AbstractPaletteRoot_0, Messages.AbstractPaletteRoot_1, null);
         
         MarqueeToolEntry marquee = new MarqueeToolEntry(Messages.AbstractPaletteRoot_2);
+        marquee.setToolClass(IndexedMarqueeSelectionTool.class);
         marquee.setToolProperty(MarqueeSelectionTool.PROPERTY_MARQUEE_BEHAVIOR, 
                 Integer.valueOf(MarqueeSelectionTool.BEHAVIOR_NODES_CONTAINED_AND_RELATED_CONNECTIONS));
         stack.add(marquee);
         
         marquee = new MarqueeToolEntry(Messages.AbstractPaletteRoot_3);
+        marquee.setToolClass(IndexedMarqueeSelectionTool.class);
         marquee.setToolProperty(MarqueeSelectionTool.PROPERTY_MARQUEE_BEHAVIOR, 
                 Integer.valueOf(MarqueeSelectionTool.BEHAVIOR_NODES_TOUCHED_AND_RELATED_CONNECTIONS));
         stack.add(marquee);
         
         marquee = new MarqueeToolEntry(Messages.AbstractPaletteRoot_4);
+        marquee.setToolClass(IndexedMarqueeSelectionTool.class);
         marquee.setToolProperty(MarqueeSelectionTool.PROPERTY_MARQUEE_BEHAVIOR, 
                 Integer.valueOf(MarqueeSelectionTool.BEHAVIOR_CONNECTIONS_CONTAINED));
         stack.add(marquee);
         
         marquee = new MarqueeToolEntry(Messages.AbstractPaletteRoot_5);
+        marquee.setToolClass(IndexedMarqueeSelectionTool.class);
         marquee.setToolProperty(MarqueeSelectionTool.PROPERTY_MARQUEE_BEHAVIOR, 
                 Integer.valueOf(MarqueeSelectionTool.BEHAVIOR_CONNECTIONS_TOUCHED));
         stack.add(marquee);
         
         marquee = new MarqueeToolEntry(Messages.AbstractPaletteRoot_6);
+        marquee.setToolClass(IndexedMarqueeSelectionTool.class);
         marquee.setToolProperty(MarqueeSelectionTool.PROPERTY_MARQUEE_BEHAVIOR, 
                 Integer.valueOf(MarqueeSelectionTool.BEHAVIOR_NODES_CONTAINED));
         stack.add(marquee);
         
         marquee = new MarqueeToolEntry(Messages.AbstractPaletteRoot_7);
+        marquee.setToolClass(IndexedMarqueeSelectionTool.class);
         marquee.setToolProperty(MarqueeSelectionTool.PROPERTY_MARQUEE_BEHAVIOR, 
                 Integer.valueOf(MarqueeSelectionTool.BEHAVIOR_NODES_TOUCHED));
         stack.add(marquee);
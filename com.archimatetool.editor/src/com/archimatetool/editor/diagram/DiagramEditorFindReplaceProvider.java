@@ -178,7 +178,10 @@ public class DiagramEditorFindReplaceProvider extends AbstractFindReplaceProvide
     public boolean understandsParameter(int parameter) {
         return parameter != PARAM_INCLUDE_FOLDERS
                 && parameter != PARAM_ALL_MODELS
-                && parameter != PARAM_SELECTED_MODEL;
+                && parameter != PARAM_SELECTED_MODEL
+                && parameter != PARAM_REGEX
+                && parameter != PARAM_INCLUDE_DOCUMENTATION
+                && parameter != PARAM_INCLUDE_PROPERTIES;
     }
     
     /**
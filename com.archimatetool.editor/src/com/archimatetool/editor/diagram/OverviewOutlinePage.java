@@ -8,7 +8,6 @@ package com.archimatetool.editor.diagram;
 import org.eclipse.draw2d.LightweightSystem;
 import org.eclipse.draw2d.MarginBorder;
 import org.eclipse.draw2d.Viewport;
-import org.eclipse.draw2d.parts.ScrollableThumbnail;
 import org.eclipse.gef.EditPart;
 import org.eclipse.gef.LayerConstants;
 import org.eclipse.gef.editparts.ScalableFreeformRootEditPart;
@@ -37,7 +36,7 @@ import org.eclipse.ui.views.contentoutline.IContentOutlinePage;
 public class OverviewOutlinePage extends Page implements IContentOutlinePage, IContextProvider {
 
     private Canvas fCanvas;
-    private ScrollableThumbnail fThumbnail;
+    private OverviewThumbnail fThumbnail;
     private ScalableFreeformRootEditPart fEditPart;
 
     public static String HELP_ID = "com.archimatetool.help.outlineViewHelp"; //$NON-NLS-1$
@@ -60,7 +59,8 @@ public class OverviewOutlinePage extends Page implements IContentOutlinePage, IC
         fCanvas = new Canvas(parent, SWT.NONE);
         LightweightSystem lws = new LightweightSystem(fCanvas);
         
-        fThumbnail = new ScrollableThumbnail((Viewport)fEditPart.getFigure());
+        // Throttled and only redraws the parts of the diagram that have changed
+        fThumbnail = new OverviewThumbnail((Viewport)fEditPart.getFigure());
         fThumbnail.setUseScaledGraphics(false);
         fThumbnail.setSource(fEditPart.getLayer(LayerConstants.PRINTABLE_LAYERS));
         fThumbnail.setBorder(new MarginBorder(3));
@@ -0,0 +1,201 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram;
+
+import java.util.Map;
+
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.SWTGraphics;
+import org.eclipse.draw2d.Viewport;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.draw2d.parts.ScrollableThumbnail;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+
+
+/**
+ * Thumbnail for the Overview Outline that keeps a scaled image of the diagram and repairs it at most a few times a second.
+ *
+ * ScrollableThumbnail draws the whole source figure again whenever any part of it is painted, so that a large View
+ * is in effect drawn twice while it is edited. Here the regions painted in the diagram are collected and, after a delay,
+ * only those regions are drawn again into the cached image. The whole image is only drawn again when its size or the
+ * extent of the diagram has changed.
+ *
+ * @author Phillip Beauvoir
+ */
+class OverviewThumbnail extends ScrollableThumbnail {
+
+    /**
+     * Minimum time in milliseconds between updates of the image
+     */
+    static final int UPDATE_DELAY = 250;
+
+    // Painted regions in the coordinates of the source figure's bounds
+    private Rectangle fDamage;
+
+    // Source figure's bounds when the image was last drawn in full
+    private Rectangle fSourceBounds;
+
+    private boolean fUpdateScheduled;
+
+    private boolean fActive = true;
+
+    private Runnable fUpdater = this::update;
+
+    OverviewThumbnail(Viewport viewport) {
+        super(viewport);
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void notifyPainting(Rectangle damage, Map dirtyRegions) {
+        if(getSource() == null) {
+            return;
+        }
+
+        for(Object object : dirtyRegions.entrySet()) {
+            Map.Entry entry = (Map.Entry)object;
+            Rectangle region = toSourceBounds((IFigure)entry.getKey(), (Rectangle)entry.getValue());
+            if(region != null && !region.isEmpty()) {
+                fDamage = fDamage == null ? region : fDamage.union(region);
+            }
+        }
+
+        if(fDamage != null && !fUpdateScheduled) {
+            fUpdateScheduled = true;
+            Display.getCurrent().timerExec(UPDATE_DELAY, fUpdater);
+        }
+    }
+
+    @Override
+    public void deactivate() {
+        fActive = false;
+        Display.getCurrent().timerExec(-1, fUpdater);
+        super.deactivate();
+    }
+
+    /**
+     * Draw the damaged regions into the image, or draw the whole image again if the diagram's extent has changed
+     */
+    private void update() {
+        fUpdateScheduled = false;
+
+        if(!fActive || fDamage == null) {
+            return;
+        }
+
+        Rectangle damage = fDamage;
+        fDamage = null;
+
+        // Already being drawn so draw it all again when done
+        if(isUpdating()) {
+            setDirty(true);
+            return;
+        }
+
+        Rectangle sourceBounds = getSourceRectangle();
+
+        if(!sourceBounds.equals(fSourceBounds)) {
+            fSourceBounds = sourceBounds.getCopy();
+            setDirty(true);
+            repaint();
+            return;
+        }
+
+        // This will start drawing the whole image if its size has changed
+        Image image = getThumbnailImage();
+
+        if(image == null || isUpdating()) {
+            return;
+        }
+
+        repair(image, damage.intersect(sourceBounds));
+        repaint();
+    }
+
+    /**
+     * Draw a region of the source figure into the image
+     */
+    private void repair(Image image, Rectangle damage) {
+        if(damage.isEmpty()) {
+            return;
+        }
+
+        Rectangle sourceBounds = getSourceRectangle();
+        float scale = getScaleX();
+
+        // Region of the image with a pixel either side for anti-aliasing
+        Rectangle region = new Rectangle();
+        region.x = (int)Math.floor((damage.x - sourceBounds.x) * scale) - 1;
+        region.y = (int)Math.floor((damage.y - sourceBounds.y) * scale) - 1;
+        region.width = (int)Math.ceil((damage.right() - sourceBounds.x) * scale) + 1 - region.x;
+        region.height = (int)Math.ceil((damage.bottom() - sourceBounds.y) * scale) + 1 - region.y;
+        region.intersect(new Rectangle(image.getBounds()));
+
+        if(region.isEmpty()) {
+            return;
+        }
+
+        IFigure source = getSource();
+
+        // Draw to a separate image as figures can paint outside of the clip (see Thumbnail)
+        Image tileImage = new Image(Display.getCurrent(), region.width, region.height);
+        GC tileGC = new GC(tileImage, source.isMirrored() ? SWT.RIGHT_TO_LEFT : SWT.NONE);
+        SWTGraphics graphics = new SWTGraphics(tileGC);
+
+        try {
+            Color color = source.getForegroundColor();
+            if(color != null) {
+                graphics.setForegroundColor(color);
+            }
+            color = source.getBackgroundColor();
+            if(color != null) {
+                graphics.setBackgroundColor(color);
+            }
+            graphics.setFont(source.getFont());
+
+            graphics.fillRectangle(0, 0, region.width, region.height);
+            graphics.translate(-sourceBounds.x * scale - region.x, -sourceBounds.y * scale - region.y);
+            graphics.scale(scale);
+            source.paint(graphics);
+        }
+        finally {
+            graphics.dispose();
+            tileGC.dispose();
+        }
+
+        GC imageGC = new GC(image);
+        imageGC.drawImage(tileImage, 0, 0, region.width, region.height, region.x, region.y, region.width, region.height);
+        imageGC.dispose();
+        tileImage.dispose();
+    }
+
+    /**
+     * @param figure A figure that was painted
+     * @param region The figure's dirty region, which the UpdateManager has already translated to absolute coordinates
+     * @return The region in the coordinates of the source figure's bounds, or null if the figure is not in the source figure
+     */
+    Rectangle toSourceBounds(IFigure figure, Rectangle region) {
+        for(IFigure parent = figure; parent != getSource(); parent = parent.getParent()) {
+            if(parent == null) {
+                return null;
+            }
+        }
+
+        Rectangle rect = region.getCopy();
+
+        // The source figure's bounds are in its parent's coordinates
+        IFigure sourceParent = getSource().getParent();
+        if(sourceParent != null) {
+            sourceParent.translateToRelative(rect);
+        }
+
+        return rect;
+    }
+}
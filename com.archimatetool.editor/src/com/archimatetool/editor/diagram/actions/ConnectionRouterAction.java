@@ -30,11 +30,12 @@ import com.archimatetool.model.IDiagramModel;
 public abstract class ConnectionRouterAction extends Action implements Disposable {
     
     public static String CONNECTION_ROUTER_BENDPONT = Messages.ConnectionRouterAction_0;
-    //public static String CONNECTION_ROUTER_SHORTEST_PATH = Messages.ConnectionRouterAction_1;
+    public static String CONNECTION_ROUTER_SHORTEST_PATH = Messages.ConnectionRouterAction_1;
     public static String CONNECTION_ROUTER_MANHATTAN = Messages.ConnectionRouterAction_2;
     
     public static List<Integer> CONNECTION_ROUTER_TYPES = Arrays.asList(new Integer[] {
             IDiagramModel.CONNECTION_ROUTER_BENDPOINT,
+            IDiagramModel.CONNECTION_ROUTER_SHORTEST_PATH,
             IDiagramModel.CONNECTION_ROUTER_MANHATTAN
     });
 
@@ -108,22 +109,21 @@ public abstract class ConnectionRouterAction extends Action implements Disposabl
     
     /*
      * Shortest Path
-     * Doesn't work with Connection to Connection
      */
-//    public static class ShortestPathConnectionRouterAction extends ConnectionRouterAction  {
-//        public static String ID = "ShortestPathConnectionRouterAction"; //$NON-NLS-1$
-//        
-//        public ShortestPathConnectionRouterAction(IWorkbenchPart part) {
-//            super(part);
-//            setId(ID);
-//            setText(CONNECTION_ROUTER_SHORTEST_PATH);
-//        }
-//
-//        @Override
-//        public int getType() {
-//            return IDiagramModel.CONNECTION_ROUTER_SHORTEST_PATH;
-//        }
-//    };
+    public static class ShortestPathConnectionRouterAction extends ConnectionRouterAction  {
+        public static String ID = "ShortestPathConnectionRouterAction"; //$NON-NLS-1$
+        
+        public ShortestPathConnectionRouterAction(IWorkbenchPart part) {
+            super(part);
+            setId(ID);
+            setText(CONNECTION_ROUTER_SHORTEST_PATH);
+        }
+
+        @Override
+        public int getType() {
+            return IDiagramModel.CONNECTION_ROUTER_SHORTEST_PATH;
+        }
+    };
     
     /*
      * Manhattan
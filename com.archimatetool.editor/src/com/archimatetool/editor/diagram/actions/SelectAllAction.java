@@ -16,6 +16,8 @@ import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.ui.IWorkbenchPart;
 import org.eclipse.ui.actions.ActionFactory;
 
+import com.archimatetool.editor.diagram.editparts.AbstractDiagramPart;
+
 /**
  * SelectAllAction including connections
  * 
@@ -45,6 +47,12 @@ public class SelectAllAction extends Action {
     public void run() {
         GraphicalViewer viewer = part.getAdapter(GraphicalViewer.class);
         if(viewer != null) {
+            // Make sure that all objects have Edit Parts if the View creates them as they are scrolled into view
+            if(viewer.getContents() instanceof AbstractDiagramPart) {
+                AbstractDiagramPart diagramPart = (AbstractDiagramPart)viewer.getContents();
+                diagramPart.materialise(diagramPart.getModel().getChildren());
+            }
+            
             viewer.setSelection(new StructuredSelection(getSelectableEditParts(viewer.getContents()).toArray()));
         }
     }
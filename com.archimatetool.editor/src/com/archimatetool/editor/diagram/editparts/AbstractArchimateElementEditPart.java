@@ -98,7 +98,7 @@ public abstract class AbstractArchimateElementEditPart extends AbstractConnected
         if(IFeatures.isFeatureNotification(msg)
                 || feature == IArchimatePackage.Literals.PROFILES__PROFILES
                 || feature == IArchimatePackage.Literals.ARCHIMATE_MODEL__PROFILES) {
-            refreshFigure();
+            EditPartRefreshScheduler.schedule(this, EditPartRefreshScheduler.FIGURE);
             return;
         }
 
@@ -6,7 +6,9 @@
 package com.archimatetool.editor.diagram.editparts;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.draw2d.ConnectionAnchor;
 import org.eclipse.emf.common.notify.Adapter;
@@ -44,6 +46,18 @@ implements NodeEditPart {
 
     private Adapter adapter = new LightweightEContentAdapter(this::eCoreChanged, IFeature.class);
     
+    /*
+     * Cached connection anchors.
+     * Anchors get their location from the figure's current bounds so they are only created again when
+     * the type of anchor might change.
+     */
+    private ConnectionAnchor defaultConnectionAnchor;
+    private Map<ConnectionEditPart, OrthogonalAnchor> sourceConnectionAnchors = new HashMap<>();
+    private Map<ConnectionEditPart, OrthogonalAnchor> targetConnectionAnchors = new HashMap<>();
+    private Request sourceAnchorRequest, targetAnchorRequest;
+    private OrthogonalAnchor sourceRequestAnchor, targetRequestAnchor;
+    private Boolean useOrthogonalAnchor;
+    
     /**
      * Message from the ECore Adapter
      * @param msg
@@ -53,7 +67,7 @@ implements NodeEditPart {
         
         // Archi Features
         if(IFeatures.isFeatureNotification(msg)) {
-            refreshFigure();
+            EditPartRefreshScheduler.schedule(this, EditPartRefreshScheduler.FIGURE);
             return;
         }
 
@@ -78,7 +92,7 @@ implements NodeEditPart {
             case Notification.SET:
                 // Bounds
                 if(feature == IArchimatePackage.Literals.DIAGRAM_MODEL_OBJECT__BOUNDS) {
-                    refreshBounds();
+                    EditPartRefreshScheduler.schedule(this, EditPartRefreshScheduler.BOUNDS);
                 }
                 // Locked
                 else if(feature == IArchimatePackage.Literals.LOCKABLE__LOCKED) {
@@ -91,7 +105,7 @@ implements NodeEditPart {
                     }
                 }
                 else {
-                    refreshFigure();
+                    EditPartRefreshScheduler.schedule(this, EditPartRefreshScheduler.FIGURE);
                 }
                 
                 // Update Connection Anchors if Border Type changes
@@ -133,38 +147,77 @@ implements NodeEditPart {
     
     @Override
     public ConnectionAnchor getSourceConnectionAnchor(ConnectionEditPart connection) {
-    	if(canUseOrthogonalAnchor() && ArchiPlugin.PREFERENCES.getBoolean(IPreferenceConstants.USE_ORTHOGONAL_ANCHOR)) {
-    	    return new OrthogonalAnchor(getFigure(), connection, true);
-    	}
-    	
-    	return getDefaultConnectionAnchor();
+        if(useOrthogonalAnchor()) {
+            return getOrthogonalAnchor(sourceConnectionAnchors, connection, true);
+        }
+        
+        return getDefaultConnectionAnchor();
     }
 
     @Override
     public ConnectionAnchor getTargetConnectionAnchor(ConnectionEditPart connection) {
-    	if(canUseOrthogonalAnchor() && ArchiPlugin.PREFERENCES.getBoolean(IPreferenceConstants.USE_ORTHOGONAL_ANCHOR)) {
-    		return new OrthogonalAnchor(getFigure(), connection, false);
-    	}
-    	
-    	return getDefaultConnectionAnchor();
+        if(useOrthogonalAnchor()) {
+            return getOrthogonalAnchor(targetConnectionAnchors, connection, false);
+        }
+        
+        return getDefaultConnectionAnchor();
     }
 
     @Override
     public ConnectionAnchor getSourceConnectionAnchor(Request request) {
-    	if(canUseOrthogonalAnchor() && ArchiPlugin.PREFERENCES.getBoolean(IPreferenceConstants.USE_ORTHOGONAL_ANCHOR)) {
-    	    return new OrthogonalAnchor(getFigure(), request, true);
-    	}
-    	
-    	return getDefaultConnectionAnchor();
+        if(useOrthogonalAnchor()) {
+            // The same request is used for all feedback during a drag
+            if(request != sourceAnchorRequest) {
+                sourceAnchorRequest = request;
+                sourceRequestAnchor = new OrthogonalAnchor(getFigure(), request, true);
+            }
+            return sourceRequestAnchor;
+        }
+        
+        return getDefaultConnectionAnchor();
     }
 
     @Override
     public ConnectionAnchor getTargetConnectionAnchor(Request request) {
-    	if(canUseOrthogonalAnchor() && ArchiPlugin.PREFERENCES.getBoolean(IPreferenceConstants.USE_ORTHOGONAL_ANCHOR)) {
-    	    return new OrthogonalAnchor(getFigure(), request, false);
-    	}
-    	
-    	return getDefaultConnectionAnchor();
+        if(useOrthogonalAnchor()) {
+            // The same request is used for all feedback during a drag
+            if(request != targetAnchorRequest) {
+                targetAnchorRequest = request;
+                targetRequestAnchor = new OrthogonalAnchor(getFigure(), request, false);
+            }
+            return targetRequestAnchor;
+        }
+        
+        return getDefaultConnectionAnchor();
+    }
+    
+    /**
+     * @return The cached Orthogonal Anchor for the connection, creating it if not cached
+     */
+    private OrthogonalAnchor getOrthogonalAnchor(Map<ConnectionEditPart, OrthogonalAnchor> anchors, ConnectionEditPart connection, boolean isSource) {
+        OrthogonalAnchor anchor = anchors.get(connection);
+        
+        if(anchor == null) {
+            anchor = new OrthogonalAnchor(getFigure(), connection, isSource);
+            anchors.put(connection, anchor);
+        }
+        else {
+            // Clear any figure set by a previous Reconnect Request
+            anchor.setAlternateRemoteFig(null);
+        }
+        
+        return anchor;
+    }
+    
+    /**
+     * @return Whether to use the Orthogonal Anchor. The preference is read once and again after it changes.
+     */
+    private boolean useOrthogonalAnchor() {
+        if(useOrthogonalAnchor == null) {
+            useOrthogonalAnchor = canUseOrthogonalAnchor() && ArchiPlugin.PREFERENCES.getBoolean(IPreferenceConstants.USE_ORTHOGONAL_ANCHOR);
+        }
+        
+        return useOrthogonalAnchor;
     }
     
     /**
@@ -179,13 +232,46 @@ implements NodeEditPart {
      *         Default is a Chopbox connection anchor
      */
     protected ConnectionAnchor getDefaultConnectionAnchor() {
-        return getFigure().getDefaultConnectionAnchor();
+        // The default anchor doesn't depend on the connection so the same one is used for all connections
+        if(defaultConnectionAnchor == null) {
+            defaultConnectionAnchor = getFigure().getDefaultConnectionAnchor();
+        }
+        
+        return defaultConnectionAnchor;
+    }
+    
+    /**
+     * Clear the cached connection anchors so that new ones are created when next requested
+     */
+    protected void clearConnectionAnchors() {
+        defaultConnectionAnchor = null;
+        sourceConnectionAnchors.clear();
+        targetConnectionAnchors.clear();
+        sourceAnchorRequest = null;
+        sourceRequestAnchor = null;
+        targetAnchorRequest = null;
+        targetRequestAnchor = null;
+        useOrthogonalAnchor = null;
+    }
+    
+    @Override
+    protected void removeSourceConnection(ConnectionEditPart connection) {
+        sourceConnectionAnchors.remove(connection);
+        super.removeSourceConnection(connection);
+    }
+    
+    @Override
+    protected void removeTargetConnection(ConnectionEditPart connection) {
+        targetConnectionAnchors.remove(connection);
+        super.removeTargetConnection(connection);
     }
     
     /**
      * Refresh the connection anchors to return updated ones
      */
     protected void refreshConnectionAnchors() {
+        clearConnectionAnchors();
+        
         for(Object editPart : getSourceConnections()) {
             ((EditPart)editPart).refresh();
         }
@@ -209,7 +295,7 @@ implements NodeEditPart {
      * @param originalList
      * @return A list of filtered connections
      */
-    private List<IDiagramModelConnection> getFilteredConnections(List<IDiagramModelConnection> originalList) {
+    protected List<IDiagramModelConnection> getFilteredConnections(List<IDiagramModelConnection> originalList) {
         IConnectionEditPartFilter[] filters = getRootEditPartFilterProvider().getEditPartFilters(IConnectionEditPartFilter.class);
         if(filters != null) {
             List<IDiagramModelConnection> filteredList = new ArrayList<IDiagramModelConnection>();
@@ -7,30 +7,39 @@ package com.archimatetool.editor.diagram.editparts;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.eclipse.draw2d.Animation;
 import org.eclipse.draw2d.AutomaticRouter;
 import org.eclipse.draw2d.BendpointConnectionRouter;
 import org.eclipse.draw2d.ConnectionLayer;
+import org.eclipse.draw2d.DeferredUpdateManager;
 import org.eclipse.draw2d.FanRouter;
 import org.eclipse.draw2d.FreeformLayer;
 import org.eclipse.draw2d.FreeformLayout;
 import org.eclipse.draw2d.IFigure;
-import org.eclipse.draw2d.ManhattanConnectionRouter;
 import org.eclipse.draw2d.MarginBorder;
 import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.gef.EditPart;
 import org.eclipse.gef.LayerConstants;
 import org.eclipse.gef.SnapToHelper;
+import org.eclipse.gef.ui.parts.ScrollingGraphicalViewer;
 import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.swt.SWT;
 
 import com.archimatetool.editor.ArchiPlugin;
+import com.archimatetool.editor.diagram.figures.IndexedFreeformLayer;
+import com.archimatetool.editor.diagram.figures.connections.CachingManhattanConnectionRouter;
+import com.archimatetool.editor.diagram.figures.connections.ObstacleAvoidingConnectionRouter;
 import com.archimatetool.editor.diagram.util.AnimationUtil;
 import com.archimatetool.editor.preferences.IPreferenceConstants;
 import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.IDiagramModelConnection;
+import com.archimatetool.model.IDiagramModelObject;
 import com.archimatetool.model.IFeature;
 import com.archimatetool.model.IFeatures;
 import com.archimatetool.model.util.LightweightEContentAdapter;
@@ -53,6 +62,17 @@ implements IEditPartFilterProvider {
     
     private Adapter adapter = new LightweightEContentAdapter(this::eCoreChanged, IFeature.class);
     
+    /**
+     * Creates child Edit Parts when they are scrolled into view in large Views, null if not used
+     */
+    private EditPartVirtualiser fVirtualiser;
+    private boolean fVirtualiserChecked;
+    
+    /**
+     * Coalesces the refreshes of Edit Parts in this diagram, null if not created yet
+     */
+    private EditPartRefreshScheduler fRefreshScheduler;
+    
     /**
      * Message from the ECore Adapter
      * @param msg
@@ -129,6 +149,16 @@ implements IEditPartFilterProvider {
         
         super.deactivate();
         
+        if(fVirtualiser != null) {
+            fVirtualiser.dispose();
+            fVirtualiser = null;
+        }
+        
+        if(fRefreshScheduler != null) {
+            fRefreshScheduler.dispose();
+            fRefreshScheduler = null;
+        }
+        
         // Clear Filters
         if(fEditPartFilters != null) {
             fEditPartFilters.clear();
@@ -141,10 +171,93 @@ implements IEditPartFilterProvider {
      */
     public void updateEditPolicies() {
     }
+    
+    /**
+     * In large Views top level objects outside of the visible area get a placeholder Edit Part
+     */
+    @Override
+    protected EditPart createChild(Object model) {
+        if(!fVirtualiserChecked) {
+            fVirtualiserChecked = true;
+            fVirtualiser = EditPartVirtualiser.create(this);
+        }
+        
+        if(fVirtualiser != null && model instanceof IDiagramModelObject && !fVirtualiser.isInView((IDiagramModelObject)model)) {
+            EditPart placeholder = new PlaceholderEditPart();
+            placeholder.setModel(model);
+            return placeholder;
+        }
+        
+        return super.createChild(model);
+    }
+    
+    /**
+     * Replace the placeholders of the given diagram components, or of the top level objects that contain them
+     * or that they connect, with real Edit Parts so that they can be selected
+     */
+    public void materialise(Collection<?> objects) {
+        if(fVirtualiser == null) {
+            return;
+        }
+        
+        for(Object object : objects) {
+            materialise(object);
+        }
+    }
+    
+    private void materialise(Object object) {
+        if(object instanceof IDiagramModelConnection) {
+            materialise(((IDiagramModelConnection)object).getSource());
+            materialise(((IDiagramModelConnection)object).getTarget());
+        }
+        else if(object instanceof IDiagramModelObject) {
+            // Top level object
+            EObject topLevel = (EObject)object;
+            while(topLevel.eContainer() instanceof IDiagramModelObject) {
+                topLevel = topLevel.eContainer();
+            }
+            
+            Object editPart = getViewer().getEditPartRegistry().get(topLevel);
+            if(editPart instanceof PlaceholderEditPart && getChildren().contains(editPart)) {
+                materialiseChild((PlaceholderEditPart)editPart);
+            }
+        }
+    }
+    
+    /**
+     * Replace a placeholder with a real Edit Part
+     */
+    void materialiseChild(PlaceholderEditPart placeholder) {
+        int index = getChildren().indexOf(placeholder);
+        Object model = placeholder.getModel();
+        removeChild(placeholder);
+        addChild(super.createChild(model), index);
+    }
+    
+    /**
+     * @return The scheduler that coalesces refreshes of Edit Parts in this diagram,
+     *         or null if Edit Parts should be refreshed straight away
+     */
+    EditPartRefreshScheduler getRefreshScheduler() {
+        if(fRefreshScheduler == null && isActive() && getFigure().getUpdateManager() instanceof DeferredUpdateManager) {
+            fRefreshScheduler = new EditPartRefreshScheduler((DeferredUpdateManager)getFigure().getUpdateManager());
+        }
+        
+        return fRefreshScheduler;
+    }
+    
+    /**
+     * Check whether any placeholders have come into view
+     */
+    void updateVirtualChildren() {
+        if(fVirtualiser != null) {
+            fVirtualiser.scheduleUpdate();
+        }
+    }
 
     @Override
     protected IFigure createFigure() {
-        FreeformLayer figure = new FreeformLayer();
+        FreeformLayer figure = new IndexedFreeformLayer();
         
         // Provide an edge when in negative space
         // Causes snap to grid problems when in negative space
@@ -179,7 +292,20 @@ implements IEditPartFilterProvider {
 
         switch(getModel().getConnectionRouterType()) {
             case IDiagramModel.CONNECTION_ROUTER_MANHATTAN:
-                cLayer.setConnectionRouter(new ManhattanConnectionRouter());
+                // Keep the existing router and its routes
+                if(!(cLayer.getConnectionRouter() instanceof CachingManhattanConnectionRouter)) {
+                    cLayer.setConnectionRouter(new CachingManhattanConnectionRouter());
+                }
+                break;
+            
+            case IDiagramModel.CONNECTION_ROUTER_SHORTEST_PATH:
+                // Keep the existing router and its routes
+                if(!(cLayer.getConnectionRouter() instanceof ObstacleAvoidingConnectionRouter)) {
+                    ObstacleAvoidingConnectionRouter shortestPathRouter = new ObstacleAvoidingConnectionRouter(getFigure());
+                    // Only route in the background in an editor as Views drawn to an image need their routes straight away
+                    shortestPathRouter.setRouteInBackground(getViewer() instanceof ScrollingGraphicalViewer);
+                    cLayer.setConnectionRouter(shortestPathRouter);
+                }
                 break;
             
             case IDiagramModel.CONNECTION_ROUTER_BENDPOINT:
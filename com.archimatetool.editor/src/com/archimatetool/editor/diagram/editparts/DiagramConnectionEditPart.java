@@ -12,8 +12,8 @@ import java.util.List;
 
 import org.eclipse.draw2d.Bendpoint;
 import org.eclipse.draw2d.Connection;
+import org.eclipse.draw2d.ConnectionRouter;
 import org.eclipse.draw2d.IFigure;
-import org.eclipse.draw2d.ManhattanConnectionRouter;
 import org.eclipse.draw2d.RelativeBendpoint;
 import org.eclipse.draw2d.geometry.Dimension;
 import org.eclipse.emf.common.notify.Adapter;
@@ -38,7 +38,9 @@ import org.eclipse.osgi.util.NLS;
 import com.archimatetool.editor.ArchiPlugin;
 import com.archimatetool.editor.diagram.commands.DiagramCommandFactory;
 import com.archimatetool.editor.diagram.directedit.MultiLineTextDirectEditManager;
+import com.archimatetool.editor.diagram.figures.connections.CachingManhattanConnectionRouter;
 import com.archimatetool.editor.diagram.figures.connections.IDiagramConnectionFigure;
+import com.archimatetool.editor.diagram.figures.connections.ObstacleAvoidingConnectionRouter;
 import com.archimatetool.editor.diagram.policies.ManualBendpointEditPolicy;
 import com.archimatetool.editor.model.commands.EObjectFeatureCommand;
 import com.archimatetool.editor.preferences.IPreferenceConstants;
@@ -135,7 +137,7 @@ public class DiagramConnectionEditPart extends AbstractConnectionEditPart {
                     createEditPolicies();
                 }
                 else {
-                    refreshVisuals();
+                    EditPartRefreshScheduler.schedule(this, EditPartRefreshScheduler.VISUALS);
                 }
                 break;
 
@@ -234,6 +236,7 @@ public class DiagramConnectionEditPart extends AbstractConnectionEditPart {
     public void deactivateFigure(){
         // Remove listener
         getFigure().removePropertyChangeListener(Connection.PROPERTY_CONNECTION_ROUTER, figureListener);
+        getFigure().dispose();
         super.deactivateFigure();
     }
     
@@ -307,7 +310,7 @@ public class DiagramConnectionEditPart extends AbstractConnectionEditPart {
      * Updates the bendpoints, based on the model
      */
     protected void refreshBendpoints() {
-        if(getConnectionFigure().getConnectionRouter() instanceof ManhattanConnectionRouter) {
+        if(isAutomaticRouting()) {
             return;
         }
         
@@ -333,8 +336,8 @@ public class DiagramConnectionEditPart extends AbstractConnectionEditPart {
         if(isLocked()) {
             installEditPolicy(EditPolicy.CONNECTION_BENDPOINTS_ROLE, null);
         }
-        // Doesn't work for Manhattan Router
-        else if(getConnectionFigure().getConnectionRouter() instanceof ManhattanConnectionRouter) {
+        // Doesn't work for Manhattan and Shortest Path Routers
+        else if(isAutomaticRouting()) {
             installEditPolicy(EditPolicy.CONNECTION_BENDPOINTS_ROLE, null);
         }
         else {
@@ -342,6 +345,14 @@ public class DiagramConnectionEditPart extends AbstractConnectionEditPart {
         }
     }
         
+    /**
+     * @return True if the connection router ignores bendpoints
+     */
+    protected boolean isAutomaticRouting() {
+        ConnectionRouter router = getConnectionFigure().getConnectionRouter();
+        return router instanceof CachingManhattanConnectionRouter || router instanceof ObstacleAvoidingConnectionRouter;
+    }
+    
     /**
      * @return True if this EditPart's Viewer is in Full Screen Mode
      */
@@ -0,0 +1,119 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.editparts;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.draw2d.DeferredUpdateManager;
+import org.eclipse.draw2d.UpdateManager;
+import org.eclipse.gef.EditPart;
+import org.eclipse.swt.widgets.Display;
+
+
+/**
+ * Coalesces the refreshes that Edit Parts make in response to model notifications so that each Edit Part
+ * is refreshed at most once per UI frame.
+ *
+ * A command that changes many objects, or several features of one object, sends many notifications and each
+ * would otherwise refresh the figure, laying out its text again. Instead, the kinds of refresh needed are merged
+ * for each Edit Part and carried out after draw2d's DeferredUpdateManager has performed its next update.
+ * The figures changed are then laid out and painted together in the following update.
+ *
+ * Changes to children and connections are not deferred as other code expects their Edit Parts to exist
+ * as soon as the model has changed.
+ *
+ * @author Phillip Beauvoir
+ */
+class EditPartRefreshScheduler {
+
+    static final int BOUNDS = 1;
+    static final int FIGURE = 2;
+    static final int VISUALS = 4;
+
+    private UpdateManager fUpdateManager;
+
+    private Map<EditPart, Integer> fPending = new LinkedHashMap<>();
+
+    private boolean fFlushRequested;
+
+    EditPartRefreshScheduler(DeferredUpdateManager updateManager) {
+        fUpdateManager = updateManager;
+    }
+
+    /**
+     * Schedule a refresh of the Edit Part using the scheduler of its diagram, or refresh it now if there isn't one
+     * @param part The Edit Part
+     * @param kinds Combination of BOUNDS, FIGURE and VISUALS
+     */
+    static void schedule(EditPart part, int kinds) {
+        EditPartRefreshScheduler scheduler = null;
+
+        if(part.getRoot() != null && part.getRoot().getContents() instanceof AbstractDiagramPart) {
+            scheduler = ((AbstractDiagramPart)part.getRoot().getContents()).getRefreshScheduler();
+        }
+
+        // Not from the UI thread so refresh now as before
+        if(scheduler == null || Display.getCurrent() == null) {
+            refresh(part, kinds);
+            return;
+        }
+
+        scheduler.add(part, kinds);
+    }
+
+    /**
+     * Add a refresh of the Edit Part, merging it with any refresh already pending for that Edit Part
+     * @param part The Edit Part
+     * @param kinds Combination of BOUNDS, FIGURE and VISUALS
+     */
+    void add(EditPart part, int kinds) {
+        fPending.merge(part, kinds, (oldKinds, newKinds) -> oldKinds | newKinds);
+
+        if(!fFlushRequested) {
+            fFlushRequested = true;
+            fUpdateManager.runWithUpdate(this::flush);
+        }
+    }
+
+    /**
+     * Carry out all pending refreshes
+     */
+    void flush() {
+        fFlushRequested = false;
+
+        // Refreshing might schedule more refreshes
+        while(!fPending.isEmpty()) {
+            Map<EditPart, Integer> pending = fPending;
+            fPending = new LinkedHashMap<>();
+
+            for(Map.Entry<EditPart, Integer> entry : pending.entrySet()) {
+                // Removed since
+                if(entry.getKey().isActive()) {
+                    refresh(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    void dispose() {
+        fPending.clear();
+    }
+
+    private static void refresh(EditPart part, int kinds) {
+        if(part instanceof AbstractBaseEditPart) {
+            if((kinds & BOUNDS) != 0) {
+                ((AbstractBaseEditPart)part).refreshBounds();
+            }
+            if((kinds & FIGURE) != 0) {
+                ((AbstractBaseEditPart)part).refreshFigure();
+            }
+        }
+        else if(part instanceof DiagramConnectionEditPart && (kinds & VISUALS) != 0) {
+            ((DiagramConnectionEditPart)part).refreshVisuals();
+        }
+    }
+}
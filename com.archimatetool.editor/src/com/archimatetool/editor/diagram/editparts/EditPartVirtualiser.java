@@ -0,0 +1,168 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.editparts;
+
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import org.eclipse.draw2d.FigureCanvas;
+import org.eclipse.draw2d.Viewport;
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.gef.EditPartViewer;
+import org.eclipse.gef.ui.parts.ScrollingGraphicalViewer;
+import org.eclipse.swt.widgets.Display;
+
+import com.archimatetool.editor.ArchiPlugin;
+import com.archimatetool.editor.preferences.IPreferenceConstants;
+import com.archimatetool.editor.ui.factory.IGraphicalObjectUIProvider;
+import com.archimatetool.editor.ui.factory.ObjectUIFactory;
+import com.archimatetool.model.IBounds;
+import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.IDiagramModelObject;
+
+
+/**
+ * Creates the Edit Parts of the top level objects of a large View only when they are in or near the visible area.
+ *
+ * Objects outside of the visible area get a PlaceholderEditPart. The viewport's scroll ranges are listened to and
+ * placeholders are replaced with real Edit Parts once they come near the visible area. Edit Parts are not changed
+ * back to placeholders when they are scrolled out of view.
+ *
+ * @author Phillip Beauvoir
+ */
+class EditPartVirtualiser {
+
+    /**
+     * Margin around the visible area within which Edit Parts are created
+     */
+    static final int MARGIN = 500;
+
+    private AbstractDiagramPart fDiagramPart;
+
+    private Viewport fViewport;
+
+    private boolean fUpdatePending;
+
+    private PropertyChangeListener fRangeListener = event -> scheduleUpdate();
+
+    /**
+     * @return A virtualiser for the diagram part if its View has more objects than set in Preferences
+     *         and it is shown in a scrolling editor, otherwise null
+     */
+    static EditPartVirtualiser create(AbstractDiagramPart diagramPart) {
+        int threshold = ArchiPlugin.PREFERENCES.getInt(IPreferenceConstants.VIRTUALISE_VIEWS_THRESHOLD);
+        if(threshold <= 0) {
+            return null;
+        }
+
+        // Not for Views drawn to an image as these need all figures
+        EditPartViewer viewer = diagramPart.getViewer();
+        if(!(viewer instanceof ScrollingGraphicalViewer) || !(viewer.getControl() instanceof FigureCanvas)) {
+            return null;
+        }
+
+        if(!hasMoreObjects(diagramPart.getModel(), threshold)) {
+            return null;
+        }
+
+        return new EditPartVirtualiser(diagramPart, ((FigureCanvas)viewer.getControl()).getViewport());
+    }
+
+    private static boolean hasMoreObjects(IDiagramModel dm, int count) {
+        for(Iterator<EObject> iter = dm.eAllContents(); iter.hasNext();) {
+            if(iter.next() instanceof IDiagramModelObject && --count < 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private EditPartVirtualiser(AbstractDiagramPart diagramPart, Viewport viewport) {
+        fDiagramPart = diagramPart;
+        fViewport = viewport;
+
+        fViewport.getHorizontalRangeModel().addPropertyChangeListener(fRangeListener);
+        fViewport.getVerticalRangeModel().addPropertyChangeListener(fRangeListener);
+
+        // In case the viewport is already laid out
+        scheduleUpdate();
+    }
+
+    /**
+     * @return true if the object is in or near the visible area
+     */
+    boolean isInView(IDiagramModelObject dmo) {
+        return getVisibleArea().intersects(getBounds(dmo));
+    }
+
+    /**
+     * Replace placeholders that are in or near the visible area once the current event has been handled
+     */
+    void scheduleUpdate() {
+        if(!fUpdatePending && Display.getCurrent() != null) {
+            fUpdatePending = true;
+            Display.getCurrent().asyncExec(this::update);
+        }
+    }
+
+    void dispose() {
+        fViewport.getHorizontalRangeModel().removePropertyChangeListener(fRangeListener);
+        fViewport.getVerticalRangeModel().removePropertyChangeListener(fRangeListener);
+        fDiagramPart = null;
+    }
+
+    private void update() {
+        fUpdatePending = false;
+
+        // Disposed
+        if(fDiagramPart == null) {
+            return;
+        }
+
+        Rectangle area = getVisibleArea();
+
+        for(Object child : new ArrayList<>(fDiagramPart.getChildren())) {
+            if(child instanceof PlaceholderEditPart) {
+                PlaceholderEditPart placeholder = (PlaceholderEditPart)child;
+                if(area.intersects(getBounds(placeholder.getModel()))) {
+                    fDiagramPart.materialiseChild(placeholder);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The visible area and its margin in the coordinates of the diagram figure's children
+     */
+    private Rectangle getVisibleArea() {
+        Rectangle area = fViewport.getBounds().getCopy();
+        fViewport.translateToAbsolute(area);
+        fDiagramPart.getFigure().translateToRelative(area);
+        return area.expand(MARGIN, MARGIN);
+    }
+
+    /**
+     * @return The bounds of the object allowing for a default width and height of -1
+     */
+    private Rectangle getBounds(IDiagramModelObject dmo) {
+        IBounds bounds = dmo.getBounds();
+        int width = bounds.getWidth();
+        int height = bounds.getHeight();
+
+        if(width < 0 || height < 0) {
+            IGraphicalObjectUIProvider provider = (IGraphicalObjectUIProvider)ObjectUIFactory.INSTANCE.getProvider(dmo);
+            Dimension size = provider != null ? provider.getDefaultSize() : IGraphicalObjectUIProvider.defaultSize();
+            width = width < 0 ? size.width : width;
+            height = height < 0 ? size.height : height;
+        }
+
+        return new Rectangle(bounds.getX(), bounds.getY(), width, height);
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.editparts;
+
+import org.eclipse.draw2d.FreeformLayer;
+import org.eclipse.draw2d.FreeformLayeredPane;
+import org.eclipse.draw2d.LayeredPane;
+import org.eclipse.gef.DragTracker;
+import org.eclipse.gef.Request;
+import org.eclipse.gef.editparts.ScalableFreeformRootEditPart;
+
+import com.archimatetool.editor.diagram.figures.connections.IndexedConnectionLayer;
+import com.archimatetool.editor.diagram.tools.IndexedMarqueeDragTracker;
+
+
+
+/**
+ * ScalableFreeformRootEditPart with a spatially indexed Connection Layer and a Marquee Drag Tracker
+ * that uses the spatial indexes so that hit-testing and marquee selection scale to large diagrams
+ * 
+ * @author Phillip Beauvoir
+ */
+public class ExtendedScalableFreeformRootEditPart extends ScalableFreeformRootEditPart {
+    
+    public ExtendedScalableFreeformRootEditPart(boolean useScaledGraphics) {
+        super(useScaledGraphics);
+    }
+    
+    @Override
+    protected LayeredPane createPrintableLayers() {
+        FreeformLayeredPane layeredPane = new FreeformLayeredPane();
+        layeredPane.add(new FreeformLayer(), PRIMARY_LAYER);
+        layeredPane.add(new IndexedConnectionLayer(), CONNECTION_LAYER);
+        return layeredPane;
+    }
+    
+    @Override
+    public DragTracker getDragTracker(Request req) {
+        return new IndexedMarqueeDragTracker();
+    }
+}
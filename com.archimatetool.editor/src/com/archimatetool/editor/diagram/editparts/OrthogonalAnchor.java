@@ -313,7 +313,8 @@ public class OrthogonalAnchor extends ChopboxAnchor {
 	 * Gets the remote figure. 
 	 */
 	private void updateRemoteFig() {
-		// CreateConnectionRequest needs to refresh fRemoteFig each time
+		// fRemoteFig is found each time as anchors are cached by the edit part
+		// and the connection or request can change the remote figure
         switch(fAnchorType) {
             case CRCONREQ_SRC:
                 fRemoteFig = (((CreateConnectionRequest)fRequest).getTargetEditPart() != null)
@@ -325,14 +326,6 @@ public class OrthogonalAnchor extends ChopboxAnchor {
                         ? ((GraphicalEditPart)((CreateConnectionRequest)fRequest).getSourceEditPart()).getFigure()
                         : null;
                 break;
-        }
-		
-		// The other cases can be cached
-		if(fRemoteFig != null) {
-		    return;
-		}
-		
-        switch(fAnchorType) {
             case CONNECTION_SRC:
             	fRemoteFig = (fAnchorConnection != null && fAnchorConnection.getTarget() != null)
             			? ((GraphicalEditPart)fAnchorConnection.getTarget()).getFigure()
@@ -0,0 +1,153 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.editparts;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import com.archimatetool.editor.diagram.figures.diagram.PlaceholderFigure;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IConnectable;
+import com.archimatetool.model.IDiagramModelConnection;
+import com.archimatetool.model.IDiagramModelContainer;
+import com.archimatetool.model.IDiagramModelObject;
+import com.archimatetool.model.IFeature;
+import com.archimatetool.model.util.LightweightEContentAdapter;
+
+
+/**
+ * Edit Part used in place of a top level diagram object in a large View until the object is scrolled into view.
+ *
+ * Its child objects are not created, it has no edit policies and it can't be selected.
+ * Connections are still attached to it, including the connections of its nested objects to objects outside of it
+ * so that these are drawn to the placeholder until it is replaced.
+ * The parent diagram part replaces it with the real Edit Part when it is in or near the visible area or is selected.
+ *
+ * @author Phillip Beauvoir
+ */
+public class PlaceholderEditPart extends AbstractConnectedEditPart {
+
+    // Also adapts the nested objects to hear of their connections being added and removed
+    private Adapter adapter = new LightweightEContentAdapter(this::eCoreChanged, IFeature.class, IDiagramModelObject.class);
+
+    public PlaceholderEditPart() {
+        super(PlaceholderFigure.class);
+    }
+
+    @Override
+    protected void eCoreChanged(Notification msg) {
+        Object feature = msg.getFeature();
+
+        // Connections or nested objects added or removed
+        if(feature == IArchimatePackage.Literals.CONNECTABLE__SOURCE_CONNECTIONS
+                || feature == IArchimatePackage.Literals.CONNECTABLE__TARGET_CONNECTIONS
+                || feature == IArchimatePackage.Literals.DIAGRAM_MODEL_CONTAINER__CHILDREN) {
+            refreshSourceConnections();
+            refreshTargetConnections();
+        }
+        // Other changes to nested objects don't change the placeholder
+        else if(!isNestedNotifier(msg.getNotifier())) {
+            super.eCoreChanged(msg);
+        }
+    }
+
+    @Override
+    protected Adapter getECoreAdapter() {
+        return adapter;
+    }
+
+    @Override
+    protected void createEditPolicies() {
+    }
+
+    @Override
+    protected List<?> getModelChildren() {
+        return Collections.EMPTY_LIST;
+    }
+
+    @Override
+    protected List<IDiagramModelConnection> getModelSourceConnections() {
+        List<IDiagramModelConnection> connections = new ArrayList<>();
+        addConnections(getModel(), true, connections);
+        return connections;
+    }
+
+    @Override
+    protected List<IDiagramModelConnection> getModelTargetConnections() {
+        List<IDiagramModelConnection> connections = new ArrayList<>();
+        addConnections(getModel(), false, connections);
+        return connections;
+    }
+
+    /**
+     * Add the source or target connections of something inside this placeholder that connect to something outside of it.
+     * Connections between things inside it are left out as they have no Edit Part at either end.
+     */
+    private void addConnections(IConnectable connectable, boolean source, List<IDiagramModelConnection> connections) {
+        for(IDiagramModelConnection connection : getFilteredConnections(source ? connectable.getSourceConnections() : connectable.getTargetConnections())) {
+            if(!isInside(source ? connection.getTarget() : connection.getSource())) {
+                connections.add(connection);
+            }
+        }
+
+        // Connections from here that are inside, as something outside might connect to them
+        for(IDiagramModelConnection connection : connectable.getSourceConnections()) {
+            if(isInside(connection)) {
+                addConnections(connection, source, connections);
+            }
+        }
+
+        if(connectable instanceof IDiagramModelContainer) {
+            for(IDiagramModelObject child : ((IDiagramModelContainer)connectable).getChildren()) {
+                addConnections(child, source, connections);
+            }
+        }
+    }
+
+    /**
+     * @return true if the object is this placeholder's object, one of its nested objects or a connection between these
+     */
+    private boolean isInside(IConnectable connectable) {
+        if(connectable instanceof IDiagramModelConnection) {
+            IDiagramModelConnection connection = (IDiagramModelConnection)connectable;
+            return isInside(connection.getSource()) && isInside(connection.getTarget());
+        }
+
+        return EcoreUtil.isAncestor(getModel(), connectable);
+    }
+
+    /**
+     * @return true if the notifier is a nested object or one of its features
+     */
+    private boolean isNestedNotifier(Object notifier) {
+        EObject eObject = (EObject)notifier;
+        if(!(eObject instanceof IDiagramModelObject)) {
+            eObject = eObject.eContainer();
+        }
+        return eObject != getModel();
+    }
+
+    @Override
+    public boolean isSelectable() {
+        return false;
+    }
+
+    @Override
+    protected void refreshBounds() {
+        super.refreshBounds();
+
+        // Might have been moved into view
+        if(getParent() instanceof AbstractDiagramPart) {
+            ((AbstractDiagramPart)getParent()).updateVirtualChildren();
+        }
+    }
+}
@@ -6,7 +6,6 @@
 package com.archimatetool.editor.diagram.figures;
 
 import org.eclipse.draw2d.ColorConstants;
-import org.eclipse.draw2d.FreeformLayer;
 import org.eclipse.draw2d.Graphics;
 import org.eclipse.draw2d.IFigure;
 import org.eclipse.draw2d.XYLayout;
@@ -44,7 +43,7 @@ implements IContainerFigure {
      */
     public IFigure getMainFigure() {
         if(fMainFigure == null) {
-            fMainFigure = new FreeformLayer();
+            fMainFigure = new IndexedFreeformLayer();
             fMainFigure.setLayoutManager(new XYLayout());
             
             // Have to add this if we want Animation to work on figures
@@ -93,8 +92,14 @@ implements IContainerFigure {
 
     @Override
     protected void paintFigure(Graphics graphics) {
-        graphics.setAntialias(SWT.ON);
-        drawFigure(graphics);
+        if(isLowDetail(graphics)) {
+            drawLowDetailFigure(graphics);
+        }
+        else {
+            graphics.setAntialias(SWT.ON);
+            drawFigureCached(graphics);
+        }
+        
         if(SHOW_TARGET_FEEDBACK) {
             drawTargetFeedback(graphics);
         }
@@ -6,7 +6,6 @@
 package com.archimatetool.editor.diagram.figures;
 
 import org.eclipse.draw2d.ChopboxAnchor;
-import org.eclipse.draw2d.ColorConstants;
 import org.eclipse.draw2d.ConnectionAnchor;
 import org.eclipse.draw2d.Figure;
 import org.eclipse.draw2d.Graphics;
@@ -22,7 +21,6 @@ import com.archimatetool.editor.ArchiPlugin;
 import com.archimatetool.editor.diagram.figures.FigureUtils.Direction;
 import com.archimatetool.editor.preferences.IPreferenceConstants;
 import com.archimatetool.editor.ui.ArchiLabelProvider;
-import com.archimatetool.editor.ui.ColorFactory;
 import com.archimatetool.editor.ui.FontFactory;
 import com.archimatetool.editor.ui.ImageFactory;
 import com.archimatetool.editor.ui.factory.IGraphicalObjectUIProvider;
@@ -46,8 +44,15 @@ implements IDiagramModelObjectFigure {
     // Use line width offset handling
     boolean useLineOffset = ArchiPlugin.PREFERENCES.getBoolean(IPreferenceConstants.USE_FIGURE_LINE_OFFSET);
     
+    // Draw the figure from a cached image. Not used on hi-res displays as the image would lose resolution.
+    boolean useImageCache = ArchiPlugin.PREFERENCES.getBoolean(IPreferenceConstants.USE_FIGURE_IMAGE_CACHE) && ImageFactory.getDeviceZoom() == 100;
+    
+    private FigureImageCache fImageCache;
+    
     private IDiagramModelObject fDiagramModelObject;
     
+    private FigureStyle fStyle;
+    
     private Color fFillColor;
     private Color fFontColor;
     private Color fLineColor;
@@ -68,7 +73,12 @@ implements IDiagramModelObjectFigure {
 
     @Override
     public void setDiagramModelObject(IDiagramModelObject diagramModelObject) {
+        if(fStyle != null) {
+            fStyle.dispose();
+        }
+        
         fDiagramModelObject = diagramModelObject;
+        fStyle = new FigureStyle(diagramModelObject);
         setUI();
     }
     
@@ -96,6 +106,63 @@ implements IDiagramModelObjectFigure {
         }
     }
     
+    /**
+     * Draw the figure from the image cache if this is enabled and the figure can be cached.
+     * Otherwise draw the figure with {@link #drawFigure(Graphics)}
+     * @param graphics
+     */
+    protected void drawFigureCached(Graphics graphics) {
+        if(useImageCache) {
+            if(fImageCache == null) {
+                fImageCache = new FigureImageCache();
+            }
+            
+            if(fImageCache.draw(graphics, getBounds(), this::drawFigure)) {
+                return;
+            }
+        }
+        
+        drawFigure(graphics);
+    }
+    
+    /**
+     * @return true if the figure should be drawn with less detail because it is zoomed out
+     */
+    protected boolean isLowDetail(Graphics graphics) {
+        return FigureUtils.isLowDetail(this, graphics);
+    }
+    
+    /**
+     * Draw the figure with less detail as a flat rectangle without gradient, icons or decorations
+     * @param graphics
+     */
+    protected void drawLowDetailFigure(Graphics graphics) {
+        graphics.pushState();
+        
+        Rectangle bounds = getBounds().getCopy();
+        bounds.width--;
+        bounds.height--;
+        
+        graphics.setAlpha(getAlpha());
+        graphics.setBackgroundColor(getFillColor());
+        graphics.fillRectangle(bounds);
+        
+        graphics.setAlpha(getLineAlpha());
+        graphics.setForegroundColor(getLineColor());
+        graphics.drawRectangle(bounds);
+        
+        graphics.popState();
+    }
+    
+    /**
+     * Invalidate the cached image of the figure. This should be called when the figure's appearance changes.
+     */
+    protected void invalidateImageCache() {
+        if(fImageCache != null) {
+            fImageCache.invalidate();
+        }
+    }
+    
     /**
      * Set the line width and compensate the figure bounds width and height for this line width and translate the graphics instance
      * @param graphics The graphics instance
@@ -145,8 +212,7 @@ implements IDiagramModelObjectFigure {
      * Set the font to that in the model, or failing that, as per user's default
      */
     protected void setFont() {
-        String fontName = fDiagramModelObject.getFont();
-        setFont(FontFactory.get(fontName));
+        setFont(getStyle().getFont());
         
         // Need to do this after font change
         if(getTextControl() != null) {
@@ -176,12 +242,7 @@ implements IDiagramModelObjectFigure {
     @Override
     public Color getFillColor() {
         if(fFillColor == null) {
-            fFillColor = ColorFactory.get(fDiagramModelObject.getFillColor());
-            
-            // Use default fill color
-            if(fFillColor == null) {
-                fFillColor = ColorFactory.getDefaultFillColor(fDiagramModelObject);
-            }
+            fFillColor = getStyle().getFillColor();
         }
         
         return fFillColor;
@@ -191,11 +252,7 @@ implements IDiagramModelObjectFigure {
      * Set the font color to that in the model, or failing that, as per default
      */
     protected void setFontColor() {
-        String val = fDiagramModelObject.getFontColor();
-        Color c = ColorFactory.get(val);
-        if(c == null) {
-            c = ColorConstants.black; // Set to black in case of dark theme
-        }
+        Color c = getStyle().getFontColor();
         if(c != fFontColor) {
             fFontColor = c;
             if(getTextControl() != null) {
@@ -218,17 +275,11 @@ implements IDiagramModelObjectFigure {
     public Color getLineColor() {
         if(fLineColor == null) {
             // User preference to derive element line colour
-            if(ArchiPlugin.PREFERENCES.getBoolean(IPreferenceConstants.DERIVE_ELEMENT_LINE_COLOR)) {
-                fLineColor = ColorFactory.getDarkerColor(getFillColor(),
-                        ArchiPlugin.PREFERENCES.getInt(IPreferenceConstants.DERIVE_ELEMENT_LINE_COLOR_FACTOR) / 10f);
+            if(getStyle().isDeriveLineColor()) {
+                fLineColor = getStyle().getDerivedLineColor(getFillColor());
             }
             else {
-                fLineColor = ColorFactory.get(fDiagramModelObject.getLineColor());
-                
-                // Use default line color
-                if(fLineColor == null) {
-                    fLineColor = ColorFactory.getDefaultLineColor(getDiagramModelObject());
-                }
+                fLineColor = getStyle().getLineColor();
             }
         }
         
@@ -236,21 +287,29 @@ implements IDiagramModelObjectFigure {
     }
     
     protected int getAlpha() {
-        return isEnabled() ? fDiagramModelObject.getAlpha() : Math.min(100, fDiagramModelObject.getAlpha());
+        return isEnabled() ? getStyle().getAlpha() : Math.min(100, getStyle().getAlpha());
     }
 
     protected int getLineAlpha() {
-        return isEnabled() ? fDiagramModelObject.getLineAlpha() : 100;
+        return isEnabled() ? getStyle().getLineAlpha() : 100;
     }
     
     protected int getGradient() {
-        return fDiagramModelObject.getGradient();
+        return getStyle().getGradient();
+    }
+    
+    /**
+     * @return The parsed style values of the diagram model object
+     */
+    public FigureStyle getStyle() {
+        return fStyle;
     }
     
     @Override
     public void updateIconImage() {
         if(getIconicDelegate() != null) {
             getIconicDelegate().updateImage();
+            invalidateImageCache();
         }
     }
     
@@ -415,9 +474,18 @@ implements IDiagramModelObjectFigure {
 
     @Override
     public void dispose() {
+        if(fImageCache != null) {
+            fImageCache.dispose();
+            fImageCache = null;
+        }
+        
         if(fIconicDelegate != null) {
             fIconicDelegate.dispose();
             fIconicDelegate = null;
         }
+        
+        if(fStyle != null) {
+            fStyle.dispose();
+        }
     }
 }
\ No newline at end of file
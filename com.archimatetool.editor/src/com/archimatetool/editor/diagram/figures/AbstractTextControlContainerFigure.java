@@ -7,6 +7,7 @@ package com.archimatetool.editor.diagram.figures;
 
 import org.eclipse.draw2d.DelegatingLayout;
 import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.Graphics;
 import org.eclipse.draw2d.GridData;
 import org.eclipse.draw2d.GridLayout;
 import org.eclipse.draw2d.IFigure;
@@ -123,6 +124,8 @@ public abstract class AbstractTextControlContainerFigure extends AbstractContain
         // Icon Image
         updateIconImage();
         
+        invalidateImageCache();
+        
         repaint(); // repaint when figure changes
     }
     
@@ -130,6 +133,8 @@ public abstract class AbstractTextControlContainerFigure extends AbstractContain
     public void setEnabled(boolean value) {
         super.setEnabled(value);
         
+        invalidateImageCache();
+        
         getTextControl().setEnabled(value);
         
         if(getFigureDelegate() != null) {
@@ -174,7 +179,7 @@ public abstract class AbstractTextControlContainerFigure extends AbstractContain
     }
     
     protected TextFlow createTextFlowControl(Locator textLocator) {
-        TextFlow textFlow = new TextFlow();
+        TextFlow textFlow = new CachedTextFlow();
         
         int wordWrapStyle = ArchiPlugin.PREFERENCES.getInt(IPreferenceConstants.ARCHIMATE_FIGURE_WORD_WRAP_STYLE);
         textFlow.setLayoutManager(new ParagraphTextLayout(textFlow, wordWrapStyle));
@@ -182,7 +187,15 @@ public abstract class AbstractTextControlContainerFigure extends AbstractContain
         FlowPage page = new FlowPage();
         page.add(textFlow);
         
-        Figure textWrapperFigure = new Figure();
+        // Text is not drawn when zoomed out to a low level of detail
+        Figure textWrapperFigure = new Figure() {
+            @Override
+            public void paint(Graphics graphics) {
+                if(!isLowDetail(graphics)) {
+                    super.paint(graphics);
+                }
+            }
+        };
         
         GridLayout layout = new GridLayout();
         layout.marginWidth = getTextControlMarginWidth();
@@ -266,7 +279,15 @@ public abstract class AbstractTextControlContainerFigure extends AbstractContain
     }
     
     protected Label createLabelControl(Locator textLocator) {
-        Label label = new Label(""); //$NON-NLS-1$
+        // Text is not drawn when zoomed out to a low level of detail
+        Label label = new Label("") { //$NON-NLS-1$
+            @Override
+            public void paint(Graphics graphics) {
+                if(!isLowDetail(graphics)) {
+                    super.paint(graphics);
+                }
+            }
+        };
         add(label, textLocator);
         return label;
     }
@@ -0,0 +1,44 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures;
+
+import org.eclipse.draw2d.TextUtilities;
+import org.eclipse.draw2d.text.FlowUtilities;
+import org.eclipse.draw2d.text.TextFlow;
+
+
+/**
+ * TextFlow that measures its text with the shared CachingTextUtilities,
+ * so that laying out text that hasn't changed doesn't measure it again.
+ *
+ * @author Phillip Beauvoir
+ */
+public class CachedTextFlow extends TextFlow {
+
+    private static final FlowUtilities FLOW_UTILITIES = new FlowUtilities() {
+        @Override
+        protected TextUtilities getTextUtilities() {
+            return CachingTextUtilities.INSTANCE;
+        }
+    };
+
+    public CachedTextFlow() {
+    }
+
+    public CachedTextFlow(String s) {
+        super(s);
+    }
+
+    @Override
+    protected FlowUtilities getFlowUtilities() {
+        return FLOW_UTILITIES;
+    }
+
+    @Override
+    protected TextUtilities getTextUtilities() {
+        return CachingTextUtilities.INSTANCE;
+    }
+}
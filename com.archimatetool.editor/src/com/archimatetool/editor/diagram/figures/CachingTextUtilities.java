@@ -0,0 +1,113 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.draw2d.TextUtilities;
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.swt.graphics.Font;
+
+
+/**
+ * TextUtilities that remembers the extents of the strings it has measured.
+ *
+ * When text is wrapped in a TextFlow the lengths of many substrings of the text are measured to find where
+ * each line breaks. The same substrings are measured again whenever the figure is laid out, even if the
+ * text, font and width are unchanged. Keeping the extents of recently measured strings for each font
+ * means that laying out unchanged text again doesn't measure it with a GC.
+ *
+ * Extents are kept in a least recently used cache that is shared by all figures. Fonts are compared
+ * by identity as FontFactory shares fonts and a disposed font is never used again.
+ * This should only be used on the Display thread, as with FigureUtilities.
+ *
+ * @author Phillip Beauvoir
+ */
+public class CachingTextUtilities extends TextUtilities {
+
+    public static final CachingTextUtilities INSTANCE = new CachingTextUtilities();
+
+    /**
+     * Maximum number of extents kept
+     */
+    static final int MAX_ENTRIES = 20000;
+
+    private static class Key {
+        final String text;
+        final Font font;
+        final boolean isText;
+
+        Key(String text, Font font, boolean isText) {
+            this.text = text;
+            this.font = font;
+            this.isText = isText;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if(!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key)obj;
+            return font == other.font && isText == other.isText && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(text, System.identityHashCode(font), isText);
+        }
+    }
+
+    private Map<Key, Dimension> fExtents = new LinkedHashMap<Key, Dimension>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Dimension> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    @Override
+    public Dimension getStringExtents(String s, Font f) {
+        return getExtents(s, f, false);
+    }
+
+    @Override
+    public Dimension getTextExtents(String s, Font f) {
+        return getExtents(s, f, true);
+    }
+
+    /**
+     * Remove all extents
+     */
+    public void clear() {
+        fExtents.clear();
+    }
+
+    /**
+     * @return The number of extents kept
+     */
+    int size() {
+        return fExtents.size();
+    }
+
+    private Dimension getExtents(String s, Font f, boolean isText) {
+        if(f == null || f.isDisposed()) {
+            return isText ? super.getTextExtents(s, f) : super.getStringExtents(s, f);
+        }
+
+        Key key = new Key(s, f, isText);
+        Dimension extents = fExtents.get(key);
+
+        if(extents == null) {
+            extents = (isText ? super.getTextExtents(s, f) : super.getStringExtents(s, f)).getCopy();
+            fExtents.put(key, extents);
+        }
+
+        // Callers can change the returned Dimension
+        return extents.getCopy();
+    }
+}
@@ -0,0 +1,251 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.eclipse.draw2d.ColorConstants;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.SWTGraphics;
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.widgets.Display;
+
+
+
+/**
+ * Caches the drawing of a figure in an image at the current zoom scale.
+ *
+ * An unchanged figure is then drawn from the image rather than from its vector primitives.
+ * The figure must call {@link #invalidate()} when its appearance changes.
+ *
+ * The drawing is rendered onto a black and a white background and the alpha of each pixel is recovered
+ * from the difference so that non-rectangular shapes, anti-aliasing and transparency are preserved.
+ *
+ * The images of all figures share a memory budget. When it is exceeded the images of the least recently drawn figures are disposed.
+ *
+ * @author Phillip Beauvoir
+ */
+public class FigureImageCache {
+
+    /**
+     * Maximum number of pixels in a cached image. Larger figures are not cached.
+     */
+    static final int MAX_IMAGE_PIXELS = 1024 * 1024;
+
+    /**
+     * Maximum number of bytes of all cached images
+     */
+    static final long MAX_CACHED_BYTES = 128L * 1024 * 1024;
+
+    // Bytes per pixel of an image with alpha
+    private static final int BYTES_PER_PIXEL = 4;
+
+    // Budget, which tests can make smaller
+    static long maxCachedBytes = MAX_CACHED_BYTES;
+
+    // Caches that hold an image and the image's size in bytes, least recently drawn first. Only used on the Display thread.
+    private static Map<FigureImageCache, Long> cachedImages = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static long cachedBytes;
+
+    private Image fImage;
+    private Dimension fSize;
+    private double fScale;
+
+    /**
+     * Draw the figure from the cached image, creating the image with painter if the image is not cached
+     * or was cached for a different size or scale.
+     * @param graphics The Graphics to draw on
+     * @param bounds The figure bounds
+     * @param painter Draws the figure in bounds on the given Graphics
+     * @return true if drawn from the image, false if the figure can't be cached and the caller should draw it
+     */
+    public boolean draw(Graphics graphics, Rectangle bounds, Consumer<Graphics> painter) {
+        double scale = FigureUtils.getGraphicsScale(graphics);
+
+        int width = (int)Math.ceil(bounds.width * scale);
+        int height = (int)Math.ceil(bounds.height * scale);
+
+        if(width <= 0 || height <= 0 || (long)width * height > MAX_IMAGE_PIXELS) {
+            invalidate();
+            return false;
+        }
+
+        if(fImage == null || fScale != scale || !bounds.getSize().equals(fSize)) {
+            invalidate();
+            fImage = createImage(bounds, scale, width, height, painter);
+            fScale = scale;
+            fSize = bounds.getSize();
+            addToBudget((long)width * height * BYTES_PER_PIXEL);
+        }
+        else {
+            // Now the most recently drawn
+            cachedImages.get(this);
+        }
+
+        graphics.drawImage(fImage, 0, 0, width, height, bounds.x, bounds.y, bounds.width, bounds.height);
+
+        return true;
+    }
+
+    /**
+     * Dispose of the cached image so that it is re-created when next drawn
+     */
+    public void invalidate() {
+        if(fImage != null) {
+            fImage.dispose();
+            fImage = null;
+
+            Long bytes = cachedImages.remove(this);
+            if(bytes != null) {
+                cachedBytes -= bytes;
+            }
+        }
+    }
+
+    /**
+     * @return true if an image is cached
+     */
+    boolean isCached() {
+        return fImage != null;
+    }
+
+    /**
+     * @return The number of bytes of all cached images
+     */
+    static long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    /**
+     * Add the image to the budget and dispose the images of the least recently drawn figures until it fits
+     */
+    private void addToBudget(long bytes) {
+        cachedImages.put(this, bytes);
+        cachedBytes += bytes;
+
+        List<FigureImageCache> evicted = new ArrayList<>();
+        long total = cachedBytes;
+
+        for(Map.Entry<FigureImageCache, Long> entry : cachedImages.entrySet()) {
+            if(total <= maxCachedBytes || entry.getKey() == this) {
+                break;
+            }
+            evicted.add(entry.getKey());
+            total -= entry.getValue();
+        }
+
+        for(FigureImageCache cache : evicted) {
+            cache.invalidate();
+        }
+    }
+
+    public void dispose() {
+        invalidate();
+    }
+
+    private Image createImage(Rectangle bounds, double scale, int width, int height, Consumer<Graphics> painter) {
+        ImageData onBlack = paint(bounds, scale, width, height, painter, ColorConstants.black);
+        ImageData onWhite = paint(bounds, scale, width, height, painter, ColorConstants.white);
+
+        // Pixel values in this palette are 0xRRGGBB
+        ImageData imageData = new ImageData(width, height, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+        byte[] alphaData = new byte[width * height];
+
+        int[] blackRow = new int[width];
+        int[] whiteRow = new int[width];
+        int[] pixelRow = new int[width];
+
+        for(int y = 0; y < height; y++) {
+            onBlack.getPixels(0, y, width, blackRow, 0);
+            onWhite.getPixels(0, y, width, whiteRow, 0);
+
+            for(int x = 0; x < width; x++) {
+                int black = toRGBValue(onBlack.palette, blackRow[x]);
+                int white = toRGBValue(onWhite.palette, whiteRow[x]);
+                
+                int blackRed = (black >> 16) & 0xFF, blackGreen = (black >> 8) & 0xFF, blackBlue = black & 0xFF;
+                int whiteRed = (white >> 16) & 0xFF, whiteGreen = (white >> 8) & 0xFF, whiteBlue = white & 0xFF;
+
+                // The more opaque the pixel the less the background shows through
+                int diff = ((whiteRed - blackRed) + (whiteGreen - blackGreen) + (whiteBlue - blackBlue)) / 3;
+                int alpha = Math.max(0, Math.min(255, 255 - diff));
+
+                alphaData[y * width + x] = (byte)alpha;
+
+                // Drawn on black the pixel is the colour pre-multiplied by alpha
+                pixelRow[x] = alpha == 0 ? 0 : (unmultiply(blackRed, alpha) << 16) | (unmultiply(blackGreen, alpha) << 8) | unmultiply(blackBlue, alpha);
+            }
+            
+            imageData.setPixels(0, y, width, pixelRow, 0);
+        }
+
+        imageData.alphaData = alphaData;
+
+        return new Image(Display.getDefault(), imageData);
+    }
+
+    /**
+     * @return The pixel value in the palette as 0xRRGGBB, without creating an RGB if the palette is direct
+     */
+    private int toRGBValue(PaletteData palette, int pixel) {
+        if(palette.isDirect) {
+            return (shift(pixel & palette.redMask, palette.redShift) << 16)
+                    | (shift(pixel & palette.greenMask, palette.greenShift) << 8)
+                    | shift(pixel & palette.blueMask, palette.blueShift);
+        }
+        
+        RGB rgb = palette.getRGB(pixel);
+        return (rgb.red << 16) | (rgb.green << 8) | rgb.blue;
+    }
+    
+    private int shift(int value, int shift) {
+        return shift < 0 ? value >>> -shift : value << shift;
+    }
+
+    private int unmultiply(int value, int alpha) {
+        return Math.min(255, value * 255 / alpha);
+    }
+
+    private ImageData paint(Rectangle bounds, double scale, int width, int height, Consumer<Graphics> painter, Color background) {
+        Image image = new Image(Display.getDefault(), width, height);
+        GC gc = new GC(image);
+
+        gc.setBackground(background);
+        gc.fillRectangle(0, 0, width, height);
+
+        SWTGraphics graphics = new SWTGraphics(gc);
+        graphics.setAntialias(SWT.ON);
+
+        if(scale != 1) {
+            graphics.scale(scale);
+        }
+
+        graphics.translate(-bounds.x, -bounds.y);
+
+        painter.accept(graphics);
+
+        graphics.dispose();
+        gc.dispose();
+
+        ImageData imageData = image.getImageData();
+        image.dispose();
+
+        return imageData;
+    }
+}
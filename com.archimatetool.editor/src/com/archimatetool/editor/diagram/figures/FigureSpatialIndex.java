@@ -0,0 +1,281 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures;
+
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.draw2d.Connection;
+import org.eclipse.draw2d.FigureListener;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.TreeSearch;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+
+
+/**
+ * Spatial index of the child figures of a parent figure so that the children at a point or in an area
+ * can be found without testing every child.
+ *
+ * Child bounds are held in a grid of square cells. A child is re-indexed when it is moved or resized, or when
+ * the points of a child Connection change. Children that would cover a very large number of cells are kept
+ * in a separate list and are always returned as candidates.
+ *
+ * Query results are candidates only - callers still have to test each figure - and are ordered topmost first.
+ *
+ * @author Phillip Beauvoir
+ */
+public class FigureSpatialIndex {
+
+    /**
+     * Width and height of a grid cell
+     */
+    static final int CELL_SIZE = 256;
+
+    /**
+     * A child covering more cells than this is not put in the grid
+     */
+    static final int MAX_CELLS = 1024;
+
+    /**
+     * Margin added to indexed bounds to allow for hit tolerances such as those of connection lines
+     */
+    static final int TOLERANCE = 4;
+
+    private IFigure fParent;
+
+    // Children in each cell keyed by cell position
+    private Map<Long, List<IFigure>> fCells = new HashMap<>();
+
+    // Cell range of each indexed child as x1, y1, x2, y2
+    private Map<IFigure, int[]> fCellRanges = new HashMap<>();
+
+    // Children too large to put in the grid
+    private Set<IFigure> fOversized = new LinkedHashSet<>();
+
+    // Children added or moved since the last query
+    private Set<IFigure> fDirty = new LinkedHashSet<>();
+
+    // Z-order of children, null if children were added or removed since the last query
+    private Map<IFigure, Integer> fOrder;
+
+    private FigureListener fFigureListener = source -> fDirty.add(source);
+
+    private PropertyChangeListener fPointsListener = event -> fDirty.add((IFigure)event.getSource());
+
+    public FigureSpatialIndex(IFigure parent) {
+        fParent = parent;
+    }
+
+    /**
+     * Add a child figure of the parent to the index
+     */
+    public void add(IFigure child) {
+        child.addFigureListener(fFigureListener);
+
+        if(child instanceof Connection) {
+            child.addPropertyChangeListener(Connection.PROPERTY_POINTS, fPointsListener);
+        }
+
+        fDirty.add(child);
+        fOrder = null;
+    }
+
+    /**
+     * Remove a child figure from the index
+     */
+    public void remove(IFigure child) {
+        child.removeFigureListener(fFigureListener);
+
+        if(child instanceof Connection) {
+            child.removePropertyChangeListener(Connection.PROPERTY_POINTS, fPointsListener);
+        }
+
+        unindex(child);
+        fDirty.remove(child);
+        fOrder = null;
+    }
+
+    /**
+     * @return Child figures whose bounds may contain the point, topmost first
+     */
+    public List<IFigure> getFiguresAt(int x, int y) {
+        return getFiguresIntersecting(new Rectangle(x, y, 1, 1));
+    }
+
+    /**
+     * @return Child figures whose bounds may intersect the area, topmost first
+     */
+    public List<IFigure> getFiguresIntersecting(Rectangle area) {
+        update();
+
+        Set<IFigure> candidates = new LinkedHashSet<>(fOversized);
+
+        int x1 = cell(area.x);
+        int y1 = cell(area.y);
+        int x2 = cell(area.x + Math.max(area.width, 1) - 1);
+        int y2 = cell(area.y + Math.max(area.height, 1) - 1);
+
+        // If the area covers more cells than there are children it's quicker to test all children
+        if((long)(x2 - x1 + 1) * (y2 - y1 + 1) > fCellRanges.size()) {
+            candidates.addAll(fCellRanges.keySet());
+        }
+        else {
+            for(int x = x1; x <= x2; x++) {
+                for(int y = y1; y <= y2; y++) {
+                    List<IFigure> cell = fCells.get(key(x, y));
+                    if(cell != null) {
+                        candidates.addAll(cell);
+                    }
+                }
+            }
+        }
+
+        List<IFigure> result = new ArrayList<>(candidates);
+        result.sort((f1, f2) -> getOrder(f2) - getOrder(f1));
+        return result;
+    }
+
+    /**
+     * Find the topmost descendant at the point as in {@link IFigure#findFigureAt(int, int, TreeSearch)}
+     * but only testing the children indexed at the point
+     * @param x x in the parent's parent coordinates
+     * @param y y in the parent's parent coordinates
+     */
+    public IFigure findDescendantAt(int x, int y, TreeSearch search) {
+        Point pt = new Point(x, y);
+        fParent.translateFromParent(pt);
+        
+        if(!fParent.getClientArea(new Rectangle()).contains(pt)) {
+            return null;
+        }
+        
+        for(IFigure child : getFiguresAt(pt.x, pt.y)) {
+            if(child.isVisible()) {
+                IFigure figure = child.findFigureAt(pt.x, pt.y, search);
+                if(figure != null) {
+                    return figure;
+                }
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * @return true if any child contains the point, as in {@link org.eclipse.draw2d.Layer#containsPoint(int, int)}
+     * @param x x in the parent's parent coordinates
+     * @param y y in the parent's parent coordinates
+     */
+    public boolean containsChildAt(int x, int y) {
+        Point pt = new Point(x, y);
+        fParent.translateFromParent(pt);
+        
+        for(IFigure child : getFiguresAt(pt.x, pt.y)) {
+            if(child.containsPoint(pt)) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+
+    /**
+     * @return The number of indexed children
+     */
+    public int size() {
+        update();
+        return fCellRanges.size() + fOversized.size();
+    }
+
+    /**
+     * Re-index children that were added or moved
+     */
+    private void update() {
+        if(fDirty.isEmpty()) {
+            return;
+        }
+
+        for(IFigure child : fDirty) {
+            unindex(child);
+            index(child);
+        }
+
+        fDirty.clear();
+    }
+
+    private void index(IFigure child) {
+        Rectangle bounds = child.getBounds().getExpanded(TOLERANCE, TOLERANCE);
+
+        int x1 = cell(bounds.x);
+        int y1 = cell(bounds.y);
+        int x2 = cell(bounds.x + bounds.width - 1);
+        int y2 = cell(bounds.y + bounds.height - 1);
+
+        if((long)(x2 - x1 + 1) * (y2 - y1 + 1) > MAX_CELLS) {
+            fOversized.add(child);
+            return;
+        }
+
+        for(int x = x1; x <= x2; x++) {
+            for(int y = y1; y <= y2; y++) {
+                fCells.computeIfAbsent(key(x, y), k -> new ArrayList<>(4)).add(child);
+            }
+        }
+
+        fCellRanges.put(child, new int[] { x1, y1, x2, y2 });
+    }
+
+    private void unindex(IFigure child) {
+        if(fOversized.remove(child)) {
+            return;
+        }
+
+        int[] range = fCellRanges.remove(child);
+        if(range == null) {
+            return;
+        }
+
+        for(int x = range[0]; x <= range[2]; x++) {
+            for(int y = range[1]; y <= range[3]; y++) {
+                Long key = key(x, y);
+                List<IFigure> cell = fCells.get(key);
+                if(cell != null) {
+                    cell.remove(child);
+                    if(cell.isEmpty()) {
+                        fCells.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private int getOrder(IFigure child) {
+        if(fOrder == null) {
+            fOrder = new HashMap<>();
+            int i = 0;
+            for(Object figure : fParent.getChildren()) {
+                fOrder.put((IFigure)figure, i++);
+            }
+        }
+
+        return fOrder.getOrDefault(child, -1);
+    }
+
+    private static int cell(int value) {
+        return Math.floorDiv(value, CELL_SIZE);
+    }
+
+    private static Long key(int x, int y) {
+        return ((long)x << 32) | (y & 0xFFFFFFFFL);
+    }
+}
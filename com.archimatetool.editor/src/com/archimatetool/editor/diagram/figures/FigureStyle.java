@@ -0,0 +1,280 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures;
+
+import org.eclipse.draw2d.ColorConstants;
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Font;
+
+import com.archimatetool.editor.ArchiPlugin;
+import com.archimatetool.editor.preferences.IPreferenceConstants;
+import com.archimatetool.editor.ui.ColorFactory;
+import com.archimatetool.editor.ui.FontFactory;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IDiagramModelComponent;
+import com.archimatetool.model.IDiagramModelObject;
+import com.archimatetool.model.IFeature;
+import com.archimatetool.model.IFeatures;
+import com.archimatetool.model.IFontAttribute;
+import com.archimatetool.model.ILineObject;
+import com.archimatetool.model.ITextAlignment;
+import com.archimatetool.model.util.LightweightEContentAdapter;
+
+
+
+/**
+ * Typed style values of a diagram model component as used by its figure.
+ *
+ * Colours, font, alpha, gradient and text alignment are resolved from the component, its features and Preferences
+ * when first requested and kept until the component sends a notification for one of these or Preferences change.
+ * This means that painting and refreshing a figure doesn't parse colour and font strings.
+ *
+ * @author Phillip Beauvoir
+ */
+public class FigureStyle {
+
+    // Incremented when Preferences change as default colours and fonts are set in Preferences
+    private static int preferencesGeneration;
+
+    static {
+        ArchiPlugin.PREFERENCES.addPropertyChangeListener(event -> preferencesGeneration++);
+    }
+
+    private IDiagramModelComponent fComponent;
+
+    private Adapter fAdapter = new LightweightEContentAdapter(this::notifyChanged, IFeature.class);
+
+    private int fGeneration;
+
+    private Color fFillColor;
+    private Color fLineColor;
+    private Color fFontColor;
+    private Font fFont;
+
+    private int fAlpha = -1;
+    private int fLineAlpha = -1;
+    private int fGradient = -2; // GRADIENT_NONE is -1
+    private int fTextAlignment = -1;
+    private int fLineWidth = -1;
+
+    private Boolean fDeriveLineColor;
+    private Color fDerivedFromColor;
+    private Color fDerivedLineColor;
+
+    public FigureStyle(IDiagramModelComponent component) {
+        fComponent = component;
+        fGeneration = preferencesGeneration;
+        fComponent.eAdapters().add(0, fAdapter); // Before the edit part so that its refresh sees new values
+    }
+
+    /**
+     * @return The fill colour set in the component or the default fill colour
+     */
+    public Color getFillColor() {
+        checkPreferences();
+
+        if(fFillColor == null && fComponent instanceof IDiagramModelObject) {
+            fFillColor = ColorFactory.get(((IDiagramModelObject)fComponent).getFillColor());
+
+            // Use default fill color
+            if(fFillColor == null) {
+                fFillColor = ColorFactory.getDefaultFillColor(fComponent);
+            }
+        }
+
+        return fFillColor;
+    }
+
+    /**
+     * @return The line colour set in the component or the default line colour. This is not a derived line colour.
+     */
+    public Color getLineColor() {
+        checkPreferences();
+
+        if(fLineColor == null && fComponent instanceof ILineObject) {
+            fLineColor = ColorFactory.get(((ILineObject)fComponent).getLineColor());
+
+            // Use default line color
+            if(fLineColor == null) {
+                fLineColor = ColorFactory.getDefaultLineColor(fComponent);
+            }
+        }
+
+        return fLineColor;
+    }
+
+    /**
+     * @return true if the user preference is to derive element line colours from fill colours
+     */
+    public boolean isDeriveLineColor() {
+        checkPreferences();
+
+        if(fDeriveLineColor == null) {
+            fDeriveLineColor = ArchiPlugin.PREFERENCES.getBoolean(IPreferenceConstants.DERIVE_ELEMENT_LINE_COLOR);
+        }
+
+        return fDeriveLineColor;
+    }
+
+    /**
+     * @param fillColor The fill colour to derive from
+     * @return A line colour derived from fillColor according to the user preference factor
+     */
+    public Color getDerivedLineColor(Color fillColor) {
+        checkPreferences();
+
+        if(fDerivedLineColor == null || fillColor != fDerivedFromColor) {
+            fDerivedFromColor = fillColor;
+            fDerivedLineColor = ColorFactory.getDarkerColor(fillColor,
+                    ArchiPlugin.PREFERENCES.getInt(IPreferenceConstants.DERIVE_ELEMENT_LINE_COLOR_FACTOR) / 10f);
+        }
+
+        return fDerivedLineColor;
+    }
+
+    /**
+     * @return The font colour set in the component or black
+     */
+    public Color getFontColor() {
+        checkPreferences();
+
+        if(fFontColor == null) {
+            if(fComponent instanceof IFontAttribute) {
+                fFontColor = ColorFactory.get(((IFontAttribute)fComponent).getFontColor());
+            }
+
+            if(fFontColor == null) {
+                fFontColor = ColorConstants.black; // Set to black in case of dark theme
+            }
+        }
+
+        return fFontColor;
+    }
+
+    /**
+     * @return The font set in the component or the user's default font
+     */
+    public Font getFont() {
+        checkPreferences();
+
+        if(fFont == null) {
+            String fontName = fComponent instanceof IFontAttribute ? ((IFontAttribute)fComponent).getFont() : null;
+            fFont = FontFactory.get(fontName);
+        }
+
+        return fFont;
+    }
+
+    /**
+     * @return The fill alpha
+     */
+    public int getAlpha() {
+        if(fAlpha == -1) {
+            fAlpha = fComponent instanceof IDiagramModelObject ? ((IDiagramModelObject)fComponent).getAlpha() : 255;
+        }
+
+        return fAlpha;
+    }
+
+    /**
+     * @return The line alpha
+     */
+    public int getLineAlpha() {
+        if(fLineAlpha == -1) {
+            fLineAlpha = fComponent instanceof IDiagramModelObject ? ((IDiagramModelObject)fComponent).getLineAlpha()
+                                                                  : IDiagramModelObject.FEATURE_LINE_ALPHA_DEFAULT;
+        }
+
+        return fLineAlpha;
+    }
+
+    /**
+     * @return The gradient type
+     */
+    public int getGradient() {
+        if(fGradient == -2) {
+            fGradient = fComponent instanceof IDiagramModelObject ? ((IDiagramModelObject)fComponent).getGradient()
+                                                                 : IDiagramModelObject.GRADIENT_NONE;
+        }
+
+        return fGradient;
+    }
+
+    /**
+     * @return The text alignment
+     */
+    public int getTextAlignment() {
+        if(fTextAlignment == -1) {
+            fTextAlignment = fComponent instanceof ITextAlignment ? ((ITextAlignment)fComponent).getTextAlignment()
+                                                                 : ITextAlignment.TEXT_ALIGNMENT_CENTER;
+        }
+
+        return fTextAlignment;
+    }
+
+    /**
+     * @return The line width
+     */
+    public int getLineWidth() {
+        if(fLineWidth == -1) {
+            fLineWidth = fComponent instanceof ILineObject ? ((ILineObject)fComponent).getLineWidth() : 1;
+        }
+
+        return fLineWidth;
+    }
+
+    /**
+     * Reset all values so that they are resolved again when next requested
+     */
+    public void reset() {
+        fFillColor = null;
+        fLineColor = null;
+        fFontColor = null;
+        fFont = null;
+        fAlpha = -1;
+        fLineAlpha = -1;
+        fGradient = -2;
+        fTextAlignment = -1;
+        fLineWidth = -1;
+        fDeriveLineColor = null;
+        fDerivedFromColor = null;
+        fDerivedLineColor = null;
+    }
+
+    /**
+     * Stop listening to the component
+     */
+    public void dispose() {
+        fComponent.eAdapters().remove(fAdapter);
+    }
+
+    private void checkPreferences() {
+        if(fGeneration != preferencesGeneration) {
+            fGeneration = preferencesGeneration;
+            reset();
+        }
+    }
+
+    private void notifyChanged(Notification msg) {
+        Object feature = msg.getFeature();
+
+        if(IFeatures.isFeatureNotification(msg)) { // Gradient, line alpha and others stored as features
+            reset();
+        }
+        else if(msg.getNotifier() == fComponent && (
+                feature == IArchimatePackage.Literals.DIAGRAM_MODEL_OBJECT__FILL_COLOR ||
+                feature == IArchimatePackage.Literals.DIAGRAM_MODEL_OBJECT__ALPHA ||
+                feature == IArchimatePackage.Literals.LINE_OBJECT__LINE_COLOR ||
+                feature == IArchimatePackage.Literals.LINE_OBJECT__LINE_WIDTH ||
+                feature == IArchimatePackage.Literals.FONT_ATTRIBUTE__FONT ||
+                feature == IArchimatePackage.Literals.FONT_ATTRIBUTE__FONT_COLOR ||
+                feature == IArchimatePackage.Literals.TEXT_ALIGNMENT__TEXT_ALIGNMENT)) {
+            reset();
+        }
+    }
+}
@@ -19,6 +19,9 @@ import org.eclipse.swt.graphics.Path;
 import org.eclipse.swt.graphics.Pattern;
 import org.eclipse.swt.widgets.Display;
 
+import com.archimatetool.editor.ArchiPlugin;
+import com.archimatetool.editor.preferences.IPreferenceConstants;
+
 
 /**
  * Utils for Figures
@@ -27,6 +30,17 @@ import org.eclipse.swt.widgets.Display;
  */
 public class FigureUtils {
 
+    // Low detail zoom level from Preferences, read here because it is tested each time a figure is painted
+    private static int lowDetailZoom = ArchiPlugin.PREFERENCES.getInt(IPreferenceConstants.LOW_DETAIL_ZOOM);
+
+    static {
+        ArchiPlugin.PREFERENCES.addPropertyChangeListener(event -> {
+            if(IPreferenceConstants.LOW_DETAIL_ZOOM.equals(event.getProperty())) {
+                lowDetailZoom = ArchiPlugin.PREFERENCES.getInt(IPreferenceConstants.LOW_DETAIL_ZOOM);
+            }
+        });
+    }
+
     /**
      * @param figure
      * @return The Current Zoom drawing scale for a Figure
@@ -53,6 +67,25 @@ public class FigureUtils {
         return 1.0;
     }
 
+    /**
+     * Figures are drawn with less detail if both the Graphics scale and the figure's zoom scale are at or below the
+     * zoom level set in Preferences. Testing both means that exported and printed images are drawn in full detail
+     * unless the View is also zoomed out.
+     * @param figure The figure being drawn
+     * @param graphics The Graphics being drawn on
+     * @return true if the figure should be drawn with less detail
+     */
+    public static boolean isLowDetail(IFigure figure, Graphics graphics) {
+        int zoom = lowDetailZoom;
+        
+        if(zoom <= 0) {
+            return false;
+        }
+        
+        double scale = zoom / 100.0;
+        return getGraphicsScale(graphics) <= scale && getFigureScale(figure) <= scale;
+    }
+
     /**
      * Gradient Direction
      */
@@ -0,0 +1,23 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures;
+
+import org.eclipse.draw2d.IFigure;
+
+
+
+/**
+ * Figure that keeps a spatial index of its children
+ * 
+ * @author Phillip Beauvoir
+ */
+public interface ISpatiallyIndexedFigure extends IFigure {
+    
+    /**
+     * @return The spatial index of the child figures
+     */
+    FigureSpatialIndex getSpatialIndex();
+}
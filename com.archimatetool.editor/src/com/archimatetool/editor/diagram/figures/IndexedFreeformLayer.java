@@ -0,0 +1,54 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures;
+
+import org.eclipse.draw2d.FreeformLayer;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.TreeSearch;
+
+
+
+/**
+ * FreeformLayer that keeps a spatial index of its children so that hit-testing only tests the children
+ * under the mouse rather than every child
+ * 
+ * @author Phillip Beauvoir
+ */
+public class IndexedFreeformLayer extends FreeformLayer implements ISpatiallyIndexedFigure {
+    
+    private FigureSpatialIndex fSpatialIndex = new FigureSpatialIndex(this);
+    
+    @Override
+    public void add(IFigure child, Object constraint, int index) {
+        super.add(child, constraint, index);
+        fSpatialIndex.add(child);
+    }
+    
+    @Override
+    public void remove(IFigure child) {
+        super.remove(child);
+        fSpatialIndex.remove(child);
+    }
+    
+    @Override
+    public FigureSpatialIndex getSpatialIndex() {
+        return fSpatialIndex;
+    }
+    
+    @Override
+    public boolean containsPoint(int x, int y) {
+        if(isOpaque()) {
+            return super.containsPoint(x, y);
+        }
+        
+        return fSpatialIndex.containsChildAt(x, y);
+    }
+    
+    @Override
+    protected IFigure findDescendantAtExcluding(int x, int y, TreeSearch search) {
+        return fSpatialIndex.findDescendantAt(x, y, search);
+    }
+}
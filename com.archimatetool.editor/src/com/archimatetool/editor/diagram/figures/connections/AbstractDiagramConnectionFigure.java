@@ -7,7 +7,6 @@ package com.archimatetool.editor.diagram.figures.connections;
 
 import java.util.Arrays;
 
-import org.eclipse.draw2d.ColorConstants;
 import org.eclipse.draw2d.ConnectionLocator;
 import org.eclipse.draw2d.Graphics;
 import org.eclipse.draw2d.IFigure;
@@ -24,10 +23,12 @@ import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.Path;
 
 import com.archimatetool.editor.ArchiPlugin;
+import com.archimatetool.editor.diagram.figures.CachedTextFlow;
+import com.archimatetool.editor.diagram.figures.FigureStyle;
+import com.archimatetool.editor.diagram.figures.FigureUtils;
 import com.archimatetool.editor.diagram.figures.ToolTipFigure;
 import com.archimatetool.editor.diagram.util.AnimationUtil;
 import com.archimatetool.editor.preferences.IPreferenceConstants;
-import com.archimatetool.editor.ui.ColorFactory;
 import com.archimatetool.editor.ui.FontFactory;
 import com.archimatetool.editor.ui.textrender.TextRenderer;
 import com.archimatetool.editor.utils.PlatformUtils;
@@ -51,6 +52,8 @@ extends RoundedPolylineConnection implements IDiagramConnectionFigure {
     protected int fTextPosition = -1;
     
     private IDiagramModelConnection fDiagramModelConnection;
+    
+    private FigureStyle fStyle;
 
     protected Color fFontColor;
     protected Color fLineColor;
@@ -61,7 +64,12 @@ extends RoundedPolylineConnection implements IDiagramConnectionFigure {
     
 	@Override
     public void setModelConnection(IDiagramModelConnection connection) {
+	    if(fStyle != null) {
+	        fStyle.dispose();
+	    }
+	    
 	    fDiagramModelConnection = connection;
+	    fStyle = new FigureStyle(connection);
 	    
 	    setFigureProperties();
         
@@ -74,6 +82,13 @@ extends RoundedPolylineConnection implements IDiagramConnectionFigure {
 	    return fDiagramModelConnection;
 	}
 	
+    /**
+     * @return The parsed style values of the connection
+     */
+    public FigureStyle getStyle() {
+        return fStyle;
+    }
+	
 	protected void setFigureProperties() {
 	}
 	
@@ -114,7 +129,7 @@ extends RoundedPolylineConnection implements IDiagramConnectionFigure {
     @Override
     public TextFlow getConnectionLabel() {
         if(fTextFlow == null) {
-            fTextFlow = new TextFlow();
+            fTextFlow = new CachedTextFlow();
             //fTextFlow.setLayoutManager(new ParagraphTextLayout(fTextFlow, ParagraphTextLayout.WORD_WRAP_HARD));
             
             FlowPage flowPage = new FlowPage();
@@ -181,8 +196,7 @@ extends RoundedPolylineConnection implements IDiagramConnectionFigure {
      * Set the font in the label to that in the model, or failing that, as per user's default
      */
     protected void setLabelFont() {
-        String fontName = getModelConnection().getFont();
-        Font font = FontFactory.get(fontName);
+        Font font = getStyle().getFont();
         
         // Adjust for Windows DPI
         if(PlatformUtils.isWindows()) {
@@ -196,11 +210,8 @@ extends RoundedPolylineConnection implements IDiagramConnectionFigure {
      * Set the font color to that in the model, or failing that, as per default
      */
     protected void setLabelFontColor() {
-        String val = getModelConnection().getFontColor();
-        Color c = ColorFactory.get(val);
-        if(c == null) {
-            c = ColorConstants.black; // have to set default color otherwise it inherits line color
-        }
+        // Default is black as we have to set a color otherwise it inherits line color
+        Color c = getStyle().getFontColor();
         if(c != fFontColor) {
             fFontColor = c;
             getConnectionLabel().setForegroundColor(c);
@@ -211,12 +222,7 @@ extends RoundedPolylineConnection implements IDiagramConnectionFigure {
      * Set the line color to that in the model, or failing that, as per default
      */
     protected void setLineColor() {
-        String val = getModelConnection().getLineColor();
-        Color color = ColorFactory.get(val);
-        
-        if(color == null) {
-            color = ColorFactory.getDefaultLineColor(getModelConnection());
-        }
+        Color color = getStyle().getLineColor();
         
         if(color != fLineColor) {
             fLineColor = color;
@@ -225,7 +231,14 @@ extends RoundedPolylineConnection implements IDiagramConnectionFigure {
     }
     
     protected void setLineWidth() {
-        setLineWidth(getModelConnection().getLineWidth());
+        setLineWidth(getStyle().getLineWidth());
+    }
+    
+    @Override
+    public void dispose() {
+        if(fStyle != null) {
+            fStyle.dispose();
+        }
     }
     
     @Override
@@ -290,7 +303,11 @@ extends RoundedPolylineConnection implements IDiagramConnectionFigure {
             setForegroundColor(fLineColor);
         }
 
-        if(StringUtils.isSet(getConnectionLabel().getText()) && 
+        // Zoomed out so no need to clip the label as it's not drawn
+        if(FigureUtils.isLowDetail(this, graphics)) {
+            super.paintFigure(graphics);
+        }
+        else if(StringUtils.isSet(getConnectionLabel().getText()) && 
                 ArchiPlugin.PREFERENCES.getInt(IPreferenceConstants.CONNECTION_LABEL_STRATEGY) == CONNECTION_LABEL_CLIPPED) {
             clipTextLabel(graphics);
         }
@@ -299,6 +316,14 @@ extends RoundedPolylineConnection implements IDiagramConnectionFigure {
         }
     }
     
+    @Override
+    protected void paintClientArea(Graphics graphics) {
+        // Don't draw the label and decorations when zoomed out
+        if(!FigureUtils.isLowDetail(this, graphics)) {
+            super.paintClientArea(graphics);
+        }
+    }
+    
     /**
      * Clip the text label so it doesn't draw on the connection
      */
@@ -0,0 +1,105 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures.connections;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.draw2d.AbstractRouter;
+import org.eclipse.draw2d.Connection;
+import org.eclipse.draw2d.ConnectionAnchor;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.ManhattanConnectionRouter;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+
+
+/**
+ * Manhattan Connection Router that only routes a connection again when the geometry that its route depends on has changed.
+ *
+ * A connection is revalidated whenever an ancestor of one of its anchor owners moves, which includes scrolling the View
+ * and moving a parent figure. draw2d's ManhattanConnectionRouter then routes it again. Here, each route is kept with the
+ * connection's end points and the bounds of its anchor owners. The route is reused if these are unchanged, so the cost
+ * of a drag or a scroll depends on the number of connections whose end points actually moved.
+ *
+ * The rows and columns reserved by a connection in the ManhattanConnectionRouter are kept while its route is reused.
+ *
+ * @author Phillip Beauvoir
+ */
+public class CachingManhattanConnectionRouter extends AbstractRouter {
+
+    private static class Route {
+        Point start, end;
+        Rectangle sourceBounds, targetBounds;
+        PointList points;
+
+        boolean matches(Route other) {
+            return start.equals(other.start) && end.equals(other.end)
+                    && Objects.equals(sourceBounds, other.sourceBounds) && Objects.equals(targetBounds, other.targetBounds);
+        }
+    }
+
+    private ManhattanConnectionRouter fRouter = new ManhattanConnectionRouter();
+
+    private Map<Connection, Route> fRoutes = new HashMap<>();
+
+    @Override
+    public void route(Connection conn) {
+        if(conn.getSourceAnchor() == null || conn.getTargetAnchor() == null) {
+            return;
+        }
+
+        Route route = new Route();
+        route.start = getStartPoint(conn).getCopy();
+        route.end = getEndPoint(conn).getCopy();
+        conn.translateToRelative(route.start);
+        conn.translateToRelative(route.end);
+        route.sourceBounds = getOwnerBounds(conn, conn.getSourceAnchor());
+        route.targetBounds = getOwnerBounds(conn, conn.getTargetAnchor());
+
+        Route cachedRoute = fRoutes.get(conn);
+
+        if(cachedRoute != null && cachedRoute.matches(route)) {
+            conn.setPoints(cachedRoute.points.getCopy());
+            return;
+        }
+
+        // Release the rows and columns reserved for the old route and route again
+        fRouter.invalidate(conn);
+        fRouter.route(conn);
+
+        route.points = conn.getPoints().getCopy();
+        fRoutes.put(conn, route);
+    }
+
+    @Override
+    public void remove(Connection conn) {
+        fRoutes.remove(conn);
+        fRouter.remove(conn);
+    }
+
+    /**
+     * @return The number of cached routes
+     */
+    int size() {
+        return fRoutes.size();
+    }
+
+    private Rectangle getOwnerBounds(Connection conn, ConnectionAnchor anchor) {
+        IFigure owner = anchor.getOwner();
+        if(owner == null) {
+            return null;
+        }
+
+        Rectangle bounds = owner.getBounds().getCopy();
+        owner.translateToAbsolute(bounds);
+        conn.translateToRelative(bounds);
+        return bounds;
+    }
+}
@@ -52,4 +52,10 @@ public interface IDiagramConnectionFigure extends Connection, ITargetFeedbackFig
      * @return The label figure
      */
     Figure getConnectionLabel();
+    
+    /**
+     * Dispose of any resources held by the figure
+     */
+    default void dispose() {
+    }
 }
@@ -0,0 +1,57 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures.connections;
+
+import org.eclipse.draw2d.ConnectionLayer;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.TreeSearch;
+
+import com.archimatetool.editor.diagram.figures.FigureSpatialIndex;
+import com.archimatetool.editor.diagram.figures.ISpatiallyIndexedFigure;
+
+
+
+/**
+ * ConnectionLayer that keeps a spatial index of its connections so that hit-testing only tests the connections
+ * under the mouse rather than every connection
+ * 
+ * @author Phillip Beauvoir
+ */
+public class IndexedConnectionLayer extends ConnectionLayer implements ISpatiallyIndexedFigure {
+    
+    private FigureSpatialIndex fSpatialIndex = new FigureSpatialIndex(this);
+    
+    @Override
+    public void add(IFigure figure, Object constraint, int index) {
+        super.add(figure, constraint, index);
+        fSpatialIndex.add(figure);
+    }
+    
+    @Override
+    public void remove(IFigure figure) {
+        super.remove(figure);
+        fSpatialIndex.remove(figure);
+    }
+    
+    @Override
+    public FigureSpatialIndex getSpatialIndex() {
+        return fSpatialIndex;
+    }
+    
+    @Override
+    public boolean containsPoint(int x, int y) {
+        if(isOpaque()) {
+            return super.containsPoint(x, y);
+        }
+        
+        return fSpatialIndex.containsChildAt(x, y);
+    }
+    
+    @Override
+    protected IFigure findDescendantAtExcluding(int x, int y, TreeSearch search) {
+        return fSpatialIndex.findDescendantAt(x, y, search);
+    }
+}
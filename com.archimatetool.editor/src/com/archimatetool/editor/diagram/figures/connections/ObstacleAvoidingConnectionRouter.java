@@ -0,0 +1,430 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures.connections;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.draw2d.AbstractRouter;
+import org.eclipse.draw2d.Connection;
+import org.eclipse.draw2d.FigureListener;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.LayoutListener;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.swt.widgets.Display;
+
+
+
+/**
+ * Connection Router that routes connections around the child figures of a container figure
+ * along the shortest path.
+ *
+ * Unlike draw2d's ShortestPathConnectionRouter, which routes every connection again when any figure changes,
+ * only connections whose route passes near a moved, added or removed figure are routed again. The connections are kept in
+ * a grid of the cells that their route's segments pass through so that these can be found without testing every route.
+ * Routes are found on a background thread and the connection keeps its previous route, or a straight line, until
+ * the new route is ready.
+ *
+ * Connections can be connected to other connections as the route only depends on the anchor reference points.
+ *
+ * @author Phillip Beauvoir
+ */
+public class ObstacleAvoidingConnectionRouter extends AbstractRouter {
+
+    /**
+     * Space between a route and the figures it goes around
+     */
+    static final int SPACING = 8;
+
+    /**
+     * Distance from a changed figure within which a route is found again. A route that goes around a figure
+     * is SPACING away from it so this has to be larger.
+     */
+    static final int ROUTE_MARGIN = SPACING * 2;
+
+    private static ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Connection Router"); //$NON-NLS-1$
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static class Route {
+        Point start, end;       // Reference points the route is for
+        PointList points;       // Last route found, null if there isn't one yet
+        Set<Long> cells;        // Grid cells that the route is indexed in, null if it isn't indexed
+        boolean stale = true;   // Has to be routed again
+        boolean pending;        // Being routed in the background
+        volatile int generation; // Incremented for each routing so that an outdated search or result is skipped
+    }
+
+    private IFigure fContainer;
+
+    private Map<Connection, Route> fRoutes = new HashMap<>();
+
+    // Connections in each grid cell keyed by cell position, as in ObstaclePathFinder
+    private Map<Long, Set<Connection>> fCells = new HashMap<>();
+
+    // Connections that are routed again on any change because their route is being found or is too large to index
+    private Set<Connection> fUnindexed = new HashSet<>();
+
+    // Bounds of the obstacle figures, null when not listening to the container
+    private Map<IFigure, Rectangle> fObstacles;
+
+    // Copy of the obstacles for the path finder, null if obstacles changed since it was made
+    private ObstaclePathFinder fPathFinder;
+
+    private boolean fRouteInBackground = true;
+
+    private FigureListener fFigureListener = this::obstacleMoved;
+
+    private LayoutListener fLayoutListener = new LayoutListener.Stub() {
+        @Override
+        public void remove(IFigure child) {
+            removeObstacle(child);
+        }
+
+        @Override
+        public void setConstraint(IFigure child, Object constraint) {
+            addObstacle(child);
+        }
+    };
+
+    /**
+     * @param container The figure whose child figures are routed around
+     */
+    public ObstacleAvoidingConnectionRouter(IFigure container) {
+        fContainer = container;
+    }
+
+    /**
+     * @param set If true (the default) routes are found on a background thread when there is a Display
+     */
+    public void setRouteInBackground(boolean set) {
+        fRouteInBackground = set;
+    }
+
+    @Override
+    public void route(Connection conn) {
+        if(fObstacles == null) {
+            hookContainer();
+        }
+
+        Point start = conn.getSourceAnchor().getReferencePoint().getCopy();
+        Point end = conn.getTargetAnchor().getReferencePoint().getCopy();
+        conn.translateToRelative(start);
+        conn.translateToRelative(end);
+
+        Route route = fRoutes.get(conn);
+        if(route == null) {
+            route = new Route();
+            fRoutes.put(conn, route);
+        }
+
+        if(route.stale || !start.equals(route.start) || !end.equals(route.end)) {
+            route.start = start;
+            route.end = end;
+            route.stale = false;
+            findRoute(conn, route);
+        }
+
+        setPoints(conn, route);
+    }
+
+    @Override
+    public void remove(Connection conn) {
+        Route route = fRoutes.remove(conn);
+        if(route != null) {
+            route.generation++;
+            unindex(conn, route);
+        }
+
+        if(fRoutes.isEmpty()) {
+            unhookContainer();
+        }
+    }
+
+    private void findRoute(Connection conn, Route route) {
+        ObstaclePathFinder pathFinder = getPathFinder();
+        Point start = route.start.getCopy();
+        Point end = route.end.getCopy();
+        int generation = ++route.generation;
+
+        Display display = Display.getCurrent();
+
+        if(fRouteInBackground && display != null) {
+            route.pending = true;
+            unindex(conn, route);
+            fUnindexed.add(conn);
+
+            executor.execute(() -> {
+                // Routed again or removed while this was queued, as happens while a figure is dragged
+                if(route.generation != generation) {
+                    return;
+                }
+
+                ObstaclePathFinder.Result result = findPath(pathFinder, start, end);
+
+                display.asyncExec(() -> {
+                    // Connection removed or routed again since
+                    if(route.generation != generation || fRoutes.get(conn) != route) {
+                        return;
+                    }
+
+                    setResult(conn, route, result);
+                    conn.revalidate();
+                });
+            });
+        }
+        else {
+            setResult(conn, route, findPath(pathFinder, start, end));
+        }
+    }
+
+    /**
+     * Find a route, which may be on the background thread
+     */
+    ObstaclePathFinder.Result findPath(ObstaclePathFinder pathFinder, Point start, Point end) {
+        return pathFinder.findPath(start, end);
+    }
+
+    /**
+     * @return true if the connection has to be routed again
+     */
+    boolean isStale(Connection conn) {
+        Route route = fRoutes.get(conn);
+        return route == null || route.stale;
+    }
+
+    private void setResult(Connection conn, Route route, ObstaclePathFinder.Result result) {
+        unindex(conn, route);
+        route.pending = false;
+        route.points = result.points;
+        index(conn, route);
+    }
+
+    /**
+     * Add the connection to the grid cells that its route's segments, plus the margin, pass through
+     */
+    private void index(Connection conn, Route route) {
+        Set<Long> cells = new HashSet<>();
+
+        for(int i = 0; i < route.points.size() - 1; i++) {
+            Rectangle bounds = new Rectangle(route.points.getPoint(i), route.points.getPoint(i + 1)).expand(ROUTE_MARGIN, ROUTE_MARGIN);
+            if(!addCells(cells, bounds)) {
+                fUnindexed.add(conn);
+                return;
+            }
+        }
+
+        for(Long key : cells) {
+            fCells.computeIfAbsent(key, k -> new HashSet<>()).add(conn);
+        }
+
+        route.cells = cells;
+    }
+
+    private void unindex(Connection conn, Route route) {
+        if(route.cells != null) {
+            for(Long key : route.cells) {
+                Set<Connection> cell = fCells.get(key);
+                if(cell != null && cell.remove(conn) && cell.isEmpty()) {
+                    fCells.remove(key);
+                }
+            }
+            route.cells = null;
+        }
+
+        fUnindexed.remove(conn);
+    }
+
+    private void setPoints(Connection conn, Route route) {
+        PointList points;
+
+        if(route.points != null) {
+            points = route.points.getCopy();
+            points.setPoint(route.start, 0);
+            points.setPoint(route.end, points.size() - 1);
+        }
+        else {
+            points = new PointList();
+            points.addPoint(route.start);
+            points.addPoint(route.end);
+        }
+
+        // Clip the ends to the anchors, as in ShortestPathConnectionRouter
+        Point ref1 = points.getPoint(1);
+        Point ref2 = points.getPoint(points.size() - 2);
+        conn.translateToAbsolute(ref1);
+        conn.translateToAbsolute(ref2);
+
+        Point start = conn.getSourceAnchor().getLocation(ref1).getCopy();
+        Point end = conn.getTargetAnchor().getLocation(ref2).getCopy();
+        conn.translateToRelative(start);
+        conn.translateToRelative(end);
+
+        points.setPoint(start, 0);
+        points.setPoint(end, points.size() - 1);
+
+        conn.setPoints(points);
+    }
+
+    private ObstaclePathFinder getPathFinder() {
+        if(fPathFinder == null) {
+            List<Rectangle> obstacles = new ArrayList<>();
+            for(Rectangle bounds : fObstacles.values()) {
+                obstacles.add(bounds.getExpanded(SPACING, SPACING));
+            }
+            fPathFinder = new ObstaclePathFinder(obstacles);
+        }
+
+        return fPathFinder;
+    }
+
+    /**
+     * Route again the connections whose route passes near a change in the area
+     */
+    private void obstaclesChanged(Rectangle area) {
+        fPathFinder = null;
+
+        Rectangle expanded = area.getExpanded(ROUTE_MARGIN, ROUTE_MARGIN);
+
+        Set<Connection> candidates = new HashSet<>();
+        Set<Long> cells = new HashSet<>();
+
+        if(addCells(cells, expanded)) {
+            for(Long key : cells) {
+                Set<Connection> cell = fCells.get(key);
+                if(cell != null) {
+                    candidates.addAll(cell);
+                }
+            }
+        }
+        else {
+            candidates.addAll(fRoutes.keySet());
+        }
+
+        for(Connection conn : candidates) {
+            Route route = fRoutes.get(conn);
+            if(!route.stale && route.cells != null && isNear(route.points, expanded)) {
+                setStale(conn, route);
+            }
+        }
+
+        for(Connection conn : new ArrayList<>(fUnindexed)) {
+            Route route = fRoutes.get(conn);
+            if(!route.stale) {
+                setStale(conn, route);
+            }
+        }
+    }
+
+    private void setStale(Connection conn, Route route) {
+        route.stale = true;
+        conn.revalidate();
+    }
+
+    /**
+     * @return true if the bounds of a segment of the route intersect the area
+     */
+    private static boolean isNear(PointList points, Rectangle area) {
+        for(int i = 0; i < points.size() - 1; i++) {
+            if(new Rectangle(points.getPoint(i), points.getPoint(i + 1)).intersects(area)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add the keys of the grid cells covering the bounds to cells
+     * @return false if the bounds cover too many cells to index
+     */
+    private static boolean addCells(Set<Long> cells, Rectangle bounds) {
+        int x1 = Math.floorDiv(bounds.x, ObstaclePathFinder.CELL_SIZE);
+        int y1 = Math.floorDiv(bounds.y, ObstaclePathFinder.CELL_SIZE);
+        int x2 = Math.floorDiv(bounds.x + bounds.width - 1, ObstaclePathFinder.CELL_SIZE);
+        int y2 = Math.floorDiv(bounds.y + bounds.height - 1, ObstaclePathFinder.CELL_SIZE);
+
+        if((long)(x2 - x1 + 1) * (y2 - y1 + 1) > ObstaclePathFinder.MAX_CELLS) {
+            return false;
+        }
+
+        for(int x = x1; x <= x2; x++) {
+            for(int y = y1; y <= y2; y++) {
+                cells.add(((long)x << 32) | (y & 0xFFFFFFFFL));
+            }
+        }
+
+        return true;
+    }
+
+    private void obstacleMoved(IFigure figure) {
+        Rectangle oldBounds = fObstacles.get(figure);
+        Rectangle newBounds = figure.getBounds().getCopy();
+
+        if(oldBounds == null || oldBounds.equals(newBounds)) {
+            return;
+        }
+
+        fObstacles.put(figure, newBounds);
+        obstaclesChanged(oldBounds);
+        obstaclesChanged(newBounds);
+    }
+
+    private void addObstacle(IFigure figure) {
+        if(fObstacles.containsKey(figure)) {
+            return;
+        }
+
+        Rectangle bounds = figure.getBounds().getCopy();
+        fObstacles.put(figure, bounds);
+        figure.addFigureListener(fFigureListener);
+        obstaclesChanged(bounds);
+    }
+
+    private void removeObstacle(IFigure figure) {
+        Rectangle bounds = fObstacles.remove(figure);
+        if(bounds != null) {
+            figure.removeFigureListener(fFigureListener);
+            obstaclesChanged(bounds);
+        }
+    }
+
+    private void hookContainer() {
+        fObstacles = new HashMap<>();
+
+        for(Object child : fContainer.getChildren()) {
+            IFigure figure = (IFigure)child;
+            fObstacles.put(figure, figure.getBounds().getCopy());
+            figure.addFigureListener(fFigureListener);
+        }
+
+        fContainer.addLayoutListener(fLayoutListener);
+    }
+
+    private void unhookContainer() {
+        if(fObstacles == null) {
+            return;
+        }
+
+        fContainer.removeLayoutListener(fLayoutListener);
+
+        for(IFigure figure : fObstacles.keySet()) {
+            figure.removeFigureListener(fFigureListener);
+        }
+
+        fObstacles = null;
+        fPathFinder = null;
+    }
+}
@@ -0,0 +1,330 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures.connections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+
+
+/**
+ * Finds the shortest path between two points that goes around rectangular obstacles.
+ *
+ * The finder holds its own copy of the obstacles in a grid so that it can be used on a background thread and so that
+ * only the obstacles near a path are considered. A path is searched for within a corridor around the start and end points
+ * which is enlarged until a path is found. The search is an A* search over the visibility graph of the corners of the
+ * obstacles in the corridor.
+ *
+ * Obstacles that contain the start or end point are ignored. If there are too many obstacles in the corridor
+ * to search it in a reasonable time a straight line is returned.
+ *
+ * @author Phillip Beauvoir
+ */
+class ObstaclePathFinder {
+
+    /**
+     * Width and height of a grid cell
+     */
+    static final int CELL_SIZE = 256;
+
+    /**
+     * An obstacle covering more cells than this is not put in the grid
+     */
+    static final int MAX_CELLS = 1024;
+
+    /**
+     * Margin around the start and end points of the first corridor searched
+     */
+    static final int CORRIDOR_MARGIN = 100;
+
+    /**
+     * Number of times the corridor is enlarged before giving up and returning a straight line
+     */
+    static final int MAX_ATTEMPTS = 4;
+
+    /**
+     * Maximum number of obstacles in a corridor that is searched
+     */
+    static final int MAX_OBSTACLES = 150;
+
+    /**
+     * A path and the corridor it was found in
+     */
+    static class Result {
+        final PointList points;
+        final Rectangle corridor;
+
+        Result(PointList points, Rectangle corridor) {
+            this.points = points;
+            this.corridor = corridor;
+        }
+    }
+
+    // Obstacles in each cell keyed by cell position
+    private Map<Long, List<Rectangle>> fCells = new HashMap<>();
+
+    // Obstacles too large to put in the grid
+    private List<Rectangle> fOversized = new ArrayList<>();
+
+    /**
+     * @param obstacles The obstacles. These are copied.
+     */
+    ObstaclePathFinder(Collection<Rectangle> obstacles) {
+        for(Rectangle r : obstacles) {
+            add(r.getCopy());
+        }
+    }
+
+    /**
+     * @return The shortest path from start to end around the obstacles, or a straight line if there is none
+     */
+    Result findPath(Point start, Point end) {
+        Rectangle corridor = new Rectangle(start, end).expand(CORRIDOR_MARGIN, CORRIDOR_MARGIN);
+
+        for(int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            List<Rectangle> obstacles = getObstacles(corridor, start, end);
+            if(obstacles.size() > MAX_OBSTACLES) {
+                break;
+            }
+
+            PointList points = search(start, end, obstacles, corridor);
+            if(points != null) {
+                return new Result(points, corridor);
+            }
+
+            corridor = corridor.getExpanded(corridor.width / 2, corridor.height / 2);
+        }
+
+        PointList points = new PointList();
+        points.addPoint(start);
+        points.addPoint(end);
+
+        return new Result(points, corridor);
+    }
+
+    /**
+     * @return The obstacles intersecting the area that don't contain the start or end point
+     */
+    List<Rectangle> getObstacles(Rectangle area, Point start, Point end) {
+        Set<Rectangle> candidates = new LinkedHashSet<>(fOversized);
+
+        int x1 = cell(area.x);
+        int y1 = cell(area.y);
+        int x2 = cell(area.x + area.width - 1);
+        int y2 = cell(area.y + area.height - 1);
+
+        for(int x = x1; x <= x2; x++) {
+            for(int y = y1; y <= y2; y++) {
+                List<Rectangle> cell = fCells.get(key(x, y));
+                if(cell != null) {
+                    candidates.addAll(cell);
+                }
+            }
+        }
+
+        List<Rectangle> result = new ArrayList<>();
+
+        for(Rectangle r : candidates) {
+            if(r.intersects(area) && !r.contains(start) && !r.contains(end)) {
+                result.add(r);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * A* search over the visibility graph of the obstacle corners in the corridor
+     * @return The path or null if there is no path within the corridor
+     */
+    private PointList search(Point start, Point end, List<Rectangle> obstacles, Rectangle corridor) {
+        // Nodes are the start, the end and the obstacle corners that are in the corridor and not inside another obstacle.
+        // Corners are one pixel outside of the obstacle so that a path can go along its sides.
+        List<Point> nodes = new ArrayList<>();
+        nodes.add(start);
+        nodes.add(end);
+
+        for(Rectangle r : obstacles) {
+            addNode(nodes, new Point(r.x - 1, r.y - 1), obstacles, corridor);
+            addNode(nodes, new Point(r.x + r.width, r.y - 1), obstacles, corridor);
+            addNode(nodes, new Point(r.x + r.width, r.y + r.height), obstacles, corridor);
+            addNode(nodes, new Point(r.x - 1, r.y + r.height), obstacles, corridor);
+        }
+
+        int size = nodes.size();
+        double[] cost = new double[size];
+        int[] previous = new int[size];
+        boolean[] closed = new boolean[size];
+
+        Arrays.fill(cost, Double.MAX_VALUE);
+        Arrays.fill(previous, -1);
+        cost[0] = 0;
+
+        // Open nodes as { estimated total cost, node index }
+        PriorityQueue<double[]> open = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        open.add(new double[] { distance(start, end), 0 });
+
+        while(!open.isEmpty()) {
+            int current = (int)open.poll()[1];
+
+            if(closed[current]) {
+                continue;
+            }
+
+            if(current == 1) {
+                return getPath(nodes, previous);
+            }
+
+            closed[current] = true;
+            Point from = nodes.get(current);
+
+            // Visibility is only tested for nodes that would be improved and could improve on the best path to the end so far
+            for(int next = 1; next < size; next++) {
+                if(closed[next]) {
+                    continue;
+                }
+
+                Point to = nodes.get(next);
+                double newCost = cost[current] + distance(from, to);
+
+                if(newCost < cost[next] && newCost + distance(to, end) < cost[1] && isVisible(from, to, obstacles)) {
+                    cost[next] = newCost;
+                    previous[next] = current;
+                    open.add(new double[] { newCost + distance(to, end), next });
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private void addNode(List<Point> nodes, Point pt, List<Rectangle> obstacles, Rectangle corridor) {
+        if(!corridor.contains(pt)) {
+            return;
+        }
+
+        for(Rectangle r : obstacles) {
+            if(r.contains(pt)) {
+                return;
+            }
+        }
+
+        nodes.add(pt);
+    }
+
+    private PointList getPath(List<Point> nodes, int[] previous) {
+        List<Point> path = new ArrayList<>();
+
+        for(int i = 1; i != -1; i = previous[i]) {
+            path.add(0, nodes.get(i));
+        }
+
+        PointList points = new PointList(path.size());
+        for(Point pt : path) {
+            points.addPoint(pt);
+        }
+
+        return points;
+    }
+
+    private boolean isVisible(Point from, Point to, List<Rectangle> obstacles) {
+        for(Rectangle r : obstacles) {
+            if(intersects(from, to, r)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return true if the line from p1 to p2 touches the rectangle (Liang-Barsky clipping)
+     */
+    static boolean intersects(Point p1, Point p2, Rectangle r) {
+        int left = r.x;
+        int top = r.y;
+        int right = r.x + r.width - 1;
+        int bottom = r.y + r.height - 1;
+
+        if(Math.max(p1.x, p2.x) < left || Math.min(p1.x, p2.x) > right || Math.max(p1.y, p2.y) < top || Math.min(p1.y, p2.y) > bottom) {
+            return false;
+        }
+
+        double dx = p2.x - p1.x;
+        double dy = p2.y - p1.y;
+        double[] p = { -dx, dx, -dy, dy };
+        double[] q = { p1.x - left, right - p1.x, p1.y - top, bottom - p1.y };
+
+        double t0 = 0;
+        double t1 = 1;
+
+        for(int i = 0; i < 4; i++) {
+            if(p[i] == 0) {
+                if(q[i] < 0) {
+                    return false;
+                }
+            }
+            else {
+                double t = q[i] / p[i];
+                if(p[i] < 0) {
+                    if(t > t1) {
+                        return false;
+                    }
+                    t0 = Math.max(t0, t);
+                }
+                else {
+                    if(t < t0) {
+                        return false;
+                    }
+                    t1 = Math.min(t1, t);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void add(Rectangle r) {
+        int x1 = cell(r.x);
+        int y1 = cell(r.y);
+        int x2 = cell(r.x + r.width - 1);
+        int y2 = cell(r.y + r.height - 1);
+
+        if((long)(x2 - x1 + 1) * (y2 - y1 + 1) > MAX_CELLS) {
+            fOversized.add(r);
+            return;
+        }
+
+        for(int x = x1; x <= x2; x++) {
+            for(int y = y1; y <= y2; y++) {
+                fCells.computeIfAbsent(key(x, y), k -> new ArrayList<>(4)).add(r);
+            }
+        }
+    }
+
+    private static double distance(Point p1, Point p2) {
+        return Math.hypot(p2.x - p1.x, p2.y - p1.y);
+    }
+
+    private static int cell(int value) {
+        return Math.floorDiv(value, CELL_SIZE);
+    }
+
+    private static Long key(int x, int y) {
+        return ((long)x << 32) | (y & 0xFFFFFFFFL);
+    }
+}
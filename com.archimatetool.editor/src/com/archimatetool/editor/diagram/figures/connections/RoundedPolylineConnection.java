@@ -38,6 +38,7 @@ import org.eclipse.draw2d.geometry.PointList;
 import org.eclipse.draw2d.geometry.Rectangle;
 
 import com.archimatetool.editor.ArchiPlugin;
+import com.archimatetool.editor.diagram.figures.FigureUtils;
 import com.archimatetool.editor.diagram.figures.PolarPoint;
 import com.archimatetool.editor.preferences.IPreferenceConstants;
 
@@ -85,6 +86,12 @@ public class RoundedPolylineConnection extends PolylineConnection {
 			return;
 		}
 		
+		// Draw a simple polyline when zoomed out
+		if (FigureUtils.isLowDetail(this, g)) {
+			g.drawPolyline(bendpoints);
+			return;
+		}
+		
 		// Start point is the first "previous" point
 		Point prev = bendpoints.getPoint(0);
 		
@@ -19,6 +19,7 @@ import org.eclipse.swt.graphics.Path;
 import org.eclipse.swt.graphics.Pattern;
 
 import com.archimatetool.editor.diagram.figures.AbstractDiagramModelObjectFigure;
+import com.archimatetool.editor.diagram.figures.CachedTextFlow;
 import com.archimatetool.editor.diagram.figures.FigureUtils;
 import com.archimatetool.editor.diagram.figures.ITextFigure;
 import com.archimatetool.editor.diagram.figures.IconicDelegate;
@@ -52,7 +53,7 @@ public class NoteFigure extends AbstractDiagramModelObjectFigure implements ITex
         setLayoutManager(new GridLayout());
 
         FlowPage page = new FlowPage();
-        fTextFlow = new TextFlow();
+        fTextFlow = new CachedTextFlow();
         fTextFlow.setLayoutManager(new ParagraphTextLayout(fTextFlow, ParagraphTextLayout.WORD_WRAP_SOFT));
         page.add(fTextFlow);
         setOpaque(true);
@@ -0,0 +1,109 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures.diagram;
+
+import org.eclipse.draw2d.ChopboxAnchor;
+import org.eclipse.draw2d.ColorConstants;
+import org.eclipse.draw2d.ConnectionAnchor;
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.swt.graphics.Color;
+
+import com.archimatetool.editor.diagram.figures.IDiagramModelObjectFigure;
+import com.archimatetool.editor.ui.ColorFactory;
+import com.archimatetool.editor.ui.factory.IGraphicalObjectUIProvider;
+import com.archimatetool.editor.ui.factory.ObjectUIFactory;
+import com.archimatetool.model.IDiagramModelObject;
+
+
+/**
+ * Lightweight Figure drawn in place of a diagram object that has not been scrolled into view yet
+ *
+ * @author Phillip Beauvoir
+ */
+public class PlaceholderFigure extends Figure
+implements IDiagramModelObjectFigure {
+
+    private IDiagramModelObject fDiagramModelObject;
+
+    public PlaceholderFigure() {
+    }
+
+    @Override
+    public void setDiagramModelObject(IDiagramModelObject diagramModelObject) {
+        fDiagramModelObject = diagramModelObject;
+    }
+
+    @Override
+    public IDiagramModelObject getDiagramModelObject() {
+        return fDiagramModelObject;
+    }
+
+    @Override
+    protected void paintFigure(Graphics graphics) {
+        Rectangle bounds = getBounds().getCopy();
+        bounds.width--;
+        bounds.height--;
+
+        graphics.setBackgroundColor(getFillColor());
+        graphics.fillRectangle(bounds);
+        graphics.setForegroundColor(getLineColor());
+        graphics.drawRectangle(bounds);
+    }
+
+    @Override
+    public void refreshVisuals() {
+        repaint();
+    }
+
+    @Override
+    public IFigure getTextControl() {
+        return null;
+    }
+
+    @Override
+    public boolean didClickTextControl(Point requestLoc) {
+        return false;
+    }
+
+    @Override
+    public Dimension getPreferredSize(int wHint, int hHint) {
+        return getDefaultSize();
+    }
+
+    @Override
+    public Dimension getDefaultSize() {
+        IGraphicalObjectUIProvider provider = (IGraphicalObjectUIProvider)ObjectUIFactory.INSTANCE.getProvider(getDiagramModelObject());
+        return provider != null ? provider.getDefaultSize() : IGraphicalObjectUIProvider.defaultSize();
+    }
+
+    @Override
+    public Color getFillColor() {
+        return ColorFactory.get(245, 245, 245);
+    }
+
+    @Override
+    public Color getLineColor() {
+        return ColorConstants.lightGray;
+    }
+
+    @Override
+    public ConnectionAnchor getDefaultConnectionAnchor() {
+        return new ChopboxAnchor(this);
+    }
+
+    @Override
+    public void updateIconImage() {
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
@@ -8,7 +8,6 @@ package com.archimatetool.editor.diagram.sketch;
 import org.eclipse.draw2d.LayeredPane;
 import org.eclipse.gef.GraphicalViewer;
 import org.eclipse.gef.RootEditPart;
-import org.eclipse.gef.editparts.ScalableFreeformRootEditPart;
 import org.eclipse.help.HelpSystem;
 import org.eclipse.help.IContext;
 import org.eclipse.jface.action.MenuManager;
@@ -17,6 +16,7 @@ import org.eclipse.swt.widgets.Composite;
 import org.eclipse.ui.PlatformUI;
 
 import com.archimatetool.editor.diagram.AbstractDiagramEditor;
+import com.archimatetool.editor.diagram.editparts.ExtendedScalableFreeformRootEditPart;
 import com.archimatetool.editor.diagram.sketch.dnd.SketchDiagramTransferDropTargetListener;
 import com.archimatetool.editor.diagram.sketch.editparts.SketchEditPartFactory;
 import com.archimatetool.editor.ui.IArchiImages;
@@ -74,7 +74,7 @@ implements ISketchEditor {
         /*
          * Over-ride ExtendedScalableFreeformRootEditPart to set a background image
          */
-        RootEditPart rootPart = new ScalableFreeformRootEditPart(false) {
+        RootEditPart rootPart = new ExtendedScalableFreeformRootEditPart(false) {
             @Override
             protected void createLayers(LayeredPane layeredPane) {
                 // Insert Background Image behind other layers
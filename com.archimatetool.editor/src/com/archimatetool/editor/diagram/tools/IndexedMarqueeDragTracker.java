@@ -0,0 +1,35 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.tools;
+
+import java.util.Collection;
+
+import org.eclipse.gef.tools.MarqueeDragTracker;
+
+
+
+/**
+ * Marquee Drag Tracker used when dragging on the diagram background that only tests the edit parts near the marquee
+ * 
+ * @author Phillip Beauvoir
+ */
+public class IndexedMarqueeDragTracker extends MarqueeDragTracker {
+
+    private int marqueeBehavior = DEFAULT_MARQUEE_BEHAVIOR;
+    
+    @Override
+    public void setMarqueeBehavior(int type) {
+        super.setMarqueeBehavior(type);
+        marqueeBehavior = type;
+    }
+    
+    @SuppressWarnings("rawtypes")
+    @Override
+    protected Collection calculateMarqueeSelectedEditParts() {
+        return new IndexedMarqueeSelection(getCurrentViewer(), getCurrentMarqueeSelectionRectangle(), marqueeBehavior,
+                getCurrentSelectionMode(), this::isMarqueeSelectable).calculate();
+    }
+}
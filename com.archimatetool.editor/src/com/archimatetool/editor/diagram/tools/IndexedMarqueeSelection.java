@@ -0,0 +1,224 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.tools;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.eclipse.draw2d.Connection;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.gef.ConnectionEditPart;
+import org.eclipse.gef.EditPart;
+import org.eclipse.gef.EditPartViewer;
+import org.eclipse.gef.GraphicalEditPart;
+import org.eclipse.gef.LayerConstants;
+import org.eclipse.gef.editparts.LayerManager;
+import org.eclipse.gef.tools.MarqueeSelectionTool;
+
+import com.archimatetool.editor.diagram.figures.ISpatiallyIndexedFigure;
+
+
+
+/**
+ * Calculates the edit parts selected by a marquee using the spatial indexes of the diagram's figures
+ * so that only the edit parts whose figures are near the marquee are tested rather than every edit part in the viewer.
+ * 
+ * Candidates are tested in the same way as {@link MarqueeSelectionTool} so that the selection is the same.
+ * 
+ * @author Phillip Beauvoir
+ */
+class IndexedMarqueeSelection {
+    
+    // Selection modes as returned by MarqueeSelectionTool#getCurrentSelectionMode()
+    static final int DEFAULT_MODE = 0;
+    static final int TOGGLE_MODE = 1;
+    static final int APPEND_MODE = 2;
+    
+    private EditPartViewer viewer;
+    private Rectangle marquee;
+    private int behavior;
+    private int mode;
+    private Predicate<GraphicalEditPart> isMarqueeSelectable;
+    
+    private Map<?, ?> visualPartMap;
+    
+    /**
+     * @param viewer The viewer
+     * @param marquee The marquee rectangle in absolute coordinates
+     * @param behavior The marquee behavior as in {@link MarqueeSelectionTool#setMarqueeBehavior(int)}
+     * @param mode The selection mode of the tool
+     * @param isMarqueeSelectable The tool's test whether an edit part may be selected by a marquee
+     */
+    IndexedMarqueeSelection(EditPartViewer viewer, Rectangle marquee, int behavior, int mode, Predicate<GraphicalEditPart> isMarqueeSelectable) {
+        this.viewer = viewer;
+        this.marquee = marquee;
+        this.behavior = behavior;
+        this.mode = mode;
+        this.isMarqueeSelectable = isMarqueeSelectable;
+        visualPartMap = viewer.getVisualPartMap();
+    }
+    
+    /**
+     * @return The edit parts selected by the marquee
+     */
+    Collection<GraphicalEditPart> calculate() {
+        Set<GraphicalEditPart> selected = new LinkedHashSet<>();
+        
+        if(isConnectionBehavior()) {
+            IFigure connectionLayer = LayerManager.Helper.find(viewer.getRootEditPart()).getLayer(LayerConstants.CONNECTION_LAYER);
+            
+            for(IFigure figure : getCandidateFigures(connectionLayer)) {
+                Object editPart = visualPartMap.get(figure);
+                if(editPart instanceof ConnectionEditPart && isSelected((GraphicalEditPart)editPart)) {
+                    selected.add((GraphicalEditPart)editPart);
+                }
+            }
+        }
+        else if(viewer.getContents() instanceof GraphicalEditPart) {
+            addNodes((GraphicalEditPart)viewer.getContents(), selected);
+            
+            if(behavior == MarqueeSelectionTool.BEHAVIOR_NODES_CONTAINED_AND_RELATED_CONNECTIONS
+                    || behavior == MarqueeSelectionTool.BEHAVIOR_NODES_TOUCHED_AND_RELATED_CONNECTIONS) {
+                selected.addAll(getRelatedConnections(selected));
+            }
+        }
+        
+        return selected;
+    }
+    
+    private boolean isConnectionBehavior() {
+        return behavior == MarqueeSelectionTool.BEHAVIOR_CONNECTIONS_CONTAINED || behavior == MarqueeSelectionTool.BEHAVIOR_CONNECTIONS_TOUCHED;
+    }
+    
+    /**
+     * Add the selected node edit parts of parent's children and their children
+     */
+    private void addNodes(GraphicalEditPart parent, Set<GraphicalEditPart> selected) {
+        for(IFigure figure : getCandidateFigures(parent.getContentPane())) {
+            Object child = visualPartMap.get(figure);
+            
+            if(child instanceof GraphicalEditPart && !(child instanceof ConnectionEditPart) && child != parent) {
+                GraphicalEditPart editPart = (GraphicalEditPart)child;
+                
+                if(isSelected(editPart)) {
+                    selected.add(editPart);
+                }
+                
+                // Children are clipped to the parent figure so are only selectable if the parent is near the marquee
+                addNodes(editPart, selected);
+            }
+        }
+    }
+    
+    /**
+     * @return true if the edit part is in the marquee according to the behavior, as in MarqueeSelectionTool
+     */
+    private boolean isSelected(GraphicalEditPart editPart) {
+        if(!isMarqueeSelectable.test(editPart)) {
+            return false;
+        }
+        
+        IFigure figure = editPart.getFigure();
+        Rectangle r = figure.getBounds().getCopy();
+        figure.translateToAbsolute(r);
+        
+        if(editPart instanceof ConnectionEditPart) {
+            if(!marquee.intersects(r)) {
+                return false;
+            }
+            
+            Rectangle relativeMarquee = marquee.getCopy();
+            figure.translateToRelative(relativeMarquee);
+            
+            if(behavior == MarqueeSelectionTool.BEHAVIOR_CONNECTIONS_TOUCHED) {
+                return ((Connection)figure).getPoints().intersects(relativeMarquee);
+            }
+            
+            return relativeMarquee.contains(((Connection)figure).getPoints().getBounds());
+        }
+        
+        if(behavior == MarqueeSelectionTool.BEHAVIOR_NODES_TOUCHED || behavior == MarqueeSelectionTool.BEHAVIOR_NODES_TOUCHED_AND_RELATED_CONNECTIONS) {
+            return marquee.intersects(r);
+        }
+        
+        return marquee.contains(r);
+    }
+    
+    /**
+     * @return Connections of the selected nodes that are selected with them, as in MarqueeSelectionTool
+     */
+    private Set<GraphicalEditPart> getRelatedConnections(Set<GraphicalEditPart> selected) {
+        Set<ConnectionEditPart> connections = new LinkedHashSet<>();
+        
+        for(GraphicalEditPart editPart : selected) {
+            for(Object connection : editPart.getSourceConnections()) {
+                connections.add((ConnectionEditPart)connection);
+            }
+            for(Object connection : editPart.getTargetConnections()) {
+                connections.add((ConnectionEditPart)connection);
+            }
+        }
+        
+        Set<GraphicalEditPart> related = new LinkedHashSet<>();
+        
+        for(ConnectionEditPart connection : connections) {
+            EditPart source = connection.getSource();
+            EditPart target = connection.getTarget();
+            boolean sourceIncluded = selected.contains(source);
+            boolean targetIncluded = selected.contains(target);
+            boolean included = false;
+            
+            if(mode == DEFAULT_MODE) {
+                included = sourceIncluded && targetIncluded;
+            }
+            else if(mode == APPEND_MODE) {
+                List<?> viewerSelection = viewer.getSelectedEditParts();
+                included = connection.getSelected() == EditPart.SELECTED_NONE
+                        && (viewerSelection.contains(source) || sourceIncluded)
+                        && (viewerSelection.contains(target) || targetIncluded);
+            }
+            else if(mode == TOGGLE_MODE) {
+                boolean sourceSelected = source.getSelected() != EditPart.SELECTED_NONE;
+                boolean targetSelected = target.getSelected() != EditPart.SELECTED_NONE;
+                
+                if(connection.getSelected() == EditPart.SELECTED_NONE) {
+                    included = (sourceSelected != sourceIncluded) && (targetSelected != targetIncluded);
+                }
+                else {
+                    included = (sourceSelected && sourceIncluded) || (targetSelected && targetIncluded);
+                }
+            }
+            
+            if(included) {
+                related.add(connection);
+            }
+        }
+        
+        return related;
+    }
+    
+    /**
+     * @return The child figures of figure that may intersect the marquee
+     */
+    @SuppressWarnings("unchecked")
+    private List<IFigure> getCandidateFigures(IFigure figure) {
+        if(figure instanceof ISpatiallyIndexedFigure) {
+            // Translate the marquee to the coordinates of the figure's children
+            Rectangle area = marquee.getCopy();
+            figure.translateToRelative(area);
+            figure.translateFromParent(area);
+            return ((ISpatiallyIndexedFigure)figure).getSpatialIndex().getFiguresIntersecting(area);
+        }
+        
+        return new ArrayList<>(figure.getChildren());
+    }
+}
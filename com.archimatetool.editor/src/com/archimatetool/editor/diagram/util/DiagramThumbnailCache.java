@@ -0,0 +1,391 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.util;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.gef.GraphicalViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageLoader;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+
+import com.archimatetool.editor.ArchiPlugin;
+import com.archimatetool.editor.Logger;
+import com.archimatetool.editor.preferences.IPreferenceConstants;
+import com.archimatetool.editor.ui.ImageFactory;
+import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
+
+
+/**
+ * Cache of thumbnail images of Views, held in memory and as PNG files in the user data folder.
+ *
+ * A thumbnail is keyed by the View's id and a hash of its content, which includes the objects in the View, the concepts
+ * and other objects that they reference, and the user's preferences that change how Views are drawn. A changed View therefore has a new key and its thumbnail
+ * is drawn again the next time it is asked for. Thumbnails are written to disk on a background thread and files that have
+ * not been used for {@link #MAX_AGE_DAYS} days are deleted.
+ *
+ * @author Phillip Beauvoir
+ */
+public final class DiagramThumbnailCache {
+
+    public static final DiagramThumbnailCache INSTANCE = new DiagramThumbnailCache();
+
+    /**
+     * Maximum width and height of a thumbnail
+     */
+    public static final int THUMBNAIL_SIZE = 512;
+
+    /**
+     * Number of thumbnails held in memory
+     */
+    static final int MAX_MEMORY_ENTRIES = 100;
+
+    /**
+     * Thumbnail files not used for this number of days are deleted
+     */
+    static final int MAX_AGE_DAYS = 30;
+
+    private static final String FOLDER_NAME = "thumbnails"; //$NON-NLS-1$
+
+    private static final int MARGIN = 5;
+
+    /**
+     * Preferences that change how a View is drawn
+     */
+    private static final Set<String> VISUAL_PREFERENCES = Set.of(
+            IPreferenceConstants.DEFAULT_CONNECTION_LINE_COLOR,
+            IPreferenceConstants.DEFAULT_ELEMENT_LINE_COLOR,
+            IPreferenceConstants.DERIVE_ELEMENT_LINE_COLOR,
+            IPreferenceConstants.DERIVE_ELEMENT_LINE_COLOR_FACTOR,
+            IPreferenceConstants.DEFAULT_VIEW_FONT,
+            IPreferenceConstants.ANTI_ALIAS,
+            IPreferenceConstants.USE_ORTHOGONAL_ANCHOR,
+            IPreferenceConstants.USE_LINE_CURVES,
+            IPreferenceConstants.USE_LINE_JUMPS,
+            IPreferenceConstants.CONNECTION_LABEL_STRATEGY,
+            IPreferenceConstants.USE_NESTED_CONNECTIONS,
+            IPreferenceConstants.HIDDEN_RELATIONS_TYPES,
+            IPreferenceConstants.VIEWPOINTS_GHOST_DIAGRAM_ELEMENTS,
+            IPreferenceConstants.USE_SCALED_IMAGES,
+            IPreferenceConstants.USE_FIGURE_LINE_OFFSET,
+            IPreferenceConstants.LOW_DETAIL_ZOOM,
+            IPreferenceConstants.DEFAULT_ARCHIMATE_FIGURE_WIDTH,
+            IPreferenceConstants.DEFAULT_ARCHIMATE_FIGURE_HEIGHT,
+            IPreferenceConstants.DEFAULT_ARCHIMATE_FIGURE_TEXT_ALIGNMENT,
+            IPreferenceConstants.DEFAULT_ARCHIMATE_FIGURE_TEXT_POSITION,
+            IPreferenceConstants.ARCHIMATE_FIGURE_WORD_WRAP_STYLE,
+            IPreferenceConstants.DEFAULT_GRADIENT,
+            IPreferenceConstants.SKETCH_DEFAULT_BACKGROUND
+    );
+
+    /**
+     * Prefixes of preferences set for each type of object that change how a View is drawn
+     */
+    private static final String[] VISUAL_PREFERENCE_PREFIXES = {
+            IPreferenceConstants.DEFAULT_FILL_COLOR_PREFIX,
+            IPreferenceConstants.DEFAULT_FIGURE_PREFIX
+    };
+
+    private Map<String, ImageData> fMemoryCache = new LinkedHashMap<String, ImageData>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImageData> eldest) {
+            return size() > MAX_MEMORY_ENTRIES;
+        }
+    };
+
+    private ExecutorService fExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "View Thumbnails"); //$NON-NLS-1$
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Hash of the visual preferences that differ from their defaults, null if one has changed since it was made
+    private volatile String fPreferencesHash;
+
+    private boolean fPruned;
+
+    private DiagramThumbnailCache() {
+        ArchiPlugin.PREFERENCES.addPropertyChangeListener(event -> {
+            if(isVisualPreference(event.getProperty())) {
+                fPreferencesHash = null;
+            }
+        });
+    }
+
+    /**
+     * Get the thumbnail of a View from memory or disk, or draw it if it is not cached or the View has changed.
+     * The thumbnail is always drawn on the Display thread but files are read on the calling thread.
+     * @param dm The View
+     * @return The thumbnail's ImageData, no larger than THUMBNAIL_SIZE in either direction
+     */
+    public ImageData getThumbnail(IDiagramModel dm) {
+        String key = getKey(dm);
+
+        synchronized(fMemoryCache) {
+            ImageData imageData = fMemoryCache.get(key);
+            if(imageData != null) {
+                return imageData;
+            }
+        }
+
+        File file = getFile(key);
+        ImageData imageData = load(file);
+
+        if(imageData == null) {
+            ImageData[] result = new ImageData[1];
+            Display.getDefault().syncExec(() -> result[0] = createThumbnail(dm));
+            imageData = result[0];
+            save(imageData, file);
+        }
+
+        synchronized(fMemoryCache) {
+            fMemoryCache.put(key, imageData);
+        }
+
+        return imageData;
+    }
+
+    /**
+     * Remove all thumbnails from memory and disk
+     */
+    public void clear() {
+        synchronized(fMemoryCache) {
+            fMemoryCache.clear();
+        }
+
+        fExecutor.execute(() -> deleteFiles(0));
+    }
+
+    private ImageData createThumbnail(IDiagramModel dm) {
+        Shell shell = new Shell();
+
+        try {
+            GraphicalViewer viewer = DiagramUtils.createViewer(dm, shell);
+
+            Rectangle bounds = DiagramUtils.getDiagramExtents(viewer);
+            bounds.expand(MARGIN * 2, MARGIN * 2);
+            double scale = Math.min(1, Math.min((double)THUMBNAIL_SIZE / bounds.width, (double)THUMBNAIL_SIZE / bounds.height));
+
+            Image image = DiagramUtils.createImage(viewer, scale, MARGIN);
+            ImageData imageData = image.getImageData();
+            image.dispose();
+
+            return imageData;
+        }
+        finally {
+            shell.dispose();
+        }
+    }
+
+    private ImageData load(File file) {
+        if(!file.exists()) {
+            return null;
+        }
+
+        try {
+            ImageData imageData = new ImageLoader().load(file.getAbsolutePath())[0];
+            // Mark as used so that it isn't pruned
+            file.setLastModified(System.currentTimeMillis());
+            return imageData;
+        }
+        catch(Exception ex) { // SWTException if the file is corrupt
+            file.delete();
+            return null;
+        }
+    }
+
+    private void save(ImageData imageData, File file) {
+        fExecutor.execute(() -> {
+            try {
+                if(!fPruned) {
+                    fPruned = true;
+                    deleteFiles(MAX_AGE_DAYS);
+                }
+
+                file.getParentFile().mkdirs();
+
+                ImageLoader loader = new ImageLoader();
+                loader.data = new ImageData[] { imageData };
+                loader.save(file.getAbsolutePath(), SWT.IMAGE_PNG);
+            }
+            catch(Exception ex) {
+                Logger.logError("Could not save thumbnail", ex); //$NON-NLS-1$
+            }
+        });
+    }
+
+    /**
+     * Delete thumbnail files not used for the given number of days
+     */
+    private void deleteFiles(int days) {
+        File[] files = getFolder().listFiles();
+        if(files == null) {
+            return;
+        }
+
+        long oldest = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days);
+
+        for(File file : files) {
+            if(file.lastModified() <= oldest) {
+                file.delete();
+            }
+        }
+    }
+
+    private File getFolder() {
+        return new File(ArchiPlugin.INSTANCE.getUserDataFolder(), FOLDER_NAME);
+    }
+
+    private File getFile(String key) {
+        return new File(getFolder(), key + ".png"); //$NON-NLS-1$
+    }
+
+    /**
+     * @return A key for the View's id, its content, the preferences and the device zoom
+     */
+    String getKey(IDiagramModel dm) {
+        // Load the View's contents if they are stored separately
+        IDiagramModelContentLoader.ensureLoaded(dm);
+
+        MessageDigest digest = createDigest();
+        update(digest, dm.getId());
+        update(digest, getPreferencesHash());
+        update(digest, ImageFactory.getDeviceZoom() + ":" + THUMBNAIL_SIZE); //$NON-NLS-1$
+
+        update(digest, dm, 2);
+        for(Iterator<EObject> iter = dm.eAllContents(); iter.hasNext();) {
+            update(digest, iter.next(), 2);
+        }
+
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Add an object's class and attribute values to the digest.
+     * If depth is more than zero also add the objects it references and their contents, such as the concept
+     * of a diagram object and the concept's properties and profiles, as these can change how the object is drawn.
+     */
+    private void update(MessageDigest digest, EObject eObject, int depth) {
+        update(digest, eObject.eClass().getName());
+
+        for(EAttribute attribute : eObject.eClass().getEAllAttributes()) {
+            if(!attribute.isTransient() && !attribute.isDerived()) {
+                update(digest, attribute.getName() + "=" + eObject.eGet(attribute)); //$NON-NLS-1$
+            }
+        }
+
+        if(depth == 0) {
+            return;
+        }
+
+        for(EReference reference : eObject.eClass().getEAllReferences()) {
+            if(reference.isContainment() || reference.isContainer() || reference.isTransient() || reference.isDerived()) {
+                continue;
+            }
+
+            Object value = eObject.eGet(reference);
+            List<?> referenced = value instanceof List ? (List<?>)value : value != null ? Arrays.asList(value) : List.of();
+
+            for(Object object : referenced) {
+                EObject target = (EObject)object;
+                update(digest, target, depth - 1);
+                
+                // Only the name of a referenced View is drawn
+                if(!(target instanceof IDiagramModel)) {
+                    for(Iterator<EObject> iter = target.eAllContents(); iter.hasNext();) {
+                        update(digest, iter.next(), 0);
+                    }
+                }
+            }
+        }
+    }
+
+    private String getPreferencesHash() {
+        if(fPreferencesHash == null) {
+            MessageDigest digest = createDigest();
+
+            try {
+                IEclipsePreferences preferences = InstanceScope.INSTANCE.getNode(ArchiPlugin.PLUGIN_ID);
+                String[] keys = preferences.keys();
+                Arrays.sort(keys);
+                for(String key : keys) {
+                    if(isVisualPreference(key)) {
+                        update(digest, key + "=" + preferences.get(key, null)); //$NON-NLS-1$
+                    }
+                }
+            }
+            catch(Exception ex) {
+                Logger.logError("Could not read preferences", ex); //$NON-NLS-1$
+            }
+
+            fPreferencesHash = toHex(digest.digest());
+        }
+
+        return fPreferencesHash;
+    }
+
+    /**
+     * @return true if the preference changes how a View is drawn
+     */
+    static boolean isVisualPreference(String key) {
+        if(VISUAL_PREFERENCES.contains(key)) {
+            return true;
+        }
+
+        for(String prefix : VISUAL_PREFERENCE_PREFIXES) {
+            if(key.startsWith(prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+        }
+        catch(NoSuchAlgorithmException ex) {
+            // Every Java platform has SHA-1
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        digest.update(String.valueOf(s).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte)0);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for(byte b : bytes) {
+            sb.append(String.format("%02x", b)); //$NON-NLS-1$
+        }
+        return sb.toString();
+    }
+}
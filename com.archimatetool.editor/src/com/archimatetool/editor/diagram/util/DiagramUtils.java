@@ -30,6 +30,7 @@ import com.archimatetool.editor.diagram.sketch.editparts.SketchEditPartFactory;
 import com.archimatetool.model.IArchimateDiagramModel;
 import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.model.ISketchModel;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
 
 
 
@@ -47,6 +48,9 @@ public final class DiagramUtils {
      * @return A Graphical Viewer
      */
     public static GraphicalViewerImpl createViewer(IDiagramModel model, Composite parent) {
+        // Load the View's contents if they are stored separately
+        IDiagramModelContentLoader.ensureLoaded(model);
+        
         EditPartFactory editPartFactory = null;
         
         if(model instanceof IArchimateDiagramModel) {
@@ -112,6 +116,36 @@ public final class DiagramUtils {
         return image;
     }
 
+    /**
+     * Create the image data of a Diagram Model. This can be called from any thread.
+     * 
+     * Figures measure and draw their text with SWT fonts and GCs so the image is always drawn on the Display thread,
+     * waiting for it if called from another thread. The returned ImageData is device independent so it can then be
+     * encoded and saved on the calling thread while other images are drawn.
+     * 
+     * @param model The model to create the image from
+     * @param scale The scale to use. 1 is full size.
+     * @param margin amount of white space margin to apply around the image
+     * @param zoom The device zoom of the image data as in {@link Image#getImageData(int)}
+     * @return ModelReferencedImageData wrapper class containing the image data from the given Diagram Model and offset bounds
+     *         If model has no children a blank image of 100x100 is returned
+     */
+    public static ModelReferencedImageData createModelReferencedImageData(IDiagramModel model, double scale, int margin, int zoom) {
+        ModelReferencedImageData[] result = new ModelReferencedImageData[1];
+        
+        Display.getDefault().syncExec(() -> {
+            ModelReferencedImage image = createModelReferencedImage(model, scale, margin);
+            try {
+                result[0] = new ModelReferencedImageData(image.getImage().getImageData(zoom), image.getBounds());
+            }
+            finally {
+                image.getImage().dispose();
+            }
+        });
+        
+        return result[0];
+    }
+
     /**
      * @param graphicalViewer The GraphicalViewer to create the image from
      * @param scale The scale to use. 1 is full size. Max of 4 is allowed.
@@ -0,0 +1,35 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.util;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.swt.graphics.ImageData;
+
+/**
+ * Device independent image data with bounds information.
+ * Unlike an Image this needs no disposing and can be used on any thread.
+ * 
+ * @author Phillip Beauvoir
+ */
+public class ModelReferencedImageData {
+
+    private final ImageData imageData;
+    private final Rectangle bounds;
+
+    public ModelReferencedImageData(ImageData imageData, Rectangle bounds) {
+        this.imageData = imageData;
+        this.bounds = bounds;
+    }
+
+    public ImageData getImageData() {
+        return imageData;
+    }
+
+    public Rectangle getBounds() {
+        return bounds;
+    }
+
+}
@@ -20,6 +20,7 @@ import com.archimatetool.model.FolderType;
 import com.archimatetool.model.IArchimateConcept;
 import com.archimatetool.model.IArchimateElement;
 import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IArchimateRelationship;
 import com.archimatetool.model.IBounds;
 import com.archimatetool.model.IConnectable;
@@ -33,6 +34,7 @@ import com.archimatetool.model.IDiagramModelConnection;
 import com.archimatetool.model.IDiagramModelContainer;
 import com.archimatetool.model.IDiagramModelObject;
 import com.archimatetool.model.IDiagramModelReference;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
 
 
 
@@ -68,10 +70,22 @@ public class DiagramModelUtils {
      * @return true if archimateComponent is referenced in a node or connection in any diagram model
      */
     public static boolean isArchimateConceptReferencedInDiagrams(IArchimateConcept archimateConcept) {
-        if(archimateConcept == null || archimateConcept.getArchimateModel() == null) {
+        IArchimateModel model = archimateConcept != null ? archimateConcept.getArchimateModel() : null;
+        if(model == null) {
             return false;
         }
         
+        // Use the model's counts if it has them
+        DiagramReferenceCounter counter = (DiagramReferenceCounter)model.getAdapter(DiagramReferenceCounter.class);
+        if(counter != null && counter.isTracking()) {
+            return counter.isReferenced(archimateConcept);
+        }
+        
+        // Referenced in a View that is not loaded, so no need to load it
+        if(IDiagramModelContentLoader.countUnloadedReferences(archimateConcept) > 0) {
+            return true;
+        }
+        
         return !archimateConcept.getReferencingDiagramComponents().isEmpty();
     }
 
@@ -219,6 +233,11 @@ public class DiagramModelUtils {
      */
     public static boolean hasDiagramModelReference(IDiagramModel diagramModel) {
         if(diagramModel.getArchimateModel() != null) {
+            // References can be in Views whose contents are stored separately
+            if(IDiagramModelContentLoader.countUnloadedReferences(diagramModel) > 0) {
+                return true;
+            }
+            
             for(Iterator<EObject> iter = diagramModel.getArchimateModel().getFolder(FolderType.DIAGRAMS).eAllContents(); iter.hasNext();) {
                 EObject eObject = iter.next();
                 if(eObject instanceof IDiagramModelReference && ((IDiagramModelReference)eObject).getReferencedModel() == diagramModel) {
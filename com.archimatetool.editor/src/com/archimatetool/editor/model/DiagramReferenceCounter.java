@@ -0,0 +1,205 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+
+import com.archimatetool.model.IArchimateConcept;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IDiagramModelArchimateComponent;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
+import com.archimatetool.model.util.IModelContentListener;
+
+
+/**
+ * Keeps a count of the diagram components in a model that reference each concept so that whether a concept is
+ * used in Views can be answered without building the list of its referencing diagram components.
+ * The Models Tree and the ModelChecker both use the model's counter.
+ *
+ * The counts of the diagram components that are loaded are made the first time they are needed and are then kept up to date
+ * from model notifications as diagram components, Views and folders are added to and removed from the model, and as a diagram
+ * component's concept is changed. Views whose contents are not loaded are not loaded to count them. Their references are
+ * added from the index that the model's IDiagramModelContentLoader made when the model was opened.
+ *
+ * @author Phillip Beauvoir
+ */
+public class DiagramReferenceCounter {
+
+    private IArchimateModel fModel;
+
+    private IModelContentListener fModelContentListener;
+
+    private Map<IArchimateConcept, Integer> fCounts = new HashMap<>();
+
+    private boolean fCounted;
+
+    public DiagramReferenceCounter(IArchimateModel model) {
+        fModel = model;
+    }
+
+    /**
+     * Start listening to model changes
+     */
+    public void startTracking() {
+        if(fModelContentListener == null) {
+            fModelContentListener = this::notifyChanged;
+            fModel.addModelContentListener(fModelContentListener);
+        }
+    }
+
+    /**
+     * Stop listening to model changes and forget the counts
+     */
+    public void stopTracking() {
+        if(fModelContentListener != null) {
+            fModel.removeModelContentListener(fModelContentListener);
+            fModelContentListener = null;
+        }
+
+        fCounts.clear();
+        fCounted = false;
+    }
+
+    /**
+     * @return true if this counter is tracking model changes
+     */
+    public boolean isTracking() {
+        return fModelContentListener != null;
+    }
+
+    /**
+     * @param concept The concept
+     * @return The number of diagram components in the model that reference the concept, including those in Views that are not loaded
+     */
+    public int getCount(IArchimateConcept concept) {
+        return getLoadedCount(concept) + IDiagramModelContentLoader.countUnloadedReferences(concept);
+    }
+
+    /**
+     * @param concept The concept
+     * @return The number of diagram components in the model's loaded contents that reference the concept
+     */
+    public int getLoadedCount(IArchimateConcept concept) {
+        if(!fCounted) {
+            countAll();
+        }
+
+        Integer count = fCounts.get(concept);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * @param concept The concept
+     * @return true if the concept is referenced in a diagram component in the model
+     */
+    public boolean isReferenced(IArchimateConcept concept) {
+        return getCount(concept) > 0;
+    }
+
+    private void countAll() {
+        fCounts.clear();
+
+        countContents(fModel, 1);
+
+        // If not tracking the counts are made again each time
+        fCounted = isTracking();
+    }
+
+    void notifyChanged(Notification msg) {
+        // Not counted yet
+        if(!fCounted || msg.isTouch()) {
+            return;
+        }
+
+        Object feature = msg.getFeature();
+
+        // Objects added to or removed from the model
+        if(feature instanceof EReference && ((EReference)feature).isContainment()) {
+            switch(msg.getEventType()) {
+                case Notification.ADD:
+                case Notification.ADD_MANY:
+                    countContents(msg.getNewValue(), 1);
+                    break;
+
+                case Notification.REMOVE:
+                case Notification.REMOVE_MANY:
+                    countContents(msg.getOldValue(), -1);
+                    break;
+
+                case Notification.SET:
+                case Notification.UNSET:
+                    countContents(msg.getOldValue(), -1);
+                    countContents(msg.getNewValue(), 1);
+                    break;
+
+                default:
+                    break;
+            }
+        }
+
+        // Diagram component's concept changed
+        else if(feature == IArchimatePackage.Literals.DIAGRAM_MODEL_ARCHIMATE_OBJECT__ARCHIMATE_ELEMENT
+                || feature == IArchimatePackage.Literals.DIAGRAM_MODEL_ARCHIMATE_CONNECTION__ARCHIMATE_RELATIONSHIP) {
+            countConcept((IArchimateConcept)msg.getOldValue(), -1);
+            countConcept((IArchimateConcept)msg.getNewValue(), 1);
+        }
+    }
+
+    /**
+     * Add delta to the counts of the concepts referenced by diagram components in value and its contents
+     * @param value An object or a collection of objects
+     */
+    private void countContents(Object value, int delta) {
+        for(Object o : toCollection(value)) {
+            if(o instanceof EObject) {
+                countComponent((EObject)o, delta);
+
+                for(TreeIterator<EObject> iter = ((EObject)o).eAllContents(); iter.hasNext();) {
+                    EObject eObject = iter.next();
+
+                    // Concepts don't contain diagram components
+                    if(eObject instanceof IArchimateConcept) {
+                        iter.prune();
+                    }
+                    else {
+                        countComponent(eObject, delta);
+                    }
+                }
+            }
+        }
+    }
+
+    private void countComponent(EObject eObject, int delta) {
+        if(eObject instanceof IDiagramModelArchimateComponent) {
+            countConcept(((IDiagramModelArchimateComponent)eObject).getArchimateConcept(), delta);
+        }
+    }
+
+    private void countConcept(IArchimateConcept concept, int delta) {
+        if(concept != null) {
+            fCounts.merge(concept, delta, (oldCount, newCount) -> {
+                int count = oldCount + newCount;
+                return count > 0 ? count : null; // remove the entry
+            });
+        }
+    }
+
+    private static Collection<?> toCollection(Object value) {
+        if(value instanceof Collection) {
+            return (Collection<?>)value;
+        }
+        return value != null ? Collections.singleton(value) : Collections.emptySet();
+    }
+}
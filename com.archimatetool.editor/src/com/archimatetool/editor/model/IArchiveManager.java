@@ -203,6 +203,14 @@ public interface IArchiveManager {
      */
     boolean loadImagesFromModelFile(File file) throws IOException;
     
+    /**
+     * Register the model's Views that were loaded without their contents because these are stored in separate entries in the archive file.
+     * The contents of these Views are loaded when they are first accessed.
+     * This should be called after the model has been loaded from file.
+     * @throws IOException
+     */
+    void registerUnloadedDiagramModels() throws IOException;
+    
     /**
      * @return True if the model currently has references to at least one image and the image is loaded
      */
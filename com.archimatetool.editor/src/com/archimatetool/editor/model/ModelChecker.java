@@ -7,15 +7,23 @@ package com.archimatetool.editor.model;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.swt.widgets.Shell;
 
@@ -27,6 +35,7 @@ import com.archimatetool.model.IArchimateConcept;
 import com.archimatetool.model.IArchimateElement;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IArchimateModelObject;
+import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IArchimateRelationship;
 import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.model.IDiagramModelArchimateComponent;
@@ -36,27 +45,131 @@ import com.archimatetool.model.IFolder;
 import com.archimatetool.model.IIdentifier;
 import com.archimatetool.model.IProfile;
 import com.archimatetool.model.IProfiles;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
+import com.archimatetool.model.util.IModelContentListener;
 
 
 /**
  * Check Model for integrity
  * 
+ * A full check visits every object in the model. If tracking is started with {@link #startTracking()} the checker
+ * listens to model notifications and records the objects that have changed so that {@link #check()} only has to
+ * re-check those objects. A full check is still made the first time and after every {@link #FULL_CHECK_INTERVAL} incremental checks.
+ * A full check counts the diagram components that reference each concept again, while an incremental check takes
+ * the counts of the changed concepts from the model's {@link DiagramReferenceCounter}.
+ * 
  * @author Phillip Beauvoir
  */
 public class ModelChecker {
 
     // If this is set in Program arguments then don't model check
     private static boolean NO_MODELCHECK = Arrays.asList(Platform.getApplicationArgs()).contains("-noModelCheck"); //$NON-NLS-1$
+    
+    /**
+     * Number of incremental checks before a full check is made
+     */
+    public static final int FULL_CHECK_INTERVAL = 20;
 
     private IArchimateModel fModel;
     
     private List<String> fErrorMessages;
     
+    // Messages for each object that failed a check
+    private Map<EObject, List<String>> fObjectMessages = new LinkedHashMap<>();
+    
+    // Messages for concepts whose diagram component instance count doesn't match
+    private Map<IArchimateConcept, String> fInstanceCountMessages = new LinkedHashMap<>();
+    
+    // Counts diagram component instances if the model doesn't have its own DiagramReferenceCounter
+    private DiagramReferenceCounter fReferenceCounter;
+    
+    // Objects and concepts that have changed since the last check
+    private Set<EObject> fDirtyObjects = new HashSet<>();
+    private Set<IArchimateConcept> fDirtyConcepts = new HashSet<>();
+    
+    private boolean fFullCheckRequired = true;
+    private int fIncrementalCheckCount;
+    
+    private IModelContentListener fModelContentListener;
+    
     public ModelChecker(IArchimateModel model) {
         fModel = model;
     }
     
     /**
+     * Listen to model changes so that {@link #check()} only re-checks changed objects
+     */
+    public void startTracking() {
+        if(fModelContentListener == null) {
+            fModelContentListener = this::notifyChanged;
+            fModel.addModelContentListener(fModelContentListener);
+            fFullCheckRequired = true;
+        }
+    }
+    
+    /**
+     * Stop listening to model changes
+     */
+    public void stopTracking() {
+        if(fModelContentListener != null) {
+            fModel.removeModelContentListener(fModelContentListener);
+            fModelContentListener = null;
+        }
+        
+        if(fReferenceCounter != null) {
+            fReferenceCounter.stopTracking();
+        }
+        
+        fObjectMessages.clear();
+        fInstanceCountMessages.clear();
+        fDirtyObjects.clear();
+        fDirtyConcepts.clear();
+        fFullCheckRequired = true;
+    }
+    
+    /**
+     * @return true if this checker is tracking model changes
+     */
+    public boolean isTracking() {
+        return fModelContentListener != null;
+    }
+    
+    /**
+     * Check the model. If tracking only objects that have changed since the last check are checked, unless a full check is due.
+     * @return True if OK, false if not OK
+     */
+    public boolean check() {
+        if(!isTracking() || fFullCheckRequired || fIncrementalCheckCount >= FULL_CHECK_INTERVAL) {
+            return checkAll();
+        }
+        
+        fErrorMessages = new ArrayList<String>();
+        
+        // Don't model check
+        if(NO_MODELCHECK) {
+            return true;
+        }
+        
+        fIncrementalCheckCount++;
+        
+        for(EObject eObject : fDirtyObjects) {
+            if(isInModel(eObject)) {
+                putObjectMessages(eObject, checkObject(eObject));
+            }
+            else {
+                fObjectMessages.remove(eObject);
+            }
+        }
+        
+        fDirtyObjects.clear();
+        
+        checkDiagramComponentInstanceCounts();
+        
+        return collectErrorMessages();
+    }
+    
+    /**
+     * Check all objects in the model
      * @return True if OK, false if not OK
      */
     public boolean checkAll() {
@@ -67,8 +180,13 @@ public class ModelChecker {
             return true;
         }
         
-        // Instance count map
-        Map<IArchimateConcept, Integer> dmcMap = new HashMap<IArchimateConcept, Integer>();
+        fObjectMessages.clear();
+        fInstanceCountMessages.clear();
+        fDirtyObjects.clear();
+        fDirtyConcepts.clear();
+        
+        // Diagram component instance count for each concept, counted here so that a drift in the incrementally kept counts is found
+        Map<IArchimateConcept, Integer> instanceCounts = new HashMap<>();
         
         // fErrorMessages.addAll(checkFolderStructure()); // not that important
         
@@ -76,43 +194,241 @@ public class ModelChecker {
         for(Iterator<EObject> iter = fModel.eAllContents(); iter.hasNext();) {
             EObject eObject = iter.next();
             
-            // Identifier
-            if(eObject instanceof IIdentifier) {
-                fErrorMessages.addAll(checkHasIdentifier((IIdentifier)eObject));
-            }
-            
-            // Relation
-            if(eObject instanceof IArchimateRelationship) {
-                fErrorMessages.addAll(checkRelationship((IArchimateRelationship)eObject));
-            }
+            putObjectMessages(eObject, checkObject(eObject));
             
-            // Diagram Model Object
-            if(eObject instanceof IDiagramModelArchimateObject) {
-                fErrorMessages.addAll(checkDiagramModelArchimateObject((IDiagramModelArchimateObject)eObject));
-                incrementInstanceCount((IDiagramModelArchimateComponent)eObject, dmcMap);
+            // Diagram Model Object or Connection
+            if(eObject instanceof IDiagramModelArchimateComponent) {
+                IArchimateConcept concept = ((IDiagramModelArchimateComponent)eObject).getArchimateConcept();
+                if(concept != null) { // don't want an NPE while checking
+                    instanceCounts.merge(concept, 1, Integer::sum);
+                }
             }
-            
-            // Diagram Model Connection
-            if(eObject instanceof IDiagramModelArchimateConnection) {
-                fErrorMessages.addAll(checkDiagramModelArchimateConnection((IDiagramModelArchimateConnection)eObject));
-                incrementInstanceCount((IDiagramModelArchimateConnection)eObject, dmcMap);
+        }
+        
+        // Add the references in Views that are not loaded before any are loaded by getting the reported counts
+        for(Entry<IArchimateConcept, Integer> entry : instanceCounts.entrySet()) {
+            entry.setValue(entry.getValue() + IDiagramModelContentLoader.countUnloadedReferences(entry.getKey()));
+        }
+        
+        // Now check Diagram Model Object reference count
+        for(Entry<IArchimateConcept, Integer> entry : instanceCounts.entrySet()) {
+            IArchimateConcept concept = entry.getKey();
+            checkDiagramComponentInstanceCount(concept, concept.getReferencingDiagramComponents().size(), entry.getValue());
+        }
+        
+        fFullCheckRequired = false;
+        fIncrementalCheckCount = 0;
+        
+        return collectErrorMessages();
+    }
+    
+    /**
+     * Run all checks that apply to eObject
+     * @return The messages, or an empty list if OK
+     */
+    List<String> checkObject(EObject eObject) {
+        List<String> messages = null;
+        
+        // Identifier
+        if(eObject instanceof IIdentifier) {
+            messages = addMessages(messages, checkHasIdentifier((IIdentifier)eObject));
+        }
+        
+        // Relation
+        if(eObject instanceof IArchimateRelationship) {
+            messages = addMessages(messages, checkRelationship((IArchimateRelationship)eObject));
+        }
+        
+        // Diagram Model Object
+        if(eObject instanceof IDiagramModelArchimateObject) {
+            messages = addMessages(messages, checkDiagramModelArchimateObject((IDiagramModelArchimateObject)eObject));
+        }
+        
+        // Diagram Model Connection
+        if(eObject instanceof IDiagramModelArchimateConnection) {
+            messages = addMessages(messages, checkDiagramModelArchimateConnection((IDiagramModelArchimateConnection)eObject));
+        }
+        
+        // Folder
+        if(eObject instanceof IFolder) {
+            messages = addMessages(messages, checkFolder((IFolder)eObject));
+        }
+        
+        // Profiles
+        if(eObject instanceof IProfiles) {
+            messages = addMessages(messages, checkProfiles((IProfiles)eObject));
+        }
+        
+        return messages == null ? Collections.emptyList() : messages;
+    }
+    
+    private List<String> addMessages(List<String> messages, List<String> newMessages) {
+        if(newMessages.isEmpty()) {
+            return messages;
+        }
+        
+        if(messages == null) {
+            messages = new ArrayList<String>();
+        }
+        
+        messages.addAll(newMessages);
+        return messages;
+    }
+    
+    private void putObjectMessages(EObject eObject, List<String> messages) {
+        if(messages.isEmpty()) {
+            fObjectMessages.remove(eObject);
+        }
+        else {
+            fObjectMessages.put(eObject, messages);
+        }
+    }
+    
+    private boolean collectErrorMessages() {
+        for(List<String> messages : fObjectMessages.values()) {
+            fErrorMessages.addAll(messages);
+        }
+        
+        fErrorMessages.addAll(fInstanceCountMessages.values());
+        
+        return fErrorMessages.isEmpty();
+    }
+    
+    private boolean isInModel(EObject eObject) {
+        return eObject != fModel && EcoreUtil.isAncestor(fModel, eObject);
+    }
+    
+    /**
+     * Record changed objects from model notifications
+     */
+    void notifyChanged(Notification msg) {
+        if(msg.isTouch() || !(msg.getNotifier() instanceof EObject)) {
+            return;
+        }
+        
+        fDirtyObjects.add((EObject)msg.getNotifier());
+        
+        // A Profile was changed so concepts that reference it have to be checked
+        if(msg.getNotifier() instanceof IProfile) {
+            fFullCheckRequired = true;
+            return;
+        }
+        
+        Object feature = msg.getFeature();
+        
+        // Objects added to or removed from the model
+        if(feature instanceof EReference && ((EReference)feature).isContainment()) {
+            switch(msg.getEventType()) {
+                case Notification.ADD:
+                case Notification.ADD_MANY:
+                    addedToModel(msg.getNewValue());
+                    break;
+
+                case Notification.REMOVE:
+                case Notification.REMOVE_MANY:
+                    removedFromModel(msg.getOldValue());
+                    break;
+
+                case Notification.SET:
+                case Notification.UNSET:
+                    removedFromModel(msg.getOldValue());
+                    addedToModel(msg.getNewValue());
+                    break;
+
+                default:
+                    break;
             }
-            
-            // Folder
-            if(eObject instanceof IFolder) {
-                fErrorMessages.addAll(checkFolder((IFolder)eObject));
+        }
+        
+        // Diagram component's concept changed
+        else if(feature == IArchimatePackage.Literals.DIAGRAM_MODEL_ARCHIMATE_OBJECT__ARCHIMATE_ELEMENT
+                || feature == IArchimatePackage.Literals.DIAGRAM_MODEL_ARCHIMATE_CONNECTION__ARCHIMATE_RELATIONSHIP) {
+            markInstanceCountDirty((IArchimateConcept)msg.getOldValue());
+            markInstanceCountDirty((IArchimateConcept)msg.getNewValue());
+        }
+    }
+    
+    private void addedToModel(Object value) {
+        for(EObject eObject : getObjects(value)) {
+            addedToModel(eObject);
+            for(Iterator<EObject> iter = eObject.eAllContents(); iter.hasNext();) {
+                addedToModel(iter.next());
             }
-            
-            // Profiles
-            if(eObject instanceof IProfiles) {
-                fErrorMessages.addAll(checkProfiles((IProfiles)eObject));
+        }
+    }
+    
+    private void addedToModel(EObject eObject) {
+        fDirtyObjects.add(eObject);
+        
+        if(eObject instanceof IDiagramModelArchimateComponent) {
+            markInstanceCountDirty(((IDiagramModelArchimateComponent)eObject).getArchimateConcept());
+        }
+        else if(eObject instanceof IArchimateConcept) {
+            markReferencesDirty((IArchimateConcept)eObject);
+        }
+        else if(eObject instanceof IProfile) {
+            fFullCheckRequired = true;
+        }
+    }
+    
+    private void removedFromModel(Object value) {
+        for(EObject eObject : getObjects(value)) {
+            removedFromModel(eObject);
+            for(Iterator<EObject> iter = eObject.eAllContents(); iter.hasNext();) {
+                removedFromModel(iter.next());
             }
         }
+    }
+    
+    private void removedFromModel(EObject eObject) {
+        // Removed later when checked
+        fDirtyObjects.add(eObject);
         
-        // Now check Diagram Model Object reference count
-        fErrorMessages.addAll(checkDiagramComponentInstanceCount(dmcMap));
+        if(eObject instanceof IDiagramModelArchimateComponent) {
+            markInstanceCountDirty(((IDiagramModelArchimateComponent)eObject).getArchimateConcept());
+        }
+        else if(eObject instanceof IArchimateConcept) {
+            markReferencesDirty((IArchimateConcept)eObject);
+        }
+        else if(eObject instanceof IProfile) {
+            fFullCheckRequired = true;
+        }
+    }
+    
+    /**
+     * A concept was added or removed so relations and diagram components that reference it have to be checked again
+     */
+    private void markReferencesDirty(IArchimateConcept concept) {
+        fDirtyObjects.addAll(concept.getReferencingDiagramComponents());
         
-        return fErrorMessages.isEmpty();
+        for(IArchimateRelationship relation : concept.getSourceRelationships()) {
+            fDirtyObjects.add(relation);
+            fDirtyObjects.addAll(relation.getReferencingDiagramComponents());
+        }
+        
+        for(IArchimateRelationship relation : concept.getTargetRelationships()) {
+            fDirtyObjects.add(relation);
+            fDirtyObjects.addAll(relation.getReferencingDiagramComponents());
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Collection<EObject> getObjects(Object value) {
+        if(value instanceof EObject) {
+            return Collections.singletonList((EObject)value);
+        }
+        
+        if(value instanceof Collection<?>) {
+            List<EObject> list = new ArrayList<>();
+            for(Object o : (Collection<Object>)value) {
+                if(o instanceof EObject) {
+                    list.add((EObject)o);
+                }
+            }
+            return list;
+        }
+        
+        return Collections.emptyList();
     }
     
     public List<String> getErrorMessages() {
@@ -179,13 +495,15 @@ public class ModelChecker {
     }
     
     List<String> checkHasIdentifier(IIdentifier eObject) {
-        List<String> messages = new ArrayList<String>();
-        
-        if(!StringUtils.isSet(eObject.getId())) {
-            String message = Messages.ModelChecker_10 + " " + ArchiLabelProvider.INSTANCE.getLabel(eObject); //$NON-NLS-1$
-            messages.add(message);
+        // Most objects are OK so don't create a new list for each one
+        if(StringUtils.isSet(eObject.getId())) {
+            return Collections.emptyList();
         }
         
+        List<String> messages = new ArrayList<String>();
+        String message = Messages.ModelChecker_10 + " " + ArchiLabelProvider.INSTANCE.getLabel(eObject); //$NON-NLS-1$
+        messages.add(message);
+        
         return messages;
     }
     
@@ -310,33 +628,72 @@ public class ModelChecker {
     }
     
     /**
-     * For each IDiagramModelArchimateComponent encountered increment the instance count
+     * The concept's instance count of IDiagramModelArchimateComponents might have changed
      */
-    private void incrementInstanceCount(IDiagramModelArchimateComponent dmc, Map<IArchimateConcept, Integer> map) {
-        IArchimateConcept concept = dmc.getArchimateConcept();
+    private void markInstanceCountDirty(IArchimateConcept concept) {
         if(concept != null) { // don't want an NPE while checking
-            Integer count = map.get(concept);
-            map.put(concept, count == null ? 1 : ++count);
+            fDirtyConcepts.add(concept);
         }
     }
     
     /**
-     * Check the actual IDiagramModelArchimateComponent instance count against the concept's reported instance count
+     * Check the instance counts of the concepts that changed since the last check against the model's DiagramReferenceCounter
      */
-    private List<String> checkDiagramComponentInstanceCount(Map<IArchimateConcept, Integer> map) {
-        List<String> messages = new ArrayList<String>();
+    private void checkDiagramComponentInstanceCounts() {
+        DiagramReferenceCounter counter = getReferenceCounter();
+        
+        // Count once for all the concepts. Our own counter is kept up to date while this checker is tracking.
+        boolean stopCounting = false;
+        if(!counter.isTracking()) {
+            counter.startTracking();
+            stopCounting = !isTracking() || counter != fReferenceCounter;
+        }
         
-        // Now check the total count against the reported count of the concept
-        for(Entry<IArchimateConcept, Integer> entry : map.entrySet()) {
-            IArchimateConcept concept = entry.getKey();
-            int count = entry.getValue();
-            if(concept.getReferencingDiagramComponents().size() != count) {
-                String name = " (" + concept.getId() + ")"; //$NON-NLS-1$ //$NON-NLS-2$
-                messages.add(Messages.ModelChecker_24 + name);
+        try {
+            // Getting a concept's reported count can load Views, which marks more concepts dirty
+            for(IArchimateConcept concept : new ArrayList<>(fDirtyConcepts)) {
+                // The reported count loads the Views that reference the concept so get it before the actual count
+                int reportedCount = concept.getReferencingDiagramComponents().size();
+                checkDiagramComponentInstanceCount(concept, reportedCount, counter.getCount(concept));
+            }
+        }
+        finally {
+            if(stopCounting) {
+                counter.stopTracking();
             }
         }
         
-        return messages;
+        fDirtyConcepts.clear();
+    }
+    
+    /**
+     * @return The model's DiagramReferenceCounter, which is also used by the Models Tree, or our own if the model doesn't have one
+     */
+    private DiagramReferenceCounter getReferenceCounter() {
+        DiagramReferenceCounter counter = (DiagramReferenceCounter)fModel.getAdapter(DiagramReferenceCounter.class);
+        if(counter != null) {
+            return counter;
+        }
+        
+        if(fReferenceCounter == null) {
+            fReferenceCounter = new DiagramReferenceCounter(fModel);
+        }
+        
+        return fReferenceCounter;
+    }
+    
+    /**
+     * Check the actual IDiagramModelArchimateComponent instance count against the concept's reported instance count
+     */
+    private void checkDiagramComponentInstanceCount(IArchimateConcept concept, int reportedCount, int count) {
+        // Now check the total count against the reported count of the concept
+        if(count > 0 && reportedCount != count) {
+            String name = " (" + concept.getId() + ")"; //$NON-NLS-1$ //$NON-NLS-2$
+            fInstanceCountMessages.put(concept, Messages.ModelChecker_24 + name);
+        }
+        else {
+            fInstanceCountMessages.remove(concept);
+        }
     }
 
     void logMessage(String message) {
@@ -0,0 +1,111 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.model.compatibility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+
+
+
+/**
+ * Visits every object in a model once and dispatches each object to the callbacks registered for its EClass or a super type.
+ * This means that any number of handlers can share a single traversal of the model.
+ *
+ * @author Phillip Beauvoir
+ */
+public class CompatibilityVisitor {
+
+    private static class Registration {
+        EClass eClass;
+        Consumer<EObject> callback;
+
+        Registration(EClass eClass, Consumer<EObject> callback) {
+            this.eClass = eClass;
+            this.callback = callback;
+        }
+    }
+
+    private List<Registration> fRegistrations = new ArrayList<>();
+
+    // Resolved callbacks per concrete EClass
+    private Map<EClass, List<Consumer<EObject>>> fDispatchTable = new HashMap<>();
+
+    /**
+     * Register a callback for instances of eClass and its sub-classes
+     * Callbacks are called in the order that they were registered.
+     * @param eClass The EClass
+     * @param callback The callback
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends EObject> void register(EClass eClass, Consumer<T> callback) {
+        fRegistrations.add(new Registration(eClass, (Consumer<EObject>)callback));
+        fDispatchTable.clear();
+    }
+
+    /**
+     * @return true if any callbacks are registered
+     */
+    public boolean hasCallbacks() {
+        return !fRegistrations.isEmpty();
+    }
+
+    /**
+     * Visit all contents of root in a single pass and dispatch to registered callbacks
+     * @param root The root object. This is not itself visited.
+     */
+    public void visit(EObject root) {
+        if(!hasCallbacks()) {
+            return;
+        }
+
+        for(Iterator<EObject> iter = root.eAllContents(); iter.hasNext();) {
+            dispatch(iter.next());
+        }
+    }
+
+    /**
+     * Dispatch an object to its registered callbacks
+     */
+    void dispatch(EObject eObject) {
+        for(Consumer<EObject> callback : getCallbacks(eObject.eClass())) {
+            callback.accept(eObject);
+        }
+    }
+
+    /**
+     * @return The callbacks for the given EClass, resolved once and cached
+     */
+    List<Consumer<EObject>> getCallbacks(EClass eClass) {
+        List<Consumer<EObject>> callbacks = fDispatchTable.get(eClass);
+
+        if(callbacks == null) {
+            for(Registration registration : fRegistrations) {
+                if(registration.eClass.isSuperTypeOf(eClass)) {
+                    if(callbacks == null) {
+                        callbacks = new ArrayList<>();
+                    }
+                    callbacks.add(registration.callback);
+                }
+            }
+
+            if(callbacks == null) {
+                callbacks = Collections.emptyList();
+            }
+
+            fDispatchTable.put(eClass, callbacks);
+        }
+
+        return callbacks;
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.model.compatibility;
+
+import org.eclipse.emf.ecore.resource.Resource;
+
+import com.archimatetool.model.IArchimateModel;
+
+/**
+ * A Compatibility Handler that works on individual objects in the model.
+ *
+ * Instead of traversing the model itself the handler registers per-EClass callbacks with a shared CompatibilityVisitor
+ * so that all handlers are served by one traversal of the model.
+ *
+ * @author Phillip Beauvoir
+ */
+public interface IVisitingCompatibilityHandler extends ICompatibilityHandler {
+
+    /**
+     * @param model The model
+     * @return true if this handler should be applied to the model. This should be a cheap check, usually on the model's version.
+     */
+    boolean isApplicable(IArchimateModel model);
+
+    /**
+     * Register callbacks with the visitor
+     * @param visitor The visitor
+     */
+    void registerCallbacks(CompatibilityVisitor visitor);
+
+    /**
+     * Run this handler on its own with its own traversal of the model
+     */
+    @Override
+    default void fixCompatibility(Resource resource) throws CompatibilityHandlerException {
+        IArchimateModel model = (IArchimateModel)resource.getContents().get(0);
+
+        if(isApplicable(model)) {
+            CompatibilityVisitor visitor = new CompatibilityVisitor();
+            registerCallbacks(visitor);
+            visitor.visit(model);
+        }
+    }
+}
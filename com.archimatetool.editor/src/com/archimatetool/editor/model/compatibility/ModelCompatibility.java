@@ -129,15 +129,26 @@ public class ModelCompatibility {
     }
     
     /**
-     * Fix any compatibility issues in registered handlers
+     * Fix any compatibility issues in registered handlers.
+     * Handlers that implement IVisitingCompatibilityHandler and apply to this model's version register their callbacks
+     * and are then run together in a single traversal of the model after all other handlers have been run.
      * @throws CompatibilityHandlerException 
      */
     public void fixCompatibility() throws CompatibilityHandlerException {
+        IArchimateModel model = (IArchimateModel)fResource.getContents().get(0);
+        CompatibilityVisitor visitor = new CompatibilityVisitor();
+        
         IExtensionRegistry registry = Platform.getExtensionRegistry();
         for(IConfigurationElement configurationElement : registry.getConfigurationElementsFor(ICompatibilityHandler.EXTENSION_ID)) {
             try {
                 ICompatibilityHandler handler = (ICompatibilityHandler)configurationElement.createExecutableExtension("class"); //$NON-NLS-1$
-                if(handler != null) {
+                if(handler instanceof IVisitingCompatibilityHandler) {
+                    IVisitingCompatibilityHandler visitingHandler = (IVisitingCompatibilityHandler)handler;
+                    if(visitingHandler.isApplicable(model)) {
+                        visitingHandler.registerCallbacks(visitor);
+                    }
+                }
+                else if(handler != null) {
                     handler.fixCompatibility(fResource);
                 }
             } 
@@ -145,5 +156,8 @@ public class ModelCompatibility {
                 ex.printStackTrace();
             } 
         }
+        
+        // One pass over the model for all visiting handlers
+        visitor.visit(model);
     }
 }
@@ -5,15 +5,11 @@
  */
 package com.archimatetool.editor.model.compatibility.handlers;
 
-import java.util.Iterator;
-
-import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.resource.Resource;
-
-import com.archimatetool.editor.model.compatibility.CompatibilityHandlerException;
-import com.archimatetool.editor.model.compatibility.ICompatibilityHandler;
+import com.archimatetool.editor.model.compatibility.CompatibilityVisitor;
+import com.archimatetool.editor.model.compatibility.IVisitingCompatibilityHandler;
 import com.archimatetool.editor.utils.StringUtils;
 import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IDiagramModelArchimateObject;
 import com.archimatetool.model.IDiagramModelGroup;
 import com.archimatetool.model.IDiagramModelObject;
@@ -27,15 +23,22 @@ import com.archimatetool.model.ITextAlignment;
  * 
  * @author Phillip Beauvoir
  */
-public class DefaultTextAlignmentHandler implements ICompatibilityHandler {
+public class DefaultTextAlignmentHandler implements IVisitingCompatibilityHandler {
+    
+    @Override
+    public boolean isApplicable(IArchimateModel model) {
+        return isVersion(model);
+    }
     
     @Override
-    public void fixCompatibility(Resource resource) throws CompatibilityHandlerException {
-        IArchimateModel model = (IArchimateModel)resource.getContents().get(0);
+    public void registerCallbacks(CompatibilityVisitor visitor) {
+        visitor.register(IArchimatePackage.Literals.DIAGRAM_MODEL_ARCHIMATE_OBJECT, (IDiagramModelArchimateObject dmo) -> {
+            if(dmo.getArchimateConcept() instanceof IGrouping) {
+                convertTextPosition(dmo);
+            }
+        });
         
-        if(isVersion(model)) {
-            convertTextPosition(model);
-        }
+        visitor.register(IArchimatePackage.Literals.DIAGRAM_MODEL_GROUP, (IDiagramModelGroup group) -> convertTextPosition(group));
     }
     
     public boolean isVersion(IArchimateModel model) {
@@ -43,18 +46,9 @@ public class DefaultTextAlignmentHandler implements ICompatibilityHandler {
         return version != null && StringUtils.compareVersionNumbers(version, "4.4.0") < 0; //$NON-NLS-1$
     }
     
-    private void convertTextPosition(IArchimateModel model) {
-        for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
-            EObject eObject = iter.next();
-            
-            if((eObject instanceof IDiagramModelArchimateObject && ((IDiagramModelArchimateObject)eObject).getArchimateConcept() instanceof IGrouping)
-                    || (eObject instanceof IDiagramModelGroup)) {
-                
-                if(((IDiagramModelObject)eObject).getTextAlignment() == ITextAlignment.TEXT_ALIGNMENT_CENTER) {
-                    ((IDiagramModelObject)eObject).setTextAlignment(ITextAlignment.TEXT_ALIGNMENT_LEFT);
-                }
-                
-            }
+    private void convertTextPosition(IDiagramModelObject dmo) {
+        if(dmo.getTextAlignment() == ITextAlignment.TEXT_ALIGNMENT_CENTER) {
+            dmo.setTextAlignment(ITextAlignment.TEXT_ALIGNMENT_LEFT);
         }
     }
 }
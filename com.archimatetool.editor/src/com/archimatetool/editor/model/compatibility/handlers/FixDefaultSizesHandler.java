@@ -5,18 +5,15 @@
  */
 package com.archimatetool.editor.model.compatibility.handlers;
 
-import java.util.Iterator;
-
 import org.eclipse.draw2d.geometry.Dimension;
-import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.resource.Resource;
 
-import com.archimatetool.editor.model.compatibility.CompatibilityHandlerException;
-import com.archimatetool.editor.model.compatibility.ICompatibilityHandler;
+import com.archimatetool.editor.model.compatibility.CompatibilityVisitor;
+import com.archimatetool.editor.model.compatibility.IVisitingCompatibilityHandler;
 import com.archimatetool.editor.ui.factory.IGraphicalObjectUIProvider;
 import com.archimatetool.editor.ui.factory.ObjectUIFactory;
 import com.archimatetool.editor.utils.StringUtils;
 import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IBounds;
 import com.archimatetool.model.IDiagramModelArchimateObject;
 import com.archimatetool.model.IDiagramModelContainer;
@@ -31,16 +28,17 @@ import com.archimatetool.model.IJunction;
  * 
  * @author Phillip Beauvoir
  */
-public class FixDefaultSizesHandler implements ICompatibilityHandler {
+public class FixDefaultSizesHandler implements IVisitingCompatibilityHandler {
     
     @Override
-    public void fixCompatibility(Resource resource) throws CompatibilityHandlerException {
-        IArchimateModel model = (IArchimateModel)resource.getContents().get(0);
-        
+    public boolean isApplicable(IArchimateModel model) {
         // Check all widths and heights
-        if(isVersion(model)) {
-            fixMissingWidthAndHeight(model);
-        }
+        return isVersion(model);
+    }
+    
+    @Override
+    public void registerCallbacks(CompatibilityVisitor visitor) {
+        visitor.register(IArchimatePackage.Literals.DIAGRAM_MODEL_OBJECT, (IDiagramModelObject dmo) -> fixMissingWidthAndHeight(dmo));
     }
     
     boolean isVersion(IArchimateModel model) {
@@ -51,24 +49,17 @@ public class FixDefaultSizesHandler implements ICompatibilityHandler {
     /**
      * Fix missing width and height values
      */
-    void fixMissingWidthAndHeight(IArchimateModel model) {
-        for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
-            EObject eObject = iter.next();
-            
-            // An Image width/height of -1, -1 signified the actual width/height of the image.
-            // However, here, Images with -1, -1 would be converted to a default box size of 200, 150. So ignore it.
-            if(eObject instanceof IDiagramModelImage) {
-                continue;
-            }
-            
-            if(eObject instanceof IDiagramModelObject) {
-                IDiagramModelObject dmo = (IDiagramModelObject)eObject;
-                Dimension d = getNewSize(dmo);
-                IBounds bounds = dmo.getBounds();
-                bounds.setWidth(d.width);
-                bounds.setHeight(d.height);
-            }
+    void fixMissingWidthAndHeight(IDiagramModelObject dmo) {
+        // An Image width/height of -1, -1 signified the actual width/height of the image.
+        // However, here, Images with -1, -1 would be converted to a default box size of 200, 150. So ignore it.
+        if(dmo instanceof IDiagramModelImage) {
+            return;
         }
+        
+        Dimension d = getNewSize(dmo);
+        IBounds bounds = dmo.getBounds();
+        bounds.setWidth(d.width);
+        bounds.setHeight(d.height);
     }
     
     /**
@@ -5,15 +5,11 @@
  */
 package com.archimatetool.editor.model.compatibility.handlers;
 
-import java.util.Iterator;
-
-import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.resource.Resource;
-
-import com.archimatetool.editor.model.compatibility.CompatibilityHandlerException;
-import com.archimatetool.editor.model.compatibility.ICompatibilityHandler;
+import com.archimatetool.editor.model.compatibility.CompatibilityVisitor;
+import com.archimatetool.editor.model.compatibility.IVisitingCompatibilityHandler;
 import com.archimatetool.editor.utils.StringUtils;
 import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IDiagramModelObject;
 
 
@@ -24,16 +20,16 @@ import com.archimatetool.model.IDiagramModelObject;
  * 
  * @author Phillip Beauvoir
  */
-public class OutlineOpacityHandler implements ICompatibilityHandler {
+public class OutlineOpacityHandler implements IVisitingCompatibilityHandler {
+    
+    @Override
+    public boolean isApplicable(IArchimateModel model) {
+        return isVersion(model);
+    }
     
     @Override
-    public void fixCompatibility(Resource resource) throws CompatibilityHandlerException {
-        IArchimateModel model = (IArchimateModel)resource.getContents().get(0);
-        
-        // Check all widths and heights
-        if(isVersion(model)) {
-            setDefaultOutlineOpacity(model);
-        }
+    public void registerCallbacks(CompatibilityVisitor visitor) {
+        visitor.register(IArchimatePackage.Literals.DIAGRAM_MODEL_OBJECT, (IDiagramModelObject dmo) -> setDefaultOutlineOpacity(dmo));
     }
     
     boolean isVersion(IArchimateModel model) {
@@ -42,14 +38,8 @@ public class OutlineOpacityHandler implements ICompatibilityHandler {
                 StringUtils.compareVersionNumbers(version, "4.4.0") == 0); //$NON-NLS-1$
     }
 
-    void setDefaultOutlineOpacity(IArchimateModel model) {
-        for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
-            EObject eObject = iter.next();
-            if(eObject instanceof IDiagramModelObject) {
-                IDiagramModelObject dmo = (IDiagramModelObject)eObject;
-                dmo.setLineAlpha(dmo.getAlpha());
-            }
-        }
+    void setDefaultOutlineOpacity(IDiagramModelObject dmo) {
+        dmo.setLineAlpha(dmo.getAlpha());
     }
     
 }
@@ -8,15 +8,21 @@ package com.archimatetool.editor.model.impl;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.zip.ZipEntry;
@@ -27,15 +33,22 @@ import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.xmi.XMLResource;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.widgets.Display;
 
+import com.archimatetool.editor.ArchiPlugin;
 import com.archimatetool.editor.model.IArchiveManager;
+import com.archimatetool.editor.preferences.IPreferenceConstants;
 import com.archimatetool.editor.utils.FileUtils;
 import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.model.IDiagramModelImageProvider;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.util.ArchimateResource;
 import com.archimatetool.model.util.ArchimateResourceFactory;
+import com.archimatetool.model.util.ModelShardLoader;
 
 
 
@@ -43,11 +56,17 @@ import com.archimatetool.model.util.ArchimateResourceFactory;
  * Archive Manager
  * Handles saving a model to archive file if model contains images or to XML file if no images
  * Handles image data, saving images, creating images
+ * Handles saving and loading View contents in separate archive entries
  * 
  * @author Phillip Beauvoir
  */
 public class ArchiveManager implements IArchiveManager {
     
+    /**
+     * The number of objects in a folder above which it is saved in several shards
+     */
+    static final int MAX_SHARD_SIZE = 10000;
+    
     /**
      * Raw image bytes stored for all images in this model
      */
@@ -63,11 +82,17 @@ public class ArchiveManager implements IArchiveManager {
      */
     private boolean fImagesLoaded = false;
     
+    /**
+     * Manages View contents stored in separate archive entries
+     */
+    private DiagramModelContentManager fContentManager;
+    
     /**
      * @param model The owning model
      */
     public ArchiveManager(IArchimateModel model) {
         fModel = model;
+        fContentManager = new DiagramModelContentManager(model);
     }
 
     @Override
@@ -133,6 +158,11 @@ public class ArchiveManager implements IArchiveManager {
             }
         }
         
+        // Images referenced in unloaded Views are not known so include all loaded images
+        if(fContentManager.hasUnloadedContent()) {
+            set.addAll(getLoadedImagePaths());
+        }
+        
         return set;
     }
     
@@ -176,6 +206,18 @@ public class ArchiveManager implements IArchiveManager {
         return true;
     }
     
+    @Override
+    public void registerUnloadedDiagramModels() throws IOException {
+        fContentManager.registerUnloadedDiagramModels(fModel.getFile());
+    }
+    
+    /**
+     * @return The manager for View contents stored in separate archive entries
+     */
+    public DiagramModelContentManager getDiagramModelContentManager() {
+        return fContentManager;
+    }
+    
     @Override
     public boolean hasImages() {
         // List of of actual images loaded
@@ -186,6 +228,11 @@ public class ArchiveManager implements IArchiveManager {
             return false;
         }
         
+        // Images in unloaded Views
+        if(fContentManager.hasUnloadedContent()) {
+            return true;
+        }
+        
         // Iterate thru model and find instances of IDiagramModelImageProvider
         for(Iterator<EObject> iter = fModel.eAllContents(); iter.hasNext();) {
             EObject element = iter.next();
@@ -243,12 +290,25 @@ public class ArchiveManager implements IArchiveManager {
             return;
         }
         
-        if(hasImages()) {
-            saveModelToArchiveFile(file);
+        boolean saveViewsSeparately = ArchiPlugin.PREFERENCES.getBoolean(IPreferenceConstants.ARCHIVE_VIEWS_SEPARATELY);
+        boolean saveSharded = ArchiPlugin.PREFERENCES.getBoolean(IPreferenceConstants.ARCHIVE_MODEL_SHARDED);
+        
+        // Not saving Views separately so load any unloaded View contents into the model
+        if(!saveViewsSeparately) {
+            fContentManager.loadAllContent();
+        }
+        
+        // If any View contents could not be loaded they are still saved separately so that they are not lost
+        saveViewsSeparately |= fContentManager.hasUnloadedContent();
+        
+        if(saveViewsSeparately || saveSharded || hasImages()) {
+            saveModelToArchiveFile(file, saveViewsSeparately, saveSharded);
         }
         else {
-            saveResource(file);
+            saveResource(file, null);
         }
+        
+        fContentManager.modelSaved(file);
     }
     
     @Override
@@ -264,11 +324,40 @@ public class ArchiveManager implements IArchiveManager {
     
     /**
      * Save the model to Archive File format
+     * @param saveViewsSeparately If true the contents of Views are saved in separate entries
+     * @param saveSharded If true the model's folders are saved in separate entries
      */
-    private void saveModelToArchiveFile(File file) throws IOException {
+    private void saveModelToArchiveFile(File file, boolean saveViewsSeparately, boolean saveSharded) throws IOException {
+        // Read any unloaded View contents before the file is overwritten
+        if(saveViewsSeparately) {
+            fContentManager.cacheUnloadedContent();
+        }
+        
+        Map<Object, Object> options = new HashMap<>();
+        
+        // Save Views as stubs without their contents
+        if(saveViewsSeparately) {
+            options.put(ArchimateResource.OPTION_SAVE_DIAGRAM_MODEL_STUBS, Boolean.TRUE);
+        }
+        
+        // Save the model without its folders
+        if(saveSharded) {
+            options.put(ArchimateResource.OPTION_SAVE_MODEL_WITHOUT_FOLDERS, Boolean.TRUE);
+        }
+        
         try(ZipOutputStream zOut = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
             // Add the model xml file
-            saveModelFile(zOut);
+            saveModelFile(zOut, options);
+            
+            // Add the folders
+            if(saveSharded) {
+                saveFolderShards(zOut, options);
+            }
+            
+            // Add View contents
+            if(saveViewsSeparately) {
+                saveDiagramModelContents(zOut);
+            }
             
             // Add any images
             saveImages(zOut);
@@ -278,11 +367,11 @@ public class ArchiveManager implements IArchiveManager {
     /**
      * Save the model xml file in the Archive File
      */
-    private void saveModelFile(ZipOutputStream zOut) throws IOException {
+    private void saveModelFile(ZipOutputStream zOut, Map<Object, Object> options) throws IOException {
         // Temp file for xml model file
         File tmpFile = File.createTempFile("archi-", null); //$NON-NLS-1$
         tmpFile.deleteOnExit();
-        saveResource(tmpFile);
+        saveResource(tmpFile, options);
         
         ZipEntry zipEntry = new ZipEntry("model.xml"); //$NON-NLS-1$
         zipEntry.setTime(0); // Set time to zero for coArchi
@@ -303,10 +392,112 @@ public class ArchiveManager implements IArchiveManager {
         }
     }
     
+    /**
+     * Save the top level folders as the root objects of separate entries in the Archive File.
+     * A folder with more than MAX_SHARD_SIZE objects is split into several entries.
+     * When the model is loaded these entries are parsed in parallel.
+     */
+    private void saveFolderShards(ZipOutputStream zOut, Map<Object, Object> options) throws IOException {
+        Map<Object, Object> shardOptions = new HashMap<>(options);
+        int index = 0;
+        
+        for(IFolder folder : fModel.getFolders()) {
+            for(Set<EObject> shardObjects : createShards(folder)) {
+                shardOptions.put(XMLResource.OPTION_ROOT_OBJECTS, Collections.singletonList(folder));
+                shardOptions.put(ArchimateResource.OPTION_SAVE_SHARD_OBJECTS, shardObjects);
+                saveFolderShard(zOut, shardOptions, index++);
+            }
+        }
+    }
+    
+    /**
+     * Split a top level folder into shards of about MAX_SHARD_SIZE objects.
+     * The sub-folders and elements are taken in the order they are saved, sub-folders before elements,
+     * so that the shards can be merged in turn when loading. Each shard also holds the folders that contain its objects.
+     * @return The sets of folders and elements to save in each shard
+     */
+    private List<Set<EObject>> createShards(IFolder folder) {
+        List<EObject> objects = new ArrayList<>();
+        getFoldersAndElements(folder, objects);
+        
+        List<Set<EObject>> shards = new ArrayList<>();
+        Set<EObject> shard = null;
+        int shardSize = 0;
+        
+        for(EObject eObject : objects) {
+            // The size of an element includes its contents such as the contents of a View
+            int size = 1;
+            if(!(eObject instanceof IFolder)) {
+                for(Iterator<EObject> iter = eObject.eAllContents(); iter.hasNext(); iter.next()) {
+                    size++;
+                }
+            }
+            
+            if(shard == null || (shardSize > 0 && shardSize + size > MAX_SHARD_SIZE)) {
+                shard = new HashSet<>();
+                shards.add(shard);
+                shardSize = 0;
+            }
+            
+            shard.add(eObject);
+            shardSize += size;
+            
+            // Add the containing folders
+            EObject container = eObject.eContainer();
+            while(container instanceof IFolder && shard.add(container)) {
+                container = container.eContainer();
+            }
+        }
+        
+        return shards;
+    }
+    
+    private void getFoldersAndElements(IFolder folder, List<EObject> objects) {
+        objects.add(folder);
+        
+        for(IFolder subFolder : folder.getFolders()) {
+            getFoldersAndElements(subFolder, objects);
+        }
+        
+        objects.addAll(folder.getElements());
+    }
+    
+    private void saveFolderShard(ZipOutputStream zOut, Map<Object, Object> shardOptions, int index) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+            
+        
+        // Catch *all* exceptions in case of XML errors
+        try {
+            fModel.eResource().save(out, shardOptions);
+        }
+        catch(Exception ex) {
+            throw new IOException(ex);
+        }
+        
+        ZipEntry zipEntry = new ZipEntry(ModelShardLoader.getFolderEntryName(index));
+        zipEntry.setTime(0); // Set time to zero for coArchi
+        zOut.putNextEntry(zipEntry);
+        out.writeTo(zOut);
+        zOut.closeEntry();
+    }
+    
+    /**
+     * Save the contents of each View in the Archive File
+     */
+    private void saveDiagramModelContents(ZipOutputStream zOut) throws IOException {
+        for(IDiagramModel dm : fModel.getDiagramModels()) {
+            ZipEntry zipEntry = new ZipEntry(DiagramModelContentManager.getEntryName(dm));
+            zipEntry.setTime(0); // Set time to zero for coArchi
+            zOut.putNextEntry(zipEntry);
+            zOut.write(fContentManager.getContentBytes(dm));
+            zOut.closeEntry();
+        }
+    }
+    
     /**
      * Save the model to Resource
      */
-    private void saveResource(File file) throws IOException {
+    private void saveResource(File file, Map<Object, Object> options) throws IOException {
         Resource resource = fModel.eResource();
         
         // No parent Resource set, so create a new one
@@ -321,7 +512,7 @@ public class ArchiveManager implements IArchiveManager {
         
         // Catch *all* exceptions in case of XML errors
         try {
-            resource.save(null);
+            resource.save(options);
         }
         catch(Exception ex) {
             throw new IOException(ex);
@@ -358,6 +549,8 @@ public class ArchiveManager implements IArchiveManager {
     public void dispose() {
         byteArrayStorage.dispose();
         byteArrayStorage = null;
+        fContentManager.dispose();
+        fContentManager = null;
         fModel = null;
     }
 }
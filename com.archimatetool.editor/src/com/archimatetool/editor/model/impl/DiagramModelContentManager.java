@@ -0,0 +1,606 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.model.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.PlatformUI;
+
+import com.archimatetool.editor.Logger;
+import com.archimatetool.editor.model.IArchiveManager;
+import com.archimatetool.model.IArchimateConcept;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimateModelObject;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IConnectable;
+import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.IDiagramModelArchimateComponent;
+import com.archimatetool.model.IDiagramModelConnection;
+import com.archimatetool.model.IDiagramModelContainer;
+import com.archimatetool.model.IDiagramModelObject;
+import com.archimatetool.model.IDiagramModelReference;
+import com.archimatetool.model.util.ArchimateResource;
+import com.archimatetool.model.util.ArchimateResourceFactory;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
+
+
+
+/**
+ * Manages the contents of diagram models that are stored in separate entries in the archive file.
+ *
+ * In this archive layout "model.xml" holds the diagram models as stubs without any child objects
+ * and the contents of each diagram model are stored in a "views/id.xml" entry.
+ * The contents of a diagram model are loaded when first accessed and can be unloaded again to free memory.
+ *
+ * The ids of the concepts and diagram models referenced in each unloaded diagram model are indexed when the archive file
+ * is registered, by scanning the XML of its entry, or when the diagram model is unloaded, so that references to an object
+ * can be counted and only the diagram models that reference it loaded.
+ *
+ * If an unload policy is set the least recently used of the diagram models loaded on demand are unloaded again,
+ * if the policy allows it, when more than MAX_LOADED_CONTENT of them are loaded.
+ *
+ * Loading is done explicitly where a View's contents are needed, such as when opening it in an editor or exporting it,
+ * and when a concept is asked for its referencing diagram components. The contents are added with dm.getChildren().addAll()
+ * outside of the Command Stack as this is not an edit, so it doesn't make the model dirty and can't be undone.
+ * The ADD notification is intentional so that model listeners, such as the DiagramReferenceCounter, the ModelChecker
+ * and the Models Tree, see the loaded diagram components as they would any other. It can be sent while another notification
+ * is being delivered, for example if a listener asks a concept for its referencing diagram components.
+ *
+ * Contents are only loaded and unloaded on the Display thread, so that listeners are always notified there, and callers
+ * on other threads wait for it. The index and the state of the diagram models are guarded by this object's lock.
+ *
+ * @author Phillip Beauvoir
+ */
+public class DiagramModelContentManager implements IDiagramModelContentLoader {
+
+    /**
+     * Archive folder for diagram model contents
+     */
+    public static final String VIEWS_FOLDER = "views/"; //$NON-NLS-1$
+
+    /**
+     * The number of diagram models loaded on demand that are kept loaded before the least recently used are unloaded
+     */
+    public static final int MAX_LOADED_CONTENT = 50;
+
+    /**
+     * Names of the XML attributes that hold the ids of the concepts and diagram models referenced by diagram components
+     */
+    private static final Set<String> REFERENCE_ATTRIBUTES = Set.of(
+            IArchimatePackage.Literals.DIAGRAM_MODEL_ARCHIMATE_OBJECT__ARCHIMATE_ELEMENT.getName(),
+            IArchimatePackage.Literals.DIAGRAM_MODEL_ARCHIMATE_CONNECTION__ARCHIMATE_RELATIONSHIP.getName(),
+            IArchimatePackage.Literals.DIAGRAM_MODEL_REFERENCE__REFERENCED_MODEL.getName());
+
+    private IArchimateModel fModel;
+
+    /**
+     * The archive file that unloaded contents are read from
+     */
+    private File fArchiveFile;
+
+    /**
+     * Diagram models whose contents are not loaded
+     */
+    private Set<IDiagramModel> fUnloaded = new HashSet<>();
+
+    /**
+     * Serialised contents of unloaded diagram models that are not (yet) in the archive file
+     */
+    private Map<IDiagramModel, byte[]> fContentBytes = new HashMap<>();
+
+    /**
+     * Index of the concepts and diagram models referenced in unloaded diagram models.
+     * Maps an object id to the number of diagram components in each unloaded diagram model that reference it.
+     */
+    private Map<String, Map<IDiagramModel, Integer>> fReferences = new HashMap<>();
+
+    /**
+     * Diagram models whose contents were loaded on demand, least recently used first
+     */
+    private Set<IDiagramModel> fLoaded = new LinkedHashSet<>();
+
+    /**
+     * Whether a loaded diagram model can be unloaded, or null to keep all loaded contents
+     */
+    private Predicate<IDiagramModel> fUnloadPolicy;
+
+    private XMLInputFactory fXMLInputFactory;
+
+    // Guards against loading again while the loaded contents are added to the model and listeners are notified
+    private boolean fLoading;
+
+    private boolean fTrimScheduled;
+
+    public DiagramModelContentManager(IArchimateModel model) {
+        fModel = model;
+    }
+
+    /**
+     * @return The archive entry name for the diagram model's contents
+     */
+    public static String getEntryName(IDiagramModel dm) {
+        return VIEWS_FOLDER + dm.getId() + ".xml"; //$NON-NLS-1$
+    }
+
+    /**
+     * Register the diagram models in the model that have their contents stored in separate entries in the archive file
+     * @param file The archive file
+     * @throws IOException
+     */
+    synchronized void registerUnloadedDiagramModels(File file) throws IOException {
+        if(file == null || !file.exists() || !IArchiveManager.FACTORY.isArchiveFile(file)) {
+            return;
+        }
+
+        try(ZipFile zipFile = new ZipFile(file)) {
+            for(IDiagramModel dm : fModel.getDiagramModels()) {
+                ZipEntry zipEntry = zipFile.getEntry(getEntryName(dm));
+                if(dm.getChildren().isEmpty() && zipEntry != null) {
+                    fUnloaded.add(dm);
+                    
+                    try(InputStream in = zipFile.getInputStream(zipEntry)) {
+                        indexReferences(dm, in);
+                    }
+                }
+            }
+        }
+
+        fArchiveFile = file;
+        
+        registerAdapter();
+    }
+    
+    /**
+     * Set this as the model's adapter so that unloaded contents are loaded when accessed
+     */
+    private void registerAdapter() {
+        if(!fUnloaded.isEmpty() && fModel.getAdapter(IDiagramModelContentLoader.class) != this) {
+            fModel.setAdapter(IDiagramModelContentLoader.class, this);
+        }
+    }
+
+    @Override
+    public IArchimateModel getArchimateModel() {
+        return fModel;
+    }
+
+    @Override
+    public synchronized boolean isContentLoaded(IDiagramModel dm) {
+        return !fUnloaded.contains(dm);
+    }
+
+    @Override
+    public synchronized boolean hasUnloadedContent() {
+        return !fUnloaded.isEmpty();
+    }
+
+    @Override
+    public synchronized int getUnloadedReferenceCount(IArchimateModelObject object) {
+        Map<IDiagramModel, Integer> views = fReferences.get(object.getId());
+        if(views == null) {
+            return 0;
+        }
+        
+        int count = 0;
+        
+        // Diagram models removed from the model are kept in case they are restored with Undo
+        for(Map.Entry<IDiagramModel, Integer> entry : views.entrySet()) {
+            if(entry.getKey().getArchimateModel() == fModel) {
+                count += entry.getValue();
+            }
+        }
+        
+        return count;
+    }
+
+    @Override
+    public void loadContentReferencing(IArchimateModelObject object) {
+        runOnDisplayThread(() -> loadContentReferencingObject(object));
+    }
+    
+    private synchronized void loadContentReferencingObject(IArchimateModelObject object) {
+        Map<IDiagramModel, Integer> views = fReferences.get(object.getId());
+        if(views == null) {
+            return;
+        }
+        
+        for(IDiagramModel dm : new ArrayList<>(views.keySet())) {
+            if(dm.getArchimateModel() == fModel) {
+                loadContent(dm);
+            }
+        }
+    }
+
+    /**
+     * Set the policy that decides whether a diagram model loaded on demand can be unloaded again
+     * when more than MAX_LOADED_CONTENT of them are loaded
+     * @param unloadPolicy The policy, or null to keep all loaded contents
+     */
+    public void setUnloadPolicy(Predicate<IDiagramModel> unloadPolicy) {
+        fUnloadPolicy = unloadPolicy;
+    }
+
+    @Override
+    public void loadContent(IDiagramModel dm) {
+        runOnDisplayThread(() -> loadContent(dm, true));
+    }
+
+    /**
+     * @param onDemand If true the diagram model is one of those that can be unloaded again by the unload policy
+     */
+    private synchronized void loadContent(IDiagramModel dm, boolean onDemand) {
+        if(fLoading) {
+            return;
+        }
+        
+        if(!fUnloaded.contains(dm)) {
+            // Now the most recently used
+            if(fLoaded.remove(dm)) {
+                fLoaded.add(dm);
+            }
+            return;
+        }
+
+        fLoading = true;
+
+        try {
+            byte[] bytes = fContentBytes.get(dm);
+            if(bytes == null) {
+                bytes = readEntry(dm);
+            }
+
+            IDiagramModel content = parseContent(dm, bytes);
+
+            fUnloaded.remove(dm);
+            fContentBytes.remove(dm);
+            removeReferences(dm);
+
+            List<IDiagramModelObject> children = new ArrayList<>(content.getChildren());
+            dm.getChildren().addAll(children);
+            
+            if(onDemand) {
+                fLoaded.add(dm);
+                checkLoadedContentCount();
+            }
+        }
+        catch(IOException ex) {
+            // Leave it unloaded so that the stored contents are not overwritten when saving
+            Logger.logError("Could not load View contents: " + dm.getId(), ex); //$NON-NLS-1$
+        }
+        finally {
+            fLoading = false;
+        }
+    }
+
+    @Override
+    public void loadAllContent() {
+        runOnDisplayThread(this::loadAllUnloadedContent);
+    }
+    
+    private synchronized void loadAllUnloadedContent() {
+        if(fUnloaded.isEmpty()) {
+            return;
+        }
+
+        // Include diagram models that were removed from the model in case they are restored with Undo
+        for(IDiagramModel dm : new ArrayList<>(fUnloaded)) {
+            loadContent(dm, false);
+        }
+    }
+    
+    /**
+     * If more than MAX_LOADED_CONTENT diagram models were loaded on demand unload the least recently used ones
+     * that the unload policy allows. This is done after the current UI event so that contents are not unloaded while in use.
+     */
+    private void checkLoadedContentCount() {
+        if(fUnloadPolicy != null && !fTrimScheduled && fLoaded.size() > MAX_LOADED_CONTENT) {
+            fTrimScheduled = true;
+            Display.getDefault().asyncExec(this::trimLoadedContent);
+        }
+    }
+    
+    private synchronized void trimLoadedContent() {
+        fTrimScheduled = false;
+        
+        // Disposed
+        if(fModel == null || fUnloadPolicy == null) {
+            return;
+        }
+        
+        for(IDiagramModel dm : new ArrayList<>(fLoaded)) {
+            if(fLoaded.size() <= MAX_LOADED_CONTENT) {
+                break;
+            }
+            
+            if(dm.getArchimateModel() != fModel) {
+                fLoaded.remove(dm);
+            }
+            else if(fUnloadPolicy.test(dm)) {
+                unloadContent(dm);
+            }
+        }
+    }
+
+    /**
+     * Unload the contents of the diagram model to free memory. The contents are kept in serialised form.
+     * This should only be called on the Display thread and if nothing else, such as an open editor or an undoable command, references the contents.
+     * @param dm The diagram model
+     * @return true if unloaded
+     */
+    public synchronized boolean unloadContent(IDiagramModel dm) {
+        if(fUnloaded.contains(dm) || dm.getArchimateModel() != fModel || dm.getChildren().isEmpty()) {
+            return false;
+        }
+
+        try {
+            fContentBytes.put(dm, saveContent(dm));
+        }
+        catch(IOException ex) {
+            Logger.logError("Could not unload View contents: " + dm.getId(), ex); //$NON-NLS-1$
+            return false;
+        }
+
+        fUnloaded.add(dm);
+        fLoaded.remove(dm);
+        indexReferences(dm);
+        removeContents(dm);
+        registerAdapter();
+
+        return true;
+    }
+    
+    /**
+     * Remove all child objects and connections from the bottom up.
+     * Each removal also removes the reference to the diagram component held by its ArchiMate concept.
+     */
+    private void removeContents(IDiagramModelContainer container) {
+        for(IDiagramModelObject child : container.getChildren()) {
+            if(child instanceof IDiagramModelContainer) {
+                removeContents((IDiagramModelContainer)child);
+            }
+            removeConnections(child);
+        }
+        
+        container.getChildren().clear();
+    }
+    
+    private void removeConnections(IConnectable connectable) {
+        for(IDiagramModelConnection connection : connectable.getSourceConnections()) {
+            removeConnections(connection);
+        }
+        
+        connectable.getSourceConnections().clear();
+    }
+
+    /**
+     * Add the concepts and diagram models referenced by the diagram components in the diagram model's contents to the reference index
+     */
+    private void indexReferences(IDiagramModel dm) {
+        for(Iterator<EObject> iter = dm.eAllContents(); iter.hasNext();) {
+            EObject eObject = iter.next();
+            if(eObject instanceof IDiagramModelArchimateComponent) {
+                IArchimateConcept concept = ((IDiagramModelArchimateComponent)eObject).getArchimateConcept();
+                if(concept != null) {
+                    addReference(dm, concept.getId());
+                }
+            }
+            else if(eObject instanceof IDiagramModelReference) {
+                IDiagramModel referencedModel = ((IDiagramModelReference)eObject).getReferencedModel();
+                if(referencedModel != null) {
+                    addReference(dm, referencedModel.getId());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Add the concepts and diagram models referenced in the serialised contents of the diagram model to the reference index.
+     * The XML is only scanned for the attributes that hold the ids of referenced objects, no objects are created.
+     */
+    private void indexReferences(IDiagramModel dm, InputStream in) {
+        try {
+            if(fXMLInputFactory == null) {
+                fXMLInputFactory = XMLInputFactory.newInstance();
+                fXMLInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+                fXMLInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            }
+            
+            XMLStreamReader reader = fXMLInputFactory.createXMLStreamReader(in);
+            
+            try {
+                while(reader.hasNext()) {
+                    if(reader.next() == XMLStreamConstants.START_ELEMENT) {
+                        for(int i = 0; i < reader.getAttributeCount(); i++) {
+                            if(REFERENCE_ATTRIBUTES.contains(reader.getAttributeLocalName(i))) {
+                                addReference(dm, reader.getAttributeValue(i));
+                            }
+                        }
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch(XMLStreamException ex) {
+            // The contents can't be loaded either so they can't reference anything in the model
+            Logger.logError("Could not index View contents: " + dm.getId(), ex); //$NON-NLS-1$
+        }
+    }
+    
+    private void addReference(IDiagramModel dm, String conceptId) {
+        fReferences.computeIfAbsent(conceptId, id -> new HashMap<>()).merge(dm, 1, Integer::sum);
+    }
+    
+    private void removeReferences(IDiagramModel dm) {
+        fReferences.values().removeIf(views -> views.remove(dm) != null && views.isEmpty());
+    }
+
+    /**
+     * Unload the contents of all diagram models that match the filter
+     * @param filter The filter
+     * @return The number of diagram models unloaded
+     */
+    public int unloadContent(Predicate<IDiagramModel> filter) {
+        int count = 0;
+
+        for(IDiagramModel dm : fModel.getDiagramModels()) {
+            if(filter.test(dm) && unloadContent(dm)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Read the stored contents of all unloaded diagram models into memory.
+     * This has to be done before the archive file is overwritten.
+     * @throws IOException
+     */
+    synchronized void cacheUnloadedContent() throws IOException {
+        if(fArchiveFile == null) {
+            return;
+        }
+
+        try(ZipFile zipFile = new ZipFile(fArchiveFile)) {
+            for(IDiagramModel dm : fUnloaded) {
+                if(!fContentBytes.containsKey(dm)) {
+                    fContentBytes.put(dm, readEntry(zipFile, dm));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The serialised contents of the diagram model to save in its archive entry
+     * @throws IOException
+     */
+    synchronized byte[] getContentBytes(IDiagramModel dm) throws IOException {
+        if(fUnloaded.contains(dm)) {
+            byte[] bytes = fContentBytes.get(dm);
+            return bytes != null ? bytes : readEntry(dm);
+        }
+
+        return saveContent(dm);
+    }
+
+    /**
+     * The model was saved to file. Contents held in memory are now stored in the file.
+     */
+    synchronized void modelSaved(File file) {
+        fArchiveFile = file;
+        fContentBytes.clear();
+    }
+
+    /**
+     * Save the diagram model with its contents as the root object of an XML document
+     */
+    private byte[] saveContent(IDiagramModel dm) throws IOException {
+        Resource resource = fModel.eResource();
+        if(resource == null) {
+            throw new IOException("Model has no Resource"); //$NON-NLS-1$
+        }
+
+        Map<Object, Object> options = new HashMap<>();
+        options.put(XMLResource.OPTION_ROOT_OBJECTS, Collections.singletonList(dm));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        resource.save(out, options);
+        return out.toByteArray();
+    }
+
+    /**
+     * Load a diagram model's contents from its XML document.
+     * References to objects outside of the diagram model are resolved in the model's Resource.
+     */
+    private IDiagramModel parseContent(IDiagramModel dm, byte[] bytes) throws IOException {
+        String path = fArchiveFile != null ? IArchiveManager.FACTORY.getArchiveFilePath(fArchiveFile) + "!/" : ""; //$NON-NLS-1$ //$NON-NLS-2$
+        ArchimateResource resource = (ArchimateResource)ArchimateResourceFactory.createNewResource(URI.createURI(path + getEntryName(dm)));
+        resource.setReferenceResource(fModel.eResource());
+
+        try {
+            resource.load(new ByteArrayInputStream(bytes), null);
+        }
+        catch(Exception ex) {
+            throw new IOException(ex);
+        }
+
+        if(resource.getContents().isEmpty() || !(resource.getContents().get(0) instanceof IDiagramModel)) {
+            throw new IOException("No View in archive entry: " + getEntryName(dm)); //$NON-NLS-1$
+        }
+
+        return (IDiagramModel)resource.getContents().get(0);
+    }
+
+    /**
+     * Run the runnable on the Display thread, waiting for it if called from another thread
+     */
+    private void runOnDisplayThread(Runnable runnable) {
+        if(Display.getCurrent() == null && PlatformUI.isWorkbenchRunning()) {
+            PlatformUI.getWorkbench().getDisplay().syncExec(runnable);
+        }
+        else {
+            runnable.run();
+        }
+    }
+
+    private byte[] readEntry(IDiagramModel dm) throws IOException {
+        if(fArchiveFile == null) {
+            throw new IOException("No archive file"); //$NON-NLS-1$
+        }
+
+        try(ZipFile zipFile = new ZipFile(fArchiveFile)) {
+            return readEntry(zipFile, dm);
+        }
+    }
+
+    private byte[] readEntry(ZipFile zipFile, IDiagramModel dm) throws IOException {
+        ZipEntry zipEntry = zipFile.getEntry(getEntryName(dm));
+        if(zipEntry == null) {
+            throw new IOException("Archive entry not found: " + getEntryName(dm)); //$NON-NLS-1$
+        }
+
+        try(InputStream in = zipFile.getInputStream(zipEntry)) {
+            return in.readAllBytes();
+        }
+    }
+
+    synchronized void dispose() {
+        fUnloaded.clear();
+        fContentBytes.clear();
+        fReferences.clear();
+        fLoaded.clear();
+        fUnloadPolicy = null;
+        fModel = null;
+    }
+}
@@ -36,6 +36,7 @@ import org.jdom2.JDOMException;
 import com.archimatetool.editor.ArchiPlugin;
 import com.archimatetool.editor.Logger;
 import com.archimatetool.editor.diagram.util.AnimationUtil;
+import com.archimatetool.editor.model.DiagramReferenceCounter;
 import com.archimatetool.editor.model.IArchiveManager;
 import com.archimatetool.editor.model.IEditorModelManager;
 import com.archimatetool.editor.model.ModelChecker;
@@ -44,6 +45,7 @@ import com.archimatetool.editor.model.compatibility.IncompatibleModelException;
 import com.archimatetool.editor.model.compatibility.ModelCompatibility;
 import com.archimatetool.editor.preferences.IPreferenceConstants;
 import com.archimatetool.editor.ui.services.EditorManager;
+import com.archimatetool.editor.ui.textrender.TextRenderer;
 import com.archimatetool.editor.utils.FileUtils;
 import com.archimatetool.jdom.JDOMUtils;
 import com.archimatetool.model.FolderType;
@@ -131,6 +133,15 @@ implements IEditorModelManager {
         }
     }
     
+    /**
+     * @return true if the contents of a View loaded on demand can be unloaded again.
+     * It must not be open in an editor and the model must not have Undo or Redo history because commands may reference the contents.
+     */
+    private boolean canUnloadDiagramModelContent(IDiagramModel dm) {
+        CommandStack stack = (CommandStack)dm.getArchimateModel().getAdapter(CommandStack.class);
+        return stack != null && !stack.canUndo() && !stack.canRedo() && EditorManager.getDiagramEditorReferences(dm).length == 0;
+    }
+    
     @Override
     public List<IArchimateModel> getModels() {
         if(fModels == null) {
@@ -181,6 +192,12 @@ implements IEditorModelManager {
         // New Archive Manager
         createNewArchiveManager(model);
         
+        // New Model Checker
+        createNewModelChecker(model);
+        
+        // New Diagram Reference Counter
+        createNewDiagramReferenceCounter(model);
+        
         firePropertyChange(this, PROPERTY_MODEL_CREATED, null, model);
         
         // Register Ecore listener
@@ -233,6 +250,12 @@ implements IEditorModelManager {
         // New Archive Manager
         createNewArchiveManager(model);
         
+        // New Model Checker
+        createNewModelChecker(model);
+        
+        // New Diagram Reference Counter
+        createNewDiagramReferenceCounter(model);
+        
         // Register Ecore listener
         model.addModelContentListener(fEContentListener);
 
@@ -341,7 +364,21 @@ implements IEditorModelManager {
         createNewCommandStack(model);
         
         // New Archive Manager
-        createNewArchiveManager(model);
+        IArchiveManager archiveManager = createNewArchiveManager(model);
+        
+        // Views stored in separate archive entries are loaded on demand
+        try {
+            archiveManager.registerUnloadedDiagramModels();
+        }
+        catch(IOException ex) {
+            Logger.logError("Could not register Views", ex); //$NON-NLS-1$
+        }
+        
+        // New Model Checker
+        createNewModelChecker(model);
+        
+        // New Diagram Reference Counter
+        createNewDiagramReferenceCounter(model);
         
         // Initiate all diagram models to be marked as "saved" - this is for the editor view persistence
         markDiagramModelsAsSaved(model);
@@ -402,6 +439,9 @@ implements IEditorModelManager {
         model.setAdapter(IArchiveManager.class, archiveManager);
         archiveManager.loadImages();
         
+        // Views stored in separate archive entries are loaded on demand
+        archiveManager.registerUnloadedDiagramModels();
+        
         return model;
     }
     
@@ -432,12 +472,21 @@ implements IEditorModelManager {
 
         // Fire this event *before* disposing of the model in case listeners need to access it or any of its members
         firePropertyChange(this, PROPERTY_MODEL_REMOVED, null, model);
+        
+        // Release cached label results that reference the model's objects
+        TextRenderer.getDefault().clearCache();
 
         // Delete the CommandStack *LAST* because GEF Editor(s) will still reference it!
         deleteCommandStack(model);
   
         // Delete Archive Manager
         deleteArchiveManager(model);
+        
+        // Delete Model Checker
+        deleteModelChecker(model);
+        
+        // Delete Diagram Reference Counter
+        deleteDiagramReferenceCounter(model);
 
         // *at the very last* dispose of this model so its contents can be garbage collected
         // Some Eclipse components such as the Properties View might still reference the model or some of its contents
@@ -481,9 +530,13 @@ implements IEditorModelManager {
 
     @Override
     public boolean saveModel(IArchimateModel model) throws IOException {
-        // Check integrity
-        ModelChecker checker = new ModelChecker(model);
-        if(!checker.checkAll()) {
+        // Check integrity. Only objects changed since the last check are checked if the model is tracked.
+        ModelChecker checker = (ModelChecker)model.getAdapter(ModelChecker.class);
+        if(checker == null) {
+            checker = new ModelChecker(model);
+        }
+        
+        if(!checker.check()) {
             if(PlatformUI.isWorkbenchRunning()) {
                 checker.showErrorDialog(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell());
             }
@@ -670,6 +723,11 @@ implements IEditorModelManager {
         IArchiveManager archiveManager = IArchiveManager.FACTORY.createArchiveManager(model);
         model.setAdapter(IArchiveManager.class, archiveManager);
         
+        // Unload the least recently used View contents loaded on demand
+        if(PlatformUI.isWorkbenchRunning() && archiveManager instanceof ArchiveManager) {
+            ((ArchiveManager)archiveManager).getDiagramModelContentManager().setUnloadPolicy(this::canUnloadDiagramModelContent);
+        }
+        
         // Load images now
         try {
             archiveManager.loadImages();
@@ -692,6 +750,50 @@ implements IEditorModelManager {
         }
     }
 
+    /**
+     * Create a new ModelChecker for the model that tracks changes to the model
+     */
+    private void createNewModelChecker(IArchimateModel model) {
+        // dispose any previous one
+        deleteModelChecker(model);
+        
+        ModelChecker checker = new ModelChecker(model);
+        checker.startTracking();
+        model.setAdapter(ModelChecker.class, checker);
+    }
+    
+    /**
+     * Remove the model's ModelChecker
+     */
+    private void deleteModelChecker(IArchimateModel model) {
+        ModelChecker checker = (ModelChecker)model.getAdapter(ModelChecker.class);
+        if(checker != null) {
+            checker.stopTracking();
+        }
+    }
+    
+    /**
+     * Create a new DiagramReferenceCounter for the model that counts the references to concepts in diagrams
+     */
+    private void createNewDiagramReferenceCounter(IArchimateModel model) {
+        // dispose any previous one
+        deleteDiagramReferenceCounter(model);
+        
+        DiagramReferenceCounter counter = new DiagramReferenceCounter(model);
+        counter.startTracking();
+        model.setAdapter(DiagramReferenceCounter.class, counter);
+    }
+    
+    /**
+     * Remove the model's DiagramReferenceCounter
+     */
+    private void deleteDiagramReferenceCounter(IArchimateModel model) {
+        DiagramReferenceCounter counter = (DiagramReferenceCounter)model.getAdapter(DiagramReferenceCounter.class);
+        if(counter != null) {
+            counter.stopTracking();
+        }
+    }
+
     //========================== Persist backing file  ==========================
 
     @Override
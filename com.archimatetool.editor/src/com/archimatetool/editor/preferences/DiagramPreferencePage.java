@@ -61,6 +61,9 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
     
     private Button fScaleFigureImagesButton;
     private Button fUseFigureLineOffsetButton;
+    private Button fUseFigureImageCacheButton;
+    private Spinner fLowDetailZoomSpinner;
+    private Spinner fVirtualiseThresholdSpinner;
     
 	public DiagramPreferencePage() {
 		setPreferenceStore(ArchiPlugin.PREFERENCES);
@@ -188,6 +191,28 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         fUseFigureLineOffsetButton.setText(Messages.DiagramPreferencePage_8);
         fUseFigureLineOffsetButton.setLayoutData(createHorizontalGridData(2));
         
+        // Draw figures from cached images
+        fUseFigureImageCacheButton = new Button(otherGroup, SWT.CHECK);
+        fUseFigureImageCacheButton.setText(Messages.DiagramPreferencePage_25);
+        fUseFigureImageCacheButton.setLayoutData(createHorizontalGridData(2));
+        
+        // Level of detail when zoomed out
+        label = new Label(otherGroup, SWT.NULL);
+        label.setText(Messages.DiagramPreferencePage_26);
+        
+        fLowDetailZoomSpinner = new Spinner(otherGroup, SWT.BORDER);
+        fLowDetailZoomSpinner.setMinimum(0);
+        fLowDetailZoomSpinner.setMaximum(100);
+        
+        // Create objects only when scrolled into view in large Views
+        label = new Label(otherGroup, SWT.NULL);
+        label.setText(Messages.DiagramPreferencePage_27);
+        
+        fVirtualiseThresholdSpinner = new Spinner(otherGroup, SWT.BORDER);
+        fVirtualiseThresholdSpinner.setMinimum(0);
+        fVirtualiseThresholdSpinner.setMaximum(1000000);
+        fVirtualiseThresholdSpinner.setIncrement(100);
+        
         setValues();
         
         return client;
@@ -223,10 +248,13 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         
         fScaleFigureImagesButton.setSelection(getPreferenceStore().getBoolean(USE_SCALED_IMAGES));
         fUseFigureLineOffsetButton.setSelection(getPreferenceStore().getBoolean(USE_FIGURE_LINE_OFFSET));
+        fUseFigureImageCacheButton.setSelection(getPreferenceStore().getBoolean(USE_FIGURE_IMAGE_CACHE));
     }
     
     private void setSpinnerValues() {
         fGridSizeSpinner.setSelection(getPreferenceStore().getInt(GRID_SIZE));
+        fLowDetailZoomSpinner.setSelection(getPreferenceStore().getInt(LOW_DETAIL_ZOOM));
+        fVirtualiseThresholdSpinner.setSelection(getPreferenceStore().getInt(VIRTUALISE_VIEWS_THRESHOLD));
     }
     
     @Override
@@ -257,6 +285,9 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         
         getPreferenceStore().setValue(USE_SCALED_IMAGES, fScaleFigureImagesButton.getSelection());
         getPreferenceStore().setValue(USE_FIGURE_LINE_OFFSET, fUseFigureLineOffsetButton.getSelection());
+        getPreferenceStore().setValue(USE_FIGURE_IMAGE_CACHE, fUseFigureImageCacheButton.getSelection());
+        getPreferenceStore().setValue(LOW_DETAIL_ZOOM, fLowDetailZoomSpinner.getSelection());
+        getPreferenceStore().setValue(VIRTUALISE_VIEWS_THRESHOLD, fVirtualiseThresholdSpinner.getSelection());
         
         return true;
     }
@@ -286,6 +317,9 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         
         fScaleFigureImagesButton.setSelection(getPreferenceStore().getDefaultBoolean(USE_SCALED_IMAGES));
         fUseFigureLineOffsetButton.setSelection(getPreferenceStore().getDefaultBoolean(USE_FIGURE_LINE_OFFSET));
+        fUseFigureImageCacheButton.setSelection(getPreferenceStore().getDefaultBoolean(USE_FIGURE_IMAGE_CACHE));
+        fLowDetailZoomSpinner.setSelection(getPreferenceStore().getDefaultInt(LOW_DETAIL_ZOOM));
+        fVirtualiseThresholdSpinner.setSelection(getPreferenceStore().getDefaultInt(VIRTUALISE_VIEWS_THRESHOLD));
         
         super.performDefaults();
     }
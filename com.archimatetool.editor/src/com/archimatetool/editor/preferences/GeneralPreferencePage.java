@@ -36,11 +36,14 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
     
     private Button fOpenDiagramsOnLoadButton;
     private Button fBackupOnSaveButton;
+    private Button fArchiveViewsSeparatelyButton;
+    private Button fArchiveModelShardedButton;
     
     private Spinner fMRUSizeSpinner;
     
     private Button fShowUnusedElementsInModelTreeButton;
     private Button fAutoSearchButton;
+    private Button fVirtualModelTreeButton;
     private Button fWarnOnDeleteButton;
     
     private Button fScaleImagesButton;
@@ -86,6 +89,16 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         fBackupOnSaveButton.setText(Messages.GeneralPreferencePage_5);
         fBackupOnSaveButton.setLayoutData(createHorizontalGridData(2));
         
+        // Save views in separate archive entries
+        fArchiveViewsSeparatelyButton = new Button(fileGroup, SWT.CHECK);
+        fArchiveViewsSeparatelyButton.setText(Messages.GeneralPreferencePage_23);
+        fArchiveViewsSeparatelyButton.setLayoutData(createHorizontalGridData(2));
+        
+        // Save model folders in separate archive entries
+        fArchiveModelShardedButton = new Button(fileGroup, SWT.CHECK);
+        fArchiveModelShardedButton.setText(Messages.GeneralPreferencePage_24);
+        fArchiveModelShardedButton.setLayoutData(createHorizontalGridData(2));
+        
         // Size of recently opened file list
         Label label = new Label(fileGroup, SWT.NULL);
         label.setText(Messages.GeneralPreferencePage_2);
@@ -116,6 +129,10 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         fWarnOnDeleteButton.setText(Messages.GeneralPreferencePage_16);
         fWarnOnDeleteButton.setLayoutData(createHorizontalGridData(2));
         
+        fVirtualModelTreeButton = new Button(modelTreeGroup, SWT.CHECK);
+        fVirtualModelTreeButton.setText(Messages.GeneralPreferencePage_25);
+        fVirtualModelTreeButton.setLayoutData(createHorizontalGridData(2));
+        
         // Label Expressions
         Group expressionsGroup = new Group(client, SWT.NULL);
         expressionsGroup.setText(Messages.GeneralPreferencePage_17);
@@ -202,11 +219,14 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         fMRUSizeSpinner.setSelection(getPreferenceStore().getInt(MRU_MAX));
         
         fBackupOnSaveButton.setSelection(getPreferenceStore().getBoolean(BACKUP_ON_SAVE));
+        fArchiveViewsSeparatelyButton.setSelection(getPreferenceStore().getBoolean(ARCHIVE_VIEWS_SEPARATELY));
+        fArchiveModelShardedButton.setSelection(getPreferenceStore().getBoolean(ARCHIVE_MODEL_SHARDED));
         fOpenDiagramsOnLoadButton.setSelection(getPreferenceStore().getBoolean(OPEN_DIAGRAMS_ON_LOAD));
         
         fShowUnusedElementsInModelTreeButton.setSelection(getPreferenceStore().getBoolean(HIGHLIGHT_UNUSED_ELEMENTS_IN_MODEL_TREE));
         fAutoSearchButton.setSelection(getPreferenceStore().getBoolean(TREE_SEARCH_AUTO));
         fWarnOnDeleteButton.setSelection(getPreferenceStore().getBoolean(SHOW_WARNING_ON_DELETE_FROM_TREE));
+        fVirtualModelTreeButton.setSelection(getPreferenceStore().getBoolean(MODEL_TREE_VIRTUAL));
         fUseLabelExpressionsButton.setSelection(getPreferenceStore().getBoolean(USE_LABEL_EXPRESSIONS_IN_ANALYSIS_TABLE));
 
         fScaleImagesButton.setSelection(getPreferenceStore().getBoolean(SCALE_IMAGE_EXPORT));
@@ -229,12 +249,15 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
     @Override
     public boolean performOk() {
         getPreferenceStore().setValue(BACKUP_ON_SAVE, fBackupOnSaveButton.getSelection());
+        getPreferenceStore().setValue(ARCHIVE_VIEWS_SEPARATELY, fArchiveViewsSeparatelyButton.getSelection());
+        getPreferenceStore().setValue(ARCHIVE_MODEL_SHARDED, fArchiveModelShardedButton.getSelection());
         getPreferenceStore().setValue(OPEN_DIAGRAMS_ON_LOAD, fOpenDiagramsOnLoadButton.getSelection());
         getPreferenceStore().setValue(MRU_MAX, fMRUSizeSpinner.getSelection());
         
         getPreferenceStore().setValue(HIGHLIGHT_UNUSED_ELEMENTS_IN_MODEL_TREE, fShowUnusedElementsInModelTreeButton.getSelection());
         getPreferenceStore().setValue(TREE_SEARCH_AUTO, fAutoSearchButton.getSelection());
         getPreferenceStore().setValue(SHOW_WARNING_ON_DELETE_FROM_TREE, fWarnOnDeleteButton.getSelection());
+        getPreferenceStore().setValue(MODEL_TREE_VIRTUAL, fVirtualModelTreeButton.getSelection());
         getPreferenceStore().setValue(USE_LABEL_EXPRESSIONS_IN_ANALYSIS_TABLE, fUseLabelExpressionsButton.getSelection());
         
         getPreferenceStore().setValue(SCALE_IMAGE_EXPORT, fScaleImagesButton.getSelection());
@@ -259,12 +282,15 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
     @Override
     protected void performDefaults() {
         fBackupOnSaveButton.setSelection(getPreferenceStore().getDefaultBoolean(BACKUP_ON_SAVE));
+        fArchiveViewsSeparatelyButton.setSelection(getPreferenceStore().getDefaultBoolean(ARCHIVE_VIEWS_SEPARATELY));
+        fArchiveModelShardedButton.setSelection(getPreferenceStore().getDefaultBoolean(ARCHIVE_MODEL_SHARDED));
         fOpenDiagramsOnLoadButton.setSelection(getPreferenceStore().getDefaultBoolean(OPEN_DIAGRAMS_ON_LOAD));
         fMRUSizeSpinner.setSelection(getPreferenceStore().getDefaultInt(MRU_MAX));
         
         fShowUnusedElementsInModelTreeButton.setSelection(getPreferenceStore().getDefaultBoolean(HIGHLIGHT_UNUSED_ELEMENTS_IN_MODEL_TREE));
         fAutoSearchButton.setSelection(getPreferenceStore().getDefaultBoolean(TREE_SEARCH_AUTO));
         fWarnOnDeleteButton.setSelection(getPreferenceStore().getDefaultBoolean(SHOW_WARNING_ON_DELETE_FROM_TREE));
+        fVirtualModelTreeButton.setSelection(getPreferenceStore().getDefaultBoolean(MODEL_TREE_VIRTUAL));
         fUseLabelExpressionsButton.setSelection(getPreferenceStore().getDefaultBoolean(USE_LABEL_EXPRESSIONS_IN_ANALYSIS_TABLE));
         
         fScaleImagesButton.setSelection(getPreferenceStore().getDefaultBoolean(SCALE_IMAGE_EXPORT));
@@ -93,6 +93,15 @@ public interface IPreferenceConstants {
     
     // Whether to use a line offset in all cases for figures drawn on hi-res screens
     String USE_FIGURE_LINE_OFFSET = "figureLineOffset";
+    
+    // Whether to draw figures from cached images
+    String USE_FIGURE_IMAGE_CACHE = "figureImageCache";
+    
+    // Zoom level in percent at or below which figures are drawn with less detail. 0 is never.
+    String LOW_DETAIL_ZOOM = "lowDetailZoom";
+    
+    // Number of objects in a View above which objects are only created when scrolled into view. 0 is never.
+    String VIRTUALISE_VIEWS_THRESHOLD = "virtualiseViewsThreshold";
 
     // Appearance
     
@@ -115,11 +124,14 @@ public interface IPreferenceConstants {
     
     String OPEN_DIAGRAMS_ON_LOAD = "openDiagramsOnLoad";
     String BACKUP_ON_SAVE = "backupOnSave";
+    String ARCHIVE_VIEWS_SEPARATELY = "archiveViewsSeparately";
+    String ARCHIVE_MODEL_SHARDED = "archiveModelSharded";
     
     String HIGHLIGHT_UNUSED_ELEMENTS_IN_MODEL_TREE = "highlightUnusedElementsInModelTree";
     
     String TREE_SEARCH_AUTO = "treeSearchAuto";
     String SHOW_WARNING_ON_DELETE_FROM_TREE = "showWarningOnDeleteFromTree";
+    String MODEL_TREE_VIRTUAL = "modelTreeVirtual";
     
     String USE_LABEL_EXPRESSIONS_IN_ANALYSIS_TABLE = "useLabelExpressionInAnalysisTable";
     
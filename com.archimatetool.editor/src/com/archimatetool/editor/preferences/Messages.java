@@ -189,6 +189,12 @@ public class Messages extends NLS {
 
     public static String DiagramPreferencePage_24;
 
+    public static String DiagramPreferencePage_25;
+
+    public static String DiagramPreferencePage_26;
+
+    public static String DiagramPreferencePage_27;
+
     public static String DiagramPreferencePage_3;
 
     public static String DiagramPreferencePage_4;
@@ -275,6 +281,12 @@ public class Messages extends NLS {
 
     public static String GeneralPreferencePage_22;
 
+    public static String GeneralPreferencePage_23;
+
+    public static String GeneralPreferencePage_24;
+
+    public static String GeneralPreferencePage_25;
+
     public static String GeneralPreferencePage_3;
 
     public static String GeneralPreferencePage_4;
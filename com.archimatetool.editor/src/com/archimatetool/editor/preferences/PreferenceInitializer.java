@@ -106,6 +106,15 @@ implements IPreferenceConstants {
         
         // Windows at hi-res needs this set to true
         store.setDefault(USE_FIGURE_LINE_OFFSET, PlatformUtils.isWindows() && ImageFactory.getDeviceZoom() > 100);
+        
+        // Draw figures from cached images
+        store.setDefault(USE_FIGURE_IMAGE_CACHE, false);
+        
+        // Level of detail when zoomed out
+        store.setDefault(LOW_DETAIL_ZOOM, 0);
+        
+        // Create objects only when scrolled into view in large Views
+        store.setDefault(VIRTUALISE_VIEWS_THRESHOLD, 0);
 
         // Appearance
         
@@ -124,11 +133,14 @@ implements IPreferenceConstants {
         
         store.setDefault(OPEN_DIAGRAMS_ON_LOAD, false);
         store.setDefault(BACKUP_ON_SAVE, true);
+        store.setDefault(ARCHIVE_VIEWS_SEPARATELY, false);
+        store.setDefault(ARCHIVE_MODEL_SHARDED, false);
 
         store.setDefault(HIGHLIGHT_UNUSED_ELEMENTS_IN_MODEL_TREE, true);
         
         store.setDefault(TREE_SEARCH_AUTO, true);
         store.setDefault(SHOW_WARNING_ON_DELETE_FROM_TREE, true);
+        store.setDefault(MODEL_TREE_VIRTUAL, false);
         
         store.setDefault(USE_LABEL_EXPRESSIONS_IN_ANALYSIS_TABLE, true);
 
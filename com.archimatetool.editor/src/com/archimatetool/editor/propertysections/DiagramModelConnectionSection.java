@@ -52,8 +52,7 @@ public class DiagramModelConnectionSection extends AbstractECorePropertySection
     
     private String[] comboItems = {
             ConnectionRouterAction.CONNECTION_ROUTER_BENDPONT,
-            // Doesn't work with C2C
-            //ConnectionRouterAction.CONNECTION_ROUTER_SHORTEST_PATH,
+            ConnectionRouterAction.CONNECTION_ROUTER_SHORTEST_PATH,
             ConnectionRouterAction.CONNECTION_ROUTER_MANHATTAN
     };
     
@@ -5,6 +5,9 @@
  */
 package com.archimatetool.editor.ui;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.eclipse.draw2d.ColorConstants;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
@@ -40,13 +43,31 @@ public class ColorFactory {
      */
     private static ColorRegistry ColorRegistry = new ColorRegistry(Display.getCurrent() != null ? Display.getCurrent() : Display.getDefault());
     
+    /**
+     * Colors looked up by RGB so that we don't have to convert the RGB to a String key each time
+     */
+    private static Map<RGB, Color> RGBColors = new HashMap<>();
+    
     public static Color get(int red, int green, int blue) {
         return get(new RGB(red, green, blue));
     }
     
     public static Color get(RGB rgb) {
-        String rgbValue = convertRGBToString(rgb);
-        return get(rgbValue);
+        if(rgb == null) {
+            return null;
+        }
+        
+        Color color = RGBColors.get(rgb);
+        
+        if(color == null) {
+            color = get(convertRGBToString(rgb));
+            if(color != null) {
+                // RGB is mutable so store a copy in case the caller changes it
+                RGBColors.put(new RGB(rgb.red, rgb.green, rgb.blue), color);
+            }
+        }
+        
+        return color;
     }
     
     public static Color get(String rgbValue) {
@@ -315,7 +336,7 @@ public class ColorFactory {
         }
         
         RGB rgb = new RGB((int)(color.getRed() * factor), (int)(color.getGreen() * factor), (int)(color.getBlue() * factor));
-        return get(convertRGBToString(rgb));
+        return get(rgb);
     }
 
     public static Color getLighterColor(Color color) {
@@ -332,7 +353,7 @@ public class ColorFactory {
                 Math.min((int) (color.getGreen() / factor), 255)), Math.max(2,
                 Math.min((int) (color.getBlue() / factor), 255)));
         
-        return get(convertRGBToString(rgb));
+        return get(rgb);
     }
 
 }
@@ -530,6 +530,10 @@ public class FindReplaceDialog extends Dialog implements IPartListener, IDialogC
         createParameterWidget(optionGroup, SWT.CHECK, Messages.FindReplaceDialog_17, IFindReplaceProvider.PARAM_INCLUDE_FOLDERS);
         createParameterWidget(optionGroup, SWT.CHECK, Messages.FindReplaceDialog_16, IFindReplaceProvider.PARAM_WHOLE_WORD);
         createParameterWidget(optionGroup, SWT.CHECK, Messages.FindReplaceDialog_18, IFindReplaceProvider.PARAM_INCLUDE_RELATIONS);
+        createParameterWidget(optionGroup, SWT.CHECK, Messages.FindReplaceDialog_19, IFindReplaceProvider.PARAM_REGEX);
+        createParameterWidget(optionGroup, SWT.CHECK, Messages.FindReplaceDialog_20, IFindReplaceProvider.PARAM_INCLUDE_DOCUMENTATION);
+        new Label(optionGroup, SWT.NONE);
+        createParameterWidget(optionGroup, SWT.CHECK, Messages.FindReplaceDialog_21, IFindReplaceProvider.PARAM_INCLUDE_PROPERTIES);
     }
 
     private Composite createParameterGroup(Composite composite, int numColumns, String text) {
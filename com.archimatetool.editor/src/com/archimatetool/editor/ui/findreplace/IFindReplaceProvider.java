@@ -26,6 +26,9 @@ public interface IFindReplaceProvider {
     int PARAM_ALL_MODELS = 1 << 5;
     int PARAM_INCLUDE_FOLDERS = 1 << 6;
     int PARAM_INCLUDE_RELATIONS = 1 << 7;
+    int PARAM_REGEX = 1 << 8;
+    int PARAM_INCLUDE_DOCUMENTATION = 1 << 9;
+    int PARAM_INCLUDE_PROPERTIES = 1 << 10;
     int PARAM_ALL = 1 << 16;
     
     /**
@@ -28,6 +28,12 @@ public class Messages extends NLS {
 
     public static String FindReplaceDialog_18;
 
+    public static String FindReplaceDialog_19;
+
+    public static String FindReplaceDialog_20;
+
+    public static String FindReplaceDialog_21;
+
     public static String FindReplaceDialog_2;
 
     public static String FindReplaceDialog_3;
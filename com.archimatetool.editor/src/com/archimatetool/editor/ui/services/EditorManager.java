@@ -26,6 +26,7 @@ import com.archimatetool.model.IArchimateDiagramModel;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.model.ISketchModel;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
 
 
 
@@ -88,6 +89,9 @@ public class EditorManager {
             return null;
         }
         
+        // Load the View's contents if they are stored separately
+        IDiagramModelContentLoader.ensureLoaded(model);
+        
         String id = null;
         IEditorInput editorInput = null;
         
@@ -5,6 +5,8 @@
  */
 package com.archimatetool.editor.ui.textrender;
 
+import org.eclipse.emf.ecore.EObject;
+
 import com.archimatetool.model.IArchimateModelObject;
 import com.archimatetool.model.IConnectable;
 import com.archimatetool.model.IDiagramModel;
@@ -13,6 +15,7 @@ import com.archimatetool.model.IDiagramModelComponent;
 import com.archimatetool.model.IDiagramModelConnection;
 import com.archimatetool.model.IFolder;
 
+
 /**
  * Name renderer
  * 
@@ -40,6 +43,20 @@ public abstract class AbstractTextRenderer implements ITextRenderer {
      *         Return null if the prefix is not appropriate for the obect.
      */
     protected IArchimateModelObject getObjectFromPrefix(IArchimateModelObject object, String prefix) {
+        IArchimateModelObject refObject = findObjectFromPrefix(object, prefix);
+        addDependency(refObject);
+        return refObject;
+    }
+    
+    /**
+     * Record that the rendered text depends on the object so that a cached result is invalidated when the object changes
+     * @param eObject The object that was read. Can be null.
+     */
+    protected void addDependency(EObject eObject) {
+        TextRenderer.addDependency(eObject);
+    }
+    
+    private IArchimateModelObject findObjectFromPrefix(IArchimateModelObject object, String prefix) {
         IArchimateModelObject actualObject = getActualObject(object);
 
         // No prefix so return actual object
@@ -71,6 +88,7 @@ public abstract class AbstractTextRenderer implements ITextRenderer {
         // Parent
         if(parentPrefix.equals(prefix) && object != null) {
             IArchimateModelObject parent = (IArchimateModelObject)object.eContainer();
+            addDependency(parent);
             return getActualObject(parent);
         }
         
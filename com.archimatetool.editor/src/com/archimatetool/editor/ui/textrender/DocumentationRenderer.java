@@ -22,6 +22,11 @@ public class DocumentationRenderer extends AbstractTextRenderer {
     
     private static final Pattern DOCUMENTATION_PATTERN = Pattern.compile("\\$" + allPrefixesGroup + "\\{(documentation|doc)\\}");
 
+    @Override
+    public boolean canRender(String text) {
+        return text.contains("{doc");
+    }
+
     @Override
     public String render(IArchimateModelObject object, String text) {
         Matcher matcher = DOCUMENTATION_PATTERN.matcher(text);
@@ -44,6 +44,16 @@ public interface ITextRenderer {
      */
     String allPrefixesGroup = "(" + corePrefixes + "|" + connectionPrefixes + ")?";
     
+    /**
+     * A quick check, typically a String.contains() test, of whether this renderer could change the text.
+     * If this returns false the renderer is skipped.
+     * @param text The text that would be rendered
+     * @return false only if rendering would return the text unchanged
+     */
+    default boolean canRender(String text) {
+        return true;
+    }
+    
     /**
      * @param object The object whose text should be rendered
      * @param text The text that should be rendered
@@ -28,6 +28,11 @@ public class IfRenderer extends AbstractTextRenderer {
     private static final Pattern IF_THEN_PATTERN = Pattern.compile("\\$\\{if:(?<IF>" + textWithoutExpressions + "):(?<THEN>" + textWithoutExpressions + ")\\}");
     private static final Pattern NVL_PATTERN = Pattern.compile("\\$\\{nvl:(?<COND>" + textWithoutExpressions + "):(?<ALT>" + textWithoutExpressions + ")\\}");
 
+    @Override
+    public boolean canRender(String text) {
+        return text.contains("{if:") || text.contains("{nvl:");
+    }
+
     @Override
     public String render(IArchimateModelObject object, String text) {
         // First checking with String.contains() to optimize a bit and use
@@ -20,6 +20,11 @@ public class NameRenderer extends AbstractTextRenderer {
     
     private static final Pattern NAME_PATTERN = Pattern.compile("\\$" + allPrefixesGroup + "\\{name\\}");
 
+    @Override
+    public boolean canRender(String text) {
+        return text.contains("{name}");
+    }
+
     @Override
     public String render(IArchimateModelObject object, String text) {
         Matcher matcher = NAME_PATTERN.matcher(text);
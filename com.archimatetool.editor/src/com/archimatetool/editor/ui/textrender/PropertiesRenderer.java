@@ -32,6 +32,11 @@ public class PropertiesRenderer extends AbstractTextRenderer {
     private static final Pattern FILTERED_PROPERTIES_WITH_SEPARATOR_PATTERN = Pattern.compile(startOfExpression + "properties:([^:]*):(" + key +")\\}");
     
     
+    @Override
+    public boolean canRender(String text) {
+        return text.contains("{propert");
+    }
+
     @Override
     public String render(IArchimateModelObject object, String text) {
         text = renderPropertyValue(object, text);
@@ -18,6 +18,11 @@ public class RelationshipRenderer extends AbstractTextRenderer {
     // Influence Strength
     private static final String STRENGTH = "${strength}"; //$NON-NLS-1$
 
+    @Override
+    public boolean canRender(String text) {
+        return text.contains(STRENGTH);
+    }
+
     @Override
     public String render(IArchimateModelObject object, String text) {
         object = getActualObject(object);
@@ -0,0 +1,218 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.ui.textrender;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EObject;
+
+import com.archimatetool.model.IArchimateModelObject;
+import com.archimatetool.model.IProfile;
+import com.archimatetool.model.IProfiles;
+import com.archimatetool.model.IProperties;
+import com.archimatetool.model.IProperty;
+
+
+
+/**
+ * Cache of rendered label expression results keyed by object and expression.
+ *
+ * A result is cached with the objects that the renderers read while rendering it. Each cached result is invalidated
+ * when any of these objects, or their Properties and Profiles, send a notification. The cache's adapter is added first
+ * so that an entry is removed before model content listeners, such as the Models Tree, are told about the change.
+ *
+ * @author Phillip Beauvoir
+ */
+class RenderCache {
+
+    private static class Key {
+        IArchimateModelObject object;
+        String expression;
+
+        Key(IArchimateModelObject object, String expression) {
+            this.object = object;
+            this.expression = expression;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if(!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key)obj;
+            return object == other.object && expression.equals(other.expression);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(object), expression);
+        }
+    }
+
+    private static class Entry {
+        Key key;
+        String result;
+        List<EObject> dependencies = new ArrayList<>();
+
+        Entry(Key key, String result) {
+            this.key = key;
+            this.result = result;
+        }
+    }
+
+    private int fMaxEntries;
+
+    // Entries, least recently used first
+    private Map<Key, Entry> fEntries;
+
+    // Entries that depend on each object
+    private Map<EObject, Set<Entry>> fDependents = new HashMap<>();
+
+    private Adapter fAdapter = new AdapterImpl() {
+        @Override
+        public void notifyChanged(Notification msg) {
+            if(msg.getEventType() != Notification.REMOVING_ADAPTER && !msg.isTouch() && msg.getNotifier() instanceof EObject) {
+                invalidate((EObject)msg.getNotifier());
+            }
+        }
+    };
+
+    @SuppressWarnings("serial")
+    RenderCache(int maxEntries) {
+        fMaxEntries = maxEntries;
+
+        fEntries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if(size() > fMaxEntries) {
+                    unlink(eldest.getValue(), null);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return The cached result or null if there is no result
+     */
+    synchronized String get(IArchimateModelObject object, String expression) {
+        Entry entry = fEntries.get(new Key(object, expression));
+        return entry != null ? entry.result : null;
+    }
+
+    /**
+     * Cache the result with the objects that it depends on
+     */
+    synchronized void put(IArchimateModelObject object, String expression, String result, Set<EObject> dependencies) {
+        Key key = new Key(object, expression);
+
+        Entry oldEntry = fEntries.remove(key);
+        if(oldEntry != null) {
+            unlink(oldEntry, null);
+        }
+
+        Entry entry = new Entry(key, result);
+
+        for(EObject eObject : dependencies) {
+            link(entry, eObject);
+
+            if(eObject instanceof IProperties) {
+                for(IProperty property : ((IProperties)eObject).getProperties()) {
+                    link(entry, property);
+                }
+            }
+
+            if(eObject instanceof IProfiles) {
+                for(IProfile profile : ((IProfiles)eObject).getProfiles()) {
+                    link(entry, profile);
+                }
+            }
+        }
+
+        fEntries.put(key, entry);
+    }
+
+    /**
+     * Remove all entries that depend on the object
+     */
+    synchronized void invalidate(EObject eObject) {
+        Set<Entry> entries = fDependents.remove(eObject);
+        if(entries == null) {
+            return;
+        }
+
+        eObject.eAdapters().remove(fAdapter);
+
+        for(Entry entry : entries) {
+            fEntries.remove(entry.key);
+            unlink(entry, eObject);
+        }
+    }
+
+    /**
+     * Remove all entries
+     */
+    synchronized void clear() {
+        for(EObject eObject : fDependents.keySet()) {
+            eObject.eAdapters().remove(fAdapter);
+        }
+
+        fDependents.clear();
+        fEntries.clear();
+    }
+
+    /**
+     * @return The number of cached entries
+     */
+    synchronized int size() {
+        return fEntries.size();
+    }
+
+    private void link(Entry entry, EObject eObject) {
+        Set<Entry> entries = fDependents.get(eObject);
+
+        if(entries == null) {
+            entries = new HashSet<>();
+            fDependents.put(eObject, entries);
+            eObject.eAdapters().add(0, fAdapter); // Before the model's content adapter so that listeners don't render a stale result
+        }
+
+        if(entries.add(entry)) {
+            entry.dependencies.add(eObject);
+        }
+    }
+
+    /**
+     * Remove the entry from its dependencies' sets, except for the one being invalidated
+     */
+    private void unlink(Entry entry, EObject except) {
+        for(EObject eObject : entry.dependencies) {
+            if(eObject == except) {
+                continue;
+            }
+
+            Set<Entry> entries = fDependents.get(eObject);
+            if(entries != null) {
+                entries.remove(entry);
+                if(entries.isEmpty()) {
+                    fDependents.remove(eObject);
+                    eObject.eAdapters().remove(fAdapter);
+                }
+            }
+        }
+    }
+}
@@ -22,6 +22,11 @@ public class SpecializationRenderer extends AbstractTextRenderer {
     
     private static final Pattern NAME_PATTERN = Pattern.compile("\\$" + allPrefixesGroup + "\\{specialization\\}");
 
+    @Override
+    public boolean canRender(String text) {
+        return text.contains("{specialization}");
+    }
+
     @Override
     public String render(IArchimateModelObject object, String text) {
         Matcher matcher = NAME_PATTERN.matcher(text);
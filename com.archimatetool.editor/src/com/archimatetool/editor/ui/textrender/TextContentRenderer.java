@@ -21,6 +21,11 @@ public class TextContentRenderer extends AbstractTextRenderer {
     
     private static final Pattern CONTENT_PATTERN = Pattern.compile("\\$(connection:(?:source|target))?\\{content\\}");
 
+    @Override
+    public boolean canRender(String text) {
+        return text.contains("{content}");
+    }
+
     @Override
     public String render(IArchimateModelObject object, String text) {
         Matcher matcher = CONTENT_PATTERN.matcher(text);
@@ -5,9 +5,18 @@
  */
 package com.archimatetool.editor.ui.textrender;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.emf.ecore.EObject;
 
 import com.archimatetool.editor.utils.StringUtils;
 import com.archimatetool.model.IArchimateModelObject;
@@ -20,6 +29,7 @@ import com.archimatetool.model.IFolder;
 import com.archimatetool.model.IJunction;
 import com.archimatetool.model.util.Logger;
 
+
 /**
  * Render Text for display in Text controls in diagrams
  * 
@@ -32,6 +42,79 @@ public class TextRenderer {
 
     private Set<ITextRenderer> renderers = new LinkedHashSet<>();
     
+    /**
+     * Max number of prepared expressions to cache
+     */
+    private static final int MAX_CACHED_EXPRESSIONS = 256;
+    
+    /**
+     * Prepared expressions keyed by expression string, least recently used first
+     */
+    private Map<String, PreparedExpression> expressionCache = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedExpression> eldest) {
+            return size() > MAX_CACHED_EXPRESSIONS;
+        }
+    };
+    
+    private static final String ERROR_RESULT = "*** Error in Label Expression ***";
+    
+    private static final String RECURSION_RESULT = "*** Recursion Error in Label Expression ***";
+    
+    /**
+     * Max number of times the renderers are run over a text that keeps changing before it is a recursion error
+     */
+    private static final int MAX_RECURSION = 10;
+    
+    /**
+     * Start of an expression such as ${name}, $model{name} or $connection:source{name}
+     */
+    private static final Pattern EXPRESSION_START_PATTERN = Pattern.compile("\\$[\\w:]*\\{");
+    
+    /**
+     * Max number of rendered results to cache
+     */
+    private static final int MAX_CACHED_RESULTS = 100000;
+    
+    /**
+     * Rendered results keyed by object and expression
+     */
+    private RenderCache renderCache = new RenderCache(MAX_CACHED_RESULTS);
+    
+    /**
+     * Results are only cached, and expressions are split into segments, if the registered renderers are the internal renderers.
+     * These record their dependencies and only render expressions that start with "$" and are enclosed in braces.
+     */
+    private boolean cacheResults;
+    
+    /**
+     * Objects read by the renderers for the render in progress on this thread, or null if not recording
+     */
+    private static final ThreadLocal<Set<EObject>> recordedDependencies = new ThreadLocal<>();
+    
+    /**
+     * A format expression parsed once per expression string, with escaped newline chars rendered, into segments of literal text
+     * and expressions. Only the expressions are rendered, and each one starts with the renderers that can render it.
+     */
+    private static class PreparedExpression {
+        List<Segment> segments = new ArrayList<>();
+        
+        // If no renderer can render any segment this is the final result
+        String literalResult;
+    }
+    
+    /**
+     * Literal text, or an expression, such as "${if:${name}:Named}", that includes the expressions nested in it
+     */
+    private static class Segment {
+        String text;
+        
+        // The renderers that can render the expression, or null if the text is literal
+        List<ITextRenderer> renderers;
+    }
+    
     private static TextRenderer defaultTextRenderer = new TextRenderer();
     
     public static TextRenderer getDefault() {
@@ -53,6 +136,8 @@ public class TextRenderer {
         
         registerRenderer(new IfRenderer());
         registerRenderer(new WordWrapRenderer());
+        
+        cacheResults = true;
     }
     
     /**
@@ -99,37 +184,233 @@ public class TextRenderer {
             return defaultText;
         }
         
-        // Remove escapement of newline chars
-        String result = renderNewLines(formatExpression);
+        PreparedExpression expression = getPreparedExpression(formatExpression);
         
-        // Keep a list of results to check for circular recursion
-        Set<String> resultSet = new HashSet<String>();
+        // Nothing to render
+        if(expression.literalResult != null) {
+            return expression.literalResult;
+        }
+        
+        // Results can only be invalidated by notifications from objects that are in a model
+        boolean useCache = cacheResults && object.getArchimateModel() != null;
         
-        final int MAX_RECURSION = 10; // Max recursion level
+        if(!useCache) {
+            return render(object, expression);
+        }
+        
+        String cachedResult = renderCache.get(object, formatExpression);
+        if(cachedResult != null) {
+            return cachedResult;
+        }
+        
+        // Record the objects read by the renderers. A render can be nested in another render on this thread.
+        Set<EObject> outerDependencies = recordedDependencies.get();
+        Set<EObject> dependencies = new HashSet<>();
+        recordedDependencies.set(dependencies);
         
         try {
-            do {
-                // Add to result set
-                resultSet.add(result);
-                
-                // Check for max recursion
-                if(resultSet.size() == MAX_RECURSION) {
-                    return "*** Recursion Error in Label Expression ***";
-                }
+            addDependency(object);
+            if(object instanceof IDiagramModelArchimateComponent) {
+                addDependency(((IDiagramModelArchimateComponent)object).getArchimateConcept());
+            }
+            
+            String result = render(object, expression);
+            
+            // Don't cache errors as they are logged
+            if(result != ERROR_RESULT) {
+                renderCache.put(object, formatExpression, result, dependencies);
+            }
+            
+            return result;
+        }
+        finally {
+            recordedDependencies.set(outerDependencies);
+            if(outerDependencies != null) {
+                outerDependencies.addAll(dependencies);
+            }
+        }
+    }
     
-                // Iterate through all registered renderers
-                for(ITextRenderer r : renderers) {
-                    result = r.render(object, result);
+    /**
+     * Render the expression's segments and join them
+     */
+    private String render(IArchimateModelObject object, PreparedExpression expression) {
+        StringBuilder sb = new StringBuilder();
+        
+        try {
+            for(Segment segment : expression.segments) {
+                String result = segment.renderers == null ? segment.text : render(object, segment.text, segment.renderers);
+                if(result == null) {
+                    return RECURSION_RESULT;
                 }
-                
-            } while((!resultSet.contains(result)));
+                sb.append(result);
+            }
+            
+            String result = sb.toString();
+            
+            // A rendered value can make an expression with the text around it
+            if(expression.segments.size() > 1 && canRender(result)) {
+                result = render(object, result, renderers);
+                if(result == null) {
+                    return RECURSION_RESULT;
+                }
+            }
+            
+            return renderEscapedCharacters(result);
         }
         catch(Throwable t) { // Catch all errors so that we can continue working in case we can't open a diagram
             Logger.logError("Error in Label Expression", t);
-            return "*** Error in Label Expression ***";
+            return ERROR_RESULT;
         }
+    }
+    
+    /**
+     * Run the renderers over the text until it no longer changes. Rendered values can contain expressions so after the first pass all renderers are run.
+     * @param firstRenderers The renderers to run in the first pass
+     * @return The rendered text, or null if it doesn't stop changing
+     */
+    private String render(IArchimateModelObject object, String text, Collection<ITextRenderer> firstRenderers) {
+        String result = text;
+        Collection<ITextRenderer> passRenderers = firstRenderers;
+        
+        // Keep a list of results to check for circular recursion
+        Set<String> resultSet = new HashSet<String>();
+        
+        do {
+            // Add to result set
+            resultSet.add(result);
+            
+            // Check for max recursion
+            if(resultSet.size() == MAX_RECURSION) {
+                return null;
+            }
 
-        return renderEscapedCharacters(result);
+            for(ITextRenderer r : passRenderers) {
+                if(r.canRender(result)) {
+                    result = r.render(object, result);
+                }
+            }
+            
+            passRenderers = renderers;
+            
+        } while((!resultSet.contains(result)));
+        
+        return result;
+    }
+
+    /**
+     * @return The prepared expression for formatExpression, prepared and cached if not already cached
+     */
+    private synchronized PreparedExpression getPreparedExpression(String formatExpression) {
+        PreparedExpression expression = expressionCache.get(formatExpression);
+        
+        if(expression == null) {
+            expression = parseExpression(formatExpression);
+            expressionCache.put(formatExpression, expression);
+        }
+        
+        return expression;
+    }
+    
+    /**
+     * Split the expression into segments of literal text and expressions.
+     * An expression ends at its matching closing brace, or else it and the rest of the text are one segment.
+     * If other renderers are registered the whole expression is one segment as they might render any text.
+     */
+    private PreparedExpression parseExpression(String formatExpression) {
+        PreparedExpression expression = new PreparedExpression();
+        
+        // Remove escapement of newline chars
+        String text = renderNewLines(formatExpression);
+        
+        int start = 0;
+        
+        if(cacheResults) {
+            Matcher matcher = EXPRESSION_START_PATTERN.matcher(text);
+            
+            while(matcher.find(start)) {
+                int end = findClosingBrace(text, matcher.end());
+                if(end == -1) {
+                    break;
+                }
+                
+                addSegment(expression, text.substring(start, matcher.start()), false);
+                addSegment(expression, text.substring(matcher.start(), end), true);
+                start = end;
+            }
+        }
+        
+        addSegment(expression, text.substring(start), true);
+        
+        boolean canRender = false;
+        for(Segment segment : expression.segments) {
+            canRender |= segment.renderers != null;
+        }
+        
+        if(!canRender) {
+            StringBuilder sb = new StringBuilder();
+            for(Segment segment : expression.segments) {
+                sb.append(segment.text);
+            }
+            expression.literalResult = renderEscapedCharacters(sb.toString());
+        }
+        
+        return expression;
+    }
+    
+    private void addSegment(PreparedExpression expression, String text, boolean isExpression) {
+        if(text.isEmpty()) {
+            return;
+        }
+        
+        Segment segment = new Segment();
+        segment.text = text;
+        
+        if(isExpression) {
+            List<ITextRenderer> segmentRenderers = new ArrayList<>();
+            for(ITextRenderer r : renderers) {
+                if(r.canRender(text)) {
+                    segmentRenderers.add(r);
+                }
+            }
+            
+            if(!segmentRenderers.isEmpty()) {
+                segment.renderers = segmentRenderers;
+            }
+        }
+        
+        expression.segments.add(segment);
+    }
+    
+    /**
+     * @return The index after the brace that closes the brace before index, or -1 if there isn't one
+     */
+    private static int findClosingBrace(String text, int index) {
+        int depth = 1;
+        
+        for(int i = index; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if(c == '{') {
+                depth++;
+            }
+            else if(c == '}' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * @return true if any renderer can render the text
+     */
+    private boolean canRender(String text) {
+        for(ITextRenderer r : renderers) {
+            if(r.canRender(text)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -171,8 +452,31 @@ public class TextRenderer {
      * Register a ITextRenderer
      * @param renderer
      */
-    public void registerRenderer(ITextRenderer renderer) {
+    public synchronized void registerRenderer(ITextRenderer renderer) {
         renderers.add(renderer);
+        expressionCache.clear(); // A new renderer may render cached literal expressions
+        
+        // Other renderers might not record their dependencies
+        cacheResults = false;
+        renderCache.clear();
+    }
+    
+    /**
+     * Clear all cached rendered results
+     */
+    public void clearCache() {
+        renderCache.clear();
+    }
+    
+    /**
+     * Record that the render in progress on this thread depends on the object
+     * @param eObject The object that was read. Can be null.
+     */
+    static void addDependency(EObject eObject) {
+        Set<EObject> dependencies = recordedDependencies.get();
+        if(dependencies != null && eObject != null) {
+            dependencies.add(eObject);
+        }
     }
     
     /**
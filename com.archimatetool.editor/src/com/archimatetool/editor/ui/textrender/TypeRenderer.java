@@ -21,6 +21,11 @@ public class TypeRenderer extends AbstractTextRenderer {
     
     private static final Pattern TYPE_PATTERN = Pattern.compile("\\$" + allPrefixesGroup + "\\{type\\}");
 
+    @Override
+    public boolean canRender(String text) {
+        return text.contains("{type}");
+    }
+
     @Override
     public String render(IArchimateModelObject object, String text) {
         Matcher matcher = TYPE_PATTERN.matcher(text);
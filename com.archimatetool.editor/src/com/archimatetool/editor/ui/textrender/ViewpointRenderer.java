@@ -20,12 +20,18 @@ public class ViewpointRenderer extends AbstractTextRenderer {
     
     private static final String VIEWPOINT = "${viewpoint}";
 
+    @Override
+    public boolean canRender(String text) {
+        return text.contains(VIEWPOINT);
+    }
+
     @Override
     public String render(IArchimateModelObject object, String text) {
         String replacement = "";
         
         // Object is a digram model component or diagram model that is an ArchiMate diagram model
         if(object instanceof IDiagramModelComponent && ((IDiagramModelComponent)object).getDiagramModel() instanceof IArchimateDiagramModel) {
+            addDependency(((IDiagramModelComponent)object).getDiagramModel());
             replacement = ViewpointManager.INSTANCE.getViewpoint(((IArchimateDiagramModel)((IDiagramModelComponent)object).getDiagramModel()).getViewpoint()).getName();
         }
         
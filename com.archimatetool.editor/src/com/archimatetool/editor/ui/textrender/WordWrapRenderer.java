@@ -27,6 +27,11 @@ public class WordWrapRenderer extends AbstractTextRenderer {
     
     private static final Pattern WORD_WRAP_PATTERN = Pattern.compile("\\$\\{wordwrap:([0-9]+):(" + textToWrap +")\\}");
     
+    @Override
+    public boolean canRender(String text) {
+        return text.contains("{wordwrap:");
+    }
+
 	@Override
     public String render(IArchimateModelObject object, String text) {
         Matcher matcher = WORD_WRAP_PATTERN.matcher(text);
@@ -146,7 +146,8 @@ implements ITreeModelView, IUIRequestListener {
         layout.verticalSpacing = 0;
         parent.setLayout(layout);
         
-        fTreeViewer = new TreeModelViewer(parent, SWT.NULL);
+        // Create tree items only when shown if set in Preferences
+        fTreeViewer = new TreeModelViewer(parent, ArchiPlugin.PREFERENCES.getBoolean(IPreferenceConstants.MODEL_TREE_VIRTUAL) ? SWT.VIRTUAL : SWT.NULL);
         fTreeViewer.getControl().setLayoutData(new GridData(GridData.FILL_BOTH));
         
         fTreeViewer.setInput(IEditorModelManager.INSTANCE);
@@ -692,6 +693,17 @@ implements ITreeModelView, IUIRequestListener {
         Object source = evt.getSource();
         //Object newValue = evt.getNewValue();
         
+        // Model changes can change which elements the Search Filter shows, so do this before the tree is refreshed.
+        // Each notification is sent as an Ecore event, including those buffered between ECORE_EVENTS_START and END.
+        if(fSearchFilter != null) {
+            if(propertyName == IEditorModelManager.PROPERTY_ECORE_EVENT) {
+                fSearchFilter.invalidate((Notification)evt.getNewValue());
+            }
+            else if(propertyName == IEditorModelManager.PROPERTY_MODEL_REMOVED) {
+                fSearchFilter.invalidate();
+            }
+        }
+        
         // New Model created or opened
         if(propertyName == IEditorModelManager.PROPERTY_MODEL_CREATED || propertyName == IEditorModelManager.PROPERTY_MODEL_OPENED) {
             // Go Home
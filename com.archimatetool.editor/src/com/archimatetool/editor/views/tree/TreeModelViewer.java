@@ -6,9 +6,14 @@
 package com.archimatetool.editor.views.tree;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.jface.viewers.CellEditor;
@@ -17,6 +22,7 @@ import org.eclipse.jface.viewers.ColumnViewerEditor;
 import org.eclipse.jface.viewers.ColumnViewerEditorActivationEvent;
 import org.eclipse.jface.viewers.ColumnViewerEditorActivationStrategy;
 import org.eclipse.jface.viewers.ICellModifier;
+import org.eclipse.jface.viewers.ILazyTreeContentProvider;
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.TreeViewerEditor;
@@ -63,6 +69,10 @@ import com.archimatetool.model.INameable;
  * 
  * Text Cell Editing code inspired by http://ramkulkarni.com/blog/in-place-editing-in-eclipse-treeviewer/
  * 
+ * If created with the SWT.VIRTUAL style tree items are only created when they are shown, which is needed for folders
+ * with very many children. The filtered and sorted children of each parent are then cached by the content provider
+ * and added and removed elements are shown by refreshing their parents.
+ * 
  * @author Phillip Beauvoir
  */
 public class TreeModelViewer extends TreeViewer {
@@ -100,7 +110,7 @@ public class TreeModelViewer extends TreeViewer {
         // Mac Silicon Item height
         UIUtils.fixMacSiliconItemHeight(getTree());
         
-        setContentProvider(new ModelTreeViewerContentProvider());
+        setContentProvider(isVirtual() ? new LazyModelTreeViewerContentProvider() : new ModelTreeViewerContentProvider());
         setLabelProvider(new ModelTreeViewerLabelProvider());
         
         setUseHashlookup(true);
@@ -292,9 +302,65 @@ public class TreeModelViewer extends TreeViewer {
     // Need package access to this method
     @Override
     protected Object[] getSortedChildren(Object parentElementOrTreePath) {
+        // JFace doesn't get the children from a lazy content provider
+        if(getContentProvider() instanceof LazyModelTreeViewerContentProvider) {
+            return ((LazyModelTreeViewerContentProvider)getContentProvider()).getCachedChildren(parentElementOrTreePath).clone();
+        }
+        
         return super.getSortedChildren(parentElementOrTreePath);
     }
     
+    /**
+     * @return true if tree items are only created when they are shown
+     */
+    public boolean isVirtual() {
+        return (getTree().getStyle() & SWT.VIRTUAL) != 0;
+    }
+    
+    @Override
+    protected void internalRefresh(Object element, boolean updateLabels) {
+        // Children might have been added, removed or filtered
+        if(getContentProvider() instanceof LazyModelTreeViewerContentProvider) {
+            ((LazyModelTreeViewerContentProvider)getContentProvider()).clearCache(element);
+        }
+        
+        super.internalRefresh(element, updateLabels);
+    }
+    
+    @Override
+    public void add(Object parentElementOrTreePath, Object[] childElements) {
+        // In a virtual tree show added elements by refreshing the parent
+        if(getContentProvider() instanceof LazyModelTreeViewerContentProvider) {
+            refresh(parentElementOrTreePath);
+        }
+        else {
+            super.add(parentElementOrTreePath, childElements);
+        }
+    }
+    
+    @Override
+    public void remove(Object[] elementsOrTreePaths) {
+        // In a virtual tree remove elements by refreshing their parents.
+        // The elements might no longer be in the model so get their parents from the tree.
+        if(getContentProvider() instanceof LazyModelTreeViewerContentProvider) {
+            Set<Object> parents = new LinkedHashSet<>();
+            
+            for(Object element : elementsOrTreePaths) {
+                TreeItem item = findTreeItem(element);
+                if(item != null) {
+                    parents.add(item.getParentItem() != null ? item.getParentItem().getData() : getInput());
+                }
+            }
+            
+            for(Object parent : parents) {
+                refresh(parent);
+            }
+        }
+        else {
+            super.remove(elementsOrTreePaths);
+        }
+    }
+    
     /**
      * If a Concept or a View's parent or ancestor parent folder has a text expression, evaluate it and return it
      * But let's keep a limit to its length
@@ -371,6 +437,86 @@ public class TreeModelViewer extends TreeViewer {
         }
     }
     
+    /**
+     * Content Provider for a virtual tree.
+     * JFace doesn't filter or sort the children of a lazy content provider so the filtered and sorted children of each parent
+     * are cached here until the parent is refreshed. Only items for the children that are shown are created.
+     */
+    private class LazyModelTreeViewerContentProvider extends ModelTreeViewerContentProvider implements ILazyTreeContentProvider {
+        
+        private Map<Object, Object[]> childrenCache = new HashMap<>();
+        
+        @Override
+        public void inputChanged(Viewer v, Object oldInput, Object newInput) {
+            childrenCache.clear();
+        }
+        
+        @Override
+        public void dispose() {
+            childrenCache.clear();
+        }
+        
+        @Override
+        public void updateElement(Object parent, int index) {
+            Object[] children = getCachedChildren(parent);
+            
+            if(index < children.length) {
+                Object element = children[index];
+                replace(parent, index, element);
+                updateChildCount(element, -1);
+            }
+        }
+        
+        @Override
+        public void updateChildCount(Object element, int currentChildCount) {
+            int count = getCachedChildren(element).length;
+            
+            if(count != currentChildCount) {
+                setChildCount(element, count);
+            }
+        }
+        
+        @Override
+        public boolean hasChildren(Object element) {
+            return getCachedChildren(element).length > 0;
+        }
+        
+        /**
+         * @return The children of the parent after applying the viewer's filters and comparator
+         */
+        Object[] getCachedChildren(Object parent) {
+            Object[] children = childrenCache.get(parent);
+            
+            if(children == null) {
+                children = getChildren(parent);
+                
+                for(ViewerFilter filter : getFilters()) {
+                    children = filter.filter(TreeModelViewer.this, parent, children);
+                }
+                
+                if(getComparator() != null) {
+                    getComparator().sort(TreeModelViewer.this, children);
+                }
+                
+                childrenCache.put(parent, children);
+            }
+            
+            return children;
+        }
+        
+        /**
+         * Remove the cached children of the element and its descendants, or of all elements if element is the input or null
+         */
+        void clearCache(Object element) {
+            if(element == null || element == getInput() || !(element instanceof EObject)) {
+                childrenCache.clear();
+                return;
+            }
+            
+            childrenCache.keySet().removeIf(key -> key == element || (key instanceof EObject && EcoreUtil.isAncestor((EObject)element, (EObject)key)));
+        }
+    }
+    
     /**
      * Label Provider
      */
@@ -7,17 +7,19 @@ package com.archimatetool.editor.views.tree;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.StructuredSelection;
 
+import com.archimatetool.editor.model.IEditorModelManager;
 import com.archimatetool.editor.ui.findreplace.AbstractFindReplaceProvider;
-import com.archimatetool.editor.utils.StringUtils;
-import com.archimatetool.editor.views.tree.commands.RenameCommandHandler;
+import com.archimatetool.editor.views.tree.search.FindReplaceEngine;
+import com.archimatetool.editor.views.tree.search.FindReplaceEngine.Match;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IArchimateModelObject;
-import com.archimatetool.model.IArchimateRelationship;
-import com.archimatetool.model.IFolder;
 import com.archimatetool.model.INameable;
 
 
@@ -43,11 +45,24 @@ public class TreeModelViewerFindReplaceProvider extends AbstractFindReplaceProvi
         fTreeModelViewer = viewer;
     }
     
+    @Override
+    public boolean canFind(String toFind) {
+        return super.canFind(toFind) && FindReplaceEngine.isValidPattern(toFind, getParameter());
+    }
+    
+    @Override
+    public boolean canFindAll(String toFind) {
+        return super.canFindAll(toFind) && FindReplaceEngine.isValidPattern(toFind, getParameter());
+    }
+    
     @Override
     public boolean find(String toFind) {
         // Find All
         if(isAll()) {
-            List<INameable> elements = getAllMatchingElements(toFind);
+            List<EObject> elements = findAllMatches(new FindReplaceEngine(toFind, getParameter()))
+                                        .map(Match::getObject)
+                                        .distinct()
+                                        .collect(Collectors.toList());
             fTreeModelViewer.setSelection(new StructuredSelection(elements), true);
             return !elements.isEmpty();
         }
@@ -63,53 +78,43 @@ public class TreeModelViewerFindReplaceProvider extends AbstractFindReplaceProvi
     
     @Override
     public boolean replace(String toFind, String toReplaceWith) {
+        FindReplaceEngine engine = new FindReplaceEngine(toFind, getParameter());
+        
         // Replace All
         if(isAll()) {
-            List<INameable> elements = getAllMatchingElements(toFind);
-            if(!elements.isEmpty()) {
-                List<String> newNames = new ArrayList<String>();
-                
-                for(INameable nameable : elements) {
-                    String newName = getReplacedString(nameable.getName(), toFind, toReplaceWith);
-                    newNames.add(newName);
-                }
-                
-                RenameCommandHandler.doRenameCommands(elements, newNames);
-                fTreeModelViewer.setSelection(new StructuredSelection(elements), true);
+            List<Match> matches = findAllMatches(engine).collect(Collectors.toList());
+            if(!matches.isEmpty()) {
+                engine.replace(matches, toReplaceWith);
+                fTreeModelViewer.setSelection(new StructuredSelection(matches.stream().map(Match::getObject).distinct().toArray()), true);
             }
-            return !elements.isEmpty();
+            return !matches.isEmpty();
         }
         // Replace Next/Previous
         else {
             // Replace on selected elements
             if(replaceSelection) {
-                List<Object> selected = getSelectedObjects();
-                if(!selected.isEmpty()) {
-                    List<INameable> elements = new ArrayList<INameable>();
-                    List<String> newNames = new ArrayList<String>();
-                    
-                    for(Object object : selected) {
-                        if(matches(object, toFind)) {
-                            INameable nameable = (INameable)object;
-                            elements.add(nameable);
-                            
-                            String newName = getReplacedString(nameable.getName(), toFind, toReplaceWith);
-                            newNames.add(newName);
-                        }
-                    }
-                    
-                    if(!elements.isEmpty()) {
-                        RenameCommandHandler.doRenameCommands(elements, newNames);
-                        return true;
+                List<Match> matches = new ArrayList<Match>();
+                
+                for(Object object : getSelectedObjects()) {
+                    if(object instanceof EObject) {
+                        engine.find((EObject)object).forEach(matches::add);
                     }
                 }
+                
+                if(!matches.isEmpty()) {
+                    engine.replace(matches, toReplaceWith);
+                    return true;
+                }
             }
             // Replace on next single selection
             else {
                 Object object = getFirstSelectedObject();
-                if(matches(object, toFind)) {
-                    RenameCommandHandler.doRenameCommand((INameable)object, getReplacedString(((INameable)object).getName(), toFind, toReplaceWith));
-                    return true;
+                if(object instanceof EObject) {
+                    List<Match> matches = engine.find((EObject)object).collect(Collectors.toList());
+                    if(!matches.isEmpty()) {
+                        engine.replace(matches, toReplaceWith);
+                        return true;
+                    }
                 }
             }
             
@@ -143,10 +148,12 @@ public class TreeModelViewerFindReplaceProvider extends AbstractFindReplaceProvi
             startIndex = elements.indexOf(startElement) + increment;
         }
         
+        FindReplaceEngine engine = new FindReplaceEngine(toFind, getParameter());
+        
         // Iterate through all elements forwards or backwards until we find the next matching element
         for(int i = startIndex; isForward() ? (i < elements.size()) : (i >= 0); i += increment) {
             Object element = elements.get(i);
-            if(matches(element, toFind)) {
+            if(engine.matches(element)) {
                 return (INameable)element;
             }
         }
@@ -160,32 +167,47 @@ public class TreeModelViewerFindReplaceProvider extends AbstractFindReplaceProvi
      *          If a model is in scope use that as the starting/end point
      */
     List<INameable> getAllMatchingElements(String toFind) {
+        FindReplaceEngine engine = toFind != null ? new FindReplaceEngine(toFind, getParameter()) : null;
+        
         if(isAllModels()) {
-            return getMatchingElements(fTreeModelViewer.getInput(), toFind);
+            return getMatchingElements(fTreeModelViewer.getInput(), engine);
         }
         else {
-            return getMatchingElements(getModelInScope(), toFind);
+            return getMatchingElements(getModelInScope(), engine);
+        }
+    }
+    
+    /**
+     * @param engine The engine set up with the string to find
+     * @return A lazy Stream of all matches in the models in scope, whether or not they are shown in the TreeViewer
+     */
+    Stream<Match> findAllMatches(FindReplaceEngine engine) {
+        if(isAllModels()) {
+            return engine.find(IEditorModelManager.INSTANCE.getModels());
         }
+        
+        IArchimateModel model = getModelInScope();
+        return model != null ? engine.find(model) : Stream.empty();
     }
     
     /**
      * @param element The element to start searching from.
-     * @param toFind The string to find a match on. If this is null, then collect all elements in the tree viewer.
+     * @param engine The engine to find a match with. If this is null, then collect all elements in the tree viewer.
      * @return A list of all matching elements in the viewer model as sorted and filtered by the TreeViewer model
      */
-    private List<INameable> getMatchingElements(Object element, String toFind) {
+    private List<INameable> getMatchingElements(Object element, FindReplaceEngine engine) {
         List<INameable> list = new ArrayList<INameable>();
         
         if(element != null) {
-            if(toFind == null && element instanceof INameable) { // collect all
+            if(engine == null && element instanceof INameable) { // collect all
                 list.add((INameable)element);
             }
-            else if(matches(element, toFind)) { // collect on match
+            else if(engine != null && engine.matches(element)) { // collect on match
                 list.add((INameable)element);
             }
             
             for(Object object : fTreeModelViewer.getSortedChildren(element)) {
-                list.addAll(getMatchingElements(object, toFind));
+                list.addAll(getMatchingElements(object, engine));
             }
         }
         
@@ -199,25 +221,6 @@ public class TreeModelViewerFindReplaceProvider extends AbstractFindReplaceProvi
         return getAllMatchingElements(null);
     }
     
-    /**
-     * @return True if object is a matching type and toFind is found in the object's name
-     */
-    private boolean matches(Object object, String toFind) {
-        if(object instanceof IFolder && !isIncludeFolders()) { // folders not included
-            return false;
-        }
-        
-        if(object instanceof IArchimateRelationship && !isIncludeRelations()) { // relations not included
-            return false;
-        }
-        
-        return (object instanceof INameable)
-                && RenameCommandHandler.canRename(object)
-                && StringUtils.isSet(toFind)
-                && ((INameable)object).getName() != null
-                && ((INameable)object).getName().matches(getSearchStringPattern(toFind));
-    }
-    
     /**
      * @return The first selected object in the tree, or null
      */
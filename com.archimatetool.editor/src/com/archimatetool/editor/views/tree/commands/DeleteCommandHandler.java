@@ -43,6 +43,7 @@ import com.archimatetool.model.IDiagramModelReference;
 import com.archimatetool.model.IFolder;
 import com.archimatetool.model.IFolderContainer;
 import com.archimatetool.model.util.ArchimateModelUtils;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
 
 
 
@@ -266,6 +267,12 @@ public class DeleteCommandHandler {
     }
     
     private void getDiagramModelReferencesToDelete(IDiagramModel dm) {
+        // References can be in Views whose contents are stored separately so load them and create the cache again
+        if(IDiagramModelContentLoader.countUnloadedReferences(dm) > 0) {
+            IDiagramModelContentLoader.ensureReferencesLoaded(dm);
+            fDiagramModelReferenceCache.remove(dm.getArchimateModel());
+        }
+        
         // Iterating more than once can be slow so use a cache of diagram model references
         List<IDiagramModelReference> refs = fDiagramModelReferenceCache.get(dm.getArchimateModel());
         
@@ -25,6 +25,7 @@ import com.archimatetool.model.IAdapter;
 import com.archimatetool.model.IArchimateElement;
 import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.model.IFolder;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
 import com.archimatetool.model.util.UUIDFactory;
 
 
@@ -157,6 +158,7 @@ public class DuplicateCommandHandler {
         private DuplicateDiagramModelCommand(IDiagramModel dm) {
             fParent = (IFolder)dm.eContainer();
             fDiagramModelOriginal = dm;
+            IDiagramModelContentLoader.ensureLoaded(dm);
             setLabel(Messages.DuplicateCommandHandler_2);
         }
         
@@ -0,0 +1,302 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.views.tree.search;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Stream;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.gef.commands.CommandStack;
+import org.eclipse.gef.commands.CompoundCommand;
+
+import com.archimatetool.editor.model.commands.EObjectFeatureCommand;
+import com.archimatetool.editor.model.commands.NonNotifyingCompoundCommand;
+import com.archimatetool.editor.ui.findreplace.IFindReplaceProvider;
+import com.archimatetool.editor.utils.StringUtils;
+import com.archimatetool.editor.views.tree.commands.RenameCommandHandler;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimateModelObject;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.IDocumentable;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.IFolderContainer;
+import com.archimatetool.model.INameable;
+import com.archimatetool.model.IProperties;
+import com.archimatetool.model.IProperty;
+
+
+/**
+ * Finds and replaces text in the names, and optionally the documentation and property values, of the objects
+ * shown in the Models Tree in one or more models, whether or not the tree has created items for them.
+ *
+ * The search text is compiled once into a Pattern. Unless it is a regular expression the SearchIndex of each model
+ * is first asked which objects contain the text, ignoring case, so that only those objects are matched against the Pattern.
+ * Matches are returned as a lazy Stream in the order of the model's folders. Replacing is done with one
+ * NonNotifyingCompoundCommand for each model's Command Stack so that listeners are only notified once.
+ *
+ * The parameters are those of IFindReplaceProvider.
+ *
+ * @author Phillip Beauvoir
+ */
+public class FindReplaceEngine {
+
+    /**
+     * A match of the search text in an attribute of an object, or of one of its properties
+     */
+    public static class Match {
+        private EObject object;
+        private EObject owner;
+        private EAttribute attribute;
+
+        Match(EObject object, EObject owner, EAttribute attribute) {
+            this.object = object;
+            this.owner = owner;
+            this.attribute = attribute;
+        }
+
+        /**
+         * @return The object in the Models Tree
+         */
+        public EObject getObject() {
+            return object;
+        }
+
+        /**
+         * @return The object that has the matching text, either the object in the Models Tree or one of its properties
+         */
+        public EObject getOwner() {
+            return owner;
+        }
+
+        /**
+         * @return The attribute that has the matching text
+         */
+        public EAttribute getAttribute() {
+            return attribute;
+        }
+
+        /**
+         * @return The matching text
+         */
+        public String getText() {
+            return (String)owner.eGet(attribute);
+        }
+    }
+
+    private String fToFind;
+    private int fParameter;
+    private Pattern fPattern;
+
+    /**
+     * @param toFind The text, or regular expression if PARAM_REGEX is set, to find
+     * @param parameter IFindReplaceProvider parameters
+     * @throws PatternSyntaxException if PARAM_REGEX is set and toFind is not a valid regular expression
+     */
+    public FindReplaceEngine(String toFind, int parameter) {
+        fToFind = toFind;
+        fParameter = parameter;
+        fPattern = createPattern(toFind, parameter);
+    }
+
+    /**
+     * @return true if toFind can be compiled with the given parameters
+     */
+    public static boolean isValidPattern(String toFind, int parameter) {
+        try {
+            createPattern(toFind, parameter);
+            return true;
+        }
+        catch(PatternSyntaxException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * @param models The models to search
+     * @return A lazy Stream of the matches in the models
+     */
+    public Stream<Match> find(Collection<IArchimateModel> models) {
+        return models.stream().flatMap(this::find);
+    }
+
+    /**
+     * @param model The model to search
+     * @return A lazy Stream of the matches in the model
+     */
+    public Stream<Match> find(IArchimateModel model) {
+        Set<EObject> names = null, documentation = null, propertyValues = null;
+
+        // Only the objects that contain the text need to be matched
+        if(isIndexed() && StringUtils.isSet(fToFind)) {
+            SearchIndex index = SearchIndex.getIndex(model);
+            names = index.findByName(fToFind);
+            documentation = isSet(IFindReplaceProvider.PARAM_INCLUDE_DOCUMENTATION) ? index.findByDocumentation(fToFind) : null;
+            propertyValues = isSet(IFindReplaceProvider.PARAM_INCLUDE_PROPERTIES) ? index.findByPropertyValue(fToFind) : null;
+        }
+
+        Set<EObject> nameCandidates = names, documentationCandidates = documentation, propertyValueCandidates = propertyValues;
+
+        return getObjects(model).flatMap(object -> find(object, nameCandidates, documentationCandidates, propertyValueCandidates));
+    }
+
+    /**
+     * @param object An object in the Models Tree
+     * @return A Stream of the matches in the object
+     */
+    public Stream<Match> find(EObject object) {
+        return find(object, null, null, null);
+    }
+
+    /**
+     * @param object An object in the Models Tree
+     * @return true if the object has a match
+     */
+    public boolean matches(Object object) {
+        return object instanceof EObject && find((EObject)object).findAny().isPresent();
+    }
+
+    /**
+     * @param text The text
+     * @param toReplaceWith The replacement text, which can refer to groups if PARAM_REGEX is set
+     * @return The text with every match replaced
+     */
+    public String getReplacedText(String text, String toReplaceWith) {
+        if(!isSet(IFindReplaceProvider.PARAM_REGEX)) {
+            toReplaceWith = Matcher.quoteReplacement(toReplaceWith);
+        }
+        return fPattern.matcher(text).replaceAll(toReplaceWith);
+    }
+
+    /**
+     * Replace the text of the matches by executing one Command on the Command Stack of each model
+     * @param matches The matches
+     * @param toReplaceWith The replacement text
+     * @return The number of changed texts
+     */
+    public int replace(Collection<Match> matches, String toReplaceWith) {
+        Map<CommandStack, CompoundCommand> commandMap = new HashMap<>();
+        int count = 0;
+
+        for(Match match : matches) {
+            String oldText = match.getText();
+            String newText = getReplacedText(oldText, toReplaceWith);
+            if(newText.equals(oldText)) {
+                continue;
+            }
+
+            CommandStack stack = (CommandStack)((IArchimateModelObject)match.getObject()).getArchimateModel().getAdapter(CommandStack.class);
+            if(stack != null) {
+                commandMap.computeIfAbsent(stack, key -> new NonNotifyingCompoundCommand(Messages.FindReplaceEngine_0))
+                          .add(new EObjectFeatureCommand(Messages.FindReplaceEngine_0, match.getOwner(), match.getAttribute(), newText));
+                count++;
+            }
+        }
+
+        for(Entry<CommandStack, CompoundCommand> entry : commandMap.entrySet()) {
+            entry.getKey().execute(entry.getValue().unwrap());
+        }
+
+        return count;
+    }
+
+    private Stream<Match> find(EObject object, Set<EObject> names, Set<EObject> documentation, Set<EObject> propertyValues) {
+        if(!StringUtils.isSet(fToFind)) {
+            return Stream.empty();
+        }
+
+        if(object instanceof IFolder && !isSet(IFindReplaceProvider.PARAM_INCLUDE_FOLDERS)) {
+            return Stream.empty();
+        }
+
+        if(object instanceof IArchimateRelationship && !isSet(IFindReplaceProvider.PARAM_INCLUDE_RELATIONS)) {
+            return Stream.empty();
+        }
+
+        Stream<Match> matches = Stream.empty();
+
+        if(object instanceof INameable && RenameCommandHandler.canRename(object) && (names == null || names.contains(object))) {
+            matches = match(matches, object, object, IArchimatePackage.Literals.NAMEABLE__NAME);
+        }
+
+        if(object instanceof IDocumentable && isSet(IFindReplaceProvider.PARAM_INCLUDE_DOCUMENTATION)
+                && (documentation == null || documentation.contains(object))) {
+            matches = match(matches, object, object, IArchimatePackage.Literals.DOCUMENTABLE__DOCUMENTATION);
+        }
+
+        if(object instanceof IProperties && isSet(IFindReplaceProvider.PARAM_INCLUDE_PROPERTIES)
+                && (propertyValues == null || propertyValues.contains(object))) {
+            for(IProperty property : ((IProperties)object).getProperties()) {
+                matches = match(matches, object, property, IArchimatePackage.Literals.PROPERTY__VALUE);
+            }
+        }
+
+        return matches;
+    }
+
+    private Stream<Match> match(Stream<Match> matches, EObject object, EObject owner, EAttribute attribute) {
+        String text = (String)owner.eGet(attribute);
+        if(text != null && fPattern.matcher(text).find()) {
+            return Stream.concat(matches, Stream.of(new Match(object, owner, attribute)));
+        }
+        return matches;
+    }
+
+    /**
+     * @return A lazy Stream of the model, its folders and the objects in them, in folder order
+     */
+    private static Stream<EObject> getObjects(EObject container) {
+        Stream<EObject> children = Stream.empty();
+
+        if(container instanceof IFolderContainer) {
+            children = ((IFolderContainer)container).getFolders().stream().flatMap(FindReplaceEngine::getObjects);
+        }
+
+        if(container instanceof IFolder) {
+            children = Stream.concat(children, ((IFolder)container).getElements().stream());
+        }
+
+        return Stream.concat(Stream.of(container), children);
+    }
+
+    /**
+     * @return true if the SearchIndex can be used to find the objects that might contain the text.
+     * The index holds names with line breaks replaced so text with line breaks is matched against every object.
+     */
+    private boolean isIndexed() {
+        return !isSet(IFindReplaceProvider.PARAM_REGEX) && fToFind.indexOf('\n') == -1 && fToFind.indexOf('\r') == -1;
+    }
+
+    private boolean isSet(int param) {
+        return (fParameter & param) != 0;
+    }
+
+    private static Pattern createPattern(String toFind, int parameter) {
+        String regex = (parameter & IFindReplaceProvider.PARAM_REGEX) != 0 ? toFind : Pattern.quote(toFind);
+
+        // Match whole word
+        if((parameter & IFindReplaceProvider.PARAM_WHOLE_WORD) != 0) {
+            regex = "\\b(?:" + regex + ")\\b"; //$NON-NLS-1$ //$NON-NLS-2$
+        }
+
+        int flags = Pattern.DOTALL;
+
+        // Ignore case and unicode
+        if((parameter & IFindReplaceProvider.PARAM_CASE_SENSITIVE) == 0) {
+            flags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+        }
+
+        return Pattern.compile(regex, flags);
+    }
+}
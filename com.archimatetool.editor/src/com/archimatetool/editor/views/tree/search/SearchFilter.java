@@ -5,12 +5,27 @@
  */
 package com.archimatetool.editor.views.tree.search;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
+import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerFilter;
@@ -18,6 +33,9 @@ import org.eclipse.swt.widgets.Display;
 
 import com.archimatetool.editor.utils.StringUtils;
 import com.archimatetool.model.IArchimateConcept;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimateModelObject;
+import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IDocumentable;
 import com.archimatetool.model.IFolder;
 import com.archimatetool.model.IFolderContainer;
@@ -31,9 +49,19 @@ import com.archimatetool.model.util.ArchimateModelUtils;
 /**
  * Search Filter
  * 
+ * When the filter changes the matching elements are found by a {@link Search} that runs a little at a time on the UI thread.
+ * The elements it finds, and the folders that lead to them, are added to the tree and expanded as they are found so that the
+ * UI stays responsive on large models. A newer search, such as when more text is typed, cancels the one that is running.
+ * 
  * @author Phillip Beauvoir
  */
 public class SearchFilter extends ViewerFilter {
+    
+    /**
+     * Time in milliseconds that a search runs for before the tree is updated and other UI events are handled
+     */
+    static final int SEARCH_TIME_SLICE = 30;
+    
     private TreeViewer fViewer;
     private String fSearchText = ""; //$NON-NLS-1$
     private Object[] fExpanded;
@@ -46,6 +74,14 @@ public class SearchFilter extends ViewerFilter {
     private Set<IProfile> fSpecializationsFilter = new HashSet<>();
 
     private boolean fShowAllFolders = false;
+    
+    // Memo of elements known to be visible or to match the filter, cleared when the filter changes
+    // and forgotten for the elements affected by a model change
+    private Map<Object, Boolean> fVisibleElements = new HashMap<>();
+    private Map<Object, Boolean> fMatchingElements = new HashMap<>();
+    
+    // The current search, null if not filtering or the model has changed since it finished
+    private Search fSearch;
 
     public SearchFilter(TreeViewer viewer) {
         fViewer = viewer;
@@ -62,6 +98,11 @@ public class SearchFilter extends ViewerFilter {
     }
 
     private void refresh() {
+        clearMemos();
+        
+        // Cancel any running search
+        fSearch = null;
+        
         Display.getCurrent().asyncExec(() -> {
             try {
                 fViewer.getTree().setRedraw(false);
@@ -71,12 +112,15 @@ public class SearchFilter extends ViewerFilter {
                     restoreState();
                 }
                 
-                // This has to be called before expandAll
+                // Start a new search. The tree is emptied and the search adds elements to it as they are found.
+                if(isFiltering()) {
+                    fSearch = new Search();
+                }
+                
                 fViewer.refresh();
                 
-                // If we have something to show expand all nodes
                 if(isFiltering()) {
-                    fViewer.expandAll();
+                    Display.getCurrent().asyncExec(fSearch);
                 }
                 else {
                     restoreState(); // Yes, do call this again.
@@ -104,6 +148,8 @@ public class SearchFilter extends ViewerFilter {
     }
 
     private void reset() {
+        clearMemos();
+        
         fFilterName = false;
         fFilterDocumentation = false;
         
@@ -118,15 +164,153 @@ public class SearchFilter extends ViewerFilter {
             return true;
         }
 
+        // Only show what the search has found so far
+        if(fSearch != null) {
+            return fSearch.isFound(element);
+        }
+
         return isElementVisible(element);
     }
 
+    /**
+     * Forget which elements are visible and match the filter.
+     * This should be called when the model has changed so that they are evaluated again.
+     */
+    public void invalidate() {
+        clearMemos();
+        
+        if(fSearch != null) {
+            // Search again
+            if(fSearch.isRunning()) {
+                refresh();
+            }
+            // Else evaluate elements as the viewer asks about them
+            else {
+                fSearch = null;
+            }
+        }
+    }
+    
+    /**
+     * Forget whether the elements affected by a model change are visible and match the filter.
+     * Changes that can't affect a match are ignored.
+     * This should be called for each model notification before the tree is refreshed.
+     */
+    public void invalidate(Notification msg) {
+        if(msg.isTouch()) {
+            return;
+        }
+        
+        Object feature = msg.getFeature();
+        Object notifier = msg.getNotifier();
+        
+        // A Profile is matched by name and concept type against the Profiles of every concept
+        if(notifier instanceof IProfile) {
+            invalidate();
+            return;
+        }
+        
+        // Name, documentation, Profiles or properties of an element changed
+        if(feature == IArchimatePackage.Literals.NAMEABLE__NAME || feature == IArchimatePackage.Literals.DOCUMENTABLE__DOCUMENTATION
+                || feature == IArchimatePackage.Literals.PROFILES__PROFILES || feature == IArchimatePackage.Literals.PROPERTIES__PROPERTIES) {
+            forget(notifier);
+            modelChanged(notifier, null, null);
+        }
+        // Key or value of a property changed
+        else if(notifier instanceof IProperty) {
+            EObject owner = ((IProperty)notifier).eContainer();
+            forget(owner);
+            modelChanged(owner, null, null);
+        }
+        // Elements added to or removed from a folder
+        else if(feature == IArchimatePackage.Literals.FOLDER__ELEMENTS || feature == IArchimatePackage.Literals.FOLDER_CONTAINER__FOLDERS) {
+            forget(notifier);
+            forgetRemoved(msg.getOldValue());
+            modelChanged(notifier, msg.getNewValue(), msg.getOldValue());
+        }
+    }
+    
+    /**
+     * Forget whether the element matches the filter and whether it and the folders that contain it are visible
+     */
+    private void forget(Object element) {
+        fMatchingElements.remove(element);
+        
+        for(Object o = element; o instanceof EObject; o = ((EObject)o).eContainer()) {
+            fVisibleElements.remove(o);
+        }
+    }
+    
+    /**
+     * Forget the elements removed from the model and their contents
+     */
+    private void forgetRemoved(Object oldValue) {
+        if(fVisibleElements.isEmpty() && fMatchingElements.isEmpty()) {
+            return;
+        }
+        
+        for(Object o : toCollection(oldValue)) {
+            if(o instanceof EObject) {
+                fVisibleElements.remove(o);
+                fMatchingElements.remove(o);
+                
+                for(Iterator<EObject> iter = ((EObject)o).eAllContents(); iter.hasNext();) {
+                    EObject eObject = iter.next();
+                    fVisibleElements.remove(eObject);
+                    fMatchingElements.remove(eObject);
+                }
+            }
+        }
+    }
+    
+    /**
+     * A running search is told about the changed, added or removed elements rather than being started again, which would empty the tree.
+     * A finished search is no longer used and elements are evaluated as the viewer asks about them.
+     * @param changed An element whose match might have changed, or null
+     * @param added An element or collection of elements added to the model, or null
+     * @param removed An element or collection of elements removed from the model, or null
+     */
+    private void modelChanged(Object changed, Object added, Object removed) {
+        if(fSearch != null) {
+            if(fSearch.isRunning()) {
+                fSearch.update(changed, toCollection(added), toCollection(removed));
+            }
+            else {
+                fSearch = null;
+            }
+        }
+    }
+    
+    private static Collection<?> toCollection(Object value) {
+        if(value instanceof Collection) {
+            return (Collection<?>)value;
+        }
+        return value != null ? Collections.singleton(value) : Collections.emptySet();
+    }
+    
+    private void clearMemos() {
+        fVisibleElements.clear();
+        fMatchingElements.clear();
+    }
+
     /**
      * Query whether element is to be shown (or any children) when filtering
      * This will also query child elements of element if it's a container
      * @param element Any element including containers
      */
     private boolean isElementVisible(Object element) {
+        // The viewer asks about each level of the tree so remember the result for each element
+        Boolean visible = fVisibleElements.get(element);
+        
+        if(visible == null) {
+            visible = computeElementVisible(element);
+            fVisibleElements.put(element, visible);
+        }
+        
+        return visible;
+    }
+    
+    private boolean computeElementVisible(Object element) {
         if(element instanceof IFolderContainer) {
             for(IFolder folder : ((IFolderContainer)element).getFolders()) {
                 if(isElementVisible(folder)) {
@@ -156,6 +340,17 @@ public class SearchFilter extends ViewerFilter {
      * @return true if the element should be shown
      */
     public boolean matchesFilter(Object element) {
+        Boolean matches = fMatchingElements.get(element);
+        
+        if(matches == null) {
+            matches = computeMatchesFilter(element);
+            fMatchingElements.put(element, matches);
+        }
+        
+        return matches;
+    }
+    
+    private boolean computeMatchesFilter(Object element) {
         boolean show = true;
         
         // Concept or Specialization
@@ -179,6 +374,11 @@ public class SearchFilter extends ViewerFilter {
 
     private boolean shouldShowObjectWithName(Object element) {
         if(element instanceof INameable) {
+            SearchIndex index = getSearchIndex(element);
+            if(index != null) {
+                return index.findByName(fSearchText).contains(element);
+            }
+            
             String name = StringUtils.safeString(((INameable)element).getName());
 
             // Normalise in case of multi-line text
@@ -192,6 +392,11 @@ public class SearchFilter extends ViewerFilter {
 
     private boolean shouldShowObjectWithDocumentation(Object element) {
         if(element instanceof IDocumentable) {
+            SearchIndex index = getSearchIndex(element);
+            if(index != null) {
+                return index.findByDocumentation(fSearchText).contains(element);
+            }
+            
             String text = StringUtils.safeString(((IDocumentable)element).getDocumentation());
             return text.toLowerCase().contains(fSearchText.toLowerCase());
         }
@@ -216,6 +421,12 @@ public class SearchFilter extends ViewerFilter {
     
     private boolean shouldShowProperty(Object element) {
         if(element instanceof IProperties) {
+            // If no property value contains the search text there's no need to look at the keys
+            SearchIndex index = getSearchIndex(element);
+            if(hasSearchText() && index != null && !index.findByPropertyValue(fSearchText).contains(element)) {
+                return false;
+            }
+            
             for(IProperty property : ((IProperties)element).getProperties()) {
                 if(fPropertiesFilter.contains(property.getKey())) {
                     return hasSearchText() ? property.getValue().toLowerCase().contains(fSearchText.toLowerCase()) : true;
@@ -226,6 +437,20 @@ public class SearchFilter extends ViewerFilter {
         return false;
     }
 
+    /**
+     * @return The search index of the element's model, or null if the element is not in a model
+     */
+    private SearchIndex getSearchIndex(Object element) {
+        if(element instanceof IArchimateModelObject) {
+            IArchimateModel model = ((IArchimateModelObject)element).getArchimateModel();
+            if(model != null) {
+                return SearchIndex.getIndex(model);
+            }
+        }
+        
+        return null;
+    }
+
     public boolean isFiltering() {
         return isFilteringName() || isFilteringDocumentation() || isFilteringConcepts() || isFilteringPropertyKeys() || isFilteringSpecializations();
     }
@@ -257,6 +482,7 @@ public class SearchFilter extends ViewerFilter {
     void setFilterOnName(boolean set, boolean doRefresh) {
         if(fFilterName != set) {
             fFilterName = set;
+            clearMemos();
             
             if(doRefresh) {
                 refresh();
@@ -267,6 +493,7 @@ public class SearchFilter extends ViewerFilter {
     void setFilterOnDocumentation(boolean set, boolean doRefresh) {
         if(fFilterDocumentation != set) {
             fFilterDocumentation = set;
+            clearMemos();
             
             if(doRefresh) {
                 refresh();
@@ -343,6 +570,215 @@ public class SearchFilter extends ViewerFilter {
     void saveState() {
         fExpanded = fViewer.getExpandedElements();
     }
+    
+    /**
+     * @return The current search, or null
+     */
+    Search getSearch() {
+        return fSearch;
+    }
+
+    /**
+     * Finds the elements that match the filter, a time slice at a time, and adds them to the tree.
+     * The folders that lead to the elements found are expanded rather than expanding the whole tree.
+     */
+    class Search implements Runnable {
+        // Iterators over the children of the elements being searched
+        private Deque<Iterator<?>> fIterators = new ArrayDeque<>();
+        
+        private Set<Object> fFound = new HashSet<>();
+        
+        // Elements found since the tree was last updated, parents first, and the parents to expand
+        private List<Object> fAdded = new ArrayList<>();
+        private Set<Object> fToExpand = new LinkedHashSet<>();
+        
+        Search() {
+            fIterators.push(Arrays.asList(getContentProvider().getElements(fViewer.getInput())).iterator());
+        }
+        
+        boolean isFound(Object element) {
+            return fFound.contains(element);
+        }
+        
+        boolean isRunning() {
+            return !fIterators.isEmpty();
+        }
+        
+        @Override
+        public void run() {
+            // Cancelled by a newer search or the tree has gone
+            if(fSearch != this || fViewer.getTree().isDisposed()) {
+                return;
+            }
+            
+            long endTime = System.currentTimeMillis() + SEARCH_TIME_SLICE;
+            
+            while(isRunning() && System.currentTimeMillis() < endTime) {
+                searchNext();
+            }
+            
+            updateTree();
+            
+            if(isRunning()) {
+                Display.getCurrent().asyncExec(this);
+            }
+        }
+        
+        /**
+         * Search the next element, or finish searching the children of the current one
+         */
+        void searchNext() {
+            Iterator<?> iter = fIterators.peek();
+            
+            if(!iter.hasNext()) {
+                fIterators.pop();
+                return;
+            }
+            
+            Object element = iter.next();
+            
+            if(isMatch(element)) {
+                found(element);
+            }
+            
+            Object[] children = getContentProvider().getChildren(element);
+            if(children.length > 0) {
+                fIterators.push(Arrays.asList(children).iterator());
+            }
+        }
+        
+        /**
+         * Update the search for a model change
+         * @param changed An element whose match might have changed, or null
+         * @param added Elements added to the model
+         * @param removed Elements removed from the model
+         */
+        void update(Object changed, Collection<?> added, Collection<?> removed) {
+            // Removed elements and their contents are no longer found. The tree removes their items.
+            for(Object o : removed) {
+                if(o instanceof EObject) {
+                    lost(o);
+                    for(Iterator<EObject> iter = ((EObject)o).eAllContents(); iter.hasNext();) {
+                        lost(iter.next());
+                    }
+                }
+            }
+            
+            // Objects in Views have names and properties but are not in the tree
+            if(changed instanceof IFolderContainer || (changed instanceof EObject && ((EObject)changed).eContainer() instanceof IFolder)) {
+                if(isMatch(changed)) {
+                    found(changed);
+                }
+                else {
+                    prune(changed);
+                }
+            }
+            
+            // Search the added elements and their children in the next time slice.
+            // If they are searched again later they are not added twice.
+            if(!added.isEmpty()) {
+                fIterators.push(new ArrayList<>(added).iterator());
+            }
+        }
+        
+        private boolean isMatch(Object element) {
+            return matchesFilter(element) || (isShowAllFolders() && element instanceof IFolder);
+        }
+        
+        /**
+         * Add the element and its parents that have not been found yet
+         */
+        private void found(Object element) {
+            List<Object> path = new ArrayList<>();
+            
+            Object ancestor = element;
+            for(; ancestor != null && ancestor != fViewer.getInput() && !fFound.contains(ancestor); ancestor = getContentProvider().getParent(ancestor)) {
+                path.add(0, ancestor);
+            }
+            
+            // Removed from the model after it was queued to be searched. Only a model has no parent in the tree.
+            if(ancestor == null && !path.isEmpty() && !(path.get(0) instanceof IArchimateModel)) {
+                return;
+            }
+            
+            fFound.addAll(path);
+            
+            for(Object o : path) {
+                fAdded.add(o);
+                
+                Object parent = getContentProvider().getParent(o);
+                if(parent != null && parent != fViewer.getInput()) {
+                    fToExpand.add(parent);
+                }
+            }
+        }
+        
+        /**
+         * Remove the element, and then each of its parents, from the tree if it no longer matches and none of its descendants are found
+         */
+        private void prune(Object element) {
+            for(Object o = element; o != null && o != fViewer.getInput() && fFound.contains(o) && !isMatch(o) && !hasFoundChildren(o);
+                    o = getContentProvider().getParent(o)) {
+                lost(o);
+                fViewer.remove(o);
+            }
+        }
+        
+        private boolean hasFoundChildren(Object element) {
+            for(Object child : getContentProvider().getChildren(element)) {
+                if(fFound.contains(child)) {
+                    return true;
+                }
+            }
+            
+            return false;
+        }
+        
+        /**
+         * Forget that the element was found
+         */
+        private void lost(Object element) {
+            if(fFound.remove(element)) {
+                fAdded.remove(element);
+                fToExpand.remove(element);
+            }
+        }
+        
+        void updateTree() {
+            if(fAdded.isEmpty()) {
+                return;
+            }
+            
+            try {
+                fViewer.getTree().setRedraw(false);
+                
+                // Add the children of each parent together, parents first
+                Map<Object, List<Object>> children = new LinkedHashMap<>();
+                for(Object o : fAdded) {
+                    Object parent = getContentProvider().getParent(o);
+                    children.computeIfAbsent(parent != null ? parent : fViewer.getInput(), key -> new ArrayList<>()).add(o);
+                }
+                
+                for(Entry<Object, List<Object>> entry : children.entrySet()) {
+                    fViewer.add(entry.getKey(), entry.getValue().toArray());
+                }
+                
+                for(Object o : fToExpand) {
+                    fViewer.setExpandedState(o, true);
+                }
+            }
+            finally {
+                fViewer.getTree().setRedraw(true);
+            }
+            
+            fAdded.clear();
+            fToExpand.clear();
+        }
+        
+        private ITreeContentProvider getContentProvider() {
+            return (ITreeContentProvider)fViewer.getContentProvider();
+        }
+    }
 
     void restoreState() {
         IStructuredSelection selection = (IStructuredSelection)fViewer.getSelection(); // first
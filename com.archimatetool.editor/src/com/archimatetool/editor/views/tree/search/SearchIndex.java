@@ -0,0 +1,382 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.views.tree.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+
+import com.archimatetool.editor.utils.StringUtils;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IDocumentable;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.IFolderContainer;
+import com.archimatetool.model.INameable;
+import com.archimatetool.model.IProperties;
+import com.archimatetool.model.IProperty;
+import com.archimatetool.model.util.IModelContentListener;
+
+
+/**
+ * Index of the names, documentation and property values of the objects shown in the Models Tree, used by SearchFilter.
+ *
+ * The text of each object is held in lower case and each distinct sequence of three characters (trigram) in it is mapped
+ * to the objects that contain it. To find the objects that contain some text only the objects that contain the rarest
+ * of its trigrams have to be checked. Text shorter than three characters is matched against the lower case text of
+ * every object, which still saves converting it each time.
+ *
+ * Each kind of text is indexed the first time it is searched and is then kept up to date from model notifications.
+ * The result of the last search of each kind of text is kept until the model changes, so that the filter can ask
+ * for every object in the tree without searching again.
+ *
+ * @author Phillip Beauvoir
+ */
+public class SearchIndex {
+
+    private IArchimateModel fModel;
+
+    private IModelContentListener fModelContentListener = this::notifyChanged;
+
+    private Field fNames = new Field(SearchIndex::getNameText);
+    private Field fDocumentation = new Field(SearchIndex::getDocumentationText);
+    private Field fPropertyValues = new Field(SearchIndex::getPropertyValuesText);
+
+    /**
+     * @return The search index of a model, created and attached to the model if it doesn't have one
+     */
+    public static SearchIndex getIndex(IArchimateModel model) {
+        SearchIndex index = (SearchIndex)model.getAdapter(SearchIndex.class);
+
+        if(index == null) {
+            index = new SearchIndex(model);
+            model.setAdapter(SearchIndex.class, index);
+        }
+
+        return index;
+    }
+
+    SearchIndex(IArchimateModel model) {
+        fModel = model;
+        fModel.addModelContentListener(fModelContentListener);
+    }
+
+    /**
+     * @param text The text to search for, in any case
+     * @return The objects whose name contains the text, ignoring case and new line characters
+     */
+    public Set<EObject> findByName(String text) {
+        return find(fNames, text);
+    }
+
+    /**
+     * @param text The text to search for, in any case
+     * @return The objects whose documentation contains the text, ignoring case
+     */
+    public Set<EObject> findByDocumentation(String text) {
+        return find(fDocumentation, text);
+    }
+
+    /**
+     * @param text The text to search for, in any case
+     * @return The objects that have a property value containing the text, ignoring case
+     */
+    public Set<EObject> findByPropertyValue(String text) {
+        return find(fPropertyValues, text);
+    }
+
+    /**
+     * Stop listening to the model and remove this index from it
+     */
+    public void dispose() {
+        fModel.removeModelContentListener(fModelContentListener);
+        fModel.setAdapter(SearchIndex.class, null);
+    }
+
+    private Set<EObject> find(Field field, String text) {
+        if(!field.built) {
+            field.built = true;
+            addAll(field, fModel);
+        }
+
+        return field.find(text);
+    }
+
+    private void notifyChanged(Notification msg) {
+        if(msg.isTouch() || !(msg.getNotifier() instanceof EObject)) {
+            return;
+        }
+
+        EObject notifier = (EObject)msg.getNotifier();
+
+        // A property's key or value changed so its owner has to be indexed again
+        if(notifier instanceof IProperty) {
+            update(notifier.eContainer());
+            return;
+        }
+
+        Object feature = msg.getFeature();
+
+        // Objects added to or removed from a folder
+        if(feature instanceof EReference && ((EReference)feature).isContainment()) {
+            switch(msg.getEventType()) {
+                case Notification.ADD:
+                case Notification.ADD_MANY:
+                    added(msg.getNewValue());
+                    break;
+
+                case Notification.REMOVE:
+                case Notification.REMOVE_MANY:
+                    removed(msg.getOldValue());
+                    break;
+
+                case Notification.SET:
+                case Notification.UNSET:
+                    removed(msg.getOldValue());
+                    added(msg.getNewValue());
+                    break;
+
+                default:
+                    break;
+            }
+        }
+
+        // Name, documentation or properties of the notifier changed
+        update(notifier);
+    }
+
+    private void added(Object value) {
+        for(Object o : toCollection(value)) {
+            if(o instanceof EObject) {
+                for(Field field : getBuiltFields()) {
+                    addAll(field, (EObject)o);
+                }
+            }
+        }
+    }
+
+    private void removed(Object value) {
+        for(Object o : toCollection(value)) {
+            if(o instanceof EObject) {
+                for(Field field : getBuiltFields()) {
+                    removeAll(field, (EObject)o);
+                }
+            }
+        }
+    }
+
+    private void update(EObject eObject) {
+        if(eObject != null && isIndexed(eObject)) {
+            for(Field field : getBuiltFields()) {
+                field.put(eObject);
+            }
+        }
+    }
+
+    /**
+     * Add an object and, if it's a folder or the model, the objects in it
+     */
+    private void addAll(Field field, EObject eObject) {
+        if(isIndexed(eObject)) {
+            field.put(eObject);
+        }
+
+        if(eObject instanceof IFolderContainer) {
+            for(IFolder folder : ((IFolderContainer)eObject).getFolders()) {
+                addAll(field, folder);
+            }
+        }
+
+        if(eObject instanceof IFolder) {
+            for(EObject element : ((IFolder)eObject).getElements()) {
+                addAll(field, element);
+            }
+        }
+    }
+
+    /**
+     * Remove an object and, if it's a folder, the objects in it
+     */
+    private void removeAll(Field field, EObject eObject) {
+        field.remove(eObject);
+
+        if(eObject instanceof IFolderContainer) {
+            for(IFolder folder : ((IFolderContainer)eObject).getFolders()) {
+                removeAll(field, folder);
+            }
+        }
+
+        if(eObject instanceof IFolder) {
+            for(EObject element : ((IFolder)eObject).getElements()) {
+                removeAll(field, element);
+            }
+        }
+    }
+
+    private List<Field> getBuiltFields() {
+        List<Field> fields = new ArrayList<>();
+
+        for(Field field : new Field[] { fNames, fDocumentation, fPropertyValues }) {
+            if(field.built) {
+                fields.add(field);
+            }
+        }
+
+        return fields;
+    }
+
+    /**
+     * @return true if the object is shown in the Models Tree
+     */
+    private boolean isIndexed(EObject eObject) {
+        return eObject instanceof IArchimateModel || eObject instanceof IFolder || eObject.eContainer() instanceof IFolder;
+    }
+
+    private static Collection<?> toCollection(Object value) {
+        if(value instanceof Collection) {
+            return (Collection<?>)value;
+        }
+        return value != null ? Collections.singleton(value) : Collections.emptySet();
+    }
+
+    private static String getNameText(EObject eObject) {
+        if(eObject instanceof INameable) {
+            // Normalise in case of multi-line text
+            return StringUtils.normaliseNewLineCharacters(StringUtils.safeString(((INameable)eObject).getName())).toLowerCase();
+        }
+        return ""; //$NON-NLS-1$
+    }
+
+    private static String getDocumentationText(EObject eObject) {
+        if(eObject instanceof IDocumentable) {
+            return StringUtils.safeString(((IDocumentable)eObject).getDocumentation()).toLowerCase();
+        }
+        return ""; //$NON-NLS-1$
+    }
+
+    private static String getPropertyValuesText(EObject eObject) {
+        if(eObject instanceof IProperties) {
+            StringBuilder sb = new StringBuilder();
+            for(IProperty property : ((IProperties)eObject).getProperties()) {
+                sb.append(StringUtils.safeString(property.getValue()).toLowerCase()).append('\n');
+            }
+            return sb.toString();
+        }
+        return ""; //$NON-NLS-1$
+    }
+
+    /**
+     * Lower case text of one kind for each object and the trigrams in it
+     */
+    private static class Field {
+        private Function<EObject, String> textProvider;
+
+        private Map<EObject, String> texts = new HashMap<>();
+        private Map<Long, Set<EObject>> trigrams = new HashMap<>();
+
+        private boolean built;
+
+        // Last search and its result, until the index changes
+        private String lastText;
+        private Set<EObject> lastResult;
+
+        Field(Function<EObject, String> textProvider) {
+            this.textProvider = textProvider;
+        }
+
+        void put(EObject eObject) {
+            remove(eObject);
+            lastText = null;
+
+            String text = textProvider.apply(eObject);
+            if(text.isEmpty()) {
+                return;
+            }
+
+            texts.put(eObject, text);
+
+            for(int i = 0; i <= text.length() - 3; i++) {
+                trigrams.computeIfAbsent(getTrigram(text, i), key -> new HashSet<>()).add(eObject);
+            }
+        }
+
+        void remove(EObject eObject) {
+            String text = texts.remove(eObject);
+            if(text == null) {
+                return;
+            }
+
+            lastText = null;
+
+            for(int i = 0; i <= text.length() - 3; i++) {
+                Long trigram = getTrigram(text, i);
+                Set<EObject> objects = trigrams.get(trigram);
+                if(objects != null) {
+                    objects.remove(eObject);
+                    if(objects.isEmpty()) {
+                        trigrams.remove(trigram);
+                    }
+                }
+            }
+        }
+
+        Set<EObject> find(String text) {
+            if(text.equals(lastText)) {
+                return lastResult;
+            }
+
+            String searchText = text.toLowerCase();
+            Set<EObject> result = new HashSet<>();
+
+            if(searchText.length() < 3) {
+                for(Map.Entry<EObject, String> entry : texts.entrySet()) {
+                    if(entry.getValue().contains(searchText)) {
+                        result.add(entry.getKey());
+                    }
+                }
+            }
+            else {
+                // Only the objects with the rarest trigram can contain the text
+                Set<EObject> candidates = null;
+
+                for(int i = 0; i <= searchText.length() - 3; i++) {
+                    Set<EObject> objects = trigrams.get(getTrigram(searchText, i));
+                    if(objects == null) {
+                        candidates = Collections.emptySet();
+                        break;
+                    }
+                    if(candidates == null || objects.size() < candidates.size()) {
+                        candidates = objects;
+                    }
+                }
+
+                for(EObject eObject : candidates) {
+                    if(texts.get(eObject).contains(searchText)) {
+                        result.add(eObject);
+                    }
+                }
+            }
+
+            lastText = text;
+            lastResult = result;
+
+            return result;
+        }
+
+        private static Long getTrigram(String text, int index) {
+            return ((long)text.charAt(index) << 32) | ((long)text.charAt(index + 1) << 16) | text.charAt(index + 2);
+        }
+    }
+}
@@ -36,6 +36,7 @@ import com.archimatetool.model.IArchimateDiagramModel;
 import com.archimatetool.model.IArchimateElement;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
 
 
 /**
@@ -68,6 +69,9 @@ public class Validator {
             return null;
         }
         
+        // Load all View contents if they are stored separately
+        IDiagramModelContentLoader.ensureAllLoaded(fModel);
+        
         // Collect interesting objects
         fElements = new ArrayList<IArchimateElement>();
         fRelations = new ArrayList<IArchimateRelationship>();
@@ -30,6 +30,7 @@ import com.archimatetool.editor.utils.FileUtils;
 import com.archimatetool.jasperreports.data.ArchimateModelDataSource;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
 
 import net.sf.jasperreports.engine.DefaultJasperReportsContext;
 import net.sf.jasperreports.engine.JRException;
@@ -118,6 +119,9 @@ public class JasperReportsExporter {
             progressMonitor.beginTask(Messages.JasperReportsExporter_0, -1);
         }
         
+        // Load all View contents if they are stored separately
+        IDiagramModelContentLoader.ensureAllLoaded(fModel);
+        
         // Temp Folder to store assets
         File tmpFolder = new File(fExportFolder, "tmp"); //$NON-NLS-1$
         tmpFolder.mkdirs();
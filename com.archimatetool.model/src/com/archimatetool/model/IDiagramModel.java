@@ -29,8 +29,7 @@ public interface IDiagramModel extends IArchimateModelObject, IDiagramModelConta
      */
     int CONNECTION_ROUTER_BENDPOINT = 0;
     
-    // Doesn't work with connections to connections
-    // int CONNECTION_ROUTER_SHORTEST_PATH = 1;
+    int CONNECTION_ROUTER_SHORTEST_PATH = 1;
     
     int CONNECTION_ROUTER_MANHATTAN = 2;
 
@@ -15,6 +15,7 @@ import org.eclipse.emf.ecore.EClass;
 import com.archimatetool.model.IArchimateElement;
 import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IDiagramModelArchimateObject;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
 
 
 /**
@@ -60,6 +61,9 @@ public abstract class ArchimateElement extends ArchimateConcept implements IArch
      */
     @Override
     public List<IDiagramModelArchimateObject> getReferencingDiagramObjects() {
+        // Diagram models loaded as stubs that reference this must have their contents loaded first
+        IDiagramModelContentLoader.ensureReferencesLoaded(this);
+        
         List<IDiagramModelArchimateObject> list = new ArrayList<>();
         
         for(IDiagramModelArchimateObject dmo : diagramObjects) {
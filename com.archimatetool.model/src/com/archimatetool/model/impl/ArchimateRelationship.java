@@ -19,6 +19,7 @@ import com.archimatetool.model.IArchimateConcept;
 import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IArchimateRelationship;
 import com.archimatetool.model.IDiagramModelArchimateConnection;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
 
 /**
  * <!-- begin-user-doc -->
@@ -207,6 +208,9 @@ public abstract class ArchimateRelationship extends ArchimateConcept implements
      */
     @Override
     public List<IDiagramModelArchimateConnection> getReferencingDiagramConnections() {
+        // Diagram models loaded as stubs that reference this must have their contents loaded first
+        IDiagramModelContentLoader.ensureReferencesLoaded(this);
+        
         List<IDiagramModelArchimateConnection> list = new ArrayList<>();
         
         for(IDiagramModelArchimateConnection dmc : diagramConnections) {
@@ -5,8 +5,25 @@
  */
 package com.archimatetool.model.util;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.xmi.XMLSave;
 import org.eclipse.emf.ecore.xmi.impl.XMLResourceImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMLSaveImpl;
+
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IDiagramModel;
 
 /**
  * <!-- begin-user-doc -->
@@ -16,6 +33,41 @@ import org.eclipse.emf.ecore.xmi.impl.XMLResourceImpl;
  * @generated
  */
 public class ArchimateResource extends XMLResourceImpl {
+    
+    /**
+     * Save option. If set to Boolean.TRUE diagram models are saved as stubs without their child objects.
+     */
+    public static final String OPTION_SAVE_DIAGRAM_MODEL_STUBS = "com.archimatetool.model.saveDiagramModelStubs"; //$NON-NLS-1$
+    
+    /**
+     * Save option. If set to Boolean.TRUE the model is saved without its folders. The folders are saved separately as shards.
+     * @see ModelShardLoader
+     */
+    public static final String OPTION_SAVE_MODEL_WITHOUT_FOLDERS = "com.archimatetool.model.saveModelWithoutFolders"; //$NON-NLS-1$
+    
+    /**
+     * Save option. A Set of the folders and elements to save when a folder is saved as a shard.
+     * Sub-folders and elements that are not in the Set are not saved. This allows a large folder to be saved in several shards.
+     * @see ModelShardLoader
+     */
+    public static final String OPTION_SAVE_SHARD_OBJECTS = "com.archimatetool.model.saveShardObjects"; //$NON-NLS-1$
+    
+    /**
+     * Resource used to look up objects by ID that are not in this Resource
+     */
+    private Resource referenceResource;
+    
+    /**
+     * Objects by ID used to look up objects that are not in this Resource. The map is only read.
+     */
+    private Map<String, EObject> referenceObjects;
+    
+    private boolean saveDiagramModelStubs;
+    
+    private boolean saveModelWithoutFolders;
+    
+    private Set<?> saveShardObjects;
+    
     /**
      * Creates an instance of the resource.
      * <!-- begin-user-doc -->
@@ -27,4 +79,111 @@ public class ArchimateResource extends XMLResourceImpl {
         super(uri);
     }
 
+    /**
+     * Set a Resource used to resolve IDs that are not found in this Resource.
+     * This allows a part of a model, such as a diagram model's contents, to be loaded separately and to reference objects in the main model.
+     * @param resource The Resource, or null
+     */
+    public void setReferenceResource(Resource resource) {
+        referenceResource = resource;
+    }
+    
+    /**
+     * Set a map of objects by ID used to resolve IDs that are not found in this Resource.
+     * Unlike {@link #setReferenceResource(Resource)} the map is only read so that it can be shared by Resources that are loaded on several threads.
+     * @param objects The map of objects, or null
+     */
+    public void setReferenceObjects(Map<String, EObject> objects) {
+        referenceObjects = objects;
+    }
+    
+    @Override
+    protected EObject getEObjectByID(String id) {
+        EObject eObject = super.getEObjectByID(id);
+        
+        if(eObject == null && referenceObjects != null) {
+            eObject = referenceObjects.get(id);
+        }
+        
+        if(eObject == null && referenceResource != null) {
+            eObject = referenceResource.getEObject(id);
+        }
+        
+        return eObject;
+    }
+    
+    @Override
+    public void doLoad(InputStream inputStream, Map<?, ?> options) throws IOException {
+        IOException exception = null;
+        
+        try {
+            super.doLoad(inputStream, options);
+        }
+        catch(IOException ex) {
+            exception = ex;
+        }
+        
+        // If the model's folders are stored in shards load them now
+        ModelShardLoader shardLoader = new ModelShardLoader(this);
+        if(shardLoader.isShardedModel()) {
+            shardLoader.load();
+            
+            if(exception == null && !getErrors().isEmpty() && getErrors().get(0) instanceof Exception) {
+                exception = new IOWrappedException((Exception)getErrors().get(0));
+            }
+        }
+        
+        if(exception != null) {
+            throw exception;
+        }
+    }
+    
+    @Override
+    public void doSave(OutputStream outputStream, Map<?, ?> options) throws IOException {
+        saveDiagramModelStubs = options != null && Boolean.TRUE.equals(options.get(OPTION_SAVE_DIAGRAM_MODEL_STUBS));
+        saveModelWithoutFolders = options != null && Boolean.TRUE.equals(options.get(OPTION_SAVE_MODEL_WITHOUT_FOLDERS));
+        saveShardObjects = options != null ? (Set<?>)options.get(OPTION_SAVE_SHARD_OBJECTS) : null;
+        
+        try {
+            super.doSave(outputStream, options);
+        }
+        finally {
+            saveDiagramModelStubs = false;
+            saveModelWithoutFolders = false;
+            saveShardObjects = null;
+        }
+    }
+    
+    @Override
+    protected XMLSave createXMLSave() {
+        return new XMLSaveImpl(createXMLHelper()) {
+            @Override
+            protected boolean shouldSaveFeature(EObject o, EStructuralFeature f) {
+                if(saveDiagramModelStubs && f == IArchimatePackage.Literals.DIAGRAM_MODEL_CONTAINER__CHILDREN && o instanceof IDiagramModel) {
+                    return false;
+                }
+                
+                if(saveModelWithoutFolders && f == IArchimatePackage.Literals.FOLDER_CONTAINER__FOLDERS && o instanceof IArchimateModel) {
+                    return false;
+                }
+                
+                return super.shouldSaveFeature(o, f);
+            }
+            
+            @Override
+            protected void saveContainedMany(EObject o, EStructuralFeature f) {
+                if(saveShardObjects != null && (f == IArchimatePackage.Literals.FOLDER_CONTAINER__FOLDERS || f == IArchimatePackage.Literals.FOLDER__ELEMENTS)) {
+                    for(Object value : (List<?>)o.eGet(f)) {
+                        if(saveShardObjects.contains(value)) {
+                            saveElement((InternalEObject)value, f);
+                        }
+                    }
+                }
+                else {
+                    super.saveContainedMany(o, f);
+                }
+            }
+        };
+    }
+
 } //ArchimateResource
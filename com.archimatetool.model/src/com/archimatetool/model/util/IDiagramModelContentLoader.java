@@ -0,0 +1,116 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.model.util;
+
+import com.archimatetool.model.IAdapter;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimateModelObject;
+import com.archimatetool.model.IDiagramModel;
+
+/**
+ * Loads the contents of diagram models that were loaded as stubs without their child objects.
+ *
+ * An implementation is set as an adapter on the IArchimateModel keyed by IDiagramModelContentLoader.class.
+ * If there is no adapter all diagram model contents are loaded.
+ *
+ * The loader keeps an index of the concepts and diagram models referenced in unloaded diagram models so that whether
+ * an object is referenced can be answered, and only the diagram models that reference it loaded, without loading every diagram model.
+ *
+ * Loading adds the contents to the diagram model outside of any Command Stack, which notifies the model's listeners
+ * as for any other added objects. Implementations should load on the thread that the model is changed on.
+ *
+ * @author Phillip Beauvoir
+ */
+public interface IDiagramModelContentLoader {
+
+    /**
+     * Ensure that the contents of the diagram model are loaded
+     * @param dm The diagram model
+     */
+    static void ensureLoaded(IDiagramModel dm) {
+        IDiagramModelContentLoader loader = getLoader(dm);
+        if(loader != null) {
+            loader.loadContent(dm);
+        }
+    }
+
+    /**
+     * Ensure that the contents of all diagram models in the model are loaded
+     * @param adaptable The model or an object in the model
+     */
+    static void ensureAllLoaded(IAdapter adaptable) {
+        IDiagramModelContentLoader loader = getLoader(adaptable);
+        if(loader != null) {
+            loader.loadAllContent();
+        }
+    }
+
+    /**
+     * Ensure that the contents of the diagram models that reference the object are loaded
+     * @param object A concept or a diagram model
+     */
+    static void ensureReferencesLoaded(IArchimateModelObject object) {
+        IDiagramModelContentLoader loader = getLoader(object);
+        if(loader != null) {
+            loader.loadContentReferencing(object);
+        }
+    }
+
+    /**
+     * @param object A concept or a diagram model
+     * @return The number of diagram components in unloaded diagram models in the model that reference the object
+     */
+    static int countUnloadedReferences(IArchimateModelObject object) {
+        IDiagramModelContentLoader loader = getLoader(object);
+        return loader != null ? loader.getUnloadedReferenceCount(object) : 0;
+    }
+
+    /**
+     * @return The loader adapter for the model that the adaptable object belongs to, or null
+     */
+    static IDiagramModelContentLoader getLoader(IAdapter adaptable) {
+        return adaptable != null ? (IDiagramModelContentLoader)adaptable.getAdapter(IDiagramModelContentLoader.class) : null;
+    }
+
+    /**
+     * Load the contents of the diagram model if they are not loaded
+     * @param dm The diagram model
+     */
+    void loadContent(IDiagramModel dm);
+
+    /**
+     * Load the contents of all diagram models that are not loaded
+     */
+    void loadAllContent();
+
+    /**
+     * Load the contents of the diagram models in the model that reference the object if they are not loaded
+     * @param object A concept or a diagram model
+     */
+    void loadContentReferencing(IArchimateModelObject object);
+
+    /**
+     * @param object A concept or a diagram model
+     * @return The number of diagram components in unloaded diagram models in the model that reference the object
+     */
+    int getUnloadedReferenceCount(IArchimateModelObject object);
+
+    /**
+     * @param dm The diagram model
+     * @return true if the contents of the diagram model are loaded
+     */
+    boolean isContentLoaded(IDiagramModel dm);
+
+    /**
+     * @return true if any diagram model in the model does not have its contents loaded
+     */
+    boolean hasUnloadedContent();
+
+    /**
+     * @return The model
+     */
+    IArchimateModel getArchimateModel();
+}
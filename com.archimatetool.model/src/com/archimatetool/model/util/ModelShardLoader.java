@@ -0,0 +1,258 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.model.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.resource.Resource.Diagnostic;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.emf.ecore.xmi.UnresolvedReferenceException;
+
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.IIdentifier;
+
+
+
+/**
+ * Loads the folders of a model that was saved to an archive file as shards.
+ *
+ * In this layout "model.xml" holds the model without its top level folders, and the top level folders
+ * are saved as the root objects of "folders/n.xml" entries. A large folder is split into several shards,
+ * each holding a run of its sub-folders and elements together with the folders that contain them, and the
+ * shards of a folder are merged again in turn when loading so that the order of the folders and elements is kept.
+ *
+ * The shards are parsed in parallel into separate Resources. References to objects in "model.xml", such as
+ * Profiles, are resolved while parsing from a map of its objects that is made before the shards are parsed and is only read so that the order of multi-valued references is kept. A shard only
+ * splits a folder between elements so references inside an element, such as a View's connections, are in the
+ * same shard. References between shards can't be resolved while parsing so they are resolved afterwards
+ * in a linking phase.
+ *
+ * @author Phillip Beauvoir
+ */
+public class ModelShardLoader {
+
+    /**
+     * Archive folder for folder shards
+     */
+    public static final String FOLDERS_FOLDER = "folders/"; //$NON-NLS-1$
+
+    private static boolean packageInitialised;
+
+    private ArchimateResource fResource;
+
+    /**
+     * @return The archive entry name for the shard at index
+     */
+    public static String getFolderEntryName(int index) {
+        return FOLDERS_FOLDER + index + ".xml"; //$NON-NLS-1$
+    }
+
+    ModelShardLoader(ArchimateResource resource) {
+        fResource = resource;
+    }
+
+    /**
+     * @return true if the model in the Resource was loaded from an archive file without its folders and there are folder shards
+     */
+    boolean isShardedModel() {
+        URI uri = fResource.getURI();
+
+        if(uri == null || !uri.isArchive() || fResource.getContents().isEmpty() || !(fResource.getContents().get(0) instanceof IArchimateModel)) {
+            return false;
+        }
+
+        return ((IArchimateModel)fResource.getContents().get(0)).getFolders().isEmpty() && shardExists(0);
+    }
+
+    /**
+     * Load the folder shards in parallel, add the folders to the model and resolve references between shards.
+     * Diagnostics from the shards that remain after linking are added to the Resource's errors and warnings.
+     * @throws IOException
+     */
+    void load() throws IOException {
+        IArchimateModel model = (IArchimateModel)fResource.getContents().get(0);
+
+        List<URI> uris = new ArrayList<>();
+        for(int i = 0; shardExists(i); i++) {
+            uris.add(getShardURI(i));
+        }
+
+        initialisePackage();
+
+        // Looking up IDs in the model's Resource writes to its ID map on a miss so the shards share a read-only map instead
+        Map<String, EObject> modelObjects = Collections.unmodifiableMap(createIDMap(model));
+
+        List<ArchimateResource> shards;
+
+        try {
+            shards = uris.parallelStream()
+                         .map(uri -> loadShard(uri, modelObjects))
+                         .collect(Collectors.toList());
+        }
+        catch(UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+
+        // Add the folders in their saved order
+        for(ArchimateResource shard : shards) {
+            if(!shard.getContents().isEmpty() && shard.getContents().get(0) instanceof IFolder) {
+                addFolder(model.getFolders(), (IFolder)shard.getContents().get(0));
+            }
+        }
+
+        link(model, shards);
+    }
+
+    /**
+     * Add a folder from a shard to a list of folders. If it continues the last folder in the list,
+     * because a large folder was split into several shards, its sub-folders and elements are merged into that folder.
+     */
+    private void addFolder(List<IFolder> folders, IFolder folder) {
+        IFolder lastFolder = folders.isEmpty() ? null : folders.get(folders.size() - 1);
+
+        if(lastFolder == null || folder.getId() == null || !folder.getId().equals(lastFolder.getId())) {
+            folders.add(folder);
+            return;
+        }
+
+        for(IFolder subFolder : new ArrayList<>(folder.getFolders())) {
+            addFolder(lastFolder.getFolders(), subFolder);
+        }
+
+        lastFolder.getElements().addAll(new ArrayList<>(folder.getElements()));
+    }
+
+    /**
+     * Resolve the references that could not be resolved in each shard now that all objects are in the model
+     */
+    private void link(IArchimateModel model, List<ArchimateResource> shards) {
+        Map<String, EObject> objects = null;
+
+        for(ArchimateResource shard : shards) {
+            for(Diagnostic diagnostic : shard.getErrors()) {
+                if(diagnostic instanceof UnresolvedReferenceException) {
+                    // Create the ID map only when it is needed
+                    if(objects == null) {
+                        objects = createIDMap(model);
+                    }
+
+                    if(resolve((UnresolvedReferenceException)diagnostic, objects)) {
+                        continue;
+                    }
+                }
+
+                fResource.getErrors().add(diagnostic);
+            }
+
+            fResource.getWarnings().addAll(shard.getWarnings());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean resolve(UnresolvedReferenceException ex, Map<String, EObject> objects) {
+        EObject eObject = ex.getObject();
+        EStructuralFeature feature = ex.getFeature();
+        EObject target = objects.get(ex.getReference());
+
+        if(eObject == null || !(feature instanceof EReference) || target == null || !feature.getEType().isInstance(target)) {
+            return false;
+        }
+
+        // Multi-valued references between shards don't occur because references to Profiles are resolved
+        // while parsing and a View's connections are in the same shard, so the position is not known here
+        if(feature.isMany()) {
+            ((List<EObject>)eObject.eGet(feature)).add(target);
+        }
+        else {
+            eObject.eSet(feature, target);
+        }
+
+        return true;
+    }
+
+    private Map<String, EObject> createIDMap(IArchimateModel model) {
+        Map<String, EObject> objects = new HashMap<>();
+        objects.put(model.getId(), model);
+
+        for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
+            EObject eObject = iter.next();
+            if(eObject instanceof IIdentifier) {
+                objects.put(((IIdentifier)eObject).getId(), eObject);
+            }
+        }
+
+        return objects;
+    }
+
+    private boolean shardExists(int index) {
+        URIConverter uriConverter = fResource.getResourceSet() != null ? fResource.getResourceSet().getURIConverter() : URIConverter.INSTANCE;
+        return uriConverter.exists(getShardURI(index), null);
+    }
+
+    private URI getShardURI(int index) {
+        return URI.createURI(getFolderEntryName(index)).resolve(fResource.getURI());
+    }
+
+    /**
+     * Load a shard in its own Resource and ResourceSet so that it can be parsed on any thread.
+     * References to objects in "model.xml" are resolved in modelObjects, which is not changed while the shards are parsed.
+     */
+    private ArchimateResource loadShard(URI uri, Map<String, EObject> modelObjects) {
+        ArchimateResource shard = (ArchimateResource)ArchimateResourceFactory.createNewResource(uri);
+        shard.setReferenceObjects(modelObjects);
+
+        try {
+            shard.load(null);
+        }
+        catch(IOException ex) {
+            // Parse errors are in the Resource's diagnostics, anything else is fatal
+            if(shard.getErrors().isEmpty()) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        return shard;
+    }
+
+    /**
+     * EMF computes some EClass meta-data lazily on first access and this is not safe to do on several threads at once.
+     */
+    private static synchronized void initialisePackage() {
+        if(packageInitialised) {
+            return;
+        }
+
+        for(EClassifier eClassifier : IArchimatePackage.eINSTANCE.getEClassifiers()) {
+            if(eClassifier instanceof EClass) {
+                EClass eClass = (EClass)eClassifier;
+                eClass.getEAllSuperTypes();
+                eClass.getEAllStructuralFeatures();
+                eClass.getEAllAttributes();
+                eClass.getEAllReferences();
+                eClass.getEAllContainments();
+                eClass.getEIDAttribute();
+            }
+        }
+
+        packageInitialised = true;
+    }
+}
@@ -46,6 +46,7 @@ import com.archimatetool.model.IProfile;
 import com.archimatetool.model.IProperties;
 import com.archimatetool.model.IProperty;
 import com.archimatetool.model.util.ArchimateModelUtils;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
 import com.archimatetool.modelimporter.StatusMessage.StatusMessageLevel;
 
 
@@ -88,6 +89,9 @@ public class ModelImporter {
         }
         
         importedModel = IEditorModelManager.INSTANCE.load(importedFile);
+        
+        // Load all View contents if they are stored separately
+        IDiagramModelContentLoader.ensureAllLoaded(importedModel);
 
         this.targetModel = targetModel;
         
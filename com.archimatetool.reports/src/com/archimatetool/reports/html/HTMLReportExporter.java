@@ -13,8 +13,13 @@ import java.net.URL;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -27,7 +32,6 @@ import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
-import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.ImageLoader;
 import org.eclipse.swt.widgets.DirectoryDialog;
@@ -45,7 +49,7 @@ import com.archimatetool.editor.browser.BrowserEditorInput;
 import com.archimatetool.editor.browser.IBrowserEditor;
 import com.archimatetool.editor.browser.IBrowserEditorInput;
 import com.archimatetool.editor.diagram.util.DiagramUtils;
-import com.archimatetool.editor.diagram.util.ModelReferencedImage;
+import com.archimatetool.editor.diagram.util.ModelReferencedImageData;
 import com.archimatetool.editor.ui.ImageFactory;
 import com.archimatetool.editor.ui.services.EditorManager;
 import com.archimatetool.editor.utils.FileUtils;
@@ -60,6 +64,7 @@ import com.archimatetool.model.IDiagramModelObject;
 import com.archimatetool.model.IDiagramModelReference;
 import com.archimatetool.model.IFolder;
 import com.archimatetool.model.IIdentifier;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
 import com.archimatetool.reports.ArchiReportsPlugin;
 
 
@@ -198,6 +203,9 @@ public class HTMLReportExporter {
             progressMonitor.beginTask(Messages.HTMLReportExporter_6, -1);
         }
         
+        // Load all View contents if they are stored separately
+        IDiagramModelContentLoader.ensureAllLoaded(fModel);
+        
         // Copy HTML skeleton to target
         copyHTMLSkeleton(targetFolder);
         
@@ -401,55 +409,98 @@ public class HTMLReportExporter {
         int total = diagramModels.size();
         int i = 1;
         
-        for(IDiagramModel dm : diagramModels) {
-            setProgressSubTask(NLS.bind(Messages.HTMLReportExporter_4, i++, total), true);
-
-            Image image = null;
-            
-            try {
-                ModelReferencedImage geoImage = DiagramUtils.createModelReferencedImage(dm, 1, 10);
-                image = geoImage.getImage();
-
-                // Generate file name
-                String diagramName = dm.getId();
-                if(StringUtils.isSet(diagramName)) {
-                    // removed this because ids can have hyphens in them (when imported from TOG format)
-                    // Let's hope that ids are filename friendly...
-                    //diagramName = FileUtils.getValidFileName(diagramName);
+        // Images are drawn one at a time on the Display thread but are encoded and saved as PNG files in parallel
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        
+        // Pending saves in the order they were submitted
+        Map<Future<?>, IDiagramModel> pendingSaves = new LinkedHashMap<>();
+        
+        try {
+            for(IDiagramModel dm : diagramModels) {
+                setProgressSubTask(NLS.bind(Messages.HTMLReportExporter_4, i++, total), true);
+                
+                ModelReferencedImageData imageData;
+                File file;
+                
+                try {
+                    imageData = DiagramUtils.createModelReferencedImageData(dm, 1, 10, ImageFactory.getImageDeviceZoom());
+                    
+                    // Generate file name
+                    String diagramName = dm.getId();
+                    if(StringUtils.isSet(diagramName)) {
+                        // removed this because ids can have hyphens in them (when imported from TOG format)
+                        // Let's hope that ids are filename friendly...
+                        //diagramName = FileUtils.getValidFileName(diagramName);
 
-                    int j = 2;
-                    String s = diagramName + ".png";  //$NON-NLS-1$
-                    while(nameTable.containsValue(s)) {
-                        s = diagramName + "_" + j++ + ".png"; //$NON-NLS-1$ //$NON-NLS-2$
+                        int j = 2;
+                        String s = diagramName + ".png";  //$NON-NLS-1$
+                        while(nameTable.containsValue(s)) {
+                            s = diagramName + "_" + j++ + ".png"; //$NON-NLS-1$ //$NON-NLS-2$
+                        }
+                        diagramName = s;
                     }
-                    diagramName = s;
+                    else {
+                        diagramName = Messages.HTMLReportExporter_1 + " " + nameCount++ + ".png";  //$NON-NLS-1$//$NON-NLS-2$
+                    }
+
+                    nameTable.put(dm, diagramName);
+                    
+                    // Get and store the bounds of the top-left element in the figure to act as overall x,y offset
+                    Rectangle bounds = imageData.getBounds();
+                    bounds.performScale(ImageFactory.getImageDeviceZoom() / 100); // Account for device zoom level
+                    diagramBoundsMap.put(dm, bounds);
+                    
+                    file = new File(imagesFolder, diagramName);
                 }
-                else {
-                    diagramName = Messages.HTMLReportExporter_1 + " " + nameCount++ + ".png";  //$NON-NLS-1$//$NON-NLS-2$
+                catch(Throwable t) {
+                    throw createSaveImageException(dm, t);
                 }
-
-                nameTable.put(dm, diagramName);
-
-                // Get and store the bounds of the top-left element in the figure to act as overall x,y offset
-                Rectangle bounds = geoImage.getBounds();
-                bounds.performScale(ImageFactory.getImageDeviceZoom() / 100); // Account for device zoom level
-                diagramBoundsMap.put(dm, bounds);
-
-                ImageLoader loader = new ImageLoader();
-                loader.data = new ImageData[] { image.getImageData(ImageFactory.getImageDeviceZoom()) };
-                File file = new File(imagesFolder, diagramName);
-                loader.save(file.getAbsolutePath(), SWT.IMAGE_PNG);
-            }
-            catch(Throwable t) {
-                throw new IOException("Error saving image for: " + dm.getName() + "\n" + //$NON-NLS-1$ //$NON-NLS-2$
-                        (t.getMessage() == null ? t.toString() : t.getMessage()), t);
-            }
-            finally {
-                if(image != null) {
-                    image.dispose();
+                
+                pendingSaves.put(executor.submit(() -> {
+                    ImageLoader loader = new ImageLoader();
+                    loader.data = new ImageData[] { imageData.getImageData() };
+                    loader.save(file.getAbsolutePath(), SWT.IMAGE_PNG);
+                }), dm);
+                
+                // Don't hold more images in memory than are being saved
+                while(pendingSaves.size() > threads * 2) {
+                    waitForSave(pendingSaves);
                 }
             }
+            
+            while(!pendingSaves.isEmpty()) {
+                waitForSave(pendingSaves);
+            }
         }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Wait for the oldest pending image save to complete
+     */
+    private void waitForSave(Map<Future<?>, IDiagramModel> pendingSaves) throws IOException {
+        Iterator<Map.Entry<Future<?>, IDiagramModel>> iter = pendingSaves.entrySet().iterator();
+        Map.Entry<Future<?>, IDiagramModel> entry = iter.next();
+        iter.remove();
+        
+        try {
+            entry.getKey().get();
+        }
+        catch(ExecutionException ex) {
+            throw createSaveImageException(entry.getValue(), ex.getCause());
+        }
+        catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw createSaveImageException(entry.getValue(), ex);
+        }
+    }
+    
+    private IOException createSaveImageException(IDiagramModel dm, Throwable t) {
+        return new IOException("Error saving image for: " + dm.getName() + "\n" + //$NON-NLS-1$ //$NON-NLS-2$
+                (t.getMessage() == null ? t.toString() : t.getMessage()), t);
     }
     
     private void updateProgress() throws CancelledException {
@@ -28,6 +28,7 @@ import com.archimatetool.editor.utils.ZipUtils;
 import com.archimatetool.jdom.JDOMUtils;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
 import com.archimatetool.templates.impl.model.ArchimateModelTemplate;
 import com.archimatetool.templates.impl.model.ArchimateTemplateManager;
 import com.archimatetool.templates.model.ITemplate;
@@ -224,7 +225,8 @@ public class SaveArchimateModelAsTemplateWizard extends Wizard {
         File tmpFile = File.createTempFile("architemplate", null); //$NON-NLS-1$
         tmpFile.deleteOnExit();
         
-        // Copy the model
+        // Copy the model with all View contents loaded
+        IDiagramModelContentLoader.ensureAllLoaded(fModel);
         IArchimateModel tempModel = EcoreUtil.copy(fModel);
         tempModel.eAdapters().clear();
         tempModel.setFile(tmpFile);
@@ -7,12 +7,15 @@ package com.archimatetool.templates.wizard;
 
 import org.eclipse.draw2d.geometry.Rectangle;
 import org.eclipse.gef.GraphicalViewer;
+import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
 
+import com.archimatetool.editor.diagram.util.DiagramThumbnailCache;
 import com.archimatetool.editor.diagram.util.DiagramUtils;
 import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.templates.model.TemplateManager;
@@ -38,18 +41,28 @@ public class TemplateUtils {
             label.setImage(null);
         }
 
-        Shell shell = new Shell();
-        GraphicalViewer diagramViewer = DiagramUtils.createViewer(diagramModel, shell);
+        // Use the cached thumbnail so that browsing Views is quick
+        ImageData thumbnail = DiagramThumbnailCache.INSTANCE.getThumbnail(diagramModel);
+        Image image = new Image(label.getDisplay(), thumbnail);
         
-        final int margin = 5;
-        Rectangle bounds = DiagramUtils.getDiagramExtents(diagramViewer);
-        bounds.expand(margin * 2, margin * 2);
-        double ratio = Math.min(1, Math.min((double)label.getBounds().width / bounds.width,
-                (double)label.getBounds().height / bounds.height));
+        double ratio = Math.min(1, Math.min((double)label.getBounds().width / thumbnail.width,
+                (double)label.getBounds().height / thumbnail.height));
+        
+        // Scale it down to fit the label
+        if(ratio < 1) {
+            int width = Math.max(1, (int)(thumbnail.width * ratio));
+            int height = Math.max(1, (int)(thumbnail.height * ratio));
+            Image scaledImage = new Image(label.getDisplay(), width, height);
+            GC gc = new GC(scaledImage);
+            gc.setAntialias(SWT.ON);
+            gc.setInterpolation(SWT.HIGH);
+            gc.drawImage(image, 0, 0, thumbnail.width, thumbnail.height, 0, 0, width, height);
+            gc.dispose();
+            image.dispose();
+            image = scaledImage;
+        }
         
-        Image image = DiagramUtils.createImage(diagramViewer, ratio, margin);
         label.setImage(image);
-        shell.dispose();
     }
     
     /**
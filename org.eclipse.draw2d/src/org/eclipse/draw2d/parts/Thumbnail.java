@@ -574,6 +574,17 @@ public class Thumbnail extends Figure implements UpdateListener {
         return isDirty;
     }
 
+    /**
+     * Returns <code>true</code> if the thumbnail image is being drawn.
+     * 
+     * @return <code>true</code> if the thumbnail image is being drawn
+     */
+    // Phillipus Addition: so that a subclass that draws parts of the image itself can tell
+    // whether the tiled updater is drawing the whole image. Used by Archi's OverviewThumbnail.
+    protected boolean isUpdating() {
+        return updater.isRunning();
+    }
+
     /**
      * @see org.eclipse.draw2d.UpdateListener#notifyPainting(Rectangle, Map)
      */
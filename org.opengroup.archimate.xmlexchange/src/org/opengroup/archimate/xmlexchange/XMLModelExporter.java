@@ -54,6 +54,7 @@ import com.archimatetool.model.IInfluenceRelationship;
 import com.archimatetool.model.ILineObject;
 import com.archimatetool.model.IProperties;
 import com.archimatetool.model.IProperty;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
 import com.archimatetool.model.util.UUIDFactory;
 
 
@@ -94,6 +95,9 @@ public class XMLModelExporter implements IXMLExchangeGlobals {
     public void exportModel(IArchimateModel model, File outputFile) throws IOException {
         fModel = model;
         
+        // Load all View contents if they are stored separately
+        IDiagramModelContentLoader.ensureAllLoaded(fModel);
+        
         // JDOM Document
         Document doc = createDocument();
         
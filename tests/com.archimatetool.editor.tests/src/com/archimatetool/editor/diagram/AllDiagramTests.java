@@ -16,6 +16,7 @@ import com.archimatetool.editor.diagram.policies.AllPoliciesTests;
 import com.archimatetool.editor.diagram.sketch.AllSketchTests;
 import com.archimatetool.editor.diagram.tools.FormatPainterInfoTests;
 import com.archimatetool.editor.diagram.tools.FormatPainterToolTests;
+import com.archimatetool.editor.diagram.util.DiagramThumbnailCacheTests;
 import com.archimatetool.editor.diagram.util.DiagramUtilsTests;
 
 @SuppressWarnings("nls")
@@ -29,6 +30,7 @@ public class AllDiagramTests {
         suite.addTest(DiagramEditorFindReplaceProviderTests.suite());
         suite.addTest(ImageExportProviderTests.suite());
         suite.addTest(ImageExportProviderManagerTests.suite());
+        suite.addTest(OverviewThumbnailTests.suite());
 
         // diagram.actions
         suite.addTest(CopySnapshotTests.suite());
@@ -54,6 +56,7 @@ public class AllDiagramTests {
 		suite.addTest(FormatPainterToolTests.suite());
 
         // diagram.util
+        suite.addTest(DiagramThumbnailCacheTests.suite());
         suite.addTest(DiagramUtilsTests.suite());
 
         return suite;
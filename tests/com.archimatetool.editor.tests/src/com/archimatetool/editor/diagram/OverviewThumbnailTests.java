@@ -0,0 +1,97 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.FreeformLayer;
+import org.eclipse.draw2d.FreeformViewport;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.ScalableFreeformLayeredPane;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+public class OverviewThumbnailTests {
+    
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(OverviewThumbnailTests.class);
+    }
+    
+    private FreeformViewport viewport;
+    private ScalableFreeformLayeredPane scaledPane;
+    private FreeformLayer source;
+    private IFigure child;
+    private OverviewThumbnail thumbnail;
+    
+    @Before
+    public void runBeforeEachTest() {
+        // As in a diagram editor, the printable layers are in a scaled pane in a viewport
+        viewport = new FreeformViewport();
+        scaledPane = new ScalableFreeformLayeredPane();
+        source = new FreeformLayer();
+        scaledPane.add(source);
+        viewport.setContents(scaledPane);
+        viewport.setBounds(new Rectangle(0, 0, 200, 200));
+        
+        child = new Figure();
+        child.setBounds(new Rectangle(300, 400, 50, 60));
+        source.add(child);
+        
+        thumbnail = new OverviewThumbnail(viewport);
+        thumbnail.setSource(source);
+    }
+    
+    @After
+    public void runAfterEachTest() {
+        thumbnail.deactivate();
+    }
+    
+    @Test
+    public void toSourceBounds() {
+        assertEquals(child.getBounds(), thumbnail.toSourceBounds(child, toAbsolute(child)));
+    }
+    
+    @Test
+    public void toSourceBounds_ZoomedAndScrolled() {
+        scaledPane.setScale(1.5);
+        viewport.validate();
+        viewport.getHorizontalRangeModel().setAll(0, 200, 2000);
+        viewport.getVerticalRangeModel().setAll(0, 200, 2000);
+        viewport.setViewLocation(120, 80);
+        
+        Rectangle absolute = toAbsolute(child);
+        assertNotEquals(child.getBounds(), absolute);
+        
+        assertEquals(child.getBounds(), thumbnail.toSourceBounds(child, absolute));
+    }
+    
+    @Test
+    public void toSourceBounds_NotInSource() {
+        IFigure figure = new Figure();
+        figure.setBounds(new Rectangle(10, 10, 10, 10));
+        scaledPane.add(figure);
+        assertNull(thumbnail.toSourceBounds(figure, toAbsolute(figure)));
+    }
+    
+    /**
+     * @return The figure's dirty region translated as the DeferredUpdateManager does before it notifies painting
+     */
+    private Rectangle toAbsolute(IFigure figure) {
+        Rectangle region = figure.getBounds().getCopy();
+        for(IFigure walker = figure.getParent(); walker != null; walker = walker.getParent()) {
+            walker.translateToParent(region);
+        }
+        return region;
+    }
+}
@@ -15,6 +15,8 @@ public class AllEditPartsTests {
 		
         // editparts
         suite.addTest(ArchimateDiagramEditPartFactoryTests.suite());
+        suite.addTest(EditPartRefreshSchedulerTests.suite());
+        suite.addTest(PlaceholderEditPartTests.suite());
 
         return suite;
 	}
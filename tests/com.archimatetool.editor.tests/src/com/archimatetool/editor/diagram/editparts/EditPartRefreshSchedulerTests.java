@@ -0,0 +1,149 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.editparts;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.draw2d.DeferredUpdateManager;
+import org.eclipse.draw2d.Figure;
+import org.eclipse.emf.common.notify.Adapter;
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+@SuppressWarnings("nls")
+public class EditPartRefreshSchedulerTests {
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(EditPartRefreshSchedulerTests.class);
+    }
+
+    private EditPartRefreshScheduler scheduler;
+
+    // Names of the refreshes carried out, in order
+    private List<String> refreshes;
+
+    @Before
+    public void runOnceBeforeEachTest() {
+        DeferredUpdateManager updateManager = new DeferredUpdateManager();
+        updateManager.setRoot(new Figure());
+        scheduler = new EditPartRefreshScheduler(updateManager);
+        refreshes = new ArrayList<>();
+    }
+
+    @Test
+    public void repeatedRequests_AreMerged() {
+        TestEditPart part = new TestEditPart("part");
+
+        scheduler.add(part, EditPartRefreshScheduler.FIGURE);
+        scheduler.add(part, EditPartRefreshScheduler.FIGURE);
+        scheduler.add(part, EditPartRefreshScheduler.BOUNDS);
+        scheduler.add(part, EditPartRefreshScheduler.FIGURE);
+
+        assertEquals(0, refreshes.size());
+
+        scheduler.flush();
+        assertEquals(List.of("part bounds", "part figure"), refreshes);
+
+        // Nothing left to do
+        scheduler.flush();
+        assertEquals(2, refreshes.size());
+    }
+
+    @Test
+    public void refreshes_AreCarriedOutInOrderRequested() {
+        TestEditPart part1 = new TestEditPart("part1");
+        TestEditPart part2 = new TestEditPart("part2");
+
+        scheduler.add(part2, EditPartRefreshScheduler.FIGURE);
+        scheduler.add(part1, EditPartRefreshScheduler.FIGURE);
+        scheduler.add(part2, EditPartRefreshScheduler.FIGURE);
+
+        scheduler.flush();
+        assertEquals(List.of("part2 figure", "part1 figure"), refreshes);
+    }
+
+    @Test
+    public void refreshesScheduledWhileFlushing_AreCarriedOut() {
+        TestEditPart part2 = new TestEditPart("part2");
+
+        TestEditPart part1 = new TestEditPart("part1") {
+            @Override
+            protected void refreshFigure() {
+                super.refreshFigure();
+                scheduler.add(part2, EditPartRefreshScheduler.FIGURE);
+            }
+        };
+
+        scheduler.add(part1, EditPartRefreshScheduler.FIGURE);
+
+        scheduler.flush();
+        assertEquals(List.of("part1 figure", "part2 figure"), refreshes);
+    }
+
+    @Test
+    public void deactivatedEditPart_IsNotRefreshed() {
+        TestEditPart part1 = new TestEditPart("part1");
+        TestEditPart part2 = new TestEditPart("part2");
+
+        scheduler.add(part1, EditPartRefreshScheduler.FIGURE);
+        scheduler.add(part2, EditPartRefreshScheduler.FIGURE);
+
+        part1.active = false;
+
+        scheduler.flush();
+        assertEquals(List.of("part2 figure"), refreshes);
+    }
+
+    @Test
+    public void disposedScheduler_DropsPendingRefreshes() {
+        TestEditPart part = new TestEditPart("part");
+
+        scheduler.add(part, EditPartRefreshScheduler.BOUNDS | EditPartRefreshScheduler.FIGURE);
+        scheduler.dispose();
+
+        scheduler.flush();
+        assertEquals(0, refreshes.size());
+    }
+
+    private class TestEditPart extends AbstractBaseEditPart {
+        String name;
+        boolean active = true;
+
+        TestEditPart(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+
+        @Override
+        protected void refreshBounds() {
+            refreshes.add(name + " bounds");
+        }
+
+        @Override
+        protected void refreshFigure() {
+            refreshes.add(name + " figure");
+        }
+
+        @Override
+        protected Adapter getECoreAdapter() {
+            return null;
+        }
+
+        @Override
+        protected void createEditPolicies() {
+        }
+    }
+}
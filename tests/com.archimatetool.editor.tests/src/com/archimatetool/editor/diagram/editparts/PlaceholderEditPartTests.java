@@ -0,0 +1,130 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.editparts;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.eclipse.gef.ConnectionEditPart;
+import org.eclipse.gef.EditPart;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.archimatetool.editor.ArchiPlugin;
+import com.archimatetool.editor.preferences.IPreferenceConstants;
+import com.archimatetool.model.IArchimateDiagramModel;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IDiagramModelConnection;
+import com.archimatetool.model.IDiagramModelContainer;
+import com.archimatetool.model.IDiagramModelGroup;
+import com.archimatetool.model.IDiagramModelNote;
+import com.archimatetool.testingtools.ArchimateTestEditor;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+public class PlaceholderEditPartTests {
+    
+    private ArchimateTestEditor editor;
+    private IDiagramModelNote note, nestedNote;
+    private IDiagramModelGroup group;
+    private IDiagramModelConnection connection;
+    
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(PlaceholderEditPartTests.class);
+    }
+    
+    @Before
+    public void runBeforeEachTest() {
+        // Virtualise Views with more than one object
+        ArchiPlugin.PREFERENCES.setValue(IPreferenceConstants.VIRTUALISE_VIEWS_THRESHOLD, 1);
+        
+        IArchimateDiagramModel dm = IArchimateFactory.eINSTANCE.createArchimateDiagramModel();
+        
+        // Note in view connected to a note nested in a group out of view
+        note = createNote(dm, 0, 0);
+        
+        group = IArchimateFactory.eINSTANCE.createDiagramModelGroup();
+        group.setBounds(10000, 10000, 400, 400);
+        dm.getChildren().add(group);
+        nestedNote = createNote(group, 20, 20);
+        
+        connection = IArchimateFactory.eINSTANCE.createDiagramModelConnection();
+        connection.connect(note, nestedNote);
+        
+        editor = new ArchimateTestEditor();
+        editor.setDiagramModel(dm);
+    }
+    
+    @After
+    public void runAfterEachTest() {
+        editor.dispose();
+        ArchiPlugin.PREFERENCES.setToDefault(IPreferenceConstants.VIRTUALISE_VIEWS_THRESHOLD);
+    }
+    
+    @Test
+    public void nestedConnection_AttachedToPlaceholder() {
+        EditPart groupPart = editor.findEditPart(group);
+        assertTrue(groupPart instanceof PlaceholderEditPart);
+        assertNull(editor.findEditPart(nestedNote));
+        
+        ConnectionEditPart connectionPart = findConnectionEditPart(connection);
+        assertSame(editor.findEditPart(note), connectionPart.getSource());
+        assertSame(groupPart, connectionPart.getTarget());
+    }
+    
+    @Test
+    public void nestedConnection_AttachedToPlaceholderWhenAdded() {
+        IDiagramModelNote note2 = createNote(editor.getDiagramModel(), 0, 100);
+        IDiagramModelConnection connection2 = IArchimateFactory.eINSTANCE.createDiagramModelConnection();
+        connection2.connect(nestedNote, note2);
+        
+        ConnectionEditPart connectionPart = findConnectionEditPart(connection2);
+        assertSame(editor.findEditPart(group), connectionPart.getSource());
+        assertSame(editor.findEditPart(note2), connectionPart.getTarget());
+        
+        connection2.disconnect();
+        assertNull(findConnectionEditPart(connection2));
+    }
+
+    @Test
+    public void nestedConnection_InsidePlaceholderHasNoEditPart() {
+        IDiagramModelNote nestedNote2 = createNote(group, 200, 200);
+        IDiagramModelConnection connection2 = IArchimateFactory.eINSTANCE.createDiagramModelConnection();
+        connection2.connect(nestedNote, nestedNote2);
+        
+        assertNull(findConnectionEditPart(connection2));
+    }
+    
+    @Test
+    public void nestedConnection_AttachedToNestedEditPartWhenMaterialised() {
+        ((AbstractDiagramPart)editor.getGraphicalViewer().getContents()).materialise(Collections.singleton(nestedNote));
+        
+        assertFalse(editor.findEditPart(group) instanceof PlaceholderEditPart);
+        assertNotNull(editor.findEditPart(nestedNote));
+        
+        ConnectionEditPart connectionPart = findConnectionEditPart(connection);
+        assertSame(editor.findEditPart(note), connectionPart.getSource());
+        assertSame(editor.findEditPart(nestedNote), connectionPart.getTarget());
+    }
+    
+    private IDiagramModelNote createNote(IDiagramModelContainer parent, int x, int y) {
+        IDiagramModelNote note = IArchimateFactory.eINSTANCE.createDiagramModelNote();
+        note.setBounds(x, y, 100, 50);
+        parent.getChildren().add(note);
+        return note;
+    }
+    
+    private ConnectionEditPart findConnectionEditPart(IDiagramModelConnection connection) {
+        return (ConnectionEditPart)editor.getGraphicalViewer().getEditPartRegistry().get(connection);
+    }
+}
@@ -5,6 +5,9 @@
  */
 package com.archimatetool.editor.diagram.figures;
 
+import com.archimatetool.editor.diagram.figures.connections.CachingManhattanConnectionRouterTests;
+import com.archimatetool.editor.diagram.figures.connections.ObstacleAvoidingConnectionRouterTests;
+import com.archimatetool.editor.diagram.figures.connections.ObstaclePathFinderTests;
 import com.archimatetool.editor.diagram.figures.diagram.DiagramImageFigureTests;
 import com.archimatetool.editor.diagram.figures.diagram.DiagramModelReferenceFigureTests;
 import com.archimatetool.editor.diagram.figures.diagram.GroupFigureTests;
@@ -21,6 +24,15 @@ public class AllFiguresTests {
 		
         // figures
         suite.addTest(AllArchimateTextControlContainerFigureTests.suite());
+        suite.addTest(CachingTextUtilitiesTests.suite());
+        suite.addTest(FigureImageCacheTests.suite());
+        suite.addTest(FigureSpatialIndexTests.suite());
+        suite.addTest(FigureStyleTests.suite());
+        
+        // figures.connections
+        suite.addTest(CachingManhattanConnectionRouterTests.suite());
+        suite.addTest(ObstaclePathFinderTests.suite());
+        suite.addTest(ObstacleAvoidingConnectionRouterTests.suite());
         
         // figures.diagram
         suite.addTest(DiagramImageFigureTests.suite());
@@ -0,0 +1,73 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import org.eclipse.draw2d.TextUtilities;
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.swt.graphics.Font;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.archimatetool.editor.ui.FontFactory;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+@SuppressWarnings("nls")
+public class CachingTextUtilitiesTests {
+    
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(CachingTextUtilitiesTests.class);
+    }
+    
+    private CachingTextUtilities textUtilities;
+    private Font font;
+    
+    @Before
+    public void runOnceBeforeEachTest() {
+        textUtilities = new CachingTextUtilities();
+        font = FontFactory.getDefaultUserViewFont();
+    }
+    
+    @After
+    public void runOnceAfterEachTest() {
+        textUtilities.clear();
+    }
+    
+    @Test
+    public void getStringExtents_SameAsTextUtilities() {
+        assertEquals(TextUtilities.INSTANCE.getStringExtents("Business Actor", font), textUtilities.getStringExtents("Business Actor", font));
+        assertEquals(TextUtilities.INSTANCE.getTextExtents("Line 1\nLine 2", font), textUtilities.getTextExtents("Line 1\nLine 2", font));
+    }
+    
+    @Test
+    public void getStringExtents_Cached() {
+        textUtilities.getStringExtents("Hello", font);
+        textUtilities.getStringExtents("Hello", font);
+        assertEquals(1, textUtilities.size());
+        
+        textUtilities.getTextExtents("Hello", font);
+        textUtilities.getStringExtents("World", font);
+        assertEquals(3, textUtilities.size());
+        
+        textUtilities.clear();
+        assertEquals(0, textUtilities.size());
+    }
+    
+    @Test
+    public void getStringExtents_ReturnsCopy() {
+        Dimension d1 = textUtilities.getStringExtents("Hello", font);
+        d1.width = -1;
+        
+        Dimension d2 = textUtilities.getStringExtents("Hello", font);
+        assertNotSame(d1, d2);
+        assertEquals(TextUtilities.INSTANCE.getStringExtents("Hello", font), d2);
+    }
+}
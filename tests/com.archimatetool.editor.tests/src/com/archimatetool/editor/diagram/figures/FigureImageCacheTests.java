@@ -0,0 +1,120 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.eclipse.draw2d.ColorConstants;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.SWTGraphics;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+public class FigureImageCacheTests {
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(FigureImageCacheTests.class);
+    }
+
+    private Image image;
+    private GC gc;
+    private SWTGraphics graphics;
+    private List<FigureImageCache> caches = new ArrayList<>();
+
+    private Consumer<Graphics> painter = g -> {
+        g.setBackgroundColor(ColorConstants.red);
+        g.fillRectangle(g.getClip(new Rectangle()));
+    };
+
+    @Before
+    public void runOnceBeforeEachTest() {
+        image = new Image(Display.getDefault(), 10, 10);
+        gc = new GC(image);
+        graphics = new SWTGraphics(gc);
+    }
+
+    @After
+    public void runOnceAfterEachTest() {
+        for(FigureImageCache cache : caches) {
+            cache.dispose();
+        }
+
+        FigureImageCache.maxCachedBytes = FigureImageCache.MAX_CACHED_BYTES;
+
+        graphics.dispose();
+        gc.dispose();
+        image.dispose();
+    }
+
+    @Test
+    public void draw_CachesImage() {
+        long cachedBytes = FigureImageCache.getCachedBytes();
+
+        FigureImageCache cache = createCache();
+        assertTrue(cache.draw(graphics, new Rectangle(0, 0, 100, 50), painter));
+        assertTrue(cache.isCached());
+        assertEquals(cachedBytes + 100 * 50 * 4, FigureImageCache.getCachedBytes());
+
+        cache.invalidate();
+        assertFalse(cache.isCached());
+        assertEquals(cachedBytes, FigureImageCache.getCachedBytes());
+    }
+
+    @Test
+    public void draw_RejectsLargeArea() {
+        FigureImageCache cache = createCache();
+
+        // Each side is within the old limit but the area is not
+        assertFalse(cache.draw(graphics, new Rectangle(0, 0, 2000, 2000), painter));
+        assertFalse(cache.isCached());
+
+        // A long thin figure is cached
+        assertTrue(cache.draw(graphics, new Rectangle(0, 0, 4000, 10), painter));
+    }
+
+    @Test
+    public void draw_EvictsLeastRecentlyDrawn() {
+        // Room for two images of 100 x 100
+        FigureImageCache.maxCachedBytes = 2 * 100 * 100 * 4;
+
+        Rectangle bounds = new Rectangle(0, 0, 100, 100);
+        FigureImageCache cache1 = createCache();
+        FigureImageCache cache2 = createCache();
+        FigureImageCache cache3 = createCache();
+
+        cache1.draw(graphics, bounds, painter);
+        cache2.draw(graphics, bounds, painter);
+
+        // Drawing from the image makes cache1 the most recently drawn
+        cache1.draw(graphics, bounds, painter);
+
+        cache3.draw(graphics, bounds, painter);
+        assertTrue(cache1.isCached());
+        assertFalse(cache2.isCached());
+        assertTrue(cache3.isCached());
+        assertEquals(FigureImageCache.maxCachedBytes, FigureImageCache.getCachedBytes());
+    }
+
+    private FigureImageCache createCache() {
+        FigureImageCache cache = new FigureImageCache();
+        caches.add(cache);
+        return cache;
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.XYLayout;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+public class FigureSpatialIndexTests {
+    
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(FigureSpatialIndexTests.class);
+    }
+    
+    private IndexedFreeformLayer layer;
+    private IFigure figure1, figure2, figure3;
+    
+    @Before
+    public void runOnceBeforeEachTest() {
+        layer = new IndexedFreeformLayer();
+        layer.setLayoutManager(new XYLayout());
+        layer.setBounds(new Rectangle(0, 0, 5000, 5000));
+        
+        figure1 = createFigure(new Rectangle(10, 10, 100, 100));
+        figure2 = createFigure(new Rectangle(50, 50, 100, 100)); // Overlaps figure1 and is on top
+        figure3 = createFigure(new Rectangle(2000, 2000, 100, 100));
+    }
+    
+    private IFigure createFigure(Rectangle bounds) {
+        IFigure figure = new Figure();
+        figure.setOpaque(true);
+        figure.setBounds(bounds);
+        layer.add(figure);
+        return figure;
+    }
+    
+    @Test
+    public void getFiguresAt() {
+        List<IFigure> figures = layer.getSpatialIndex().getFiguresAt(60, 60);
+        assertEquals(2, figures.size());
+        
+        // Topmost first
+        assertSame(figure2, figures.get(0));
+        assertSame(figure1, figures.get(1));
+        
+        figures = layer.getSpatialIndex().getFiguresAt(2050, 2050);
+        assertEquals(1, figures.size());
+        assertSame(figure3, figures.get(0));
+        
+        assertTrue(layer.getSpatialIndex().getFiguresAt(1000, 1000).isEmpty());
+    }
+    
+    @Test
+    public void getFiguresIntersecting() {
+        List<IFigure> figures = layer.getSpatialIndex().getFiguresIntersecting(new Rectangle(0, 0, 3000, 3000));
+        assertEquals(3, figures.size());
+        assertSame(figure3, figures.get(0));
+    }
+    
+    @Test
+    public void figureMoved_IsReindexed() {
+        figure3.setBounds(new Rectangle(500, 500, 100, 100));
+        
+        assertTrue(layer.getSpatialIndex().getFiguresAt(2050, 2050).isEmpty());
+        assertSame(figure3, layer.getSpatialIndex().getFiguresAt(550, 550).get(0));
+    }
+    
+    @Test
+    public void figureRemoved_IsUnindexed() {
+        layer.remove(figure2);
+        
+        List<IFigure> figures = layer.getSpatialIndex().getFiguresAt(60, 60);
+        assertEquals(1, figures.size());
+        assertSame(figure1, figures.get(0));
+        assertEquals(2, layer.getSpatialIndex().size());
+    }
+    
+    @Test
+    public void largeFigure_IsFound() {
+        IFigure large = createFigure(new Rectangle(-100000, -100000, 200000, 200000));
+        assertTrue(layer.getSpatialIndex().getFiguresAt(1000, 1000).contains(large));
+    }
+    
+    @Test
+    public void findFigureAt() {
+        assertSame(figure2, layer.findFigureAt(60, 60));
+        assertSame(figure1, layer.findFigureAt(20, 20));
+        assertSame(figure3, layer.findFigureAt(2050, 2050));
+        assertNull(layer.findFigureAt(1000, 1000));
+    }
+    
+    @Test
+    public void containsPoint() {
+        assertTrue(layer.containsPoint(60, 60));
+        assertFalse(layer.containsPoint(1000, 1000));
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.eclipse.draw2d.ColorConstants;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.archimatetool.editor.ui.ColorFactory;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IDiagramModelArchimateObject;
+import com.archimatetool.model.IDiagramModelObject;
+import com.archimatetool.model.ITextAlignment;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+@SuppressWarnings("nls")
+public class FigureStyleTests {
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(FigureStyleTests.class);
+    }
+
+    private IDiagramModelArchimateObject dmo;
+    private FigureStyle style;
+
+    @Before
+    public void runOnceBeforeEachTest() {
+        dmo = IArchimateFactory.eINSTANCE.createDiagramModelArchimateObject();
+        dmo.setArchimateElement(IArchimateFactory.eINSTANCE.createBusinessActor());
+        style = new FigureStyle(dmo);
+    }
+
+    @After
+    public void runOnceAfterEachTest() {
+        style.dispose();
+    }
+
+    @Test
+    public void getFillColor_Default() {
+        assertSame(ColorFactory.getDefaultFillColor(dmo), style.getFillColor());
+    }
+
+    @Test
+    public void getFillColor_ResetOnChange() {
+        dmo.setFillColor("#ff0000");
+        assertSame(ColorFactory.get(255, 0, 0), style.getFillColor());
+
+        dmo.setFillColor("#00ff00");
+        assertSame(ColorFactory.get(0, 255, 0), style.getFillColor());
+    }
+
+    @Test
+    public void getLineColor_ResetOnChange() {
+        assertSame(ColorFactory.getDefaultLineColor(dmo), style.getLineColor());
+
+        dmo.setLineColor("#0000ff");
+        assertSame(ColorFactory.get(0, 0, 255), style.getLineColor());
+    }
+
+    @Test
+    public void getFontColor_ResetOnChange() {
+        assertSame(ColorConstants.black, style.getFontColor());
+
+        dmo.setFontColor("#ff0000");
+        assertSame(ColorFactory.get(255, 0, 0), style.getFontColor());
+    }
+
+    @Test
+    public void getAlpha_ResetOnChange() {
+        assertEquals(255, style.getAlpha());
+        dmo.setAlpha(100);
+        assertEquals(100, style.getAlpha());
+    }
+
+    @Test
+    public void getFeatureValues_ResetOnChange() {
+        assertEquals(IDiagramModelObject.GRADIENT_NONE, style.getGradient());
+        dmo.setGradient(FigureUtils.Direction.TOP.ordinal());
+        assertEquals(FigureUtils.Direction.TOP.ordinal(), style.getGradient());
+
+        assertEquals(255, style.getLineAlpha());
+        dmo.setLineAlpha(50);
+        assertEquals(50, style.getLineAlpha());
+    }
+
+    @Test
+    public void getTextAlignment_ResetOnChange() {
+        dmo.setTextAlignment(ITextAlignment.TEXT_ALIGNMENT_LEFT);
+        assertEquals(ITextAlignment.TEXT_ALIGNMENT_LEFT, style.getTextAlignment());
+
+        dmo.setTextAlignment(ITextAlignment.TEXT_ALIGNMENT_RIGHT);
+        assertEquals(ITextAlignment.TEXT_ALIGNMENT_RIGHT, style.getTextAlignment());
+    }
+
+    @Test
+    public void dispose_RemovesAdapter() {
+        int count = dmo.eAdapters().size();
+        style.dispose();
+        assertEquals(count - 1, dmo.eAdapters().size());
+    }
+}
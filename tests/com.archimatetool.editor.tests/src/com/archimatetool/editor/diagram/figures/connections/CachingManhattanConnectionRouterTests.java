@@ -0,0 +1,104 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures.connections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.eclipse.draw2d.ChopboxAnchor;
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.PolylineConnection;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+public class CachingManhattanConnectionRouterTests {
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(CachingManhattanConnectionRouterTests.class);
+    }
+
+    private IFigure source, target;
+    private PolylineConnection conn;
+    private CachingManhattanConnectionRouter router;
+
+    @Before
+    public void runOnceBeforeEachTest() {
+        IFigure parent = new Figure();
+
+        source = new Figure();
+        source.setBounds(new Rectangle(0, 0, 100, 50));
+        parent.add(source);
+
+        target = new Figure();
+        target.setBounds(new Rectangle(300, 200, 100, 50));
+        parent.add(target);
+
+        conn = new PolylineConnection();
+        conn.setSourceAnchor(new ChopboxAnchor(source));
+        conn.setTargetAnchor(new ChopboxAnchor(target));
+        parent.add(conn);
+
+        router = new CachingManhattanConnectionRouter();
+        conn.setConnectionRouter(router);
+    }
+
+    @Test
+    public void route_IsOrthogonal() {
+        router.route(conn);
+
+        PointList points = conn.getPoints();
+        assertTrue(points.size() > 2);
+
+        for(int i = 0; i < points.size() - 1; i++) {
+            Point p1 = points.getPoint(i);
+            Point p2 = points.getPoint(i + 1);
+            assertTrue(p1.x == p2.x || p1.y == p2.y);
+        }
+    }
+
+    @Test
+    public void route_ReusesRouteWhenUnchanged() {
+        router.route(conn);
+        int[] points = conn.getPoints().toIntArray();
+
+        conn.setPoints(new PointList(new int[] { 0, 0, 1, 1 }));
+        router.route(conn);
+
+        assertArrayEquals(points, conn.getPoints().toIntArray());
+        assertEquals(1, router.size());
+    }
+
+    @Test
+    public void route_RoutesAgainWhenOwnerMoved() {
+        router.route(conn);
+        int[] points = conn.getPoints().toIntArray();
+
+        target.setBounds(new Rectangle(300, 400, 100, 50));
+        router.route(conn);
+
+        assertFalse(Arrays.equals(points, conn.getPoints().toIntArray()));
+    }
+
+    @Test
+    public void remove() {
+        router.route(conn);
+        assertEquals(1, router.size());
+
+        router.remove(conn);
+        assertEquals(0, router.size());
+    }
+}
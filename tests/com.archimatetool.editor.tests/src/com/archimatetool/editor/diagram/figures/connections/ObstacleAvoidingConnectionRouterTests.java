@@ -0,0 +1,173 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures.connections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.draw2d.ChopboxAnchor;
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.PolylineConnection;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.swt.widgets.Display;
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+public class ObstacleAvoidingConnectionRouterTests {
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(ObstacleAvoidingConnectionRouterTests.class);
+    }
+
+    private IFigure container, source, target, obstacle;
+    private PolylineConnection conn;
+
+    @Before
+    public void runOnceBeforeEachTest() {
+        IFigure root = new Figure();
+
+        container = new Figure();
+        container.setBounds(new Rectangle(0, 0, 3000, 3000));
+        root.add(container);
+
+        source = addFigure(new Rectangle(0, 0, 100, 50));
+        target = addFigure(new Rectangle(500, 0, 100, 50));
+        obstacle = addFigure(new Rectangle(250, -25, 50, 100));
+
+        // Connections are in their own layer, as in a diagram
+        IFigure connectionLayer = new Figure();
+        root.add(connectionLayer);
+
+        conn = new PolylineConnection();
+        conn.setSourceAnchor(new ChopboxAnchor(source));
+        conn.setTargetAnchor(new ChopboxAnchor(target));
+        connectionLayer.add(conn);
+    }
+
+    @Test
+    public void route_GoesAroundObstacle() {
+        ObstacleAvoidingConnectionRouter router = createRouter();
+        router.route(conn);
+
+        PointList points = conn.getPoints();
+        assertTrue(points.size() > 2);
+        assertFalse(router.isStale(conn));
+    }
+
+    @Test
+    public void route_RoutesAgainWhenNearbyObstacleMoved() {
+        ObstacleAvoidingConnectionRouter router = createRouter();
+        router.route(conn);
+
+        obstacle.setBounds(new Rectangle(250, 500, 50, 100));
+        assertTrue(router.isStale(conn));
+
+        router.route(conn);
+        assertEquals(2, conn.getPoints().size());
+    }
+
+    @Test
+    public void route_KeepsRouteWhenDistantFigureChanged() {
+        ObstacleAvoidingConnectionRouter router = createRouter();
+        router.route(conn);
+
+        IFigure figure = addFigure(new Rectangle(2000, 2000, 100, 50));
+        container.setConstraint(figure, figure.getBounds());
+        assertFalse(router.isStale(conn));
+
+        figure.setBounds(new Rectangle(2200, 2000, 100, 50));
+        assertFalse(router.isStale(conn));
+
+        container.remove(figure);
+        assertFalse(router.isStale(conn));
+    }
+
+    @Test
+    public void route_RoutesAgainWhenObstacleAddedOnRoute() {
+        obstacle.setBounds(new Rectangle(250, 500, 50, 100));
+
+        ObstacleAvoidingConnectionRouter router = createRouter();
+        router.route(conn);
+        assertEquals(2, conn.getPoints().size());
+
+        // An obstacle's constraint is set when it is added to a container with a layout
+        IFigure figure = addFigure(new Rectangle(350, 0, 50, 50));
+        container.setConstraint(figure, figure.getBounds());
+        assertTrue(router.isStale(conn));
+    }
+
+    @Test
+    public void route_SkipsOutdatedBackgroundSearches() throws Exception {
+        Display display = Display.getCurrent();
+        assertNotNull(display);
+
+        AtomicInteger searches = new AtomicInteger();
+        CountDownLatch firstSearchStarted = new CountDownLatch(1);
+        CountDownLatch firstSearch = new CountDownLatch(1);
+
+        ObstacleAvoidingConnectionRouter router = new ObstacleAvoidingConnectionRouter(container) {
+            @Override
+            ObstaclePathFinder.Result findPath(ObstaclePathFinder pathFinder, Point start, Point end) {
+                // Hold up the first search so that the others are queued behind it
+                if(searches.incrementAndGet() == 1) {
+                    firstSearchStarted.countDown();
+                    try {
+                        firstSearch.await(5, TimeUnit.SECONDS);
+                    }
+                    catch(InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.findPath(pathFinder, start, end);
+            }
+        };
+
+        router.route(conn);
+        assertTrue(firstSearchStarted.await(5, TimeUnit.SECONDS));
+
+        // Dragging the target routes the connection again each time it moves
+        for(int i = 1; i <= 4; i++) {
+            target.setBounds(new Rectangle(500, i * 100, 100, 50));
+            router.route(conn);
+        }
+
+        firstSearch.countDown();
+
+        // The last search is queued last so the searches in between have been skipped when it is done
+        long timeout = System.currentTimeMillis() + 5000;
+        while(searches.get() < 2 && System.currentTimeMillis() < timeout) {
+            display.readAndDispatch();
+            Thread.sleep(10);
+        }
+
+        assertEquals(2, searches.get());
+    }
+
+    private ObstacleAvoidingConnectionRouter createRouter() {
+        ObstacleAvoidingConnectionRouter router = new ObstacleAvoidingConnectionRouter(container);
+        router.setRouteInBackground(false);
+        return router;
+    }
+
+    private IFigure addFigure(Rectangle bounds) {
+        IFigure figure = new Figure();
+        figure.setBounds(bounds);
+        container.add(figure);
+        return figure;
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.figures.connections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.junit.Test;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+public class ObstaclePathFinderTests {
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(ObstaclePathFinderTests.class);
+    }
+
+    @Test
+    public void findPath_NoObstacles_StraightLine() {
+        ObstaclePathFinder finder = new ObstaclePathFinder(new ArrayList<>());
+        PointList points = finder.findPath(new Point(0, 0), new Point(500, 0)).points;
+
+        assertEquals(2, points.size());
+        assertEquals(new Point(0, 0), points.getFirstPoint());
+        assertEquals(new Point(500, 0), points.getLastPoint());
+    }
+
+    @Test
+    public void findPath_GoesAroundObstacle() {
+        Rectangle obstacle = new Rectangle(200, -50, 100, 200);
+        ObstaclePathFinder finder = new ObstaclePathFinder(Arrays.asList(obstacle));
+
+        PointList points = finder.findPath(new Point(0, 0), new Point(500, 0)).points;
+
+        assertEquals(4, points.size());
+        assertPathAvoids(points, obstacle);
+
+        // Shorter to go over the top
+        assertEquals(new Point(199, -51), points.getPoint(1));
+        assertEquals(new Point(300, -51), points.getPoint(2));
+    }
+
+    @Test
+    public void findPath_IgnoresObstaclesContainingEndPoints() {
+        Rectangle source = new Rectangle(-50, -50, 100, 100);
+        Rectangle target = new Rectangle(450, -50, 100, 100);
+        ObstaclePathFinder finder = new ObstaclePathFinder(Arrays.asList(source, target));
+
+        PointList points = finder.findPath(new Point(0, 0), new Point(500, 0)).points;
+        assertEquals(2, points.size());
+    }
+
+    @Test
+    public void findPath_EnlargesCorridor() {
+        // Wall taller than the first corridor
+        Rectangle wall = new Rectangle(200, -300, 50, 600);
+        ObstaclePathFinder finder = new ObstaclePathFinder(Arrays.asList(wall));
+
+        ObstaclePathFinder.Result result = finder.findPath(new Point(0, 0), new Point(500, 0));
+
+        assertEquals(4, result.points.size());
+        assertPathAvoids(result.points, wall);
+        assertTrue(result.corridor.contains(result.points.getBounds()));
+    }
+
+    @Test
+    public void findPath_NoPath_StraightLine() {
+        // End point boxed in
+        List<Rectangle> obstacles = Arrays.asList(
+                new Rectangle(400, -100, 200, 50),
+                new Rectangle(400, 50, 200, 50),
+                new Rectangle(400, -100, 50, 200),
+                new Rectangle(550, -100, 50, 200));
+        ObstaclePathFinder finder = new ObstaclePathFinder(obstacles);
+
+        PointList points = finder.findPath(new Point(0, 0), new Point(500, 0)).points;
+        assertEquals(2, points.size());
+    }
+
+    @Test
+    public void getObstacles() {
+        Rectangle near = new Rectangle(100, 100, 50, 50);
+        Rectangle far = new Rectangle(5000, 5000, 50, 50);
+        ObstaclePathFinder finder = new ObstaclePathFinder(Arrays.asList(near, far));
+
+        List<Rectangle> obstacles = finder.getObstacles(new Rectangle(0, 0, 500, 500), new Point(0, 0), new Point(400, 400));
+        assertEquals(1, obstacles.size());
+        assertEquals(near, obstacles.get(0));
+    }
+
+    @Test
+    public void intersects() {
+        Rectangle r = new Rectangle(10, 10, 10, 10);
+
+        assertTrue(ObstaclePathFinder.intersects(new Point(0, 15), new Point(30, 15), r));
+        assertTrue(ObstaclePathFinder.intersects(new Point(0, 0), new Point(30, 30), r));
+        assertFalse(ObstaclePathFinder.intersects(new Point(0, 9), new Point(30, 9), r));
+        assertFalse(ObstaclePathFinder.intersects(new Point(0, 0), new Point(30, 5), r));
+        assertFalse(ObstaclePathFinder.intersects(new Point(21, 0), new Point(21, 30), r));
+    }
+
+    private void assertPathAvoids(PointList points, Rectangle obstacle) {
+        for(int i = 0; i < points.size() - 1; i++) {
+            assertFalse(ObstaclePathFinder.intersects(points.getPoint(i), points.getPoint(i + 1), obstacle));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.diagram.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.archimatetool.editor.ArchiPlugin;
+import com.archimatetool.editor.preferences.IPreferenceConstants;
+import com.archimatetool.model.IArchimateDiagramModel;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IDiagramModelArchimateObject;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+@SuppressWarnings("nls")
+public class DiagramThumbnailCacheTests {
+    
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(DiagramThumbnailCacheTests.class);
+    }
+    
+    private IArchimateDiagramModel dm;
+    private IArchimateElement element;
+    private IDiagramModelArchimateObject dmo;
+    
+    @Before
+    public void runBeforeEachTest() {
+        IArchimateModel model = IArchimateFactory.eINSTANCE.createArchimateModel();
+        model.setDefaults();
+        
+        dm = IArchimateFactory.eINSTANCE.createArchimateDiagramModel();
+        model.getDefaultFolderForObject(dm).getElements().add(dm);
+        
+        element = IArchimateFactory.eINSTANCE.createBusinessActor();
+        model.getDefaultFolderForObject(element).getElements().add(element);
+        
+        dmo = IArchimateFactory.eINSTANCE.createDiagramModelArchimateObject();
+        dmo.setArchimateElement(element);
+        dmo.setBounds(10, 10, 120, 55);
+        dm.getChildren().add(dmo);
+    }
+    
+    @Test
+    public void getKey_Unchanged_SameKey() {
+        assertEquals(DiagramThumbnailCache.INSTANCE.getKey(dm), DiagramThumbnailCache.INSTANCE.getKey(dm));
+    }
+    
+    @Test
+    public void getKey_BoundsChanged_NewKey() {
+        String key = DiagramThumbnailCache.INSTANCE.getKey(dm);
+        dmo.setBounds(20, 10, 120, 55);
+        assertNotEquals(key, DiagramThumbnailCache.INSTANCE.getKey(dm));
+    }
+    
+    @Test
+    public void getKey_ConceptNameChanged_NewKey() {
+        String key = DiagramThumbnailCache.INSTANCE.getKey(dm);
+        element.setName("New name");
+        assertNotEquals(key, DiagramThumbnailCache.INSTANCE.getKey(dm));
+    }
+    
+    @Test
+    public void getKey_ConceptPropertyAdded_NewKey() {
+        String key = DiagramThumbnailCache.INSTANCE.getKey(dm);
+        element.getProperties().add(IArchimateFactory.eINSTANCE.createProperty("key", "value"));
+        assertNotEquals(key, DiagramThumbnailCache.INSTANCE.getKey(dm));
+    }
+    
+    @Test
+    public void getKey_DifferentViews_DifferentKeys() {
+        IArchimateDiagramModel dm2 = IArchimateFactory.eINSTANCE.createArchimateDiagramModel();
+        assertNotEquals(DiagramThumbnailCache.INSTANCE.getKey(dm), DiagramThumbnailCache.INSTANCE.getKey(dm2));
+    }
+    
+    @Test
+    public void getKey_VisualPreferenceChanged_NewKey() {
+        String key = DiagramThumbnailCache.INSTANCE.getKey(dm);
+        
+        try {
+            ArchiPlugin.PREFERENCES.setValue(IPreferenceConstants.DEFAULT_FILL_COLOR_PREFIX + "BusinessActor", "#ff0000");
+            assertNotEquals(key, DiagramThumbnailCache.INSTANCE.getKey(dm));
+        }
+        finally {
+            ArchiPlugin.PREFERENCES.setToDefault(IPreferenceConstants.DEFAULT_FILL_COLOR_PREFIX + "BusinessActor");
+        }
+    }
+    
+    @Test
+    public void getKey_OtherPreferenceChanged_SameKey() {
+        String key = DiagramThumbnailCache.INSTANCE.getKey(dm);
+        
+        try {
+            ArchiPlugin.PREFERENCES.setValue(IPreferenceConstants.GRID_VISIBLE, !ArchiPlugin.PREFERENCES.getBoolean(IPreferenceConstants.GRID_VISIBLE));
+            ArchiPlugin.PREFERENCES.setValue(IPreferenceConstants.LINK_VIEW, !ArchiPlugin.PREFERENCES.getBoolean(IPreferenceConstants.LINK_VIEW));
+            assertEquals(key, DiagramThumbnailCache.INSTANCE.getKey(dm));
+        }
+        finally {
+            ArchiPlugin.PREFERENCES.setToDefault(IPreferenceConstants.GRID_VISIBLE);
+            ArchiPlugin.PREFERENCES.setToDefault(IPreferenceConstants.LINK_VIEW);
+        }
+    }
+}
@@ -22,6 +22,7 @@ import org.eclipse.gef.editparts.FreeformGraphicalRootEditPart;
 import org.eclipse.gef.ui.parts.GraphicalViewerImpl;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -146,6 +147,26 @@ public class DiagramUtilsTests {
         img.dispose();
     }
 
+    @Test
+    public void testCreateModelReferencedImageData_FromOtherThread() throws Exception {
+        IDiagramModel dm = model.getDiagramModels().get(2);
+        
+        ModelReferencedImageData[] result = new ModelReferencedImageData[1];
+        Thread thread = new Thread(() -> result[0] = DiagramUtils.createModelReferencedImageData(dm, 1, 0, 100));
+        thread.start();
+        
+        // The image is drawn on the Display thread so keep it running until the other thread is done
+        while(thread.isAlive()) {
+            if(!Display.getCurrent().readAndDispatch()) {
+                thread.join(10);
+            }
+        }
+        
+        assertNotNull(result[0]);
+        assertEquals(720 + 193, result[0].getImageData().width);
+        assertEquals(468 + 85, result[0].getImageData().height);
+    }
+
     @Test
     public void testCreateImage_GraphicalViewer() {
         IDiagramModel dm = model.getDiagramModels().get(2);
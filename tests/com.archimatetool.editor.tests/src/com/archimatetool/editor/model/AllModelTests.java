@@ -6,6 +6,7 @@
 package com.archimatetool.editor.model;
 
 import com.archimatetool.editor.model.commands.CommandsTests;
+import com.archimatetool.editor.model.compatibility.CompatibilityVisitorTests;
 import com.archimatetool.editor.model.compatibility.ModelCompatibilityTests;
 import com.archimatetool.editor.model.compatibility.handlers.ArchiMate2To3HandlerTests;
 import com.archimatetool.editor.model.compatibility.handlers.FixDefaultSizesHandlerTests;
@@ -25,6 +26,7 @@ public class AllModelTests {
 		// model
         suite.addTest(DiagramModelUtilsTests.suite());
         suite.addTest(DiagramModelUtilsNestedRelationsTests.suite());
+        suite.addTest(DiagramReferenceCounterTests.suite());
         suite.addTest(IArchiveManagerTests.suite());
         suite.addTest(ModelCheckerTests.suite());
 
@@ -32,6 +34,7 @@ public class AllModelTests {
         suite.addTest(CommandsTests.suite());
 
         // model.compatibility
+        suite.addTest(CompatibilityVisitorTests.suite());
         suite.addTest(ModelCompatibilityTests.suite());
         
         // model.compatibility.handlers
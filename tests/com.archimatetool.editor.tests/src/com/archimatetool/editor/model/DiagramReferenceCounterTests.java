@@ -0,0 +1,148 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.archimatetool.model.IArchimateConcept;
+import com.archimatetool.model.IArchimateDiagramModel;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.IDiagramModelArchimateConnection;
+import com.archimatetool.model.IDiagramModelArchimateObject;
+import com.archimatetool.model.IDiagramModelGroup;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.testingtools.ArchimateTestModel;
+import com.archimatetool.tests.TestData;
+
+import junit.framework.JUnit4TestAdapter;
+
+@SuppressWarnings("nls")
+public class DiagramReferenceCounterTests {
+
+    private ArchimateTestModel tm;
+    private IArchimateModel model;
+    private DiagramReferenceCounter counter;
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(DiagramReferenceCounterTests.class);
+    }
+
+    @Before
+    public void runBeforeEachTest() {
+        tm = new ArchimateTestModel();
+        model = tm.createNewModel();
+        counter = new DiagramReferenceCounter(model);
+        counter.startTracking();
+    }
+
+    @Test
+    public void getCount_MatchesReferencingDiagramComponents() throws Exception {
+        IArchimateModel model = new ArchimateTestModel(TestData.TEST_MODEL_FILE_ARCHISURANCE).loadModel();
+        DiagramReferenceCounter counter = new DiagramReferenceCounter(model);
+        counter.startTracking();
+
+        model.eAllContents().forEachRemaining(eObject -> {
+            if(eObject instanceof IArchimateConcept) {
+                IArchimateConcept concept = (IArchimateConcept)eObject;
+                assertEquals(concept.getReferencingDiagramComponents().size(), counter.getCount(concept));
+            }
+        });
+    }
+
+    @Test
+    public void isReferenced_DiagramObjectAddedAndRemoved() {
+        IArchimateElement element = (IArchimateElement)tm.createModelElementAndAddToModel(IArchimatePackage.eINSTANCE.getBusinessActor());
+        assertFalse(counter.isReferenced(element));
+
+        IDiagramModelArchimateObject dmo1 = tm.createDiagramModelArchimateObjectAndAddToModel(element);
+        model.getDefaultDiagramModel().getChildren().add(dmo1);
+        assertTrue(counter.isReferenced(element));
+        assertEquals(1, counter.getCount(element));
+
+        IDiagramModelArchimateObject dmo2 = tm.createDiagramModelArchimateObjectAndAddToModel(element);
+        model.getDefaultDiagramModel().getChildren().add(dmo2);
+        assertEquals(2, counter.getCount(element));
+
+        model.getDefaultDiagramModel().getChildren().remove(dmo1);
+        assertEquals(1, counter.getCount(element));
+
+        model.getDefaultDiagramModel().getChildren().remove(dmo2);
+        assertFalse(counter.isReferenced(element));
+    }
+
+    @Test
+    public void isReferenced_NestedObjectsAndConnections() {
+        IArchimateElement element1 = (IArchimateElement)tm.createModelElementAndAddToModel(IArchimatePackage.eINSTANCE.getBusinessActor());
+        IArchimateElement element2 = (IArchimateElement)tm.createModelElementAndAddToModel(IArchimatePackage.eINSTANCE.getBusinessRole());
+        IArchimateRelationship relation = (IArchimateRelationship)tm.createModelElementAndAddToModel(IArchimatePackage.eINSTANCE.getAssignmentRelationship());
+        relation.connect(element1, element2);
+
+        // Build the objects in a group before adding it to a View
+        IDiagramModelGroup group = IArchimateFactory.eINSTANCE.createDiagramModelGroup();
+        IDiagramModelArchimateObject dmo1 = tm.createDiagramModelArchimateObjectAndAddToModel(element1);
+        IDiagramModelArchimateObject dmo2 = tm.createDiagramModelArchimateObjectAndAddToModel(element2);
+        group.getChildren().add(dmo1);
+        group.getChildren().add(dmo2);
+        IDiagramModelArchimateConnection conn = tm.createDiagramModelArchimateConnectionAndAddToModel(relation);
+        conn.connect(dmo1, dmo2);
+
+        // Count before any change
+        assertFalse(counter.isReferenced(relation));
+
+        IArchimateDiagramModel dm = tm.addNewArchimateDiagramModel();
+        dm.getChildren().add(group);
+        assertTrue(counter.isReferenced(element1));
+        assertTrue(counter.isReferenced(element2));
+        assertTrue(counter.isReferenced(relation));
+
+        // Connection removed from its source
+        conn.disconnect();
+        assertFalse(counter.isReferenced(relation));
+
+        // Whole View removed
+        ((IFolder)dm.eContainer()).getElements().remove(dm);
+        assertFalse(counter.isReferenced(element1));
+        assertFalse(counter.isReferenced(element2));
+    }
+
+    @Test
+    public void getCount_ConceptChanged() {
+        IArchimateElement element1 = (IArchimateElement)tm.createModelElementAndAddToModel(IArchimatePackage.eINSTANCE.getBusinessActor());
+        IArchimateElement element2 = (IArchimateElement)tm.createModelElementAndAddToModel(IArchimatePackage.eINSTANCE.getBusinessRole());
+        IDiagramModelArchimateObject dmo = tm.createDiagramModelArchimateObjectAndAddToModel(element1);
+        model.getDefaultDiagramModel().getChildren().add(dmo);
+        assertEquals(1, counter.getCount(element1));
+        assertEquals(0, counter.getCount(element2));
+
+        dmo.setArchimateElement(element2);
+        assertEquals(0, counter.getCount(element1));
+        assertEquals(1, counter.getLoadedCount(element2));
+    }
+
+    @Test
+    public void stopTracking() {
+        IArchimateElement element = (IArchimateElement)tm.createModelElementAndAddToModel(IArchimatePackage.eINSTANCE.getBusinessActor());
+        IDiagramModelArchimateObject dmo = tm.createDiagramModelArchimateObjectAndAddToModel(element);
+        model.getDefaultDiagramModel().getChildren().add(dmo);
+        assertTrue(counter.isReferenced(element));
+
+        counter.stopTracking();
+        assertFalse(counter.isTracking());
+
+        // Counted again each time when not tracking
+        model.getDefaultDiagramModel().getChildren().remove(dmo);
+        assertFalse(counter.isReferenced(element));
+    }
+}
@@ -6,12 +6,16 @@
 package com.archimatetool.editor.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.util.List;
 
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.impl.ENotificationImpl;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -60,6 +64,70 @@ public class ModelCheckerTests {
         assertTrue(modelChecker.checkAll());
     }
     
+    @Test
+    public void check_Tracking() {
+        IArchimateElement element = (IArchimateElement)tm.createModelElementAndAddToModel(IArchimatePackage.eINSTANCE.getBusinessActor());
+        IDiagramModelArchimateObject dmo = tm.createDiagramModelArchimateObjectAndAddToModel(element);
+        model.getDefaultDiagramModel().getChildren().add(dmo);
+        
+        modelChecker.startTracking();
+        assertTrue(modelChecker.isTracking());
+        
+        // First check is a full check
+        assertTrue(modelChecker.check());
+        
+        // Orphan the element
+        model.getFolder(FolderType.BUSINESS).getElements().remove(element);
+        assertFalse(modelChecker.check());
+        assertEquals(1, modelChecker.getErrorMessages().size());
+        assertTrue(modelChecker.getErrorMessages().get(0).startsWith("Diagram Element has orphaned ArchiMate element"));
+        
+        // Put it back
+        model.getFolder(FolderType.BUSINESS).getElements().add(element);
+        assertTrue(modelChecker.check());
+        
+        // Remove the diagram object
+        element.setId(null);
+        assertFalse(modelChecker.check());
+        model.getDefaultDiagramModel().getChildren().remove(dmo);
+        model.getFolder(FolderType.BUSINESS).getElements().remove(element);
+        assertTrue(modelChecker.check());
+        
+        modelChecker.stopTracking();
+        assertFalse(modelChecker.isTracking());
+    }
+    
+    @Test
+    public void checkAll_RecountsInstanceCounts() {
+        IArchimateElement element = (IArchimateElement)tm.createModelElementAndAddToModel(IArchimatePackage.eINSTANCE.getBusinessActor());
+        IDiagramModelArchimateObject dmo1 = tm.createDiagramModelArchimateObjectAndAddToModel(element);
+        model.getDefaultDiagramModel().getChildren().add(dmo1);
+        
+        DiagramReferenceCounter counter = new DiagramReferenceCounter(model);
+        model.setAdapter(DiagramReferenceCounter.class, counter);
+        counter.startTracking();
+        
+        modelChecker.startTracking();
+        assertTrue(modelChecker.check());
+        
+        // Make the shared counts drift by telling the counter about a diagram object that is not in the model
+        IDiagramModelArchimateObject dmo2 = IArchimateFactory.eINSTANCE.createDiagramModelArchimateObject();
+        dmo2.setArchimateElement(element);
+        counter.notifyChanged(new ENotificationImpl((InternalEObject)model.getDefaultDiagramModel(), Notification.ADD,
+                IArchimatePackage.Literals.DIAGRAM_MODEL_CONTAINER__CHILDREN, null, dmo2));
+        
+        // An incremental check of the element uses the shared counts
+        IDiagramModelArchimateObject dmo3 = tm.createDiagramModelArchimateObjectAndAddToModel(element);
+        model.getDefaultDiagramModel().getChildren().add(dmo3);
+        assertFalse(modelChecker.check());
+        
+        // A full check counts again
+        assertTrue(modelChecker.checkAll());
+        
+        modelChecker.stopTracking();
+        counter.stopTracking();
+    }
+    
     @Test
     public void checkFolderStructure() {
         List<String> messages = modelChecker.checkFolderStructure();
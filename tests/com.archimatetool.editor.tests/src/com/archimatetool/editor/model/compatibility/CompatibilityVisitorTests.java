@@ -0,0 +1,67 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.model.compatibility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+import org.junit.Test;
+
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IDiagramModelGroup;
+import com.archimatetool.model.IDiagramModelNote;
+import com.archimatetool.testingtools.ArchimateTestModel;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+@SuppressWarnings("nls")
+public class CompatibilityVisitorTests {
+    
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(CompatibilityVisitorTests.class);
+    }
+    
+    @Test
+    public void testHasCallbacks() {
+        CompatibilityVisitor visitor = new CompatibilityVisitor();
+        assertFalse(visitor.hasCallbacks());
+        
+        visitor.register(IArchimatePackage.Literals.DIAGRAM_MODEL_OBJECT, eObject -> {});
+        assertTrue(visitor.hasCallbacks());
+    }
+
+    @Test
+    public void testVisit_DispatchesToSuperTypeCallbacksInRegistrationOrder() {
+        ArchimateTestModel tm = new ArchimateTestModel();
+        IArchimateModel model = tm.createNewModel();
+        
+        IDiagramModelGroup group = IArchimateFactory.eINSTANCE.createDiagramModelGroup();
+        model.getDefaultDiagramModel().getChildren().add(group);
+        IDiagramModelNote note = IArchimateFactory.eINSTANCE.createDiagramModelNote();
+        group.getChildren().add(note);
+        
+        List<String> calls = new ArrayList<>();
+        
+        CompatibilityVisitor visitor = new CompatibilityVisitor();
+        visitor.register(IArchimatePackage.Literals.DIAGRAM_MODEL_OBJECT, (EObject eObject) -> calls.add("object:" + eObject.eClass().getName()));
+        visitor.register(IArchimatePackage.Literals.DIAGRAM_MODEL_GROUP, (IDiagramModelGroup eObject) -> calls.add("group"));
+        
+        visitor.visit(model);
+        
+        assertEquals(3, calls.size());
+        assertEquals("object:DiagramModelGroup", calls.get(0));
+        assertEquals("group", calls.get(1));
+        assertEquals("object:DiagramModelNote", calls.get(2));
+    }
+}
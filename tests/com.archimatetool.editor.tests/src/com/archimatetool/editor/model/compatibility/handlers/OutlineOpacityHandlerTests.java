@@ -12,6 +12,7 @@ import static org.junit.Assert.assertTrue;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.archimatetool.editor.model.compatibility.CompatibilityVisitor;
 import com.archimatetool.model.IArchimateFactory;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IDiagramModelObject;
@@ -68,7 +69,9 @@ public class OutlineOpacityHandlerTests {
         dmo.setAlpha(100);
         model.getDefaultDiagramModel().getChildren().add(dmo);
 
-        handler.setDefaultOutlineOpacity(model);
+        CompatibilityVisitor visitor = new CompatibilityVisitor();
+        handler.registerCallbacks(visitor);
+        visitor.visit(model);
         
         assertEquals(100, dmo.getAlpha());
         assertEquals(100, dmo.getLineAlpha());
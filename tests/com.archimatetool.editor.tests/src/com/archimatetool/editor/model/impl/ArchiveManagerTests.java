@@ -16,18 +16,37 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.ZipFile;
 
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.swt.graphics.Image;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.archimatetool.editor.ArchiPlugin;
 import com.archimatetool.editor.TestSupport;
 import com.archimatetool.editor.model.IArchiveManager;
+import com.archimatetool.editor.model.IEditorModelManager;
+import com.archimatetool.editor.preferences.IPreferenceConstants;
+import com.archimatetool.model.FolderType;
+import com.archimatetool.model.IArchimateElement;
 import com.archimatetool.model.IArchimateFactory;
 import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimateRelationship;
 import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.IDiagramModelArchimateObject;
 import com.archimatetool.model.IDiagramModelImage;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.IIdentifier;
+import com.archimatetool.model.IProfile;
+import com.archimatetool.model.util.ArchimateModelUtils;
+import com.archimatetool.model.util.IDiagramModelContentLoader;
+import com.archimatetool.model.util.ModelShardLoader;
 import com.archimatetool.testingtools.ArchimateTestModel;
 import com.archimatetool.tests.TestData;
 import com.archimatetool.tests.TestUtils;
@@ -247,6 +266,197 @@ public class ArchiveManagerTests {
         assertSame(resource, model.eResource());
     }
     
+    @Test
+    public void testSaveModel_ViewsSeparately() throws IOException {
+        IArchimateModel sourceModel = IEditorModelManager.INSTANCE.load(TestData.TEST_MODEL_FILE_ARCHISURANCE);
+        IDiagramModel sourceDM = sourceModel.getDiagramModels().get(0);
+        int childCount = sourceDM.getChildren().size();
+        assertTrue(childCount > 0);
+        
+        File file = TestUtils.createTempFile(".archimate");
+        sourceModel.setFile(file);
+        
+        ArchiPlugin.PREFERENCES.setValue(IPreferenceConstants.ARCHIVE_VIEWS_SEPARATELY, true);
+        
+        try {
+            ((IArchiveManager)sourceModel.getAdapter(IArchiveManager.class)).saveModel();
+        }
+        finally {
+            ArchiPlugin.PREFERENCES.setToDefault(IPreferenceConstants.ARCHIVE_VIEWS_SEPARATELY);
+        }
+        
+        assertTrue(IArchiveManager.FACTORY.isArchiveFile(file));
+        
+        try(ZipFile zipFile = new ZipFile(file)) {
+            for(IDiagramModel diagramModel : sourceModel.getDiagramModels()) {
+                assertNotNull(zipFile.getEntry(DiagramModelContentManager.getEntryName(diagramModel)));
+            }
+        }
+        
+        // Load it and Views are stubs
+        IArchimateModel loadedModel = IEditorModelManager.INSTANCE.load(file);
+        IDiagramModelContentLoader loader = IDiagramModelContentLoader.getLoader(loadedModel);
+        assertNotNull(loader);
+        assertTrue(loader.hasUnloadedContent());
+        
+        IDiagramModel loadedDM = loadedModel.getDiagramModels().get(0);
+        assertEquals(sourceDM.getId(), loadedDM.getId());
+        assertFalse(loader.isContentLoaded(loadedDM));
+        assertTrue(loadedDM.getChildren().isEmpty());
+        
+        // Load contents of one View
+        IDiagramModelContentLoader.ensureLoaded(loadedDM);
+        assertTrue(loader.isContentLoaded(loadedDM));
+        assertEquals(childCount, loadedDM.getChildren().size());
+        
+        IDiagramModelArchimateObject dmo = (IDiagramModelArchimateObject)loadedDM.getChildren().stream()
+                .filter(IDiagramModelArchimateObject.class::isInstance)
+                .findFirst()
+                .get();
+        IArchimateElement element = dmo.getArchimateElement();
+        assertSame(loadedModel, element.getArchimateModel());
+        
+        IArchimateElement sourceElement = (IArchimateElement)ArchimateModelUtils.getObjectByID(sourceModel, element.getId());
+        Set<String> referencingViewIds = sourceElement.getReferencingDiagramObjects().stream()
+                .map(sourceDMO -> sourceDMO.getDiagramModel().getId())
+                .collect(Collectors.toSet());
+        
+        // References in unloaded Views are counted without loading them
+        long unloadedReferenceCount = sourceElement.getReferencingDiagramObjects().stream()
+                .filter(sourceDMO -> sourceDMO.getDiagramModel() != sourceDM)
+                .count();
+        assertEquals(unloadedReferenceCount, IDiagramModelContentLoader.countUnloadedReferences(element));
+        
+        // Getting referenced diagram objects loads only the Views that reference the element
+        assertEquals(sourceElement.getReferencingDiagramObjects().size(), element.getReferencingDiagramObjects().size());
+        assertTrue(element.getReferencingDiagramObjects().contains(dmo));
+        assertEquals(0, IDiagramModelContentLoader.countUnloadedReferences(element));
+        
+        for(IDiagramModel dm : loadedModel.getDiagramModels()) {
+            assertEquals(dm == loadedDM || referencingViewIds.contains(dm.getId()), loader.isContentLoaded(dm));
+        }
+        
+        loader.loadAllContent();
+        assertFalse(loader.hasUnloadedContent());
+        
+        file.delete();
+    }
+    
+    @Test
+    public void testSaveModel_Sharded() throws IOException {
+        IArchimateModel sourceModel = IEditorModelManager.INSTANCE.load(TestData.TEST_MODEL_FILE_ARCHISURANCE);
+        
+        File file = TestUtils.createTempFile(".archimate");
+        sourceModel.setFile(file);
+        
+        ArchiPlugin.PREFERENCES.setValue(IPreferenceConstants.ARCHIVE_MODEL_SHARDED, true);
+        
+        try {
+            ((IArchiveManager)sourceModel.getAdapter(IArchiveManager.class)).saveModel();
+        }
+        finally {
+            ArchiPlugin.PREFERENCES.setToDefault(IPreferenceConstants.ARCHIVE_MODEL_SHARDED);
+        }
+        
+        try(ZipFile zipFile = new ZipFile(file)) {
+            for(int i = 0; i < sourceModel.getFolders().size(); i++) {
+                assertNotNull(zipFile.getEntry(ModelShardLoader.getFolderEntryName(i)));
+            }
+        }
+        
+        IArchimateModel loadedModel = IEditorModelManager.INSTANCE.load(file);
+        
+        // Folders are in the same order
+        assertEquals(sourceModel.getFolders().size(), loadedModel.getFolders().size());
+        for(int i = 0; i < sourceModel.getFolders().size(); i++) {
+            assertEquals(sourceModel.getFolders().get(i).getId(), loadedModel.getFolders().get(i).getId());
+        }
+        
+        // References between shards are resolved
+        IFolder relationsFolder = loadedModel.getFolder(FolderType.RELATIONS);
+        assertFalse(relationsFolder.getElements().isEmpty());
+        for(EObject eObject : relationsFolder.getElements()) {
+            IArchimateRelationship relationship = (IArchimateRelationship)eObject;
+            assertSame(loadedModel, relationship.getSource().getArchimateModel());
+            assertSame(loadedModel, relationship.getTarget().getArchimateModel());
+        }
+        
+        assertEquals(sourceModel.getDiagramModels().size(), loadedModel.getDiagramModels().size());
+        assertEquals(sourceModel.getDiagramModels().get(0).getChildren().size(), loadedModel.getDiagramModels().get(0).getChildren().size());
+        
+        file.delete();
+    }
+    
+    @Test
+    public void testSaveModel_Sharded_LargeFolderAndReferenceOrder() throws IOException {
+        IFolder businessFolder = model.getFolder(FolderType.BUSINESS);
+        
+        // A sub-folder that is too large for one shard followed by a small one and elements
+        IFolder largeFolder = IArchimateFactory.eINSTANCE.createFolder();
+        businessFolder.getFolders().add(largeFolder);
+        for(int i = 0; i < ArchiveManager.MAX_SHARD_SIZE + 10; i++) {
+            largeFolder.getElements().add(IArchimateFactory.eINSTANCE.createBusinessActor());
+        }
+        
+        IFolder smallFolder = IArchimateFactory.eINSTANCE.createFolder();
+        businessFolder.getFolders().add(smallFolder);
+        smallFolder.getElements().add(IArchimateFactory.eINSTANCE.createBusinessRole());
+        
+        IArchimateElement element = IArchimateFactory.eINSTANCE.createBusinessActor();
+        businessFolder.getElements().add(element);
+        
+        // Profiles in a different order to the model's Profiles
+        IProfile profile1 = IArchimateFactory.eINSTANCE.createProfile();
+        profile1.setConceptType(element.eClass().getName());
+        IProfile profile2 = IArchimateFactory.eINSTANCE.createProfile();
+        profile2.setConceptType(element.eClass().getName());
+        model.getProfiles().add(profile1);
+        model.getProfiles().add(profile2);
+        element.getProfiles().add(profile2);
+        element.getProfiles().add(profile1);
+        
+        File file = TestUtils.createTempFile(".archimate");
+        model.setFile(file);
+        
+        ArchiPlugin.PREFERENCES.setValue(IPreferenceConstants.ARCHIVE_MODEL_SHARDED, true);
+        
+        try {
+            archiveManager.saveModel();
+        }
+        finally {
+            ArchiPlugin.PREFERENCES.setToDefault(IPreferenceConstants.ARCHIVE_MODEL_SHARDED);
+        }
+        
+        // The large folder is split
+        try(ZipFile zipFile = new ZipFile(file)) {
+            assertNotNull(zipFile.getEntry(ModelShardLoader.getFolderEntryName(model.getFolders().size())));
+        }
+        
+        IArchimateModel loadedModel = IEditorModelManager.INSTANCE.load(file);
+        
+        // Same folders and elements in the same order
+        assertEquals(getIds(model), getIds(loadedModel));
+        
+        // Multi-valued references are in the same order
+        IArchimateElement loadedElement = (IArchimateElement)ArchimateModelUtils.getObjectByID(loadedModel, element.getId());
+        assertEquals(2, loadedElement.getProfiles().size());
+        assertEquals(profile2.getId(), loadedElement.getProfiles().get(0).getId());
+        assertEquals(profile1.getId(), loadedElement.getProfiles().get(1).getId());
+        assertSame(loadedModel, loadedElement.getProfiles().get(0).getArchimateModel());
+        
+        file.delete();
+    }
+    
+    private List<String> getIds(IArchimateModel model) {
+        List<String> ids = new ArrayList<>();
+        model.eAllContents().forEachRemaining(eObject -> {
+            if(eObject instanceof IIdentifier) {
+                ids.add(((IIdentifier)eObject).getId());
+            }
+        });
+        return ids;
+    }
+    
     @Test
     public void testClone() throws IOException {
         archiveManager.loadImagesFromModelFile(TestSupport.TEST_MODEL_FILE_ZIPPED);
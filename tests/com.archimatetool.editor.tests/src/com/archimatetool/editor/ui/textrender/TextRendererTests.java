@@ -138,6 +138,46 @@ public class TextRendererTests {
         assertEquals("Just Some Text", textRenderer.renderWithExpression(group, "Just Some Text"));
     }
 
+    @Test
+    public void render_NoExpression_EscapedCharacters() {
+        IDiagramModelGroup group = IArchimateFactory.eINSTANCE.createDiagramModelGroup();
+        // Twice to use the cached prepared expression
+        assertEquals("Text: with\nescapes \\", textRenderer.renderWithExpression(group, "Text\\: with\\nescapes \\\\"));
+        assertEquals("Text: with\nescapes \\", textRenderer.renderWithExpression(group, "Text\\: with\\nescapes \\\\"));
+    }
+
+    @Test
+    public void render_CachedExpression_RendersEachObject() {
+        IDiagramModelGroup group1 = IArchimateFactory.eINSTANCE.createDiagramModelGroup();
+        group1.setName("Group 1");
+        IDiagramModelGroup group2 = IArchimateFactory.eINSTANCE.createDiagramModelGroup();
+        group2.setName("Group 2");
+        assertEquals("Name: Group 1", textRenderer.renderWithExpression(group1, "Name\\: ${name}"));
+        assertEquals("Name: Group 2", textRenderer.renderWithExpression(group2, "Name\\: ${name}"));
+    }
+
+    @Test
+    public void render_Segments() {
+        IDiagramModelGroup group = IArchimateFactory.eINSTANCE.createDiagramModelGroup();
+        group.setName("Group 1");
+        assertEquals("{name} Group 1 $name: Named!", textRenderer.renderWithExpression(group, "{name} ${name} $name\\: ${if:${name}:Named}!"));
+    }
+
+    @Test
+    public void render_Segments_UnclosedExpression() {
+        IDiagramModelGroup group = IArchimateFactory.eINSTANCE.createDiagramModelGroup();
+        group.setName("Group 1");
+        assertEquals("Group 1 ${property:a{b", textRenderer.renderWithExpression(group, "${name} ${property:a{b"));
+    }
+
+    @Test
+    public void render_Segments_RenderedValueJoinsText() {
+        IDiagramModelGroup group = IArchimateFactory.eINSTANCE.createDiagramModelGroup();
+        group.setName("$");
+        // The rendered name and the literal text after it make another expression
+        assertEquals("$", textRenderer.renderWithExpression(group, "${name}{name}"));
+    }
+
     @Test
     public void render_InfiniteLoop() {
         IDiagramModelGroup group = IArchimateFactory.eINSTANCE.createDiagramModelGroup();
@@ -239,6 +279,69 @@ public class TextRendererTests {
         assertEquals("${property:p1}", textRenderer.renderWithExpression(dmo, "${property:p1}"));
     }
 
+    // ============================= Render Cache Tests =========================================
+
+    @Test
+    public void render_Cached_InvalidatedByConceptChange() {
+        IDiagramModelArchimateObject dmo = createDiagramModelObject();
+        IArchimateConcept concept = dmo.getArchimateConcept();
+        
+        assertEquals("Concept Name", textRenderer.renderWithExpression(dmo, "${name}"));
+        concept.setName("New Name");
+        assertEquals("New Name", textRenderer.renderWithExpression(dmo, "${name}"));
+    }
+
+    @Test
+    public void render_Cached_InvalidatedByPropertyChange() {
+        IDiagramModelArchimateObject dmo = createDiagramModelObject();
+        IProperty property = ((IProperties)dmo.getArchimateConcept()).getProperties().get(2);
+        
+        assertEquals("concept_v2", textRenderer.renderWithExpression(dmo, "${property:k2}"));
+        property.setValue("new_v2");
+        assertEquals("new_v2", textRenderer.renderWithExpression(dmo, "${property:k2}"));
+    }
+
+    @Test
+    public void render_Cached_InvalidatedByRelatedObjectChange() {
+        IDiagramModelArchimateObject dmo = createDiagramModelObject();
+        
+        assertEquals("Model Name", textRenderer.renderWithExpression(dmo, "$model{name}"));
+        dmo.getArchimateModel().setName("New Model Name");
+        assertEquals("New Model Name", textRenderer.renderWithExpression(dmo, "$model{name}"));
+    }
+
+    @Test
+    public void render_Cached_InvalidatedByMove() {
+        IDiagramModelArchimateObject dmo = createDiagramModelObject();
+        IArchimateConcept concept = dmo.getArchimateConcept();
+        
+        IFolder folder = IArchimateFactory.eINSTANCE.createFolder();
+        folder.setName("Sub Folder");
+        dmo.getArchimateModel().getFolder(FolderType.BUSINESS).getFolders().add(folder);
+        
+        assertEquals("Concept Folder Documentation", textRenderer.renderWithExpression(concept, "$mfolder{documentation}"));
+        folder.getElements().add(concept);
+        assertEquals("", textRenderer.renderWithExpression(concept, "$mfolder{documentation}"));
+    }
+
+    @Test
+    public void render_Cached_InvalidatedBeforeModelContentListeners() {
+        IDiagramModelArchimateObject dmo = createDiagramModelObject();
+        IArchimateConcept concept = dmo.getArchimateConcept();
+        
+        // Render from a listener as the Models Tree does when it updates a label
+        String[] rendered = new String[1];
+        concept.getArchimateModel().addModelContentListener(msg -> {
+            if(msg.getNotifier() == concept) {
+                rendered[0] = textRenderer.renderWithExpression(concept, "${name}");
+            }
+        });
+        
+        assertEquals("Concept Name", textRenderer.renderWithExpression(concept, "${name}"));
+        concept.setName("New Name");
+        assertEquals("New Name", rendered[0]);
+    }
+
     // ============================= Word Wrap Expression Tests =========================================
     
     @Test
@@ -10,6 +10,9 @@ import junit.framework.TestSuite;
 import com.archimatetool.editor.views.tree.TreeModelViewerDragDropHandlerTests;
 import com.archimatetool.editor.views.tree.TreeModelViewerFindReplaceProviderTests;
 import com.archimatetool.editor.views.tree.commands.DeleteCommandHandlerTests;
+import com.archimatetool.editor.views.tree.search.FindReplaceEngineTests;
+import com.archimatetool.editor.views.tree.search.SearchFilterTests;
+import com.archimatetool.editor.views.tree.search.SearchIndexTests;
 
 @SuppressWarnings("nls")
 public class AllViewsTests {
@@ -24,6 +27,11 @@ public class AllViewsTests {
         // views.tree.commands
         suite.addTest(DeleteCommandHandlerTests.suite());
 
+        // views.tree.search
+        suite.addTest(FindReplaceEngineTests.suite());
+        suite.addTest(SearchFilterTests.suite());
+        suite.addTest(SearchIndexTests.suite());
+
         return suite;
 	}
 
@@ -0,0 +1,124 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.views.tree.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.gef.commands.CommandStack;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.archimatetool.editor.ui.findreplace.IFindReplaceProvider;
+import com.archimatetool.editor.views.tree.search.FindReplaceEngine.Match;
+import com.archimatetool.model.FolderType;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.IProperty;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+@SuppressWarnings("nls")
+public class FindReplaceEngineTests {
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(FindReplaceEngineTests.class);
+    }
+
+    private IArchimateModel model;
+    private CommandStack commandStack;
+    private IArchimateElement actor, role;
+    private IProperty property;
+
+    @Before
+    public void runOnceBeforeEachTest() {
+        model = IArchimateFactory.eINSTANCE.createArchimateModel();
+        model.setDefaults();
+        commandStack = new CommandStack();
+        model.setAdapter(CommandStack.class, commandStack);
+
+        IFolder folder = model.getFolder(FolderType.BUSINESS);
+
+        actor = IArchimateFactory.eINSTANCE.createBusinessActor();
+        actor.setName("Customer Actor");
+        actor.setDocumentation("The customer buys things");
+        folder.getElements().add(actor);
+
+        role = IArchimateFactory.eINSTANCE.createBusinessRole();
+        role.setName("Customers Role");
+        property = IArchimateFactory.eINSTANCE.createProperty();
+        property.setKey("owner");
+        property.setValue("customer team");
+        role.getProperties().add(property);
+        folder.getElements().add(role);
+    }
+
+    private List<Match> find(String toFind, int parameter) {
+        return new FindReplaceEngine(toFind, parameter).find(model).collect(Collectors.toList());
+    }
+
+    @Test
+    public void find_Names() {
+        List<Match> matches = find("customer", IFindReplaceProvider.PARAM_NONE);
+        assertEquals(2, matches.size());
+        assertSame(actor, matches.get(0).getObject());
+        assertSame(IArchimatePackage.Literals.NAMEABLE__NAME, matches.get(0).getAttribute());
+        assertSame(role, matches.get(1).getObject());
+
+        assertEquals(0, find("customer", IFindReplaceProvider.PARAM_CASE_SENSITIVE).size());
+        assertEquals(1, find("customer", IFindReplaceProvider.PARAM_WHOLE_WORD).size());
+        assertEquals(0, find("", IFindReplaceProvider.PARAM_NONE).size());
+    }
+
+    @Test
+    public void find_DocumentationAndProperties() {
+        List<Match> matches = find("customer", IFindReplaceProvider.PARAM_INCLUDE_DOCUMENTATION | IFindReplaceProvider.PARAM_INCLUDE_PROPERTIES);
+        assertEquals(4, matches.size());
+        assertSame(IArchimatePackage.Literals.DOCUMENTABLE__DOCUMENTATION, matches.get(1).getAttribute());
+        assertSame(role, matches.get(3).getObject());
+        assertSame(property, matches.get(3).getOwner());
+    }
+
+    @Test
+    public void find_Regex() {
+        assertEquals(1, find("^Cust\\w+s\\b", IFindReplaceProvider.PARAM_REGEX).size());
+        assertTrue(FindReplaceEngine.isValidPattern("(", IFindReplaceProvider.PARAM_NONE));
+        assertFalse(FindReplaceEngine.isValidPattern("(", IFindReplaceProvider.PARAM_REGEX));
+    }
+
+    @Test
+    public void replace_IsOneCommand() {
+        FindReplaceEngine engine = new FindReplaceEngine("customer", IFindReplaceProvider.PARAM_INCLUDE_PROPERTIES);
+        assertEquals(3, engine.replace(engine.find(model).collect(Collectors.toList()), "Client"));
+
+        assertEquals("Client Actor", actor.getName());
+        assertEquals("Clients Role", role.getName());
+        assertEquals("Client team", property.getValue());
+        assertEquals("The customer buys things", actor.getDocumentation());
+
+        commandStack.undo();
+        assertEquals("Customer Actor", actor.getName());
+        assertEquals("Customers Role", role.getName());
+        assertEquals("customer team", property.getValue());
+        assertFalse(commandStack.canUndo());
+    }
+
+    @Test
+    public void replace_RegexGroups() {
+        FindReplaceEngine engine = new FindReplaceEngine("(\\w+) (\\w+)", IFindReplaceProvider.PARAM_REGEX);
+        engine.replace(engine.find(model).collect(Collectors.toList()), "$2 $1");
+        assertEquals("Actor Customer", actor.getName());
+    }
+}
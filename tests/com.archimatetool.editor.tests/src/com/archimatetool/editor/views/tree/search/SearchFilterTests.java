@@ -0,0 +1,240 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.views.tree.search;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.archimatetool.editor.views.tree.TreeModelViewer;
+import com.archimatetool.model.FolderType;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.util.IModelContentListener;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+@SuppressWarnings("nls")
+public class SearchFilterTests {
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(SearchFilterTests.class);
+    }
+
+    private IArchimateModel model;
+    private IFolder businessFolder, subFolder, fooFolder;
+    private IArchimateElement fooActor, barActor, fooRole;
+
+    private TreeModelViewer treeViewer;
+    private SearchFilter filter;
+
+    // The Tree Model View tells the filter about model changes
+    private IModelContentListener listener = msg -> filter.invalidate(msg);
+
+    @Before
+    public void runOnceBeforeEachTest() {
+        model = IArchimateFactory.eINSTANCE.createArchimateModel();
+        model.setDefaults();
+        businessFolder = model.getFolder(FolderType.BUSINESS);
+
+        // Business/Sub/Foo Actor
+        subFolder = createFolder(businessFolder, "Sub");
+        fooActor = createElement(subFolder, "Foo Actor");
+
+        // Business/Foo Folder/Bar Actor
+        fooFolder = createFolder(businessFolder, "Foo Folder");
+        barActor = createElement(fooFolder, "Bar Actor");
+
+        // Strategy/Foo Role
+        fooRole = createElement(model.getFolder(FolderType.STRATEGY), "Foo Role");
+
+        // The index listens to the model first as it does in the application
+        SearchIndex.getIndex(model);
+        model.addModelContentListener(listener);
+
+        treeViewer = new TreeModelViewer(new Shell(), SWT.NONE);
+        treeViewer.setInput(model);
+
+        filter = new SearchFilter(treeViewer);
+        treeViewer.addFilter(filter);
+    }
+
+    @After
+    public void runOnceAfterEachTest() {
+        model.removeModelContentListener(listener);
+        treeViewer.getControl().getShell().dispose();
+    }
+
+    @Test
+    public void renameFolder_RemovedWhenNoLongerMatches() {
+        SearchFilter.Search search = startSearch();
+        searchUntilFound(search, fooFolder);
+        assertTrue(isShown(fooFolder));
+
+        fooFolder.setName("Other Folder");
+        assertFalse(search.isFound(fooFolder));
+        assertFalse(isShown(fooFolder));
+
+        finishSearch(search);
+        assertFalse(isShown(fooFolder));
+        assertTrue(isShown(fooActor));
+        assertTrue(isShown(fooRole));
+    }
+
+    @Test
+    public void renameFolder_KeptWhenChildStillMatches() {
+        barActor.setName("Foo Bar Actor");
+
+        SearchFilter.Search search = startSearch();
+        searchUntilFound(search, barActor);
+
+        fooFolder.setName("Other Folder");
+        assertTrue(search.isFound(fooFolder));
+        assertTrue(isShown(fooFolder));
+        assertTrue(isShown(barActor));
+    }
+
+    @Test
+    public void renameElement_RemovedWithParentsThatNoLongerLeadToMatches() {
+        SearchFilter.Search search = startSearch();
+        searchUntilFound(search, fooActor);
+        assertTrue(isShown(subFolder));
+
+        fooActor.setName("Other Actor");
+        assertFalse(search.isFound(fooActor));
+        assertFalse(search.isFound(subFolder));
+        assertFalse(search.isFound(businessFolder));
+        assertFalse(isShown(subFolder));
+
+        // Business Folder is added again when Foo Folder is found
+        finishSearch(search);
+        assertFalse(isShown(fooActor));
+        assertFalse(isShown(subFolder));
+        assertTrue(isShown(businessFolder));
+        assertTrue(isShown(fooFolder));
+    }
+
+    @Test
+    public void renameElement_AddedWhenMatches() {
+        SearchFilter.Search search = startSearch();
+        searchUntilFound(search, fooFolder);
+
+        // Bar Actor is searched next and not found
+        search.searchNext();
+        assertFalse(search.isFound(barActor));
+
+        barActor.setName("Foo Bar Actor");
+        assertTrue(search.isFound(barActor));
+
+        finishSearch(search);
+        assertTrue(isShown(barActor));
+    }
+
+    @Test
+    public void addElement_Found() {
+        SearchFilter.Search search = startSearch();
+        searchUntilFound(search, fooActor);
+
+        IFolder newFolder = createFolder(subFolder, "New");
+        IArchimateElement newActor = createElement(newFolder, "New Foo Actor");
+        IArchimateElement otherActor = createElement(subFolder, "Other Actor");
+
+        finishSearch(search);
+        assertTrue(isShown(newFolder));
+        assertTrue(isShown(newActor));
+        assertFalse(isShown(otherActor));
+    }
+
+    @Test
+    public void removeElement_ParentsRemovedWhenNoLongerLeadToMatches() {
+        SearchFilter.Search search = startSearch();
+        searchUntilFound(search, fooActor);
+
+        subFolder.getElements().remove(fooActor);
+        assertFalse(search.isFound(fooActor));
+        assertFalse(search.isFound(subFolder));
+        assertFalse(isShown(subFolder));
+
+        finishSearch(search);
+        assertFalse(isShown(subFolder));
+        assertTrue(isShown(fooFolder));
+    }
+
+    @Test
+    public void removeFolder_ContentsNoLongerFound() {
+        SearchFilter.Search search = startSearch();
+        searchUntilFound(search, fooActor);
+
+        businessFolder.getFolders().remove(subFolder);
+        assertFalse(search.isFound(subFolder));
+        assertFalse(search.isFound(fooActor));
+
+        finishSearch(search);
+        assertTrue(isShown(fooFolder));
+        assertTrue(isShown(fooRole));
+    }
+
+    /**
+     * Filter on names containing "foo" and return the search, which is then run a step at a time by the test
+     */
+    private SearchFilter.Search startSearch() {
+        filter.setFilterOnName(true, false);
+        filter.setSearchText("foo");
+
+        // The search is created asynchronously
+        while(filter.getSearch() == null) {
+            Display.getCurrent().readAndDispatch();
+        }
+
+        SearchFilter.Search search = filter.getSearch();
+        assertTrue(search.isRunning());
+        return search;
+    }
+
+    private void searchUntilFound(SearchFilter.Search search, Object element) {
+        while(!search.isFound(element)) {
+            assertTrue(search.isRunning());
+            search.searchNext();
+        }
+
+        search.updateTree();
+    }
+
+    private void finishSearch(SearchFilter.Search search) {
+        while(search.isRunning()) {
+            search.searchNext();
+        }
+
+        search.updateTree();
+    }
+
+    private boolean isShown(Object element) {
+        return treeViewer.testFindItem(element) != null;
+    }
+
+    private IFolder createFolder(IFolder parent, String name) {
+        IFolder folder = IArchimateFactory.eINSTANCE.createFolder();
+        folder.setName(name);
+        parent.getFolders().add(folder);
+        return folder;
+    }
+
+    private IArchimateElement createElement(IFolder parent, String name) {
+        IArchimateElement element = IArchimateFactory.eINSTANCE.createBusinessActor();
+        element.setName(name);
+        parent.getElements().add(element);
+        return element;
+    }
+}
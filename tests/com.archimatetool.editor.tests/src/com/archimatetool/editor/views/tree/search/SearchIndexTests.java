@@ -0,0 +1,118 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.views.tree.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.archimatetool.model.FolderType;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.IProperty;
+
+import junit.framework.JUnit4TestAdapter;
+
+
+@SuppressWarnings("nls")
+public class SearchIndexTests {
+    
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(SearchIndexTests.class);
+    }
+    
+    private IArchimateModel model;
+    private IFolder folder;
+    private IArchimateElement actor, role;
+    private SearchIndex index;
+    
+    @Before
+    public void runOnceBeforeEachTest() {
+        model = IArchimateFactory.eINSTANCE.createArchimateModel();
+        model.setDefaults();
+        folder = model.getFolder(FolderType.BUSINESS);
+        
+        actor = IArchimateFactory.eINSTANCE.createBusinessActor();
+        actor.setName("Customer Actor");
+        actor.setDocumentation("Buys things");
+        folder.getElements().add(actor);
+        
+        role = IArchimateFactory.eINSTANCE.createBusinessRole();
+        role.setName("Sales\nRole");
+        folder.getElements().add(role);
+        
+        index = SearchIndex.getIndex(model);
+    }
+    
+    @Test
+    public void getIndex_IsAttachedToModel() {
+        assertSame(index, SearchIndex.getIndex(model));
+        index.dispose();
+        assertFalse(index == SearchIndex.getIndex(model));
+    }
+    
+    @Test
+    public void findByName() {
+        assertEquals(1, index.findByName("customer").size());
+        assertTrue(index.findByName("CUSTOMER").contains(actor));
+        assertTrue(index.findByName("sales role").contains(role));
+        assertTrue(index.findByName("r").contains(actor));
+        assertTrue(index.findByName("r").contains(role));
+        assertTrue(index.findByName("xyz").isEmpty());
+        assertTrue(index.findByName("Business").contains(folder));
+    }
+    
+    @Test
+    public void findByName_UpdatedFromModel() {
+        assertTrue(index.findByName("customer").contains(actor));
+        
+        actor.setName("Supplier");
+        assertFalse(index.findByName("customer").contains(actor));
+        assertTrue(index.findByName("supplier").contains(actor));
+        
+        folder.getElements().remove(actor);
+        assertFalse(index.findByName("supplier").contains(actor));
+        
+        IFolder subFolder = IArchimateFactory.eINSTANCE.createFolder();
+        subFolder.getElements().add(actor);
+        folder.getFolders().add(subFolder);
+        assertTrue(index.findByName("supplier").contains(actor));
+        
+        folder.getFolders().remove(subFolder);
+        assertFalse(index.findByName("supplier").contains(actor));
+    }
+    
+    @Test
+    public void findByDocumentation() {
+        assertTrue(index.findByDocumentation("things").contains(actor));
+        
+        actor.setDocumentation("Sells stuff");
+        assertFalse(index.findByDocumentation("things").contains(actor));
+        assertTrue(index.findByDocumentation("STUFF").contains(actor));
+    }
+    
+    @Test
+    public void findByPropertyValue() {
+        assertTrue(index.findByPropertyValue("gold").isEmpty());
+        
+        IProperty property = IArchimateFactory.eINSTANCE.createProperty("Level", "Gold");
+        actor.getProperties().add(property);
+        assertTrue(index.findByPropertyValue("gold").contains(actor));
+        
+        property.setValue("Silver");
+        assertFalse(index.findByPropertyValue("gold").contains(actor));
+        assertTrue(index.findByPropertyValue("silver").contains(actor));
+        
+        actor.getProperties().remove(property);
+        assertFalse(index.findByPropertyValue("silver").contains(actor));
+    }
+}